@@ -45,6 +45,7 @@ import com.sun.xml.fastinfoset.stax.StAXDocumentParser;
 import com.sun.xml.fastinfoset.vocab.ParserVocabulary;
 import com.sun.xml.fastinfoset.vocab.SerializerVocabulary;
 import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.fastinfoset.FastInfosetVocabulary;
 import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Messages;
 import com.sun.xml.ws.api.pipe.Codec;
@@ -61,7 +62,12 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.nio.channels.WritableByteChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.namespace.QName;
+import org.jvnet.fastinfoset.ExternalVocabulary;
 import org.jvnet.fastinfoset.FastInfosetSource;
+import org.jvnet.fastinfoset.Vocabulary;
 
 /**
  * A codec for encoding/decoding XML infosets to/from fast
@@ -211,6 +217,53 @@ public class FastInfosetCodec implements Codec {
         return serializer;
     }
     
+    /**
+     * Create a new (@link StAXDocumentSerializer} instance that encodes
+     * documents with an external vocabulary.
+     *
+     * @param out the OutputStream to serialize to.
+     * @param vocabulary the external vocabulary.
+     * @return a new {@link StAXDocumentSerializer} instance.
+     */
+    /* package */ static StAXDocumentSerializer createNewStreamWriter(OutputStream out, FastInfosetVocabulary vocabulary) {
+        StAXDocumentSerializer serializer = new StAXDocumentSerializer(out);
+        /**
+         * The tables of the external vocabulary are read-only, the tables
+         * built while serializing a document are still cleared for each
+         * serialization
+         */
+        serializer.setExternalVocabulary(toExternalVocabulary(vocabulary));
+        return serializer;
+    }
+    
+    /**
+     * Registers an external vocabulary with a parser, unless it is registered already.
+     *
+     * @param parser the parser.
+     * @param vocabulary the external vocabulary.
+     */
+    /* package */ static void registerExternalVocabulary(StAXDocumentParser parser, FastInfosetVocabulary vocabulary) {
+        Map registered = parser.getExternalVocabularies();
+        if (registered != null && registered.containsKey(vocabulary.getURI())) {
+            return;
+        }
+        Map vocabularies = (registered != null) ? new HashMap(registered) : new HashMap();
+        vocabularies.put(vocabulary.getURI(), toExternalVocabulary(vocabulary));
+        parser.setExternalVocabularies(vocabularies);
+    }
+    
+    private static ExternalVocabulary toExternalVocabulary(FastInfosetVocabulary vocabulary) {
+        // the tables are ordered sets, their order determines the indexes
+        Vocabulary v = new Vocabulary();
+        v.prefixes.addAll(vocabulary.getPrefixes());
+        v.namespaceNames.addAll(vocabulary.getNamespaceNames());
+        v.localNames.addAll(vocabulary.getLocalNames());
+        for (QName element : vocabulary.getElements()) {
+            v.elements.add(element);
+        }
+        return new ExternalVocabulary(vocabulary.getURI(), v);
+    }
+    
     /**
      * Create a new (@link StAXDocumentParser} instance.
      *
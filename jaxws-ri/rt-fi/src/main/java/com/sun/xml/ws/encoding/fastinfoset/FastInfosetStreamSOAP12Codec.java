@@ -43,6 +43,7 @@ package com.sun.xml.ws.encoding.fastinfoset;
 import com.sun.xml.ws.api.pipe.ContentType;
 import com.sun.xml.ws.api.pipe.Codec;
 import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.fastinfoset.FastInfosetVocabulary;
 import com.sun.xml.ws.api.pipe.StreamSOAPCodec;
 import com.sun.xml.ws.encoding.ContentTypeImpl;
 import com.sun.xml.ws.message.stream.StreamHeader;
@@ -58,8 +59,8 @@ import javax.xml.stream.XMLStreamReader;
  * @author Paul.Sandoz@Sun.Com
  */
 final class FastInfosetStreamSOAP12Codec extends FastInfosetStreamSOAPCodec {
-    /*package*/ FastInfosetStreamSOAP12Codec(StreamSOAPCodec soapCodec, boolean retainState) {
-        super(soapCodec, SOAPVersion.SOAP_12, retainState, 
+    /*package*/ FastInfosetStreamSOAP12Codec(StreamSOAPCodec soapCodec, boolean retainState, FastInfosetVocabulary vocabulary) {
+        super(soapCodec, SOAPVersion.SOAP_12, retainState, vocabulary, 
                 (retainState) ? FastInfosetMIMETypes.STATEFUL_SOAP_12 : FastInfosetMIMETypes.SOAP_12);
     }
 
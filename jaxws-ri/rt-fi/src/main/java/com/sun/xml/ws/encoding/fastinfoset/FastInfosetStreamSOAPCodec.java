@@ -46,6 +46,7 @@ import com.sun.xml.ws.api.pipe.Codec;
 import com.sun.xml.ws.api.pipe.ContentType;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.fastinfoset.FastInfosetVocabulary;
 import com.sun.xml.ws.api.pipe.StreamSOAPCodec;
 import com.sun.xml.ws.message.stream.StreamHeader;
 import com.sun.xml.stream.buffer.XMLStreamBuffer;
@@ -69,6 +70,14 @@ import java.nio.channels.ReadableByteChannel;
  * This implementation currently defers to {@link StreamSOAPCodec} for the decoding
  * using {@link XMLStreamReader}.
  *
+ * <p>
+ * With a {@link FastInfosetVocabulary}, documents are encoded with that external
+ * vocabulary when the peer is known to have it: on the endpoint, when the request
+ * advertised it in its Accept header; on the client, once the endpoint has sent a
+ * document encoded with it, and until it sends one without it or one that can't
+ * be decoded. Such documents are marked with the
+ * {@link FastInfosetVocabulary#PARAMETER vocabulary parameter} in their content type.
+ *
  * @author Paul Sandoz
  */
 public abstract class FastInfosetStreamSOAPCodec implements Codec {
@@ -76,23 +85,29 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
 
     private StAXDocumentParser _statefulParser;
     private StAXDocumentSerializer _serializer;
+    private StAXDocumentSerializer _vocabularySerializer;
     
     private final StreamSOAPCodec _soapCodec;
     
     private final boolean _retainState;
     
+    private final FastInfosetVocabulary _vocabulary;
+    
     protected final ContentType _defaultContentType;
     
-    /* package */ FastInfosetStreamSOAPCodec(StreamSOAPCodec soapCodec, SOAPVersion soapVersion, boolean retainState, String mimeType) {
+    /* package */ FastInfosetStreamSOAPCodec(StreamSOAPCodec soapCodec, SOAPVersion soapVersion, boolean retainState,
+            FastInfosetVocabulary vocabulary, String mimeType) {
 //        _soapCodec = StreamSOAPCodec.create(soapVersion);
         _soapCodec = soapCodec;
         _retainState = retainState;
+        _vocabulary = vocabulary;
         _defaultContentType = new ContentTypeImpl(mimeType);
     }
     
     /* package */ FastInfosetStreamSOAPCodec(FastInfosetStreamSOAPCodec that) {
         this._soapCodec = (StreamSOAPCodec) that._soapCodec.copy();
         this._retainState = that._retainState;
+        this._vocabulary = that._vocabulary;
         this._defaultContentType = that._defaultContentType;
     }
     
@@ -101,12 +116,13 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
     }
     
     public ContentType getStaticContentType(Packet packet) {
-        return getContentType(packet.soapAction);
+        return getContentType(packet, useVocabulary(packet));
     }
     
     public ContentType encode(Packet packet, OutputStream out) {
+        boolean useVocabulary = useVocabulary(packet);
         if (packet.getMessage() != null) {
-            final XMLStreamWriter writer = getXMLStreamWriter(out);
+            final XMLStreamWriter writer = useVocabulary ? getVocabularyXMLStreamWriter(out) : getXMLStreamWriter(out);
             try {
                 packet.getMessage().writeTo(writer);
                 writer.flush();
@@ -114,7 +130,7 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
                 throw new WebServiceException(e);
             }
         }
-        return getContentType(packet.soapAction);
+        return getContentType(packet, useVocabulary);
     }
     
     public ContentType encode(Packet packet, WritableByteChannel buffer) {
@@ -123,8 +139,25 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
     }
     
     public void decode(InputStream in, String contentType, Packet response) throws IOException {
-        response.setMessage(
-                _soapCodec.decode(getXMLStreamReader(in)));
+        if (_vocabulary != null) {
+            if (_vocabulary.isMarked(contentType)) {
+                // the endpoint has the vocabulary, requests to it may use it from now on
+                _vocabulary.setAcceptedBy(response.getEndPointAddressString());
+            } else {
+                // the endpoint may have been redeployed without it
+                _vocabulary.removeAcceptedBy(response.getEndPointAddressString());
+            }
+        }
+        try {
+            response.setMessage(
+                    _soapCodec.decode(getXMLStreamReader(in)));
+        } catch (RuntimeException e) {
+            if (_vocabulary != null) {
+                // don't keep sending the endpoint documents it may not understand
+                _vocabulary.removeAcceptedBy(response.getEndPointAddressString());
+            }
+            throw e;
+        }
     }
     
     public void decode(ReadableByteChannel in, String contentType, Packet response) {
@@ -135,6 +168,28 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
     
     protected abstract ContentType getContentType(String soapAction);
     
+    private ContentType getContentType(Packet packet, boolean useVocabulary) {
+        ContentType ct = getContentType(packet.soapAction);
+        if (!useVocabulary) {
+            return ct;
+        }
+        return new ContentTypeImpl(ct.getContentType() + _vocabulary.getParameter(), ct.getSOAPActionHeader());
+    }
+    
+    /**
+     * Checks if the peer is known to have the external vocabulary.
+     */
+    private boolean useVocabulary(Packet packet) {
+        if (_vocabulary == null || _retainState) {
+            return false;
+        }
+        if (packet.acceptableMimeTypes != null) {
+            // response of an endpoint
+            return _vocabulary.isMarked(packet.acceptableMimeTypes);
+        }
+        return _vocabulary.isAcceptedBy(packet.getEndPointAddressString());
+    }
+    
     private XMLStreamWriter getXMLStreamWriter(OutputStream out) {
         if (_serializer != null) {
             _serializer.setOutputStream(out);
@@ -144,6 +199,15 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
         }
     }
     
+    private XMLStreamWriter getVocabularyXMLStreamWriter(OutputStream out) {
+        if (_vocabularySerializer != null) {
+            _vocabularySerializer.setOutputStream(out);
+            return _vocabularySerializer;
+        } else {
+            return _vocabularySerializer = FastInfosetCodec.createNewStreamWriter(out, _vocabulary);
+        }
+    }
+    
     private XMLStreamReader getXMLStreamReader(InputStream in) {
         // If the _retainState is true (FI stateful) then pick up Codec assiciated XMLStreamReader
         if (_retainState) {
@@ -156,7 +220,11 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
         }
         
         // Otherwise thread assiciated XMLStreamReader
-        return READER_FACTORY.doCreate(null, in, false);
+        XMLStreamReader reader = READER_FACTORY.doCreate(null, in, false);
+        if (_vocabulary != null) {
+            FastInfosetCodec.registerExternalVocabulary((StAXDocumentParser) reader, _vocabulary);
+        }
+        return reader;
     }
     
     /**
@@ -179,14 +247,30 @@ public abstract class FastInfosetStreamSOAPCodec implements Codec {
      */
     public static FastInfosetStreamSOAPCodec create(StreamSOAPCodec soapCodec,
             SOAPVersion version, boolean retainState) {
+        return create(soapCodec, version, retainState, null);
+    }
+    
+    /**
+     * Creates a new {@link FastInfosetStreamSOAPCodec} instance.
+     *
+     * @param version the SOAP version of the codec.
+     * @param retainState if true the Codec should retain the state of
+     *        vocabulary tables for multiple encode/decode invocations.
+     * @param vocabulary the external vocabulary to encode documents with
+     *        when the peer has it too, may be null. Not used when
+     *        retainState is true.
+     * @return a new {@link FastInfosetStreamSOAPCodec} instance.
+     */
+    public static FastInfosetStreamSOAPCodec create(StreamSOAPCodec soapCodec,
+            SOAPVersion version, boolean retainState, FastInfosetVocabulary vocabulary) {
         if(version==null)
             // this decoder is for SOAP, not for XML/HTTP
             throw new IllegalArgumentException();
         switch(version) {
             case SOAP_11:
-                return new FastInfosetStreamSOAP11Codec(soapCodec, retainState);
+                return new FastInfosetStreamSOAP11Codec(soapCodec, retainState, vocabulary);
             case SOAP_12:
-                return new FastInfosetStreamSOAP12Codec(soapCodec, retainState);
+                return new FastInfosetStreamSOAP12Codec(soapCodec, retainState, vocabulary);
             default:
                 throw new AssertionError();
         }
@@ -0,0 +1,177 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding.fastinfoset;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.fastinfoset.FastInfosetVocabulary;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.model.wsdl.WSDLPort;
+import com.sun.xml.ws.api.pipe.Codecs;
+import com.sun.xml.ws.api.pipe.ContentType;
+import com.sun.xml.ws.api.pipe.StreamSOAPCodec;
+import com.sun.xml.ws.util.xml.XmlUtil;
+import com.sun.xml.ws.wsdl.parser.RuntimeWSDLParser;
+
+import junit.framework.TestCase;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.WebServiceException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.net.URL;
+
+/**
+ * Encodes and decodes documents with an external vocabulary, the way
+ * a client and an endpoint that share the WSDL do.
+ */
+public class FastInfosetVocabularyCodecTest extends TestCase {
+
+    private static final URL WSDL_URL = FastInfosetVocabularyCodecTest.class.getResource("hello.wsdl");
+    private static final QName SERVICE_NAME = new QName("urn:test", "Hello");
+    private static final QName PORT_NAME = new QName("urn:test", "HelloPort");
+    private static final String ADDRESS = "http://localhost:8080/hello";
+    private static final String PAYLOAD = "<Hello xmlns='urn:test:types'>world</Hello>";
+
+    private FastInfosetVocabulary vocabulary;
+    private FastInfosetStreamSOAPCodec client;
+    private FastInfosetStreamSOAPCodec endpoint;
+
+    @Override
+    protected void setUp() throws Exception {
+        WSDLPort port = RuntimeWSDLParser.parse(WSDL_URL, new StreamSource(WSDL_URL.toExternalForm()),
+                XmlUtil.createDefaultCatalogResolver(), false, null).getService(SERVICE_NAME).get(PORT_NAME);
+        vocabulary = FastInfosetVocabulary.create(port, SOAPVersion.SOAP_11);
+        client = create(vocabulary);
+        endpoint = create(vocabulary);
+    }
+
+    private static FastInfosetStreamSOAPCodec create(FastInfosetVocabulary vocabulary) {
+        StreamSOAPCodec soapCodec = Codecs.createSOAPEnvelopeXmlCodec(SOAPVersion.SOAP_11);
+        return FastInfosetStreamSOAPCodec.create(soapCodec, SOAPVersion.SOAP_11, false, vocabulary);
+    }
+
+    private static Packet request() {
+        Packet packet = new Packet(Messages.createUsingPayload(
+                new StreamSource(new StringReader(PAYLOAD)), SOAPVersion.SOAP_11));
+        packet.setEndPointAddressString(ADDRESS);
+        return packet;
+    }
+
+    private static Packet response(String accept) {
+        Packet packet = new Packet(Messages.createUsingPayload(
+                new StreamSource(new StringReader(PAYLOAD)), SOAPVersion.SOAP_11));
+        packet.acceptableMimeTypes = accept;
+        return packet;
+    }
+
+    /**
+     * Sends the response of the endpoint to the client.
+     */
+    private Packet respond(Packet response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContentType ct = endpoint.encode(response, out);
+        Packet received = new Packet();
+        received.setEndPointAddressString(ADDRESS);
+        client.decode(new ByteArrayInputStream(out.toByteArray()), ct.getContentType(), received);
+        return received;
+    }
+
+    private static void assertPayload(Message message) throws Exception {
+        assertEquals("urn:test:types", message.getPayloadNamespaceURI());
+        assertEquals("Hello", message.getPayloadLocalPart());
+        assertEquals("world", message.readPayload().getElementText());
+    }
+
+    public void testRoundTrip() throws Exception {
+        // the client doesn't know yet that the endpoint has the vocabulary
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ContentType ct = client.encode(request(), plain);
+        assertFalse(vocabulary.isMarked(ct.getContentType()));
+
+        // the endpoint answers with it, as the Accept header advertised it
+        Packet received = respond(response("application/fastinfoset" + vocabulary.getParameter()));
+        assertPayload(received.getMessage());
+        assertTrue(vocabulary.isAcceptedBy(ADDRESS));
+
+        // the requests use it from now on
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ct = client.encode(request(), out);
+        assertTrue(vocabulary.isMarked(ct.getContentType()));
+        assertTrue(out.size() < plain.size());
+
+        Packet decoded = new Packet();
+        endpoint.decode(new ByteArrayInputStream(out.toByteArray()), ct.getContentType(), decoded);
+        assertPayload(decoded.getMessage());
+    }
+
+    public void testResponseWithoutVocabularyIsRemembered() throws Exception {
+        respond(response("application/fastinfoset" + vocabulary.getParameter()));
+        assertTrue(vocabulary.isAcceptedBy(ADDRESS));
+
+        // say the endpoint got redeployed with another WSDL
+        Packet received = respond(response("application/fastinfoset"));
+        assertPayload(received.getMessage());
+        assertFalse(vocabulary.isAcceptedBy(ADDRESS));
+
+        ContentType ct = client.encode(request(), new ByteArrayOutputStream());
+        assertFalse(vocabulary.isMarked(ct.getContentType()));
+    }
+
+    public void testUndecodableResponseIsRemembered() throws Exception {
+        respond(response("application/fastinfoset" + vocabulary.getParameter()));
+        assertTrue(vocabulary.isAcceptedBy(ADDRESS));
+
+        Packet received = new Packet();
+        received.setEndPointAddressString(ADDRESS);
+        try {
+            client.decode(new ByteArrayInputStream(new byte[]{(byte) 0xE0, 0, 0, 1, 0x7F}),
+                    "application/fastinfoset" + vocabulary.getParameter(), received);
+            fail();
+        } catch (WebServiceException e) {
+            // expected
+        }
+        assertFalse(vocabulary.isAcceptedBy(ADDRESS));
+    }
+}
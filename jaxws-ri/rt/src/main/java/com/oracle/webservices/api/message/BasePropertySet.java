@@ -43,9 +43,15 @@ package com.oracle.webservices.api.message;
 import com.sun.istack.NotNull;
 import com.sun.istack.Nullable;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.AbstractMap;
@@ -54,6 +60,10 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 
 /**
@@ -135,6 +145,34 @@ public abstract class BasePropertySet implements PropertySet {
      */
     protected abstract PropertyMap getPropertyMap();
 
+    private static final Logger LOGGER = Logger.getLogger(BasePropertySet.class.getName());
+
+    /**
+     * If true, {@link #parse(Class)} creates accessors that call the annotated
+     * methods through {@link LambdaMetafactory} rather than through reflection.
+     * Annotated fields are still accessed through reflection:
+     * {@link LambdaMetafactory} only takes handles to methods, and a
+     * {@link MethodHandle} held in an accessor isn't a constant to the JIT,
+     * so it is no faster than {@link Field#get(Object)}.
+     *
+     * <p>
+     * Set by the {@code com.oracle.webservices.api.message.BasePropertySet.generatedAccessors}
+     * system property, which needs to be set before the first {@link PropertySet}
+     * class (such as {@code Packet}) is initialized.
+     */
+    static final boolean GENERATED_ACCESSORS;
+
+    static {
+        boolean b = false;
+        try {
+            b = Boolean.getBoolean(BasePropertySet.class.getName() + ".generatedAccessors");
+        } catch (SecurityException se) {
+            LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                    BasePropertySet.class.getName() + ".generatedAccessors");
+        }
+        GENERATED_ACCESSORS = b;
+    }
+
     /**
      * This method parses a class for fields and methods with {@link PropertySet.Property}.
      */
@@ -169,7 +207,7 @@ public abstract class BasePropertySet implements PropertySet {
                                 setter = null; // no setter
                             }
                             for(String value : cp.value()) {
-                                props.put(value, new MethodAccessor(m, setter, value));
+                                props.put(value, createMethodAccessor(m, setter, value));
                             }
                         }
                     }
@@ -180,6 +218,25 @@ public abstract class BasePropertySet implements PropertySet {
         });
     }
 
+    private static Accessor createMethodAccessor(Method getter, Method setter, String name) {
+        if (GENERATED_ACCESSORS && GeneratedMethodAccessor.isApplicable(getter)
+                && (setter == null || GeneratedMethodAccessor.isApplicable(setter))) {
+            try {
+                return new GeneratedMethodAccessor(getter, setter, name);
+            } catch (Throwable t) {
+                LOGGER.log(Level.FINE, "Falling back to reflection for " + getter, t);
+            }
+        }
+        return new MethodAccessor(getter, setter, name);
+    }
+
+    /**
+     * Boxed counterpart of the given type, so that {@link Class#isInstance(Object)} works for primitives.
+     */
+    private static Class<?> boxed(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
     /**
      * Represents a typed property defined on a {@link PropertySet}.
      */
@@ -236,6 +293,106 @@ public abstract class BasePropertySet implements PropertySet {
         }
     }
 
+    /**
+     * {@link Accessor} that calls the getter and setter through functions
+     * spun by {@link LambdaMetafactory}, which amounts to a direct call.
+     *
+     * <p>
+     * Only usable for public methods of public classes whose signature is
+     * visible from the class loader of this class, since the functions
+     * are linked on behalf of this class.
+     */
+    static final class GeneratedMethodAccessor implements Accessor {
+        private final @NotNull Function<Object,Object> getter;
+        private final @Nullable BiConsumer<Object,Object> setter;
+        private final @Nullable Class<?> setterType;
+        private final @Nullable Class<?> boxedSetterType;
+        private final String name;
+
+        static boolean isApplicable(Method m) {
+            if (!Modifier.isPublic(m.getModifiers()) || !Modifier.isPublic(m.getDeclaringClass().getModifiers())
+                    || Modifier.isStatic(m.getModifiers())) {
+                return false;
+            }
+            if (!isVisible(m.getDeclaringClass()) || !isVisible(m.getReturnType())) {
+                return false;
+            }
+            for (Class<?> p : m.getParameterTypes()) {
+                if (!isVisible(p)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isVisible(Class<?> c) {
+            if (c.isPrimitive()) {
+                return true;
+            }
+            try {
+                return Class.forName(c.getName(), false, BasePropertySet.class.getClassLoader()) == c;
+            } catch (ClassNotFoundException e) {
+                return false;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        GeneratedMethodAccessor(Method getter, Method setter, String name) throws Throwable {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            MethodHandle g = lookup.unreflect(getter);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    g, MethodType.methodType(boxed(getter.getReturnType()), getter.getDeclaringClass()));
+            this.getter = (Function<Object,Object>) site.getTarget().invoke();
+
+            if (setter != null) {
+                Class<?> type = setter.getParameterTypes()[0];
+                MethodHandle s = lookup.unreflect(setter);
+                site = LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        s, MethodType.methodType(void.class, setter.getDeclaringClass(), boxed(type)));
+                this.setter = (BiConsumer<Object,Object>) site.getTarget().invoke();
+                this.setterType = type;
+                this.boxedSetterType = boxed(type);
+            } else {
+                this.setter = null;
+                this.setterType = null;
+                this.boxedSetterType = null;
+            }
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean hasValue(PropertySet props) {
+            return get(props)!=null;
+        }
+
+        @Override
+        public Object get(PropertySet props) {
+            return getter.apply(props);
+        }
+
+        @Override
+        public void set(PropertySet props, Object value) {
+            if(setter==null) {
+                throw new ReadOnlyPropertyException(getName());
+            }
+            // same failure as Method.invoke(), rather than a ClassCastException or NPE from the function
+            if (value == null ? setterType.isPrimitive() : !boxedSetterType.isInstance(value)) {
+                throw new IllegalArgumentException("Cannot set property " + name + " to " + value);
+            }
+            setter.accept(props, value);
+        }
+    }
+
     static final class MethodAccessor implements Accessor {
         /**
          * Getter method.
@@ -61,6 +61,12 @@ import org.glassfish.gmbal.ManagedData;
  * <p>
  * If this feature is not present on a Web service then the default behaviour
  * is equivalent to this feature being present and enabled.
+ * <p>
+ * With {@link #isExternalVocabulary() external vocabulary} on, both the client
+ * and the endpoint derive a {@link FastInfosetVocabulary} from the WSDL of the
+ * port, and encode Fast Infoset documents with it once they know that the peer
+ * has it too. The names of the envelope, operations and payloads then no longer
+ * need to be spelled out in each message.
  * @author Paul.Sandoz@Sun.Com
  */
 @ManagedData
@@ -70,6 +76,8 @@ public class FastInfosetFeature extends WebServiceFeature {
      */
     public static final String ID = "http://java.sun.com/xml/ns/jaxws/fastinfoset";
 
+    private boolean externalVocabulary;
+
     /**
      * Create a {@link FastInfosetFeature}. The instance created will be enabled.
      */
@@ -88,6 +96,19 @@ public class FastInfosetFeature extends WebServiceFeature {
         this.enabled = enabled;
     }
 
+    /**
+     * Create a {@link FastInfosetFeature}
+     *
+     * @param enabled specifies whether this feature should
+     *                be enabled or not.
+     * @param externalVocabulary specifies whether Fast Infoset documents
+     *                should be encoded with the external vocabulary of the port.
+     */
+    public FastInfosetFeature(boolean enabled, boolean externalVocabulary) {
+        this.enabled = enabled;
+        this.externalVocabulary = externalVocabulary;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -95,4 +116,17 @@ public class FastInfosetFeature extends WebServiceFeature {
     public String getID() {
         return ID;
     }
+
+    /**
+     * Whether Fast Infoset documents are encoded with the
+     * {@link FastInfosetVocabulary external vocabulary} of the port.
+     */
+    @ManagedAttribute
+    public boolean isExternalVocabulary() {
+        return externalVocabulary;
+    }
+
+    public void setExternalVocabulary(boolean externalVocabulary) {
+        this.externalVocabulary = externalVocabulary;
+    }
 }
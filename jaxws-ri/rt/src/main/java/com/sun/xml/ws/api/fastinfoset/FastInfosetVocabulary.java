@@ -0,0 +1,321 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.api.fastinfoset;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.model.wsdl.WSDLBoundFault;
+import com.sun.xml.ws.api.model.wsdl.WSDLBoundOperation;
+import com.sun.xml.ws.api.model.wsdl.WSDLPort;
+import com.sun.xml.ws.util.DigestUtil;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fast Infoset external vocabulary of a WSDL port.
+ *
+ * <p>
+ * Holds the prefixes, namespace names, local names and element names that the
+ * messages of the port are bound to contain: those of the SOAP envelope and of
+ * WS-Addressing headers, and the names of the operations, payloads and faults of
+ * the port. A Fast Infoset document encoded with the vocabulary refers to these
+ * names by index instead of spelling them out.
+ *
+ * <p>
+ * The names of the elements and attributes nested in the payloads are not in the
+ * vocabulary. They are declared by the schemas of the WSDL, which the runtime
+ * WSDL model doesn't keep: {@link com.sun.xml.ws.wsdl.parser.RuntimeWSDLParser}
+ * skips the types of the WSDL and doesn't follow schema imports, and the schemas an
+ * endpoint generates only exist in its service definition. Reading them again from
+ * the system id of the WSDL would work on the client but not on such an endpoint,
+ * so the two vocabularies would differ and never be used. Those names are encoded
+ * as they are met instead, and each document indexes them after their first occurrence.
+ *
+ * <p>
+ * Both peers derive the vocabulary from the WSDL of the port, so it never goes
+ * over the wire. Its {@link #getURI() URI} is computed from its content, so that
+ * peers with different WSDLs never mistake each other's vocabulary for their own.
+ * A client advertises the URI in the Fast Infoset media type of its Accept header;
+ * the endpoint only encodes its responses with the vocabulary when the URI matches,
+ * marking them with the same parameter, and the client only encodes its requests
+ * with the vocabulary once the endpoint address has done so, and as long as its
+ * responses keep doing so.
+ *
+ * @see FastInfosetFeature#isExternalVocabulary()
+ * @since 2.3.0
+ */
+public final class FastInfosetVocabulary {
+
+    /**
+     * Name of the media type parameter that carries the URI of the vocabulary.
+     */
+    public static final String PARAMETER = "fi-vocabulary";
+
+    /**
+     * Every document encoded with the vocabulary carries its URI, so it is kept short.
+     */
+    private static final String URI_PREFIX = "urn:jaxws:fi:";
+
+    /**
+     * Bytes of the digest of the content that go into the URI.
+     */
+    private static final int DIGEST_LENGTH = 12;
+
+    private static final Map<WSDLPort, FastInfosetVocabulary> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<WSDLPort, FastInfosetVocabulary>());
+
+    private static final Comparator<QName> QNAME_ORDER = new Comparator<QName>() {
+        public int compare(QName o1, QName o2) {
+            int r = o1.getNamespaceURI().compareTo(o2.getNamespaceURI());
+            if (r == 0) {
+                r = o1.getLocalPart().compareTo(o2.getLocalPart());
+            }
+            if (r == 0) {
+                r = o1.getPrefix().compareTo(o2.getPrefix());
+            }
+            return r;
+        }
+    };
+
+    private final SOAPVersion soapVersion;
+    private final String uri;
+    private final SortedSet<String> prefixes = new TreeSet<String>();
+    private final SortedSet<String> namespaceNames = new TreeSet<String>();
+    private final SortedSet<String> localNames = new TreeSet<String>();
+    private final SortedSet<QName> elements = new TreeSet<QName>(QNAME_ORDER);
+
+    /**
+     * Endpoint addresses that encoded a response with this vocabulary.
+     */
+    private final Set<String> acceptedBy =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private FastInfosetVocabulary(SOAPVersion soapVersion, WSDLPort port) {
+        this.soapVersion = soapVersion;
+
+        prefixes.add("S");
+        namespaceNames.add(soapVersion.nsUri);
+        for (String name : new String[]{"Envelope", "Header", "Body", "Fault"}) {
+            elements.add(new QName(soapVersion.nsUri, name, "S"));
+        }
+        if (soapVersion == SOAPVersion.SOAP_11) {
+            addLocalNames("faultcode", "faultstring", "faultactor", "detail");
+        } else {
+            addLocalNames("Code", "Value", "Subcode", "Reason", "Text", "Node", "Role", "Detail");
+        }
+        addLocalNames(soapVersion.roleAttributeName, "mustUnderstand");
+
+        namespaceNames.add(AddressingVersion.W3C.nsUri);
+        addLocalNames("To", "From", "Action", "MessageID", "RelatesTo", "ReplyTo", "FaultTo",
+                "Address", "ReferenceParameters", "IsReferenceParameter");
+
+        prefixes.add("xsi");
+        namespaceNames.add(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+        addLocalNames("type", "nil");
+
+        // only the payload roots: the names nested in them are declared by
+        // schemas that the WSDL model doesn't keep
+        for (WSDLBoundOperation operation : port.getBinding().getBindingOperations()) {
+            addName(operation.getName());
+            addName(operation.getRequestPayloadName());
+            addName(operation.getResponsePayloadName());
+            for (WSDLBoundFault fault : operation.getFaults()) {
+                addName(fault.getQName());
+            }
+        }
+
+        this.uri = URI_PREFIX + digest();
+    }
+
+    /**
+     * Gets the vocabulary of a WSDL port.
+     */
+    public static @NotNull FastInfosetVocabulary create(@NotNull WSDLPort port, @NotNull SOAPVersion soapVersion) {
+        FastInfosetVocabulary v = CACHE.get(port);
+        if (v == null || v.soapVersion != soapVersion) {
+            v = new FastInfosetVocabulary(soapVersion, port);
+            CACHE.put(port, v);
+        }
+        return v;
+    }
+
+    private void addLocalNames(String... names) {
+        Collections.addAll(localNames, names);
+    }
+
+    private void addName(@Nullable QName name) {
+        if (name == null) {
+            return;
+        }
+        if (name.getNamespaceURI().length() > 0) {
+            namespaceNames.add(name.getNamespaceURI());
+        }
+        localNames.add(name.getLocalPart());
+    }
+
+    /**
+     * Hex SHA-256 of the content of the vocabulary, in table order, truncated
+     * to {@link #DIGEST_LENGTH} bytes.
+     */
+    private String digest() {
+        MessageDigest md = DigestUtil.sha256();
+        update(md, prefixes);
+        update(md, namespaceNames);
+        update(md, localNames);
+        for (QName e : elements) {
+            update(md, e.getPrefix());
+            update(md, e.getNamespaceURI());
+            update(md, e.getLocalPart());
+        }
+        return DigestUtil.toHex(md.digest(), DIGEST_LENGTH);
+    }
+
+    private static void update(MessageDigest md, Set<String> table) {
+        for (String s : table) {
+            update(md, s);
+        }
+        md.update((byte) 1);
+    }
+
+    private static void update(MessageDigest md, String s) {
+        try {
+            md.update(s.getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+        md.update((byte) 0);
+    }
+
+    /**
+     * URI that identifies the vocabulary in Fast Infoset documents and media types.
+     */
+    public @NotNull String getURI() {
+        return uri;
+    }
+
+    public @NotNull SOAPVersion getSOAPVersion() {
+        return soapVersion;
+    }
+
+    /**
+     * Prefix table, in index order.
+     */
+    public @NotNull Set<String> getPrefixes() {
+        return Collections.unmodifiableSet(prefixes);
+    }
+
+    /**
+     * Namespace name table, in index order.
+     */
+    public @NotNull Set<String> getNamespaceNames() {
+        return Collections.unmodifiableSet(namespaceNames);
+    }
+
+    /**
+     * Local name table, in index order.
+     */
+    public @NotNull Set<String> getLocalNames() {
+        return Collections.unmodifiableSet(localNames);
+    }
+
+    /**
+     * Element name table, in index order.
+     */
+    public @NotNull Set<QName> getElements() {
+        return Collections.unmodifiableSet(elements);
+    }
+
+    /**
+     * Media type parameter that marks a document encoded with this vocabulary,
+     * starting with a ';'.
+     */
+    public @NotNull String getParameter() {
+        return ';' + PARAMETER + "=\"" + uri + '"';
+    }
+
+    /**
+     * Checks if a media type, or an Accept header, carries the URI of this vocabulary.
+     */
+    public boolean isMarked(@Nullable String contentType) {
+        return contentType != null && contentType.indexOf(uri) != -1;
+    }
+
+    /**
+     * Records that the endpoint at the given address encoded a response with
+     * this vocabulary, so that requests to it can be encoded with it as well.
+     */
+    public void setAcceptedBy(@Nullable String endpointAddress) {
+        if (endpointAddress != null) {
+            acceptedBy.add(endpointAddress);
+        }
+    }
+
+    /**
+     * Forgets that the endpoint at the given address encoded a response with
+     * this vocabulary, so that requests to it are encoded without it again
+     * until it does so anew.
+     */
+    public void removeAcceptedBy(@Nullable String endpointAddress) {
+        if (endpointAddress != null) {
+            acceptedBy.remove(endpointAddress);
+        }
+    }
+
+    /**
+     * Checks if the endpoint at the given address decodes documents encoded with this vocabulary.
+     */
+    public boolean isAcceptedBy(@Nullable String endpointAddress) {
+        return endpointAddress != null && acceptedBy.contains(endpointAddress);
+    }
+}
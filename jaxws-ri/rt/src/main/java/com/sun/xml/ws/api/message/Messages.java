@@ -58,6 +58,8 @@ import com.sun.xml.ws.message.stream.PayloadStreamReaderMessage;
 import com.sun.xml.ws.message.jaxb.JAXBMessage;
 import com.sun.xml.ws.message.source.PayloadSourceMessage;
 import com.sun.xml.ws.message.source.ProtocolSourceMessage;
+import com.sun.xml.ws.message.source.StreamWriterSourceMessage;
+import com.sun.xml.ws.developer.StreamWriterSource;
 import com.sun.xml.ws.spi.db.BindingContextFactory;
 import com.sun.xml.ws.streaming.XMLStreamReaderException;
 import com.sun.xml.ws.streaming.XMLStreamReaderUtil;
@@ -185,6 +187,8 @@ public abstract class Messages {
             if (ss.getInputSource() == null && ss.getXMLReader() == null) {
                 return new EmptyMessageImpl(ver);
             }
+        } else if (payload instanceof StreamWriterSource) {
+            return new StreamWriterSourceMessage((StreamWriterSource) payload, ver);
         }
         return new PayloadSourceMessage(payload, ver);
     }
@@ -108,7 +108,7 @@ public class ClientTubeAssemblerContext {
                                       @NotNull WSService rootOwner, @NotNull WSBinding binding,
                                       @NotNull Container container) {
         // WSBinding is actually BindingImpl
-        this(address, wsdlModel, rootOwner, binding, container, ((BindingImpl)binding).createCodec() );
+        this(address, wsdlModel, rootOwner, binding, container, ((BindingImpl)binding).createCodec(wsdlModel) );
     }
 
     /**
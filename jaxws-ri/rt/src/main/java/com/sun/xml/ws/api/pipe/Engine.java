@@ -40,11 +40,18 @@
 
 package com.sun.xml.ws.api.pipe;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import com.sun.xml.ws.api.WSFeatureList;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.server.Container;
 import com.sun.xml.ws.api.server.ContainerResolver;
@@ -53,10 +60,45 @@ import com.sun.xml.ws.api.server.ContainerResolver;
  * Collection of {@link Fiber}s.
  * Owns an {@link Executor} to run them.
  *
+ * <p>
+ * When no {@link Executor} is set, fibers run on a cached pool of daemon
+ * threads. If the {@value #VIRTUAL_THREADS_PROPERTY} system property is set to
+ * {@code true} (or the binding has {@link VirtualThreadsFeature}), and the
+ * JVM supports virtual threads, each fiber run gets its own virtual thread
+ * instead, so tubes that block (such as the HTTP transport) no longer tie up
+ * platform threads.
+ *
  * @author Kohsuke Kawaguchi
  * @author Jitendra Kotamraju
  */
 public class Engine {
+    /**
+     * System property that makes engines without an explicit {@link Executor}
+     * run fibers on virtual threads.
+     */
+    public static final String VIRTUAL_THREADS_PROPERTY = "com.sun.xml.ws.api.pipe.Engine.virtualThreads";
+
+    private static final Logger LOGGER = Logger.getLogger(Engine.class.getName());
+
+    private static final boolean useVirtualThreads = Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY);
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}, looked up reflectively
+     * since the runtime is compiled for JDKs that don't have it. Null if unavailable.
+     */
+    private static final Method newVirtualThreadPerTaskExecutor;
+    static {
+        Method m = null;
+        try {
+            m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            // virtual threads are not supported by this JVM
+        } catch (SecurityException e) {
+            LOGGER.log(Level.FINE, "Cannot look up virtual thread support", e);
+        }
+        newVirtualThreadPerTaskExecutor = m;
+    }
+
     private volatile Executor threadPool;
     public final String id;
     private final Container container;
@@ -90,11 +132,58 @@ public class Engine {
     void addRunnable(Fiber fiber) {
         if(threadPool==null) {
             synchronized(this) {
-                threadPool = wrap(Executors.newCachedThreadPool(new DaemonThreadFactory()));
+                if (threadPool == null) {
+                    threadPool = wrap(createDefaultExecutor(useVirtualThreads));
+                }
             }
         }
         threadPool.execute(fiber);
     }
+
+    /**
+     * Makes this engine run fibers on virtual threads if the features have
+     * {@link VirtualThreadsFeature} and no {@link Executor} was set.
+     */
+    public void configureExecutor(@NotNull WSFeatureList features) {
+        if (threadPool == null && features.isEnabled(VirtualThreadsFeature.class)) {
+            setExecutor(newVirtualThreadExecutor());
+        }
+    }
+
+    /**
+     * The executor used when none is set: virtual threads if asked for and
+     * supported, a cached pool of daemon threads otherwise.
+     */
+    static Executor createDefaultExecutor(boolean virtualThreads) {
+        Executor ex = virtualThreads ? newVirtualThreadExecutor() : null;
+        return ex != null ? ex : Executors.newCachedThreadPool(new DaemonThreadFactory());
+    }
+
+    /**
+     * Creates an {@link Executor} that runs each task on a new virtual thread.
+     *
+     * @return
+     *      null if the JVM doesn't support virtual threads.
+     */
+    public static @Nullable Executor newVirtualThreadExecutor() {
+        if (newVirtualThreadPerTaskExecutor == null) {
+            return null;
+        }
+        try {
+            return (Executor) newVirtualThreadPerTaskExecutor.invoke(null);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Cannot create virtual thread executor, falling back to platform threads", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return
+     *      true if {@link #newVirtualThreadExecutor()} can create an executor.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return newVirtualThreadPerTaskExecutor != null;
+    }
     
     private Executor wrap(Executor ex) {
         return ContainerResolver.getDefault().wrapExecutor(container, ex);
@@ -51,12 +51,16 @@ import com.sun.xml.ws.api.pipe.helper.PipeAdapter;
 import com.sun.xml.ws.api.server.ServerPipelineHook;
 import com.sun.xml.ws.api.server.WSEndpoint;
 import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.AdmissionControlFeature;
+import com.sun.xml.ws.developer.ResponseCacheFeature;
 import com.sun.xml.ws.developer.SchemaValidationFeature;
 import com.sun.xml.ws.handler.HandlerTube;
 import com.sun.xml.ws.handler.ServerLogicalHandlerTube;
 import com.sun.xml.ws.handler.ServerMessageHandlerTube;
 import com.sun.xml.ws.handler.ServerSOAPHandlerTube;
 import com.sun.xml.ws.protocol.soap.ServerMUTube;
+import com.sun.xml.ws.server.AdmissionControlTube;
+import com.sun.xml.ws.server.ResponseCacheTube;
 import com.sun.xml.ws.server.ServerSchemaValidationTube;
 import com.sun.xml.ws.util.pipe.DumpTube;
 
@@ -90,7 +94,7 @@ public class ServerTubeAssemblerContext {
         // WSBinding is actually BindingImpl
         this.binding = (BindingImpl)endpoint.getBinding();
         this.isSynchronous = isSynchronous;
-        this.codec = this.binding.createCodec();
+        this.codec = this.binding.createCodec(wsdlModel);
     }
 
     /**
@@ -219,6 +223,30 @@ public class ServerTubeAssemblerContext {
             return next;
     }
 
+    /**
+     * Creates a {@link Tube} that answers requests from a cache of responses,
+     * if {@link ResponseCacheFeature} is enabled.
+     */
+    public Tube createResponseCacheTube(Tube next) {
+        ResponseCacheFeature feature = binding.getFeature(ResponseCacheFeature.class);
+        if (binding instanceof SOAPBinding && feature != null && feature.isEnabled())
+            return new ResponseCacheTube(feature, binding, wsdlModel, seiModel, next);
+        else
+            return next;
+    }
+
+    /**
+     * Creates a {@link Tube} that caps the number of requests processed at a time,
+     * if {@link AdmissionControlFeature} is enabled.
+     */
+    public Tube createAdmissionControlTube(Tube next) {
+        AdmissionControlFeature feature = binding.getFeature(AdmissionControlFeature.class);
+        if (binding instanceof SOAPBinding && feature != null && feature.isEnabled())
+            return new AdmissionControlTube(feature, binding, wsdlModel, seiModel, next);
+        else
+            return next;
+    }
+
     /**
      * Creates WS-Addressing pipe
      */
@@ -44,6 +44,8 @@ import com.sun.istack.NotNull;
 import com.sun.istack.Nullable;
 import com.sun.xml.ws.api.EndpointAddress;
 import com.sun.xml.ws.api.pipe.helper.PipeAdapter;
+import com.sun.xml.ws.developer.AsyncHttpTransportFeature;
+import com.sun.xml.ws.transport.http.client.AsyncHttpTransportPipe;
 import com.sun.xml.ws.transport.http.client.HttpTransportPipe;
 import com.sun.xml.ws.util.ServiceFinder;
 import com.sun.xml.ws.util.pipe.StandaloneTubeAssembler;
@@ -168,6 +170,9 @@ public abstract class TransportTubeFactory {
     }
     
     protected Tube createHttpTransport(ClientTubeAssemblerContext context) {
+        if (context.getBinding().isFeatureEnabled(AsyncHttpTransportFeature.class)) {
+            return new AsyncHttpTransportPipe(context.getCodec(), context.getBinding());
+        }
         return new HttpTransportPipe(context.getCodec(), context.getBinding());
     }
 
@@ -45,6 +45,7 @@ import com.sun.xml.ws.api.Component;
 import com.sun.xml.ws.api.pipe.Codec;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.server.WSEndpoint.PipeHead;
+import com.sun.xml.ws.developer.PoolingFeature;
 import com.sun.xml.ws.util.Pool;
 
 /**
@@ -117,11 +118,7 @@ public abstract class Adapter<TK extends Adapter.Toolkit>
      * an object out of the pool, you must make sure that it is recycled by the
      * same instance of the pool.
      */
-    protected volatile Pool<TK> pool = new Pool<TK>() {
-        protected TK create() {
-            return createToolkit();
-        }
-    };
+    protected volatile Pool<TK> pool;
 
     /**
      * Creates an {@link Adapter} that delivers
@@ -130,6 +127,7 @@ public abstract class Adapter<TK extends Adapter.Toolkit>
     protected Adapter(WSEndpoint endpoint) {
         assert endpoint!=null;
         this.endpoint = endpoint;
+        this.pool = newPool();
         // Enables other components to reconfigure this adapter
         endpoint.getComponents().add(getEndpointComponent());
     }
@@ -149,7 +147,11 @@ public abstract class Adapter<TK extends Adapter.Toolkit>
      * The pool instance needs to be recreated to prevent reuse of old Toolkit instances.
      */
     public void reconfigure() {
-        this.pool = new Pool<TK>() {
+        this.pool = newPool();
+    }
+
+    private Pool<TK> newPool() {
+        return new Pool<TK>(endpoint.getBinding().getFeature(PoolingFeature.class)) {
             protected TK create() {
                 return createToolkit();
             }
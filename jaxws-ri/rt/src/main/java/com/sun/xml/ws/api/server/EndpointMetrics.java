@@ -0,0 +1,304 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.api.server;
+
+import com.oracle.webservices.api.message.BasePropertySet;
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.api.pipe.FiberContextSwitchInterceptor;
+import com.sun.xml.ws.api.pipe.ThrowableContainerPropertySet;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+/**
+ * Runtime counters and latencies of a {@link WSEndpoint}, for the endpoint
+ * as a whole and for each WSDL operation.
+ *
+ * <p>
+ * Collected when {@link com.sun.xml.ws.developer.MetricsFeature} is enabled
+ * and available from {@link WSEndpoint#getMetrics()}, from the endpoint's
+ * management object, and to every {@link MetricsExporter}.
+ *
+ * <p>
+ * The time spent on a request is broken down into {@link Phase}s so it is
+ * possible to tell whether it goes to parsing, to the handlers and other
+ * tubes, or to the service implementation.
+ *
+ * @since 2.3.0
+ */
+@ManagedData
+@Description("Runtime metrics of an endpoint")
+public final class EndpointMetrics {
+
+    /**
+     * Name of the {@link OperationMetrics} covering all the requests.
+     */
+    public static final String TOTALS = "*";
+
+    /**
+     * The parts a request's latency is broken down into.
+     */
+    public enum Phase {
+        /**
+         * Reading the request off the transport with the codec. Not known
+         * per operation, as the operation is resolved later.
+         */
+        DECODE,
+        /**
+         * From the start of processing to the invocation of the service,
+         * i.e. the request side of the tubeline and the handlers.
+         */
+        REQUEST,
+        /**
+         * The service implementation.
+         */
+        INVOKE,
+        /**
+         * From the return of the service to the completion of processing.
+         */
+        RESPONSE,
+        /**
+         * Time the request's fiber spent suspended rather than running,
+         * waiting on an asynchronous provider or tube.
+         */
+        SUSPENDED,
+        /**
+         * Writing the response with the codec.
+         */
+        ENCODE,
+        /**
+         * From the start to the completion of processing, DECODE and
+         * ENCODE excluded.
+         */
+        TOTAL
+    }
+
+    private final OperationMetrics totals = new OperationMetrics(TOTALS);
+    private final ConcurrentMap<QName, OperationMetrics> operations = new ConcurrentHashMap<QName, OperationMetrics>();
+
+    /**
+     * Metrics of all the requests, including those whose operation could
+     * not be resolved.
+     */
+    @ManagedAttribute
+    @Description("Metrics of all the requests")
+    public @NotNull OperationMetrics getTotals() {
+        return totals;
+    }
+
+    /**
+     * Metrics of the given WSDL operation, or null if it has not been
+     * invoked yet.
+     */
+    public @Nullable OperationMetrics getOperation(@NotNull QName operation) {
+        return operations.get(operation);
+    }
+
+    @ManagedAttribute
+    @Description("Metrics of each WSDL operation invoked")
+    public @NotNull Collection<OperationMetrics> getOperations() {
+        return new ArrayList<OperationMetrics>(operations.values());
+    }
+
+    /**
+     * Records the latency of a phase, for the given operation, if known,
+     * and for the totals.
+     */
+    public void record(@Nullable QName operation, @NotNull Phase phase, long nanos) {
+        totals.record(phase, nanos);
+        if (operation != null) {
+            operation(operation).record(phase, nanos);
+        }
+    }
+
+    /**
+     * Starts timing a request: the returned {@link Sample} is added to the
+     * packet as a satellite, and also has to be added as an interceptor to
+     * the fiber that processes it.
+     */
+    public @NotNull Sample start(@NotNull Packet request) {
+        Sample sample = new Sample(this);
+        request.addSatellite(sample);
+        return sample;
+    }
+
+    /**
+     * Gets the {@link Sample} of the request the packet belongs to, if it
+     * is being timed.
+     */
+    public static @Nullable Sample sampleOf(@NotNull Packet packet) {
+        return packet.getSatellite(Sample.class);
+    }
+
+    private OperationMetrics operation(QName name) {
+        OperationMetrics m = operations.get(name);
+        if (m == null) {
+            OperationMetrics created = new OperationMetrics(name.toString());
+            m = operations.putIfAbsent(name, created);
+            if (m == null) {
+                m = created;
+            }
+        }
+        return m;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(totals.toString());
+        for (OperationMetrics m : operations.values()) {
+            sb.append('\n').append(m);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Timings of one request.
+     *
+     * <p>
+     * As a {@link FiberContextSwitchInterceptor} it measures how long the
+     * fiber actually runs, which tells the time it spent suspended.
+     */
+    public static final class Sample extends BasePropertySet implements FiberContextSwitchInterceptor {
+        private final EndpointMetrics metrics;
+        private final long start = System.nanoTime();
+        private long running;
+        private boolean invoked;
+        private boolean invocationCompleted;
+        private long invokeStart;
+        private long invokeEnd;
+        private QName operation;
+
+        Sample(EndpointMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        public <R, P> R execute(Fiber f, P p, Work<R, P> work) {
+            long t = System.nanoTime();
+            try {
+                return work.execute(p);
+            } finally {
+                running += System.nanoTime() - t;
+            }
+        }
+
+        /**
+         * Called right before the service implementation is invoked.
+         */
+        public void invocationStarted() {
+            invoked = true;
+            invokeStart = System.nanoTime();
+        }
+
+        /**
+         * Called right after the service implementation returns, or for an
+         * {@link AsyncProvider}, when it sends the response or the error.
+         * Only the first call after {@link #invocationStarted()} counts.
+         */
+        public void invocationCompleted() {
+            if (invoked && !invocationCompleted) {
+                invocationCompleted = true;
+                invokeEnd = System.nanoTime();
+            }
+        }
+
+        /**
+         * The operation the request was for, once it has completed.
+         */
+        public @Nullable QName getOperation() {
+            return operation;
+        }
+
+        /**
+         * Records the timings of the request.
+         *
+         * @param request
+         *      the packet processing started with, used to find the operation.
+         * @param response
+         *      the packet processing completed with, or null if it
+         *      completed with an exception, which counts as a fault.
+         */
+        public void completed(@NotNull Packet request, @Nullable Packet response) {
+            long end = System.nanoTime();
+            operation = request.getWSDLOperation();
+            long total = end - start;
+            if (invocationCompleted) {
+                metrics.record(operation, Phase.REQUEST, invokeStart - start);
+                metrics.record(operation, Phase.INVOKE, invokeEnd - invokeStart);
+                metrics.record(operation, Phase.RESPONSE, end - invokeEnd);
+            }
+            if (running > 0) {
+                metrics.record(operation, Phase.SUSPENDED, Math.max(0, total - running));
+            }
+            metrics.record(operation, Phase.TOTAL, total);
+
+            Message msg = (response == null) ? null : response.getMessage();
+            boolean fault = response == null
+                    || response.getSatellite(ThrowableContainerPropertySet.class) != null
+                    || (msg != null && msg.isFault());
+            metrics.totals.completed(fault);
+            if (operation != null) {
+                metrics.operation(operation).completed(fault);
+            }
+        }
+
+        @Override
+        protected PropertyMap getPropertyMap() {
+            return model;
+        }
+
+        private static final PropertyMap model;
+
+        static {
+            model = parse(Sample.class);
+        }
+    }
+}
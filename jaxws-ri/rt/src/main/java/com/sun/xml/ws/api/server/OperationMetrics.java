@@ -0,0 +1,136 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.api.server;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.server.EndpointMetrics.Phase;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.glassfish.gmbal.Description;
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+/**
+ * Request counts and per-{@link Phase} latencies of one operation of an
+ * endpoint, or of all of them together.
+ *
+ * @see EndpointMetrics
+ * @since 2.3.0
+ */
+@ManagedData
+@Description("Request counts and latencies of an operation")
+public final class OperationMetrics {
+
+    private final String name;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder faults = new LongAdder();
+    private final Map<Phase, LatencyHistogram> latencies = new EnumMap<Phase, LatencyHistogram>(Phase.class);
+
+    OperationMetrics(@NotNull String name) {
+        this.name = name;
+        for (Phase phase : Phase.values()) {
+            latencies.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * The WSDL operation name, or {@link EndpointMetrics#TOTALS} for the
+     * endpoint as a whole.
+     */
+    @ManagedAttribute
+    @Description("Operation name")
+    public @NotNull String getName() {
+        return name;
+    }
+
+    @ManagedAttribute
+    @Description("Number of requests completed")
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    @ManagedAttribute
+    @Description("Number of requests completed with a fault")
+    public long getFaultCount() {
+        return faults.sum();
+    }
+
+    /**
+     * Latencies of the given phase.
+     */
+    public @NotNull LatencyHistogram getLatency(@NotNull Phase phase) {
+        return latencies.get(phase);
+    }
+
+    @ManagedAttribute
+    @Description("Latencies of each phase, in the order of EndpointMetrics.Phase")
+    public List<LatencyHistogram> getLatencies() {
+        return new ArrayList<LatencyHistogram>(latencies.values());
+    }
+
+    void record(Phase phase, long nanos) {
+        latencies.get(phase).record(nanos);
+    }
+
+    void completed(boolean fault) {
+        requests.increment();
+        if (fault) {
+            faults.increment();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name).append(": requests=").append(getRequestCount())
+                .append(", faults=").append(getFaultCount());
+        for (Map.Entry<Phase, LatencyHistogram> e : latencies.entrySet()) {
+            if (e.getValue().getCount() > 0) {
+                sb.append("\n  ").append(e.getKey()).append(": ").append(e.getValue());
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -273,6 +273,17 @@ public abstract class WSEndpoint<T> implements ComponentRegistry {
     	throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns the runtime metrics of this endpoint.
+     *
+     * @return
+     *      null unless {@link com.sun.xml.ws.developer.MetricsFeature} is enabled.
+     * @since 2.3.0
+     */
+    public @Nullable EndpointMetrics getMetrics() {
+        return null;
+    }
+
     /**
      * Callback to notify that jax-ws runtime has finished execution of a request
      * submitted via schedule().
@@ -47,8 +47,12 @@ import com.sun.xml.ws.api.BindingID;
 import com.sun.xml.ws.api.SOAPVersion;
 import com.sun.xml.ws.api.WSBinding;
 import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.fastinfoset.FastInfosetFeature;
+import com.sun.xml.ws.api.fastinfoset.FastInfosetVocabulary;
+import com.sun.xml.ws.api.model.wsdl.WSDLPort;
 import com.sun.xml.ws.api.pipe.Codec;
 import com.sun.xml.ws.client.HandlerConfiguration;
+import com.sun.xml.ws.encoding.SOAPBindingCodec;
 import com.sun.xml.ws.developer.MemberSubmissionAddressingFeature;
 import com.sun.xml.ws.developer.BindingTypeFeature;
 
@@ -181,6 +185,23 @@ public abstract class BindingImpl implements WSBinding {
         return bindingId.createEncoder(this);
     }
 
+    /**
+     * Creates a {@link Codec} for the given port, which encodes Fast Infoset
+     * documents with the {@link FastInfosetVocabulary} of the port when
+     * {@link FastInfosetFeature#isExternalVocabulary()} is on.
+     */
+    @NotNull
+    public final Codec createCodec(@Nullable WSDLPort port) {
+        Codec codec = createCodec();
+        if (port != null && codec instanceof SOAPBindingCodec) {
+            FastInfosetFeature fi = getFeature(FastInfosetFeature.class);
+            if (fi != null && fi.isEnabled() && fi.isExternalVocabulary()) {
+                return ((SOAPBindingCodec) codec).withVocabulary(FastInfosetVocabulary.create(port, getSOAPVersion()));
+            }
+        }
+        return codec;
+    }
+
     public static void initializeJavaActivationHandlers() {
         // DataHandler.writeTo() may search for DCH. So adding some default ones.
         try {
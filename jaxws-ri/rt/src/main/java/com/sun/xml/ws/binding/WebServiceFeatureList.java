@@ -73,6 +73,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Constructor;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -95,6 +98,18 @@ public final class WebServiceFeatureList extends AbstractMap<Class<? extends Web
     private Map<Class<? extends WebServiceFeature>, WebServiceFeature> wsfeatures = new HashMap<Class<? extends WebServiceFeature>, WebServiceFeature>();
     private boolean isValidating = false;
 
+    /**
+     * Snapshot of the features for {@link #get(Class)}, null when it has to be
+     * built again because the list changed.
+     *
+     * <p>
+     * Changes to the features and the building of the snapshot are done holding
+     * the lock of the list, and a change drops the snapshot only once it is
+     * made, so that a snapshot is never built from features that are being
+     * changed, nor kept once they have changed. Lookups take no lock.
+     */
+    private volatile Index index;
+
     public WebServiceFeatureList() {
     }
 
@@ -141,9 +156,11 @@ public final class WebServiceFeatureList extends AbstractMap<Class<? extends Web
 
     public WebServiceFeatureList(WebServiceFeatureList features) {
         if (features != null) {
-            wsfeatures.putAll(features.wsfeatures);
-            parent = features.parent;
-            isValidating = features.isValidating;
+            synchronized (features) {
+                wsfeatures.putAll(features.wsfeatures);
+                parent = features.parent;
+                isValidating = features.isValidating;
+            }
         }
     }
 
@@ -362,13 +379,95 @@ public final class WebServiceFeatureList extends AbstractMap<Class<? extends Web
 
     public @Nullable
 	<F extends WebServiceFeature> F get(@NotNull Class<F> featureType) {
-        WebServiceFeature f = featureType.cast(wsfeatures.get(featureType));
-        if (f == null && parent != null) {
+        if (COUNT_LOOKUPS) {
+            countLookup(featureType);
+        }
+        Index i = index();
+        WebServiceFeature f = featureType.cast(i.features.get(featureType));
+        if (f == null && !i.complete) {
             return parent.getFeatures().get(featureType);
         }
         return (F) f;
     }
 
+    /**
+     * Immutable snapshot of the features of a list and of its parents, indexed
+     * by their class, so that the features a binding is looked up for on every
+     * message are found with one identity lookup, whether they are set or not.
+     */
+    private static final class Index {
+        final Map<Class<?>, WebServiceFeature> features;
+        /**
+         * Features of the parent, if they could be indexed.
+         */
+        final @Nullable WebServiceFeatureList parentList;
+        /**
+         * Index of {@link #parentList} this one was built with.
+         */
+        final @Nullable Index parent;
+        /**
+         * False if the features of a parent could not be indexed, in which
+         * case a feature missing from the index may still be in the parent.
+         */
+        final boolean complete;
+
+        Index(Map<Class<? extends WebServiceFeature>, WebServiceFeature> features,
+              @Nullable WebServiceFeatureList parentList, @Nullable Index parent, boolean complete) {
+            Map<Class<?>, WebServiceFeature> m = new IdentityHashMap<Class<?>, WebServiceFeature>();
+            if (parent != null) {
+                m.putAll(parent.features);
+            }
+            // our features override those of the parent
+            m.putAll(features);
+            this.features = m;
+            this.parentList = parentList;
+            this.parent = parent;
+            this.complete = complete;
+        }
+
+        /**
+         * Checks that the parent hasn't changed since; the list itself drops
+         * its index when it changes.
+         */
+        boolean isCurrent() {
+            return parentList == null || parentList.index == parent;
+        }
+    }
+
+    /**
+     * Gets the index of this list, building it again if this list or its parent changed.
+     */
+    private Index index() {
+        Index i = index;
+        if (i == null || !i.isCurrent()) {
+            i = buildIndex();
+        }
+        return i;
+    }
+
+    private synchronized Index buildIndex() {
+        Index current = index;
+        if (current != null && current.isCurrent()) {
+            // built by another thread meanwhile
+            return current;
+        }
+        WebServiceFeatureList p = null;
+        if (parent != null && parent.getFeatures() instanceof WebServiceFeatureList) {
+            p = (WebServiceFeatureList) parent.getFeatures();
+        }
+        Index pi = p != null ? p.index() : null;
+        Index i = new Index(wsfeatures, p, pi, parent == null || (pi != null && pi.complete));
+        index = i;
+        return i;
+    }
+
+    /**
+     * Drops the index, after the features changed.
+     */
+    private void changed() {
+        index = null;
+    }
+
     /**
      * Adds a feature to the list if it's not already added.
      */
@@ -377,9 +476,10 @@ public final class WebServiceFeatureList extends AbstractMap<Class<? extends Web
             validate(f);
     }
     
-    private boolean addNoValidate(@NotNull WebServiceFeature f) {
+    private synchronized boolean addNoValidate(@NotNull WebServiceFeature f) {
         if (!wsfeatures.containsKey(f.getClass())) {
             wsfeatures.put(f.getClass(), f);
+            changed();
 
             if (f instanceof ImpliesWebServiceFeature)
                 ((ImpliesWebServiceFeature) f).implyFeatures(this);
@@ -403,8 +503,9 @@ public final class WebServiceFeatureList extends AbstractMap<Class<? extends Web
      * with the existing {@link SOAPBinding.setMTOMEnabled}.
      * @param b if MTOM will be enabled
      */
-    void setMTOMEnabled(boolean b) {
+    synchronized void setMTOMEnabled(boolean b) {
     	wsfeatures.put(MTOMFeature.class, new MTOMFeature(b));
+        changed();
     }
 
     public boolean equals(Object other) {
@@ -513,8 +614,9 @@ public final class WebServiceFeatureList extends AbstractMap<Class<? extends Web
      * Set the parent features. Basically the parent feature list will be
      * overriden by this feature list.
      */
-    public void setParentFeaturedObject(@NotNull WSDLFeaturedObject parent) {
+    public synchronized void setParentFeaturedObject(@NotNull WSDLFeaturedObject parent) {
         this.parent = parent;
+        changed();
     }
 
     public static @Nullable <F extends WebServiceFeature> F getFeature(@NotNull WebServiceFeature[] features,
@@ -571,12 +673,141 @@ public final class WebServiceFeatureList extends AbstractMap<Class<? extends Web
 
     @Override
     public Set<java.util.Map.Entry<Class<? extends WebServiceFeature>, WebServiceFeature>> entrySet() {
-        return wsfeatures.entrySet();
+        return new EntrySet();
+    }
+
+    /**
+     * View of the features that drops the index of the list when the features
+     * are changed through it, or through the {@link #keySet()} and {@link #values()}
+     * views built on it.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<Class<? extends WebServiceFeature>, WebServiceFeature>> {
+        @Override
+        public Iterator<Map.Entry<Class<? extends WebServiceFeature>, WebServiceFeature>> iterator() {
+            final Iterator<Map.Entry<Class<? extends WebServiceFeature>, WebServiceFeature>> it = wsfeatures.entrySet().iterator();
+            return new Iterator<Map.Entry<Class<? extends WebServiceFeature>, WebServiceFeature>>() {
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                public Map.Entry<Class<? extends WebServiceFeature>, WebServiceFeature> next() {
+                    final Map.Entry<Class<? extends WebServiceFeature>, WebServiceFeature> e = it.next();
+                    return new SimpleEntry<Class<? extends WebServiceFeature>, WebServiceFeature>(e) {
+                        @Override
+                        public WebServiceFeature setValue(WebServiceFeature value) {
+                            super.setValue(value);
+                            synchronized (WebServiceFeatureList.this) {
+                                WebServiceFeature old = e.setValue(value);
+                                changed();
+                                return old;
+                            }
+                        }
+                    };
+                }
+
+                public void remove() {
+                    synchronized (WebServiceFeatureList.this) {
+                        it.remove();
+                        changed();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return wsfeatures.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return wsfeatures.entrySet().contains(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            synchronized (WebServiceFeatureList.this) {
+                if (wsfeatures.entrySet().remove(o)) {
+                    changed();
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        @Override
+        public void clear() {
+            WebServiceFeatureList.this.clear();
+        }
+    }
+
+    @Override
+    public synchronized WebServiceFeature put(Class<? extends WebServiceFeature> key, WebServiceFeature value) {
+        WebServiceFeature old = wsfeatures.put(key, value);
+        changed();
+        return old;
+    }
+
+    @Override
+    public synchronized WebServiceFeature remove(Object key) {
+        WebServiceFeature f = wsfeatures.remove(key);
+        changed();
+        return f;
     }
 
     @Override
-    public WebServiceFeature put(Class<? extends WebServiceFeature> key, WebServiceFeature value) {
-        return wsfeatures.put(key, value);
+    public synchronized void clear() {
+        wsfeatures.clear();
+        changed();
+    }
+
+    /**
+     * Whether the lookups of {@link #get(Class)} are counted, see {@link #getLookupCounts()}.
+     */
+    private static final boolean COUNT_LOOKUPS;
+
+    private static final ConcurrentMap<Class<? extends WebServiceFeature>, AtomicLong> LOOKUPS =
+            new ConcurrentHashMap<Class<? extends WebServiceFeature>, AtomicLong>();
+
+    static {
+        boolean b = false;
+        try {
+            b = Boolean.getBoolean(WebServiceFeatureList.class.getName() + ".countLookups");
+        } catch (SecurityException se) {
+            LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                    WebServiceFeatureList.class.getName() + ".countLookups");
+        }
+        COUNT_LOOKUPS = b;
+    }
+
+    private static void countLookup(Class<? extends WebServiceFeature> featureType) {
+        AtomicLong n = LOOKUPS.get(featureType);
+        if (n == null) {
+            AtomicLong m = LOOKUPS.putIfAbsent(featureType, n = new AtomicLong());
+            if (m != null) {
+                n = m;
+            }
+        }
+        n.incrementAndGet();
+    }
+
+    /**
+     * Number of times each feature class has been looked up in any list so far,
+     * through {@link #get(Class)}, {@link #isEnabled(Class)} or {@link #contains(Class)},
+     * including the lookups of {@link WSBinding#getFeature(Class)} and
+     * {@link WSBinding#isFeatureEnabled(Class)}.
+     *
+     * <p>
+     * Lookups are only counted when the system property
+     * {@code com.sun.xml.ws.binding.WebServiceFeatureList.countLookups} is true,
+     * otherwise the map is empty.
+     */
+    public static @NotNull Map<Class<? extends WebServiceFeature>, Long> getLookupCounts() {
+        Map<Class<? extends WebServiceFeature>, Long> counts = new HashMap<Class<? extends WebServiceFeature>, Long>();
+        for (Map.Entry<Class<? extends WebServiceFeature>, AtomicLong> e : LOOKUPS.entrySet()) {
+            counts.put(e.getKey(), e.getValue().get());
+        }
+        return counts;
     }
     
     static public SOAPVersion getSoapVersion(WSFeatureList features) {
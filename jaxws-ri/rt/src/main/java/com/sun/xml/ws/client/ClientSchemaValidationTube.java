@@ -52,7 +52,6 @@ import com.sun.xml.ws.util.MetadataUtil;
 import com.sun.xml.ws.util.pipe.AbstractSchemaValidationTube;
 import org.xml.sax.SAXException;
 
-import javax.xml.transform.Source;
 import javax.xml.validation.Schema;
 import javax.xml.validation.Validator;
 import javax.xml.ws.WebServiceException;
@@ -69,7 +68,12 @@ public class ClientSchemaValidationTube extends AbstractSchemaValidationTube {
     private static final Logger LOGGER = Logger.getLogger(ClientSchemaValidationTube.class.getName());
 
     private final Schema schema;
-    private final Validator validator;
+    private final Validators validators;
+    /**
+     * Only created if a subclass asks for it, as messages are validated
+     * with the {@link #validators} shared by all the copies.
+     */
+    private Validator validator;
     private final boolean noValidation;
     private final WSDLPort port;
 
@@ -81,29 +85,23 @@ public class ClientSchemaValidationTube extends AbstractSchemaValidationTube {
             MetadataResolverImpl mdresolver = new MetadataResolverImpl();
             Map<String, SDDocument> docs = MetadataUtil.getMetadataClosure(primaryWsdl, mdresolver, true);
             mdresolver = new MetadataResolverImpl(docs.values());
-            Source[] sources = getSchemaSources(docs.values(), mdresolver);
-            for(Source source : sources) {
-                LOGGER.fine("Constructing client validation schema from = "+source.getSystemId());
-                //printDOM((DOMSource)source);
-            }
-            if (sources.length != 0) {
+            Schema s = createSchema(docs.values(), mdresolver);
+            if (s != null) {
                 noValidation = false;
-                sf.setResourceResolver(mdresolver);
-                try {
-                    schema = sf.newSchema(sources);
-                } catch(SAXException e) {
-                    throw new WebServiceException(e);
-                }
-                validator = schema.newValidator();
+                schema = s;
+                validators = new Validators(schema);
                 return;
             }
         }
         noValidation = true;
         schema = null;
-        validator = null;
+        validators = null;
     }
 
     protected Validator getValidator() {
+        if (validator == null && !noValidation) {
+            validator = schema.newValidator();
+        }
         return validator;
     }
 
@@ -115,7 +113,7 @@ public class ClientSchemaValidationTube extends AbstractSchemaValidationTube {
         super(that,cloner);
         this.port = that.port;
         this.schema = that.schema;
-        this.validator = schema.newValidator();
+        this.validators = that.validators;
         this.noValidation = that.noValidation;
     }
 
@@ -129,7 +127,7 @@ public class ClientSchemaValidationTube extends AbstractSchemaValidationTube {
             return super.processRequest(request);
         }
         try {
-            doProcess(request);
+            doProcess(request, validators);
         } catch(SAXException se) {
             throw new WebServiceException(se);
         }
@@ -141,8 +139,12 @@ public class ClientSchemaValidationTube extends AbstractSchemaValidationTube {
         if (isNoValidation() || !feature.isInbound() || response.getMessage() == null || !response.getMessage().hasPayload() || response.getMessage().isFault()) {
             return super.processResponse(response);
         }
+        if (feature.isStreaming()) {
+            response.setMessage(createValidatingMessage(response, validators));
+            return super.processResponse(response);
+        }
         try {
-            doProcess(response);
+            doProcess(response, validators);
         } catch(SAXException se) {
             throw new WebServiceException(se);
         }
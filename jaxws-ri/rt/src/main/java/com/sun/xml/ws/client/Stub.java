@@ -76,6 +76,7 @@ import com.sun.xml.ws.api.server.ContainerResolver;
 import com.sun.xml.ws.binding.BindingImpl;
 import com.sun.xml.ws.developer.JAXWSProperties;
 import com.sun.xml.ws.developer.WSBindingProvider;
+import com.sun.xml.ws.developer.PoolingFeature;
 import com.sun.xml.ws.model.wsdl.WSDLDirectProperties;
 import com.sun.xml.ws.model.wsdl.WSDLPortProperties;
 import com.sun.xml.ws.model.wsdl.WSDLProperties;
@@ -294,6 +295,7 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
                 this.requestContext.setEndpointAddress(defaultEndPointAddress);
             }
             this.engine = new Engine(getStringId(), owner.getContainer(), owner.getExecutor());
+            this.engine.configureExecutor(binding.getFeatures());
             this.endpointReference = epr;
             wsdlProperties = (wsdlPort == null) ? new WSDLDirectProperties(owner.getServiceName(), portname) : new WSDLPortProperties(wsdlPort);
             
@@ -305,9 +307,9 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
             managedObjectManager = new MonitorRootClient(this).createManagedObjectManager(this);
     
             if (master != null) {
-                this.tubes = new TubePool(master);
+                this.tubes = new TubePool(master, binding.getFeature(PoolingFeature.class));
             } else {
-                this.tubes = new TubePool(createPipeline(portInfo, binding));
+                this.tubes = new TubePool(createPipeline(portInfo, binding), binding.getFeature(PoolingFeature.class));
             }
     
             addrVersion = binding.getAddressingVersion();
@@ -344,7 +346,7 @@ public abstract class Stub implements WSBindingProvider, ResponseContextReceiver
                 new ClientTubeAssemblerContext(
                         portInfo.getEndpointAddress(),
                         portInfo.getPort(),
-                        this, binding, owner.getContainer(), ((BindingImpl) binding).createCodec(), seiModel, sei));
+                        this, binding, owner.getContainer(), ((BindingImpl) binding).createCodec(portInfo.getPort()), seiModel, sei));
     }
     
     public WSDLPort getWSDLPort() {
@@ -80,6 +80,7 @@ import com.sun.xml.ws.util.JAXWSUtils;
 import com.sun.xml.ws.util.ServiceConfigurationError;
 import com.sun.xml.ws.util.ServiceFinder;
 import com.sun.xml.ws.wsdl.parser.RuntimeWSDLParser;
+import com.sun.xml.ws.wsdl.parser.WSDLModelCache;
 
 import org.xml.sax.EntityResolver;
 import org.xml.sax.SAXException;
@@ -361,6 +362,11 @@ public class WSServiceDelegate extends WSService {
      */
     private WSDLModel parseWSDL(URL wsdlDocumentLocation, Source wsdlSource, Class serviceClass) {
         try {
+            if (WSDLModelCache.isEnabled() && container instanceof ClientContainer) {
+                // outside of a container, the models only depend on the WSDL
+                return WSDLModelCache.parse(wsdlDocumentLocation, wsdlSource, createCatalogResolver(),
+                    true, getContainer(), serviceClass, ServiceFinder.find(WSDLParserExtension.class).toArray());
+            }
             return RuntimeWSDLParser.parse(wsdlDocumentLocation, wsdlSource, createCatalogResolver(),
                 true, getContainer(), serviceClass, ServiceFinder.find(WSDLParserExtension.class).toArray());
         } catch (IOException e) {
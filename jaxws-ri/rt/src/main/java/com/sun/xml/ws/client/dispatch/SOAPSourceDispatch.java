@@ -49,10 +49,16 @@ import com.sun.xml.ws.api.client.WSPortInfo;
 import com.sun.xml.ws.binding.BindingImpl;
 import com.sun.xml.ws.client.WSServiceDelegate;
 import com.sun.xml.ws.client.PortInfo;
+import com.sun.xml.ws.developer.StreamWriterSource;
+import com.sun.xml.ws.developer.StreamingPayloadFeature;
 import com.sun.xml.ws.message.source.PayloadSourceMessage;
+import com.sun.xml.ws.message.source.StreamWriterSourceMessage;
 
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
+import javax.xml.transform.stax.StAXSource;
 import javax.xml.ws.Service.Mode;
 import javax.xml.ws.WebServiceException;
 
@@ -86,6 +92,9 @@ final class SOAPSourceDispatch extends DispatchImpl<Source> {
 
         switch (mode) {
         case PAYLOAD:
+            if (binding.isFeatureEnabled(StreamingPayloadFeature.class)) {
+                return readPayloadAsStAXSource(msg);
+            }
             return msg.readPayloadAsSource();
         case MESSAGE:
             return msg.readEnvelopeAsSource();
@@ -104,7 +113,11 @@ final class SOAPSourceDispatch extends DispatchImpl<Source> {
         else {
             switch (mode) {
             case PAYLOAD:
-                message = new PayloadSourceMessage(null, msg, setOutboundAttachments(), soapVersion);
+                if (msg instanceof StreamWriterSource) {
+                    message = new StreamWriterSourceMessage(null, (StreamWriterSource) msg, setOutboundAttachments(), soapVersion);
+                } else {
+                    message = new PayloadSourceMessage(null, msg, setOutboundAttachments(), soapVersion);
+                }
                 break;
             case MESSAGE:
                 message = Messages.create(msg, soapVersion);
@@ -117,5 +130,21 @@ final class SOAPSourceDispatch extends DispatchImpl<Source> {
         return new Packet(message);
     }
 
+    /**
+     * Hands out the reader of the response itself, positioned at the payload,
+     * for {@link StreamingPayloadFeature}.
+     */
+    private static Source readPayloadAsStAXSource(Message msg) {
+        if (!msg.hasPayload()) {
+            return null;
+        }
+        try {
+            XMLStreamReader reader = msg.readPayload();
+            return reader == null ? null : new StAXSource(reader);
+        } catch (XMLStreamException e) {
+            throw new WebServiceException(e);
+        }
+    }
+
 
 }
@@ -66,6 +66,8 @@ import com.sun.xml.ws.model.SOAPSEIModel;
 import com.sun.xml.ws.wsdl.OperationDispatcher;
 
 import javax.xml.namespace.QName;
+import javax.xml.ws.AsyncHandler;
+import javax.xml.ws.Response;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -177,6 +179,36 @@ public final class SEIStub extends Stub implements InvocationHandler {
         }
     }
 
+    /**
+     * Invokes a synchronous method of the port interface asynchronously.
+     *
+     * <p>
+     * This is what {@link com.sun.xml.ws.developer.Batch} uses to send
+     * many requests through one port without blocking a thread per request.
+     *
+     * @param method
+     *      synchronous method of the port interface.
+     * @param handler
+     *      Optional {@link AsyncHandler} invoked when the invocation completes.
+     * @return
+     *      {@link Response} that yields what the synchronous invocation
+     *      would return, or fails with the exception it would throw.
+     * @throws IllegalArgumentException
+     *      if the method is not a synchronous method of the port interface.
+     */
+    public Response<Object> invokeAsync(Method method, Object[] args, @Nullable AsyncHandler<Object> handler) {
+        MethodHandler mh = methodHandlers.get(method);
+        if (!(mh instanceof SyncMethodHandler)) {
+            throw new IllegalArgumentException("Not a synchronous method of the port interface: " + method);
+        }
+        Container old = ContainerResolver.getDefault().enterContainer(owner.getContainer());
+        try {
+            return ((SyncMethodHandler) mh).invokeAsync(args, handler);
+        } finally {
+            ContainerResolver.getDefault().exitContainer(old);
+        }
+    }
+
     private void validateInputs(Object proxy, Method method) {
         if (proxy == null || !Proxy.isProxyClass(proxy.getClass())) {
             throw new IllegalStateException("Passed object is not proxy!");
@@ -41,9 +41,15 @@
 package com.sun.xml.ws.client.sei;
 
 import com.oracle.webservices.api.databinding.JavaCallInfo;
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
 import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.client.AsyncInvoker;
+import com.sun.xml.ws.client.AsyncResponseImpl;
 import com.sun.xml.ws.client.RequestContext;
+import com.sun.xml.ws.client.ResponseContext;
 import com.sun.xml.ws.client.ResponseContextReceiver;
 import com.sun.xml.ws.encoding.soap.DeserializationException;
 import com.sun.xml.ws.message.jaxb.JAXBMessage;
@@ -52,7 +58,9 @@ import com.sun.xml.ws.resources.DispatchMessages;
 
 import javax.xml.bind.JAXBException;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.ws.AsyncHandler;
 import javax.xml.ws.Holder;
+import javax.xml.ws.Response;
 import javax.xml.ws.WebServiceException;
 
 import java.lang.reflect.Method;
@@ -106,7 +114,77 @@ final class SyncMethodHandler extends MethodHandler {
         Packet req = (Packet) owner.databinding.serializeRequest(call);
         // process the message
         Packet reply = owner.doProcess(req,rc,receiver);
+        return readResponse(reply, call);
+    }
+
+    /**
+     * Invokes this synchronous method asynchronously, the way
+     * {@link AsyncMethodHandler} does for the async methods of the port.
+     *
+     * <p>
+     * The {@link Response} yields what the synchronous invocation would return,
+     * or fails with the exception it would throw. {@link Holder} arguments are
+     * updated before the {@link Response} completes.
+     *
+     * @param handler
+     *      Optional {@link AsyncHandler} invoked when the invocation completes.
+     */
+    Response<Object> invokeAsync(Object[] args, @Nullable AsyncHandler<Object> handler) {
+        AsyncInvoker invoker = new SyncAsyncInvoker(args);
+        invoker.setNonNullAsyncHandlerGiven(handler != null);
+        AsyncResponseImpl<Object> ft = new AsyncResponseImpl<Object>(invoker, handler);
+        invoker.setReceiver(ft);
+        ft.run();
+        return ft;
+    }
+
+    private class SyncAsyncInvoker extends AsyncInvoker {
+        // snapshot the context now, as AsyncMethodHandler does
+        private final RequestContext rc = owner.requestContext.copy();
+        private final Object[] args;
+
+        SyncAsyncInvoker(Object[] args) {
+            this.args = args;
+        }
+
+        public void do_run() {
+            final JavaCallInfo call = owner.databinding.createJavaCallInfo(method, args);
+            Packet req = (Packet) owner.databinding.serializeRequest(call);
+
+            Fiber.CompletionCallback callback = new Fiber.CompletionCallback() {
+
+                // AsyncInvoker.responseImpl is raw
+                @SuppressWarnings("unchecked")
+                public void onCompletion(@NotNull Packet response) {
+                    responseImpl.setResponseContext(new ResponseContext(response));
+                    try {
+                        responseImpl.set(readResponse(response, call), null);
+                    } catch (WebServiceException e) {
+                        responseImpl.set(null, e);
+                    } catch (RuntimeException e) {
+                        responseImpl.set(null, new WebServiceException(e));
+                    } catch (Exception e) {
+                        // checked exception declared by the port method
+                        responseImpl.set(null, e);
+                    } catch (Throwable t) {
+                        responseImpl.set(null, new WebServiceException(t));
+                    }
+                }
+
+                @SuppressWarnings("unchecked")
+                public void onCompletion(@NotNull Throwable error) {
+                    if (error instanceof WebServiceException) {
+                        responseImpl.set(null, error);
+                    } else {
+                        responseImpl.set(null, new WebServiceException(error));
+                    }
+                }
+            };
+            owner.doProcessAsync(responseImpl, req, rc, callback);
+        }
+    }
 
+    private Object readResponse(Packet reply, JavaCallInfo call) throws Throwable {
         Message msg = reply.getMessage();
         if(msg == null) {
             if (!isOneway || !isVoid) {
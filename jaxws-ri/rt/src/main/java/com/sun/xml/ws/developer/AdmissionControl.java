@@ -0,0 +1,98 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import javax.xml.ws.spi.WebServiceFeatureAnnotation;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caps the number of requests a web service endpoint processes at a time,
+ * rejecting the excess with a fault.
+ *
+ * <pre>
+ * &#64;WebService
+ * &#64;AdmissionControl(maxConcurrentRequests=64, maxQueuedRequests=128, queueTimeout=500)
+ * public class OrderService {
+ * }
+ * </pre>
+ *
+ * @see AdmissionControlFeature
+ * @since 2.3.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+@WebServiceFeatureAnnotation(id = AdmissionControlFeature.ID, bean = AdmissionControlFeature.class)
+public @interface AdmissionControl {
+
+    /**
+     * Number of requests the endpoint processes at a time.
+     */
+    int maxConcurrentRequests() default 64;
+
+    /**
+     * Number of requests to each operation the endpoint processes at a time,
+     * or 0 for no limit other than {@link #maxConcurrentRequests()}.
+     */
+    int maxConcurrentRequestsPerOperation() default 0;
+
+    /**
+     * Number of requests that may wait to be processed, or 0 to reject
+     * requests as soon as the endpoint is at its limit.
+     */
+    int maxQueuedRequests() default 64;
+
+    /**
+     * Milliseconds a request may wait before it is rejected, or 0 to wait
+     * as long as it takes. Requests processed synchronously hold a thread
+     * while they wait, so with 0 they are rejected rather than queued.
+     */
+    long queueTimeout() default 1000;
+
+    /**
+     * Lowers the limit of the endpoint while latency rises.
+     */
+    boolean adaptive() default false;
+}
@@ -0,0 +1,245 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.FeatureConstructor;
+import com.sun.xml.ws.server.AdmissionController;
+
+import javax.xml.ws.WebServiceFeature;
+
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+/**
+ * Caps the number of requests an endpoint processes at a time, so that an
+ * overloaded endpoint keeps serving the requests it accepted in reasonable
+ * time and fails the others fast.
+ *
+ * <p>
+ * Requests over the limit wait in a bounded queue. Over an asynchronous
+ * transport they don't hold a thread while they wait; over a synchronous one
+ * the transport thread waits with them, so the queue timeout should be kept
+ * short there. Requests that find the queue full, or that wait longer than the queue timeout,
+ * are answered with a server fault and, over HTTP, the status 503. This happens
+ * before any other tube of the endpoint runs, and before the body of the request
+ * is read. An optional limit per WSDL operation keeps one slow operation from
+ * taking all the capacity.
+ *
+ * <p>
+ * With {@link #isAdaptive() adaptive} limiting, the endpoint limit is lowered while
+ * requests take longer than the shortest latency observed recently, and raised
+ * back up to {@link #getMaxConcurrentRequests()} while they don't.
+ *
+ * <pre>
+ * &#64;WebService
+ * &#64;AdmissionControl(maxConcurrentRequests=64, maxConcurrentRequestsPerOperation=16, adaptive=true)
+ * public class OrderService {
+ * }
+ * </pre>
+ *
+ * @see AdmissionControl
+ * @see AdmissionController
+ * @since 2.3.0
+ */
+@ManagedData
+public final class AdmissionControlFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying the {@link AdmissionControl} feature.
+     */
+    public static final String ID = "http://jax-ws.java.net/features/admission-control";
+
+    private int maxConcurrentRequests;
+    private int maxConcurrentRequestsPerOperation;
+    private int maxQueuedRequests;
+    private long queueTimeout;
+    private boolean adaptive;
+
+    private AdmissionController controller;
+
+    /**
+     * Processes up to 64 requests at a time, and lets up to 64 more wait for
+     * up to a second.
+     */
+    public AdmissionControlFeature() {
+        this(64, 0, 64, 1000, false);
+    }
+
+    @FeatureConstructor({"maxConcurrentRequests", "maxConcurrentRequestsPerOperation", "maxQueuedRequests",
+            "queueTimeout", "adaptive"})
+    public AdmissionControlFeature(int maxConcurrentRequests, int maxConcurrentRequestsPerOperation,
+            int maxQueuedRequests, long queueTimeout, boolean adaptive) {
+        this.enabled = true;
+        setMaxConcurrentRequests(maxConcurrentRequests);
+        setMaxConcurrentRequestsPerOperation(maxConcurrentRequestsPerOperation);
+        setMaxQueuedRequests(maxQueuedRequests);
+        setQueueTimeout(queueTimeout);
+        setAdaptive(adaptive);
+    }
+
+    @ManagedAttribute
+    public String getID() {
+        return ID;
+    }
+
+    /**
+     * Number of requests the endpoint processes at a time.
+     */
+    @ManagedAttribute
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be positive: " + maxConcurrentRequests);
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * Number of requests to each operation the endpoint processes at a time,
+     * or 0 for no limit other than {@link #getMaxConcurrentRequests()}.
+     */
+    @ManagedAttribute
+    public int getMaxConcurrentRequestsPerOperation() {
+        return maxConcurrentRequestsPerOperation;
+    }
+
+    public void setMaxConcurrentRequestsPerOperation(int maxConcurrentRequestsPerOperation) {
+        if (maxConcurrentRequestsPerOperation < 0) {
+            throw new IllegalArgumentException("maxConcurrentRequestsPerOperation must not be negative: "
+                    + maxConcurrentRequestsPerOperation);
+        }
+        this.maxConcurrentRequestsPerOperation = maxConcurrentRequestsPerOperation;
+    }
+
+    /**
+     * Number of requests that may wait to be processed, or 0 to reject
+     * requests as soon as the endpoint is at its limit.
+     */
+    @ManagedAttribute
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    public void setMaxQueuedRequests(int maxQueuedRequests) {
+        if (maxQueuedRequests < 0) {
+            throw new IllegalArgumentException("maxQueuedRequests must not be negative: " + maxQueuedRequests);
+        }
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+
+    /**
+     * Milliseconds a request may wait before it is rejected, or 0 to wait
+     * as long as it takes. Requests processed synchronously hold a thread
+     * while they wait, so with 0 they are rejected rather than queued.
+     */
+    @ManagedAttribute
+    public long getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    public void setQueueTimeout(long queueTimeout) {
+        if (queueTimeout < 0) {
+            throw new IllegalArgumentException("queueTimeout must not be negative: " + queueTimeout);
+        }
+        this.queueTimeout = queueTimeout;
+    }
+
+    /**
+     * True if the endpoint limit is lowered while latency rises.
+     */
+    @ManagedAttribute
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Returns the controller that applies this configuration. Once this is
+     * called, changing the configuration has no effect.
+     */
+    public synchronized @NotNull AdmissionController getController() {
+        if (controller == null) {
+            controller = new AdmissionController(maxConcurrentRequests, maxConcurrentRequestsPerOperation,
+                    maxQueuedRequests, queueTimeout, adaptive);
+        }
+        return controller;
+    }
+
+    /**
+     * Current limit of the endpoint, below {@link #getMaxConcurrentRequests()}
+     * only when adaptive.
+     */
+    @ManagedAttribute
+    public int getLimit() {
+        return getController().getLimit();
+    }
+
+    @ManagedAttribute
+    public int getInFlightCount() {
+        return getController().getInFlightCount();
+    }
+
+    @ManagedAttribute
+    public int getQueuedCount() {
+        return getController().getQueuedCount();
+    }
+
+    @ManagedAttribute
+    public long getAdmitted() {
+        return getController().getAdmitted();
+    }
+
+    @ManagedAttribute
+    public long getRejected() {
+        return getController().getRejected();
+    }
+
+    @ManagedAttribute
+    public long getTimedOut() {
+        return getController().getTimedOut();
+    }
+}
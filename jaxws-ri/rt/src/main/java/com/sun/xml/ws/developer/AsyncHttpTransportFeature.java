@@ -0,0 +1,130 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.FeatureConstructor;
+
+import javax.xml.ws.WebServiceFeature;
+import java.util.concurrent.Executor;
+
+/**
+ * Switches a proxy or {@link javax.xml.ws.Dispatch} to the non-blocking HTTP
+ * transport.
+ *
+ * <p>
+ * With this feature, asynchronous invocations no longer block a
+ * {@link com.sun.xml.ws.api.pipe.Engine} thread while the HTTP exchange is
+ * in progress. Instead, the {@link com.sun.xml.ws.api.pipe.Fiber} is suspended,
+ * the exchange is carried out on a separate transport executor, and the fiber
+ * is resumed with the response. The number of concurrent exchanges with any
+ * single host (scheme, host and port) is capped at {@link #getMaxConnectionsPerHost()}.
+ * The cap counts the exchanges of all the proxies and dispatches whose feature has
+ * the same cap, as {@link java.net.HttpURLConnection} shares its connections
+ * between them. Excess asynchronous exchanges wait in a queue of the host without
+ * holding a thread; excess synchronous ones block their calling thread.
+ *
+ * <pre>
+ * AsyncHttpTransportFeature feature = new AsyncHttpTransportFeature(20);
+ * proxy = new HelloService().getHelloPort(feature);
+ * </pre>
+ *
+ * <p>
+ * Connections are still kept alive by {@link java.net.HttpURLConnection}; the
+ * size of its idle connection cache per host is controlled by the
+ * {@code http.maxConnections} system property and should not be smaller
+ * than {@link #getMaxConnectionsPerHost()}.
+ *
+ * <p>
+ * <b>THIS feature IS EXPERIMENTAL AND IS SUBJECT TO CHANGE WITHOUT NOTICE IN FUTURE.</b>
+ *
+ * @see com.sun.xml.ws.transport.http.client.AsyncHttpTransportPipe
+ * @since 2.3.0
+ */
+public final class AsyncHttpTransportFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying the {@link AsyncHttpTransportFeature}.
+     */
+    public static final String ID = "http://jax-ws.java.net/features/async-http-transport";
+
+    /**
+     * Default cap on concurrent exchanges per host.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+
+    private final int maxConnectionsPerHost;
+    private final Executor executor;
+
+    public AsyncHttpTransportFeature() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_HOST);
+    }
+
+    @FeatureConstructor({"maxConnectionsPerHost"})
+    public AsyncHttpTransportFeature(int maxConnectionsPerHost) {
+        this(maxConnectionsPerHost, null);
+    }
+
+    /**
+     * @param executor
+     *      runs the blocking part of HTTP exchanges. If null, a shared pool
+     *      of daemon threads is used.
+     */
+    public AsyncHttpTransportFeature(int maxConnectionsPerHost, @Nullable Executor executor) {
+        if (maxConnectionsPerHost <= 0) {
+            throw new IllegalArgumentException("maxConnectionsPerHost must be positive: " + maxConnectionsPerHost);
+        }
+        this.enabled = true;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.executor = executor;
+    }
+
+    public String getID() {
+        return ID;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public @Nullable Executor getExecutor() {
+        return executor;
+    }
+}
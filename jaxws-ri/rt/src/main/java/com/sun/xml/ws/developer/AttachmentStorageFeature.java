@@ -0,0 +1,178 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.FeatureConstructor;
+import com.sun.xml.ws.encoding.AttachmentStore;
+
+import javax.xml.ws.WebServiceFeature;
+
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+/**
+ * Limits how much of the incoming MTOM and SwA attachments an endpoint or
+ * port keeps in memory.
+ *
+ * <p>
+ * Each message, all its parts together, may keep up to {@link #getMemoryThreshold()}
+ * bytes in memory, and all the messages being processed together up to
+ * {@link #getMaxMemory()} bytes; anything beyond goes to temporary files in
+ * {@link #getDir()}. The
+ * bytes kept in memory, spilled and evicted are available from
+ * {@link #getStore()}.
+ *
+ * <p>
+ * {@link StreamingAttachmentFeature}, if also enabled, takes precedence.
+ *
+ * <pre>
+ * // 1MB per message, 64MB for all the messages of this port
+ * AttachmentStorageFeature feature = new AttachmentStorageFeature(1 &lt;&lt; 20, 64 &lt;&lt; 20, null);
+ * proxy = new HelloService().getHelloPort(feature);
+ * </pre>
+ *
+ * @see AttachmentStorage
+ * @since 2.3.0
+ */
+@ManagedData
+public final class AttachmentStorageFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying the {@link AttachmentStorage} feature.
+     */
+    public static final String ID = "http://jax-ws.java.net/features/attachment-storage";
+
+    /**
+     * Default number of bytes of each message kept in memory, the same as mimepull's.
+     */
+    public static final long DEFAULT_MEMORY_THRESHOLD = 1048576L;
+
+    private long memoryThreshold;
+    private long maxMemory;
+    private String dir;
+
+    private AttachmentStore store;
+
+    public AttachmentStorageFeature() {
+        this(DEFAULT_MEMORY_THRESHOLD, 0, null);
+    }
+
+    @FeatureConstructor({"memoryThreshold", "maxMemory", "dir"})
+    public AttachmentStorageFeature(long memoryThreshold, long maxMemory, @Nullable String dir) {
+        this.enabled = true;
+        setMemoryThreshold(memoryThreshold);
+        setMaxMemory(maxMemory);
+        setDir(dir);
+    }
+
+    @ManagedAttribute
+    public String getID() {
+        return ID;
+    }
+
+    /**
+     * Bytes of each message kept in memory before spilling to disk.
+     */
+    @ManagedAttribute
+    public long getMemoryThreshold() {
+        return memoryThreshold;
+    }
+
+    public void setMemoryThreshold(long memoryThreshold) {
+        if (memoryThreshold < 0) {
+            throw new IllegalArgumentException("memoryThreshold must not be negative: " + memoryThreshold);
+        }
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    /**
+     * Bytes kept in memory by all the messages together, or 0 for no limit.
+     */
+    @ManagedAttribute
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    public void setMaxMemory(long maxMemory) {
+        if (maxMemory < 0) {
+            throw new IllegalArgumentException("maxMemory must not be negative: " + maxMemory);
+        }
+        this.maxMemory = maxMemory;
+    }
+
+    /**
+     * Directory of the temporary files, null for the system default.
+     */
+    @ManagedAttribute
+    public @Nullable String getDir() {
+        return dir;
+    }
+
+    public void setDir(@Nullable String dir) {
+        this.dir = (dir == null || dir.length() == 0) ? null : dir;
+    }
+
+    /**
+     * Returns the store that applies this configuration. Once this is called,
+     * changing the configuration has no effect.
+     */
+    public synchronized AttachmentStore getStore() {
+        if (store == null) {
+            store = new AttachmentStore(memoryThreshold, maxMemory, dir);
+        }
+        return store;
+    }
+
+    @ManagedAttribute
+    public long getBytesBuffered() {
+        return getStore().getBytesBuffered();
+    }
+
+    @ManagedAttribute
+    public long getBytesSpilled() {
+        return getStore().getBytesSpilled();
+    }
+
+    @ManagedAttribute
+    public long getBytesEvicted() {
+        return getStore().getBytesEvicted();
+    }
+}
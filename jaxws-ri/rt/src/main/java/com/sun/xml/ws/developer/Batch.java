@@ -0,0 +1,327 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.client.sei.SEIStub;
+
+import javax.xml.ws.AsyncHandler;
+import javax.xml.ws.Dispatch;
+import javax.xml.ws.Response;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends a batch of requests through one {@link Dispatch} or port proxy,
+ * keeping at most a given number of them in flight at a time.
+ *
+ * <pre>
+ * List&lt;Response&lt;Source&gt;&gt; responses = Batch.invoke(dispatch, requests, 10, null);
+ * for (Response&lt;Source&gt; r : responses) {
+ *     try {
+ *         process(r.get());
+ *     } catch (ExecutionException e) {
+ *         // only this request failed
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>
+ * The returned list holds one {@link Response} per request, in the order of the
+ * requests, and is returned as soon as the first requests are sent. Each request
+ * is sent asynchronously, the same way {@link Dispatch#invokeAsync(Object, AsyncHandler)}
+ * sends it, with its own snapshot of the request context; whenever one completes,
+ * the next one is sent. The failure of a request only fails its own {@link Response}.
+ * The optional {@link AsyncHandler} is called for each request as it completes,
+ * in the order of completion, before its {@link Response} is marked done.
+ * Cancelling a {@link Response} whose request has not been sent yet keeps it from
+ * being sent. Cancelling one whose request has been sent only stops waiting for it:
+ * the request keeps its place among the requests in flight until its response arrives.
+ *
+ * <p>
+ * The requests share the connections of the transport. With the default HTTP transport,
+ * keep-alive connections are cached by {@link java.net.HttpURLConnection}, up to
+ * {@code http.maxConnections} per host, so the concurrency should not exceed that.
+ * With {@link AsyncHttpTransportFeature}, the requests in flight do not hold a thread
+ * each, and the transport additionally caps the exchanges per host.
+ *
+ * <p>
+ * <b>THIS API IS EXPERIMENTAL AND IS SUBJECT TO CHANGE WITHOUT NOTICE IN FUTURE.</b>
+ *
+ * @see AsyncHttpTransportFeature
+ * @since 2.3.0
+ */
+public final class Batch {
+
+    private static final Logger LOGGER = Logger.getLogger(Batch.class.getName());
+
+    private Batch() {}
+
+    /**
+     * Sends the requests through a {@link Dispatch}.
+     *
+     * @param maxConcurrency
+     *      maximum number of requests in flight at a time.
+     * @param handler
+     *      Optional {@link AsyncHandler} called as each request completes.
+     * @return
+     *      one {@link Response} per request, in the order of the requests.
+     */
+    public static <T> List<Response<T>> invoke(@NotNull final Dispatch<T> dispatch, @NotNull List<? extends T> requests,
+                                               int maxConcurrency, @Nullable AsyncHandler<T> handler) {
+        final List<T> r = new ArrayList<T>(requests);
+        return new Run<T>(r.size(), maxConcurrency, handler) {
+            void send(int i, AsyncHandler<T> h) {
+                dispatch.invokeAsync(r.get(i), h);
+            }
+        }.start();
+    }
+
+    /**
+     * Invokes a synchronous method of a port proxy once for each set of arguments.
+     *
+     * <p>
+     * Each {@link Response} yields what the method returns for its arguments,
+     * or fails with what the method throws.
+     *
+     * @param port
+     *      proxy obtained from a {@link javax.xml.ws.Service}.
+     * @param method
+     *      synchronous method of the port interface.
+     * @param maxConcurrency
+     *      maximum number of invocations in flight at a time.
+     * @param handler
+     *      Optional {@link AsyncHandler} called as each invocation completes.
+     * @return
+     *      one {@link Response} per set of arguments, in the order of the arguments.
+     * @throws IllegalArgumentException
+     *      if {@code port} is not a JAX-WS RI port proxy, or the method
+     *      is not a synchronous method of its port interface.
+     */
+    public static List<Response<Object>> invoke(@NotNull Object port, @NotNull final Method method,
+                                                @NotNull List<Object[]> arguments,
+                                                int maxConcurrency, @Nullable AsyncHandler<Object> handler) {
+        InvocationHandler ih = Proxy.isProxyClass(port.getClass()) ? Proxy.getInvocationHandler(port) : null;
+        if (!(ih instanceof SEIStub)) {
+            throw new IllegalArgumentException("Not a JAX-WS RI port proxy: " + port);
+        }
+        final SEIStub stub = (SEIStub) ih;
+        final List<Object[]> a = new ArrayList<Object[]>(arguments);
+        return new Run<Object>(a.size(), maxConcurrency, handler) {
+            void send(int i, AsyncHandler<Object> h) {
+                stub.invokeAsync(method, a.get(i), h);
+            }
+        }.start();
+    }
+
+    /**
+     * One batch of requests.
+     */
+    static abstract class Run<T> {
+        private final List<Item> items;
+        private final AsyncHandler<T> handler;
+
+        /**
+         * Number of requests that may still be sent.
+         */
+        private final AtomicInteger slots;
+
+        /**
+         * Serializes {@link #drain()} without a lock, so that requests
+         * completing synchronously don't recurse.
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        /**
+         * Index of the next request to send. Only accessed in {@link #drain()}.
+         */
+        private int next;
+
+        Run(int size, int maxConcurrency, @Nullable AsyncHandler<T> handler) {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+            }
+            this.slots = new AtomicInteger(maxConcurrency);
+            this.handler = handler;
+            List<Item> l = new ArrayList<Item>(size);
+            for (int i = 0; i < size; i++) {
+                l.add(new Item());
+            }
+            this.items = l;
+        }
+
+        /**
+         * Sends the i-th request asynchronously, calling the given handler when it completes.
+         */
+        abstract void send(int i, AsyncHandler<T> h);
+
+        List<Response<T>> start() {
+            drain();
+            return Collections.<Response<T>>unmodifiableList(items);
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (next < items.size() && slots.get() > 0) {
+                    int i = next++;
+                    final Item item = items.get(i);
+                    if (item.isDone()) {
+                        // cancelled before it was sent
+                        continue;
+                    }
+                    slots.decrementAndGet();
+                    try {
+                        send(i, new AsyncHandler<T>() {
+                            public void handleResponse(Response<T> res) {
+                                completed(item, res);
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        completed(item, new Failed<T>(e));
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void completed(Item item, Response<T> res) {
+            try {
+                if (handler != null && !item.isCancelled()) {
+                    try {
+                        handler.handleResponse(res);
+                    } catch (RuntimeException e) {
+                        LOGGER.log(Level.WARNING, "AsyncHandler of a batch request failed", e);
+                    }
+                }
+                item.complete(res);
+            } finally {
+                item.finish();
+            }
+        }
+
+        /**
+         * {@link Response} of one request of the batch, completed from the
+         * {@link Response} of the underlying asynchronous invocation.
+         *
+         * <p>
+         * Cancelling it doesn't cancel the underlying invocation, as a cancelled
+         * invocation never completes and so would never give back its slot.
+         */
+        final class Item extends FutureTask<T> implements Response<T> {
+            private final AtomicBoolean finished = new AtomicBoolean();
+            private volatile Map<String, Object> context;
+
+            Item() {
+                super(NONE, null);
+            }
+
+            void complete(Response<T> r) {
+                try {
+                    context = r.getContext();
+                    set(r.get());
+                } catch (ExecutionException e) {
+                    setException(e.getCause());
+                } catch (InterruptedException e) {
+                    // the response is done, so this can't happen
+                    setException(e);
+                } catch (RuntimeException e) {
+                    // e.g. CancellationException
+                    setException(e);
+                }
+            }
+
+            /**
+             * Gives the slot of this request to the next one, once.
+             */
+            void finish() {
+                if (finished.compareAndSet(false, true)) {
+                    slots.incrementAndGet();
+                    drain();
+                }
+            }
+
+            @Override
+            public void run() {
+                // completed by complete(), never run
+            }
+
+            public Map<String, Object> getContext() {
+                return context;
+            }
+        }
+    }
+
+    private static final Runnable NONE = new Runnable() {
+        public void run() {
+            throw new IllegalStateException();
+        }
+    };
+
+    /**
+     * {@link Response} of a request that could not be sent.
+     */
+    private static final class Failed<T> extends FutureTask<T> implements Response<T> {
+        Failed(Throwable t) {
+            super(NONE, null);
+            setException(t);
+        }
+
+        public Map<String, Object> getContext() {
+            return null;
+        }
+    }
+}
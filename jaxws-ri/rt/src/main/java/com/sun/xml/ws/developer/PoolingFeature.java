@@ -0,0 +1,137 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.xml.ws.api.FeatureConstructor;
+
+import javax.xml.ws.WebServiceFeature;
+
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+/**
+ * Configures the pools the runtime keeps for expensive, thread-unsafe objects
+ * such as tubelines and JAXB marshallers.
+ *
+ * <p>
+ * By default, such pools are unbounded and only weakly reachable, so a GC
+ * cycle may drop every pooled instance at once. When this feature is enabled,
+ * the pools of the endpoint or port hold up to {@link #getMaxSize()} instances
+ * strongly, serve most requests from per-thread fast slots, and keep
+ * hit/miss/creation counters (see {@link com.sun.xml.ws.util.Pool#getStatistics()}).
+ *
+ * <pre>
+ * PoolingFeature feature = new PoolingFeature(64, 8);
+ * proxy = new HelloService().getHelloPort(feature);
+ * </pre>
+ *
+ * @see Pooling
+ * @since 2.3.0
+ */
+@ManagedData
+public final class PoolingFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying the {@link Pooling} feature.
+     */
+    public static final String ID = "http://jax-ws.java.net/features/pooling";
+
+    /**
+     * Default maximum number of instances retained by a pool.
+     */
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    /**
+     * Default number of striped fast slots in front of the shared queue.
+     */
+    public static final int DEFAULT_FAST_SLOTS = 8;
+
+    private int maxSize;
+    private int fastSlots;
+
+    public PoolingFeature() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_FAST_SLOTS);
+    }
+
+    @FeatureConstructor({"maxSize", "fastSlots"})
+    public PoolingFeature(int maxSize, int fastSlots) {
+        this.enabled = true;
+        setMaxSize(maxSize);
+        setFastSlots(fastSlots);
+    }
+
+    @ManagedAttribute
+    public String getID() {
+        return ID;
+    }
+
+    /**
+     * Maximum number of idle instances a pool retains. Instances recycled
+     * into a full pool are discarded.
+     */
+    @ManagedAttribute
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Number of striped slots that are consulted before the shared queue.
+     * Rounded down to a power of two and capped at {@link #getMaxSize()};
+     * {@code 0} disables the fast slots.
+     */
+    @ManagedAttribute
+    public int getFastSlots() {
+        return fastSlots;
+    }
+
+    public void setFastSlots(int fastSlots) {
+        if (fastSlots < 0) {
+            throw new IllegalArgumentException("fastSlots must not be negative: " + fastSlots);
+        }
+        this.fastSlots = fastSlots;
+    }
+}
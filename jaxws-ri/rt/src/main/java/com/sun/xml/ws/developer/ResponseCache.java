@@ -0,0 +1,102 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.xml.ws.developer.ResponseCacheFeature.Eviction;
+
+import javax.xml.ws.spi.WebServiceFeatureAnnotation;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes a web service endpoint answer repeated identical requests to some of
+ * its operations from a cache.
+ *
+ * <pre>
+ * &#64;WebService
+ * &#64;ResponseCache(operations="getCountries", ttl=60000, maxBytes=16 &lt;&lt; 20)
+ * public class ReferenceDataService {
+ * }
+ * </pre>
+ *
+ * @see ResponseCacheFeature
+ * @since 2.3.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+@WebServiceFeatureAnnotation(id = ResponseCacheFeature.ID, bean = ResponseCacheFeature.class)
+public @interface ResponseCache {
+
+    /**
+     * Local names of the WSDL operations whose responses are cached, all of
+     * them if empty.
+     */
+    String[] operations() default {};
+
+    /**
+     * Milliseconds responses are kept, or 0 to keep them until evicted.
+     */
+    long ttl() default 0;
+
+    /**
+     * Number of responses kept, or 0 for no limit.
+     */
+    int maxEntries() default 1000;
+
+    /**
+     * Bytes kept by all the responses together, or 0 for no limit.
+     */
+    long maxBytes() default 0;
+
+    /**
+     * Which responses are evicted first when the cache is full.
+     */
+    Eviction eviction() default Eviction.LRU;
+
+    /**
+     * Keeps the responses in direct buffers rather than on the heap.
+     */
+    boolean offHeap() default false;
+}
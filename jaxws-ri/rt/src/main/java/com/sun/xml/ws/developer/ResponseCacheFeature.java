@@ -0,0 +1,266 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.FeatureConstructor;
+import com.sun.xml.ws.server.ResponseCacheStore;
+
+import javax.xml.namespace.QName;
+import javax.xml.ws.WebServiceFeature;
+
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+/**
+ * Makes an endpoint answer repeated identical requests to its read-only
+ * operations from a cache, without invoking the service again.
+ *
+ * <p>
+ * Responses are cached per WSDL operation and request payload: two requests
+ * hit the same entry if their payloads have the same infoset, whatever their
+ * namespace prefixes, attribute order and comments. SOAP headers, attachments
+ * and the identity of the caller are not taken into account, so only enable
+ * this for operations whose response depends on nothing but the payload.
+ * Faults and responses with attachments are never cached.
+ *
+ * <pre>
+ * &#64;WebService
+ * &#64;ResponseCache(operations={"getCountries", "getCurrencies"}, ttl=60000, maxEntries=1000)
+ * public class ReferenceDataService {
+ * }
+ * </pre>
+ *
+ * @see ResponseCache
+ * @see ResponseCacheStore
+ * @since 2.3.0
+ */
+@ManagedData
+public final class ResponseCacheFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying the {@link ResponseCache} feature.
+     */
+    public static final String ID = "http://jax-ws.java.net/features/response-cache";
+
+    /**
+     * Which entries are evicted first when the cache is full.
+     */
+    public enum Eviction {
+        /**
+         * Least recently used.
+         */
+        LRU,
+        /**
+         * Least frequently used, the least recently used of them if several
+         * were used as often.
+         */
+        LFU
+    }
+
+    private String[] operations;
+    private long ttl;
+    private int maxEntries;
+    private long maxBytes;
+    private Eviction eviction;
+    private boolean offHeap;
+
+    private ResponseCacheStore store;
+
+    /**
+     * Caches the responses of all the operations, until evicted, in at most
+     * 1000 entries.
+     */
+    public ResponseCacheFeature() {
+        this(new String[0], 0, 1000, 0, Eviction.LRU, false);
+    }
+
+    @FeatureConstructor({"operations", "ttl", "maxEntries", "maxBytes", "eviction", "offHeap"})
+    public ResponseCacheFeature(@NotNull String[] operations, long ttl, int maxEntries, long maxBytes,
+            @NotNull Eviction eviction, boolean offHeap) {
+        this.enabled = true;
+        setOperations(operations);
+        setTtl(ttl);
+        setMaxEntries(maxEntries);
+        setMaxBytes(maxBytes);
+        setEviction(eviction);
+        setOffHeap(offHeap);
+    }
+
+    @ManagedAttribute
+    public String getID() {
+        return ID;
+    }
+
+    /**
+     * Local names of the WSDL operations whose responses are cached, all of
+     * them if empty.
+     */
+    @ManagedAttribute
+    public @NotNull String[] getOperations() {
+        return operations.clone();
+    }
+
+    public void setOperations(@NotNull String[] operations) {
+        this.operations = operations.clone();
+    }
+
+    /**
+     * Tells if the responses to the given operation are cached.
+     */
+    public boolean isCached(@NotNull QName operation) {
+        if (operations.length == 0) {
+            return true;
+        }
+        for (String op : operations) {
+            if (op.equals(operation.getLocalPart())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Milliseconds responses are kept, or 0 to keep them until evicted.
+     */
+    @ManagedAttribute
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        if (ttl < 0) {
+            throw new IllegalArgumentException("ttl must not be negative: " + ttl);
+        }
+        this.ttl = ttl;
+    }
+
+    /**
+     * Number of responses kept, or 0 for no limit.
+     */
+    @ManagedAttribute
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries must not be negative: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Bytes kept by all the responses together, or 0 for no limit.
+     */
+    @ManagedAttribute
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    @ManagedAttribute
+    public @NotNull Eviction getEviction() {
+        return eviction;
+    }
+
+    public void setEviction(@NotNull Eviction eviction) {
+        this.eviction = eviction;
+    }
+
+    /**
+     * True if the responses are kept in direct buffers rather than on the heap.
+     */
+    @ManagedAttribute
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Returns the store that applies this configuration. Once this is called,
+     * changing the configuration has no effect.
+     */
+    public synchronized @NotNull ResponseCacheStore getStore() {
+        if (store == null) {
+            store = new ResponseCacheStore(ttl, maxEntries, maxBytes, eviction, offHeap);
+        }
+        return store;
+    }
+
+    @ManagedAttribute
+    public long getHits() {
+        return getStore().getHits();
+    }
+
+    @ManagedAttribute
+    public long getMisses() {
+        return getStore().getMisses();
+    }
+
+    @ManagedAttribute
+    public long getEvictions() {
+        return getStore().getEvictions();
+    }
+
+    @ManagedAttribute
+    public long getExpirations() {
+        return getStore().getExpirations();
+    }
+
+    @ManagedAttribute
+    public int getEntryCount() {
+        return getStore().getEntryCount();
+    }
+
+    @ManagedAttribute
+    public long getByteCount() {
+        return getStore().getByteCount();
+    }
+}
@@ -101,6 +101,15 @@ public @interface SchemaValidation {
      */
     boolean outbound() default true;
 
+    /**
+     * Validates the payload of inbound messages while it is unmarshalled,
+     * instead of buffering and validating it beforehand.
+     *
+     * @see SchemaValidationFeature#isStreaming()
+     * @since 2.3.0
+     */
+    boolean streaming() default false;
+
     /**
      * Does validation for bound headers in a SOAP message.
      *
@@ -65,6 +65,7 @@ public class SchemaValidationFeature extends WebServiceFeature {
     private final Class<? extends ValidationErrorHandler> clazz;
     private final boolean inbound;
     private final boolean outbound;
+    private final boolean streaming;
 
     public SchemaValidationFeature() {
         this(true, true, DraconianValidationErrorHandler.class);
@@ -88,12 +89,21 @@ public class SchemaValidationFeature extends WebServiceFeature {
     /**
      * @since JAX-WS RI 2.2.2
      */
-    @FeatureConstructor({"inbound", "outbound", "handler"})
     public SchemaValidationFeature(boolean inbound, boolean outbound, Class<? extends ValidationErrorHandler> clazz) {
+        this(inbound, outbound, clazz, false);
+    }
+
+    /**
+     * @since 2.3.0
+     */
+    @FeatureConstructor({"inbound", "outbound", "handler", "streaming"})
+    public SchemaValidationFeature(boolean inbound, boolean outbound, Class<? extends ValidationErrorHandler> clazz,
+                                   boolean streaming) {
         this.enabled = true;
         this.inbound = inbound;
         this.outbound = outbound;
         this.clazz = clazz;
+        this.streaming = streaming;
     }
 
     @ManagedAttribute
@@ -129,4 +139,20 @@ public class SchemaValidationFeature extends WebServiceFeature {
     public boolean isOutbound() {
         return outbound;
     }
+
+    /**
+     * Validates the payload of inbound messages while it is read by the
+     * databinding, instead of buffering and validating it beforehand.
+     * An invalid inbound message then fails when its payload is read, and
+     * on the server side results in a server fault instead of a client fault.
+     * Messages whose payload is not read with a single StAX pass (for
+     * e.g. by SOAP handlers or {@link javax.xml.ws.Provider}s) are still
+     * validated up front.
+     *
+     * @since 2.3.0
+     */
+    @ManagedAttribute
+    public boolean isStreaming() {
+        return streaming;
+    }
 }
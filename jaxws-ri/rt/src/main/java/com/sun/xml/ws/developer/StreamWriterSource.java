@@ -0,0 +1,117 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Source;
+
+/**
+ * {@link Source} whose content is written to an {@link XMLStreamWriter}
+ * when the message is sent.
+ *
+ * <p>
+ * Returned from a PAYLOAD mode {@code Provider<Source>}, or passed to a
+ * PAYLOAD mode {@code Dispatch<Source>}, it lets the payload be written
+ * directly to the transport instead of being built up in memory first.
+ * The runtime calls {@link #writeTo(XMLStreamWriter)} once, after the
+ * invocation has returned; if a handler or another part of the runtime
+ * needs to read the payload before that, it is written to a buffer.
+ *
+ * <pre>
+ * return new StreamWriterSource(new QName(NS, "report")) {
+ *     public void writeTo(XMLStreamWriter w) throws XMLStreamException {
+ *         w.writeStartElement("r", "report", NS);
+ *         for (Row row : rows) {
+ *             ...
+ *         }
+ *         w.writeEndElement();
+ *     }
+ * };
+ * </pre>
+ *
+ * @see StreamingPayloadFeature
+ * @since 2.3.0
+ */
+public abstract class StreamWriterSource implements Source {
+
+    private final QName payloadName;
+    private String systemId;
+
+    /**
+     * @param payloadName
+     *      The name of the payload element written by {@link #writeTo(XMLStreamWriter)},
+     *      or null if it is not known up front, in which case the payload is
+     *      buffered when the runtime asks for its name.
+     */
+    protected StreamWriterSource(QName payloadName) {
+        this.payloadName = payloadName;
+    }
+
+    protected StreamWriterSource() {
+        this(null);
+    }
+
+    /**
+     * Writes the payload element.
+     *
+     * <p>
+     * The writer is positioned inside the SOAP body; implementations write
+     * exactly one element and must not close the writer.
+     */
+    public abstract void writeTo(XMLStreamWriter writer) throws XMLStreamException;
+
+    /**
+     * The name of the payload element, or null if not known.
+     */
+    public QName getPayloadName() {
+        return payloadName;
+    }
+
+    public void setSystemId(String systemId) {
+        this.systemId = systemId;
+    }
+
+    public String getSystemId() {
+        return systemId;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import com.sun.xml.ws.api.FeatureConstructor;
+
+import javax.xml.ws.WebServiceFeature;
+
+import org.glassfish.gmbal.ManagedAttribute;
+import org.glassfish.gmbal.ManagedData;
+
+/**
+ * Hands PAYLOAD mode {@code Dispatch<Source>} and {@code Provider<Source>}
+ * implementations the payload as a {@link javax.xml.transform.stax.StAXSource}
+ * bound to the live {@link javax.xml.stream.XMLStreamReader} of the message,
+ * instead of a {@code Source} that is buffered when it is read.
+ *
+ * <p>
+ * The source can be read only once, and only until the invocation returns;
+ * the reader is positioned at the start of the payload element. Responses
+ * (and {@code Dispatch} requests) can be written in constant memory with a
+ * {@link StreamWriterSource}, which does not need this feature.
+ *
+ * <pre>
+ * &#64;WebServiceProvider
+ * &#64;ServiceMode(Service.Mode.PAYLOAD)
+ * &#64;StreamingPayload
+ * public class ReportProvider implements Provider&lt;Source> {
+ *     public Source invoke(Source request) {
+ *         XMLStreamReader reader = ((StAXSource) request).getXMLStreamReader();
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @see StreamingPayload
+ * @since 2.3.0
+ */
+@ManagedData
+public final class StreamingPayloadFeature extends WebServiceFeature {
+    /**
+     * Constant value identifying the {@link StreamingPayload} feature.
+     */
+    public static final String ID = "http://jax-ws.java.net/features/streaming-payload";
+
+    public StreamingPayloadFeature() {
+        this(true);
+    }
+
+    @FeatureConstructor({"enabled"})
+    public StreamingPayloadFeature(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @ManagedAttribute
+    public String getID() {
+        return ID;
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import org.jvnet.mimepull.MIMEConfig;
+import org.jvnet.mimepull.MIMEMessage;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Storage policy for the MIME parts of incoming MTOM and SwA messages of one
+ * endpoint or port.
+ *
+ * <p>
+ * On its own, mimepull's {@code memoryThreshold} applies to each part of each
+ * message independently, so a message with many parts, or many concurrent
+ * large uploads, still add up. This store hands out the in-memory allowance
+ * of each message from a budget shared by all the messages of the endpoint,
+ * and enforces it across the parts of the message as they are read: once the
+ * message has read its allowance, the rest of it goes to disk. Once the budget
+ * is used up, new messages go straight to disk until earlier ones are
+ * released.
+ *
+ * <p>
+ * The bytes a message keeps in memory stay counted against the budget for as
+ * long as the message can be read, that is until the message, which its parts
+ * and their data handlers refer to, is garbage collected. What a message
+ * hasn't used of its allowance is returned earlier by {@link #release(MIMEMessage)},
+ * which the HTTP transport calls once the response to the request is written.
+ *
+ * <p>
+ * The store also counts the bytes kept in memory, spilled to disk and
+ * evicted (dropped from memory once their message was collected).
+ *
+ * @see com.sun.xml.ws.developer.AttachmentStorageFeature
+ * @since 2.3.0
+ */
+public final class AttachmentStore {
+
+    private static final Logger LOGGER = Logger.getLogger(AttachmentStore.class.getName());
+
+    private final long memoryThreshold;
+    private final long maxMemory;
+    private final @Nullable String dir;
+
+    /**
+     * False if temporary files can't be created, in which case mimepull
+     * keeps everything in memory whatever the threshold.
+     */
+    private final boolean canSpill;
+
+    private final AtomicLong memoryInUse = new AtomicLong();
+    private final LongAdder buffered = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * Messages whose allowance hasn't been returned yet. Reservations are
+     * weakly bound to their message, and return what is left of the
+     * allowance once it becomes unreachable.
+     */
+    private final Set<Reservation> reservations =
+            Collections.newSetFromMap(new ConcurrentHashMap<Reservation, Boolean>());
+    private final ReferenceQueue<Object> released = new ReferenceQueue<Object>();
+
+    /**
+     * @param memoryThreshold
+     *      bytes of each message that may be kept in memory.
+     * @param maxMemory
+     *      bytes that may be kept in memory by all the messages together,
+     *      or 0 for no limit other than {@code memoryThreshold}.
+     * @param dir
+     *      directory of the temporary files, or null for the default one.
+     */
+    public AttachmentStore(long memoryThreshold, long maxMemory, @Nullable String dir) {
+        if (memoryThreshold < 0 || maxMemory < 0) {
+            throw new IllegalArgumentException("memoryThreshold and maxMemory must not be negative");
+        }
+        this.memoryThreshold = memoryThreshold;
+        this.maxMemory = maxMemory;
+        this.dir = dir;
+        this.canSpill = canCreateTempFiles(dir);
+    }
+
+    /**
+     * Does once what {@link MIMEConfig#validate()} would otherwise do for every message.
+     */
+    private static boolean canCreateTempFiles(String dir) {
+        try {
+            File f = (dir == null) ? File.createTempFile("MIME", null) : File.createTempFile("MIME", null, new File(dir));
+            if (!f.delete()) {
+                f.deleteOnExit();
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot create temporary files, attachments will be kept in memory", e);
+            return false;
+        } catch (SecurityException e) {
+            LOGGER.log(Level.WARNING, "Cannot create temporary files, attachments will be kept in memory", e);
+            return false;
+        }
+    }
+
+    /**
+     * Creates a {@link MIMEMessage} that reads from the given stream under
+     * this store's policy.
+     *
+     * <p>
+     * The message's memory allowance is returned to the store once the
+     * message is garbage collected.
+     */
+    public @NotNull MIMEMessage createMessage(@NotNull InputStream in, @NotNull String boundary) {
+        expunge();
+        long granted = reserve();
+
+        MIMEConfig config = new MIMEConfig();
+        if (dir != null) {
+            config.setDir(dir);
+        }
+        config.setMemoryThreshold(canSpill ? granted : -1);
+        CountingInputStream counting = new CountingInputStream(in);
+        StoredMessage message = new StoredMessage(counting, boundary, config);
+        Reservation r = new Reservation(message, granted, canSpill ? config : null);
+        message.reservation = r;
+        counting.reservation = r;
+        reservations.add(r);
+        return message;
+    }
+
+    /**
+     * Returns the part of its memory allowance a message created by this
+     * store hasn't used, once nothing more is to be read from it into memory.
+     *
+     * <p>
+     * Nothing is closed: the parts read so far stay readable, and whatever is
+     * left of the message is read straight to disk. The bytes the message
+     * keeps in memory stay counted against the budget until the message is
+     * garbage collected. Releasing a message more than once, or one that this
+     * store didn't create, does nothing.
+     */
+    public void release(@NotNull MIMEMessage message) {
+        if (message instanceof StoredMessage) {
+            Reservation r = ((StoredMessage) message).reservation;
+            if (r != null) {
+                r.trim();
+            }
+        }
+        expunge();
+    }
+
+    private long reserve() {
+        if (maxMemory == 0) {
+            memoryInUse.addAndGet(memoryThreshold);
+            return memoryThreshold;
+        }
+        while (true) {
+            long inUse = memoryInUse.get();
+            long granted = Math.max(0, Math.min(memoryThreshold, maxMemory - inUse));
+            if (memoryInUse.compareAndSet(inUse, inUse + granted)) {
+                return granted;
+            }
+        }
+    }
+
+    /**
+     * Returns the allowance of the messages that were collected since the last call.
+     */
+    private void expunge() {
+        Reservation r;
+        while ((r = (Reservation) released.poll()) != null) {
+            r.drop();
+        }
+    }
+
+    /**
+     * Bytes each message, all its parts together, may keep in memory.
+     */
+    public long getMemoryThreshold() {
+        return memoryThreshold;
+    }
+
+    /**
+     * Bytes all the messages together may keep in memory, 0 if unlimited.
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * Bytes currently reserved by live messages: those they keep in memory,
+     * and the rest of the allowance of those that may still read into memory.
+     */
+    public long getMemoryInUse() {
+        expunge();
+        return memoryInUse.get();
+    }
+
+    /**
+     * Total bytes of MIME content kept in memory so far.
+     */
+    public long getBytesBuffered() {
+        return buffered.sum();
+    }
+
+    /**
+     * Total bytes of MIME content written to temporary files so far.
+     */
+    public long getBytesSpilled() {
+        return spilled.sum();
+    }
+
+    /**
+     * Total bytes dropped from memory once their message was garbage collected.
+     */
+    public long getBytesEvicted() {
+        expunge();
+        return evicted.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "AttachmentStore[buffered=" + getBytesBuffered() + ", spilled=" + getBytesSpilled()
+                + ", evicted=" + getBytesEvicted() + ", inUse=" + getMemoryInUse() + "]";
+    }
+
+    private final class Reservation extends WeakReference<MIMEMessage> {
+        /**
+         * Allowance still taken from {@link AttachmentStore#memoryInUse}.
+         * Guarded by this.
+         */
+        private long reserved;
+        private boolean trimmed;
+        /**
+         * Bytes after which the content goes to disk.
+         */
+        volatile long limit;
+        /**
+         * Configuration of the message, whose threshold shrinks as the message
+         * is read. Null if the message is kept in memory whatever its size.
+         */
+        private final @Nullable MIMEConfig config;
+        /**
+         * Bytes read from the wire so far. Only updated by the parsing thread.
+         */
+        volatile long read;
+
+        Reservation(MIMEMessage message, long granted, @Nullable MIMEConfig config) {
+            super(message, released);
+            this.reserved = granted;
+            this.limit = (config != null) ? granted : Long.MAX_VALUE;
+            this.config = config;
+        }
+
+        long inMemory() {
+            return Math.min(read, limit);
+        }
+
+        void count(long n) {
+            long limit = this.limit;
+            long before = read;
+            long after = before + n;
+            read = after;
+            if (config != null) {
+                // mimepull compares the threshold with the bytes buffered by the
+                // part being read, so what is left of the allowance is shared
+                // by all the parts of the message
+                config.setMemoryThreshold(Math.max(0, limit - after));
+            }
+            long mem = Math.min(after, limit) - Math.min(before, limit);
+            if (mem > 0) {
+                buffered.add(mem);
+            }
+            if (n > mem) {
+                spilled.add(n - mem);
+            }
+        }
+
+        /**
+         * Sends the rest of the message to disk, and returns the allowance it
+         * hasn't used. What it has used stays reserved until it is dropped.
+         */
+        synchronized void trim() {
+            if (trimmed || !reservations.contains(this)) {
+                return;
+            }
+            trimmed = true;
+            if (config != null) {
+                limit = Math.min(read, limit);
+                config.setMemoryThreshold(0);
+            }
+            long unused = Math.max(0, reserved - inMemory());
+            reserved -= unused;
+            memoryInUse.addAndGet(-unused);
+        }
+
+        /**
+         * Returns what is left of the allowance once the message is collected,
+         * along with the bytes it kept in memory.
+         */
+        synchronized void drop() {
+            if (reservations.remove(this)) {
+                memoryInUse.addAndGet(-reserved);
+                reserved = 0;
+                evicted.add(inMemory());
+            }
+        }
+    }
+
+    /**
+     * {@link MIMEMessage} that keeps track of its allowance.
+     */
+    private static final class StoredMessage extends MIMEMessage {
+        /**
+         * Set right after construction, since it refers to the message.
+         */
+        volatile Reservation reservation;
+
+        StoredMessage(InputStream in, String boundary, MIMEConfig config) {
+            super(in, boundary, config);
+        }
+    }
+
+    /**
+     * Counts the bytes mimepull reads, which is what ends up in memory or on disk.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        /**
+         * Set right after the message is created, before it is read.
+         */
+        Reservation reservation;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                reservation.count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                reservation.count(n);
+            }
+            return n;
+        }
+    }
+}
@@ -48,6 +48,7 @@ import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.pipe.Codec;
 import com.sun.xml.ws.api.pipe.ContentType;
+import com.sun.xml.ws.developer.AttachmentStorageFeature;
 import com.sun.xml.ws.developer.StreamingAttachmentFeature;
 
 import java.io.IOException;
@@ -191,7 +192,9 @@ abstract class MimeCodec implements Codec {
     }
 
     public void decode(InputStream in, String contentType, Packet packet) throws IOException {
-        MimeMultipartParser parser = new MimeMultipartParser(in, contentType, features.get(StreamingAttachmentFeature.class));
+        AttachmentStorageFeature storage = features.get(AttachmentStorageFeature.class);
+        MimeMultipartParser parser = new MimeMultipartParser(in, contentType, features.get(StreamingAttachmentFeature.class),
+                (storage != null && storage.isEnabled()) ? storage.getStore() : null);
         decode(parser,packet);
     }
 
@@ -46,7 +46,7 @@ import com.sun.xml.ws.api.message.Attachment;
 import com.sun.xml.ws.api.message.AttachmentEx;
 import com.sun.xml.ws.developer.StreamingAttachmentFeature;
 import com.sun.xml.ws.developer.StreamingDataHandler;
-import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.SegmentedBuffer;
 import com.sun.xml.ws.util.ByteArrayDataSource;
 
 import org.jvnet.mimepull.Header;
@@ -67,8 +67,6 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * Parses Mime multipart message into primary part and attachment parts. It
@@ -81,6 +79,7 @@ public final class MimeMultipartParser {
 
     private final String start;
     private final MIMEMessage message;
+    private final @Nullable AttachmentStore store;
     private Attachment root;
     private ContentTypeImpl contentType;
     
@@ -90,6 +89,15 @@ public final class MimeMultipartParser {
     private boolean gotAll;
 
     public MimeMultipartParser(InputStream in, String cType, StreamingAttachmentFeature feature) {
+        this(in, cType, feature, null);
+    }
+
+    /**
+     * @param store
+     *      storage policy for the parts, used unless {@code feature} is given.
+     */
+    public MimeMultipartParser(InputStream in, String cType, @Nullable StreamingAttachmentFeature feature,
+                               @Nullable AttachmentStore store) {
         this.contentType = new ContentTypeImpl(cType);
 //        ContentType ct = new ContentType(cType);
 //        String boundary = ct.getParameter("boundary");
@@ -97,9 +105,16 @@ public final class MimeMultipartParser {
         if (boundary == null || boundary.equals("")) {
             throw new WebServiceException("MIME boundary parameter not found" + contentType);
         }
-        message = (feature != null)
-                ? new MIMEMessage(in, boundary, feature.getConfig())
-                : new MIMEMessage(in, boundary);
+        if (feature != null) {
+            message = new MIMEMessage(in, boundary, feature.getConfig());
+            this.store = null;
+        } else if (store != null) {
+            message = store.createMessage(in, boundary);
+            this.store = store;
+        } else {
+            message = new MIMEMessage(in, boundary);
+            this.store = null;
+        }
         // Strip <...> from root part's Content-ID
 //        String st = ct.getParameter("start");
         String st = contentType.getRootId();
@@ -166,6 +181,20 @@ public final class MimeMultipartParser {
         return attach;
     }
 
+    /**
+     * Returns the memory allowance the message hasn't used to its
+     * {@link AttachmentStore}, if it has one. Nothing is closed: the parts
+     * read so far stay readable, and whatever is left of the message is read
+     * straight to disk.
+     *
+     * @see AttachmentStore#release(org.jvnet.mimepull.MIMEMessage)
+     */
+    public void releaseUnusedMemory() {
+        if (store != null) {
+            store.release(message);
+        }
+    }
+
     static class PartAttachment implements AttachmentEx {
 
         final MIMEPart part;
@@ -187,21 +216,17 @@ public final class MimeMultipartParser {
         @Override
         public byte[] asByteArray() {
             if (buf == null) {
-                ByteArrayBuffer baf = new ByteArrayBuffer();
+                // pooled segments rather than a growing array, so that the
+                // exact-size copy is the only large allocation
+                SegmentedBuffer sb = new SegmentedBuffer();
                 try {
-                    baf.write(part.readOnce());
+                    sb.write(part.readOnce());
+                    buf = sb.toByteArray();
                 } catch(IOException ioe) {
                     throw new WebServiceException(ioe);
                 } finally {
-                    if (baf != null) {
-                        try {
-                            baf.close();
-                        } catch (IOException ex) {
-                            Logger.getLogger(MimeMultipartParser.class.getName()).log(Level.FINE, null, ex);
-                        }
-                    }
+                    sb.release();
                 }
-                buf = baf.toByteArray();
             }
             return buf;
         }
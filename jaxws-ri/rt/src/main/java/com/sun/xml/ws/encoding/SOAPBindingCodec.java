@@ -40,10 +40,12 @@
 
 package com.sun.xml.ws.encoding;
 
+import com.sun.istack.Nullable;
 import com.sun.xml.ws.api.SOAPVersion;
 import com.sun.xml.ws.api.WSFeatureList;
 import com.sun.xml.ws.api.client.SelectOptimalEncodingFeature;
 import com.sun.xml.ws.api.fastinfoset.FastInfosetFeature;
+import com.sun.xml.ws.api.fastinfoset.FastInfosetVocabulary;
 import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.message.ExceptionHasMessage;
@@ -144,6 +146,11 @@ public class SOAPBindingCodec extends MimeCodec implements com.sun.xml.ws.api.pi
      * The Accept header for Fast Infoset and XML encodings
      */
     private final String connegXmlAccept;
+
+    /**
+     * The external vocabulary Fast Infoset documents may be encoded with, if any.
+     */
+    private final @Nullable FastInfosetVocabulary fiVocabulary;
     
     public StreamSOAPCodec getXMLCodec() {
         return xmlSoapCodec;
@@ -165,9 +172,20 @@ public class SOAPBindingCodec extends MimeCodec implements com.sun.xml.ws.api.pi
     }
     
     public SOAPBindingCodec(WSFeatureList features, StreamSOAPCodec xmlSoapCodec) {
+        this(features, xmlSoapCodec, null);
+    }
+
+    /**
+     * @param fiVocabulary
+     *      external vocabulary to encode Fast Infoset documents with, when
+     *      the peer has it too, and to decode them with.
+     */
+    public SOAPBindingCodec(WSFeatureList features, StreamSOAPCodec xmlSoapCodec,
+                            @Nullable FastInfosetVocabulary fiVocabulary) {
         super(getSoapVersion(features), features);
         
         this.xmlSoapCodec = xmlSoapCodec;
+        this.fiVocabulary = fiVocabulary;
         xmlMimeType = xmlSoapCodec.getMimeType();
         
         xmlMtomCodec = new MtomCodec(version, xmlSoapCodec, features);
@@ -180,11 +198,13 @@ public class SOAPBindingCodec extends MimeCodec implements com.sun.xml.ws.api.pi
         WebServiceFeature fi = features.get(FastInfosetFeature.class);
         isFastInfosetDisabled = (fi != null && !fi.isEnabled());
         if (!isFastInfosetDisabled) {
-            fiSoapCodec = getFICodec(xmlSoapCodec, version);
+            fiSoapCodec = getFICodec(xmlSoapCodec, version, fiVocabulary);
             if (fiSoapCodec != null) {
                 fiMimeType = fiSoapCodec.getMimeType();
                 fiSwaCodec = new SwACodec(version, features, fiSoapCodec);
-                connegXmlAccept = fiMimeType + ", " + clientAcceptedContentTypes;
+                // advertise the vocabulary, so that the endpoint may encode its responses with it
+                connegXmlAccept = fiMimeType + (fiVocabulary != null ? fiVocabulary.getParameter() : "")
+                        + ", " + clientAcceptedContentTypes;
                 
                 /**
                  * This feature will only be present on the client side.
@@ -350,7 +370,15 @@ public class SOAPBindingCodec extends MimeCodec implements com.sun.xml.ws.api.pi
     }
 
     public SOAPBindingCodec copy() {
-        return new SOAPBindingCodec(features, (StreamSOAPCodec)xmlSoapCodec.copy());
+        return new SOAPBindingCodec(features, (StreamSOAPCodec)xmlSoapCodec.copy(), fiVocabulary);
+    }
+
+    /**
+     * Creates a copy of this codec that encodes and decodes Fast Infoset
+     * documents with the given external vocabulary.
+     */
+    public SOAPBindingCodec withVocabulary(FastInfosetVocabulary vocabulary) {
+        return new SOAPBindingCodec(features, (StreamSOAPCodec)xmlSoapCodec.copy(), vocabulary);
     }
     
     @Override
@@ -486,9 +514,19 @@ public class SOAPBindingCodec extends MimeCodec implements com.sun.xml.ws.api.pi
     /**
      * Obtain an FI SOAP codec instance using reflection.
      */
-    private static Codec getFICodec(StreamSOAPCodec soapCodec, SOAPVersion version) {
+    private static Codec getFICodec(StreamSOAPCodec soapCodec, SOAPVersion version,
+                                    @Nullable FastInfosetVocabulary vocabulary) {
         try {
             Class c = Class.forName("com.sun.xml.ws.encoding.fastinfoset.FastInfosetStreamSOAPCodec");
+            if (vocabulary != null) {
+                try {
+                    Method m = c.getMethod("create", StreamSOAPCodec.class, SOAPVersion.class,
+                            boolean.class, FastInfosetVocabulary.class);
+                    return (Codec)m.invoke(null, soapCodec, version, false, vocabulary);
+                } catch (NoSuchMethodException e) {
+                    // Fast Infoset runtime without external vocabulary support
+                }
+            }
             Method m = c.getMethod("create", StreamSOAPCodec.class, SOAPVersion.class);
             return (Codec)m.invoke(null, soapCodec, version);
         } catch (Exception e) {
@@ -48,6 +48,7 @@ import com.sun.xml.ws.api.message.*;
 import com.sun.xml.ws.api.model.wsdl.WSDLPort;
 import com.sun.xml.ws.api.pipe.Codec;
 import com.sun.xml.ws.api.streaming.XMLStreamWriterFactory;
+import com.sun.xml.ws.developer.AttachmentStorageFeature;
 import com.sun.xml.ws.developer.StreamingAttachmentFeature;
 import com.sun.xml.ws.encoding.ContentType;
 import com.sun.xml.ws.encoding.MimeMultipartParser;
@@ -361,6 +362,7 @@ public final class XMLMessage {
     public static final class XMLMultiPart extends AbstractMessageImpl implements MessageDataSource {
         private final DataSource dataSource;
         private final StreamingAttachmentFeature feature;
+        private final AttachmentStorageFeature storage;
         private Message delegate;
         private HeaderList headerList;// = new HeaderList();
 //      private final WSBinding binding;
@@ -371,6 +373,7 @@ public final class XMLMessage {
             headerList = new HeaderList(SOAPVersion.SOAP_11);
             dataSource = createDataSource(contentType, is);
             this.feature = f.get(StreamingAttachmentFeature.class);
+            this.storage = f.get(AttachmentStorageFeature.class);
             this.features = f;
         }
 
@@ -379,7 +382,8 @@ public final class XMLMessage {
                 MimeMultipartParser mpp;
                 try {
                     mpp = new MimeMultipartParser(dataSource.getInputStream(),
-                            dataSource.getContentType(), feature);
+                            dataSource.getContentType(), feature,
+                            (storage != null && storage.isEnabled()) ? storage.getStore() : null);
                 } catch(IOException ioe) {
                     throw new WebServiceException(ioe);
                 }
@@ -0,0 +1,329 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.handler;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Header;
+import com.sun.xml.ws.api.message.Headers;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.MessageHeaders;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.message.saaj.SAAJFactory;
+import org.w3c.dom.Attr;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.xml.namespace.QName;
+import javax.xml.soap.AttachmentPart;
+import javax.xml.soap.MimeHeaders;
+import javax.xml.soap.SOAPBody;
+import javax.xml.soap.SOAPElement;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPHeader;
+import javax.xml.soap.SOAPHeaderElement;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.soap.SOAPPart;
+import javax.xml.ws.WebServiceException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * {@link SOAPMessage} handed out by {@link SOAPMessageContextImpl} that converts
+ * the {@link Packet}'s {@link Message} to SAAJ only as far as the handler looks at it.
+ *
+ * <p>
+ * {@link #getSOAPHeader()} is served from a small SAAJ message that only holds
+ * copies of the message headers, so the body of the packet's message is never read.
+ * Any other access (the SOAP part, the body, attachments, MIME headers, ...) converts
+ * the whole message, carrying over changes already made to the headers, after which
+ * this object simply delegates.
+ *
+ * <p>
+ * When only the headers were materialized, {@link #writeBack()} leaves the packet's
+ * message alone unless the headers were changed, in which case only the headers
+ * of the message are replaced. Once the whole message is converted, the packet's
+ * message has been read and can't be used anymore, so {@link #writeBack()} always
+ * replaces it. Header elements obtained before the whole message got converted
+ * must not be modified afterwards.
+ *
+ * @see SOAPMessageContextImpl
+ */
+final class LazySOAPMessage extends SOAPMessage {
+
+    private final Packet packet;
+    private final SOAPVersion soapVersion;
+
+    /**
+     * Message that only contains the headers, or null if not created yet.
+     */
+    private SOAPMessage headers;
+
+    /**
+     * State of {@link #headers} when it was created, used to detect modifications.
+     */
+    private String headersSnapshot;
+
+    /**
+     * Fully converted message, or null if not converted yet.
+     */
+    private SOAPMessage message;
+
+    LazySOAPMessage(Packet packet, SOAPVersion soapVersion) {
+        this.packet = packet;
+        this.soapVersion = soapVersion;
+    }
+
+    private SOAPMessage headers() throws SOAPException {
+        if (message != null) {
+            return message;
+        }
+        if (headers == null) {
+            SOAPMessage msg = soapVersion.getMessageFactory().createMessage();
+            Iterator<Header> itr = packet.getMessage().getHeaders().getHeaders();
+            while (itr.hasNext()) {
+                itr.next().writeTo(msg);
+            }
+            headers = msg;
+            headersSnapshot = snapshot(msg.getSOAPHeader());
+        }
+        return headers;
+    }
+
+    private SOAPMessage message() {
+        if (message == null) {
+            try {
+                SOAPMessage msg = packet.getMessage().readAsSOAPMessage();
+                if (headers != null) {
+                    replaceHeaders(headers.getSOAPHeader(), msg);
+                    headers = null;
+                    headersSnapshot = null;
+                }
+                message = msg;
+            } catch (SOAPException e) {
+                throw new WebServiceException(e);
+            }
+        }
+        return message;
+    }
+
+    private static void replaceHeaders(SOAPHeader from, SOAPMessage to) throws SOAPException {
+        SOAPHeader header = to.getSOAPHeader();
+        if (header == null) {
+            header = to.getSOAPPart().getEnvelope().addHeader();
+        }
+        header.removeContents();
+        for (Node child = from.getFirstChild(); child != null; child = child.getNextSibling()) {
+            header.appendChild(header.getOwnerDocument().importNode(child, true));
+        }
+    }
+
+    /**
+     * Writes the changes made through this object back to the packet, or the
+     * whole message if it was converted.
+     */
+    void writeBack() {
+        if (message != null) {
+            packet.setMessage(SAAJFactory.create(message));
+            return;
+        }
+        if (headers == null) {
+            return;
+        }
+        try {
+            SOAPHeader header = headers.getSOAPHeader();
+            if (headersSnapshot.equals(snapshot(header))) {
+                return;
+            }
+            MessageHeaders hl = packet.getMessage().getHeaders();
+            Set<QName> understood = new HashSet<QName>();
+            for (Header h : new ArrayList<Header>(hl.asList())) {
+                if (hl.isUnderstood(h)) {
+                    understood.add(new QName(h.getNamespaceURI(), h.getLocalPart()));
+                }
+                hl.remove(h.getNamespaceURI(), h.getLocalPart());
+            }
+            Iterator<?> itr = header.examineAllHeaderElements();
+            while (itr.hasNext()) {
+                Header h = Headers.create((SOAPHeaderElement) itr.next());
+                hl.add(h);
+                if (understood.contains(new QName(h.getNamespaceURI(), h.getLocalPart()))) {
+                    hl.understood(h);
+                }
+            }
+        } catch (SOAPException e) {
+            throw new WebServiceException(e);
+        }
+    }
+
+    /**
+     * Textual form of a DOM subtree that is equal for two trees exactly when
+     * they have the same names, attributes and text in the same order.
+     */
+    static String snapshot(Node node) {
+        StringBuilder sb = new StringBuilder();
+        if (node != null) {
+            snapshot(node, sb);
+        }
+        return sb.toString();
+    }
+
+    private static void snapshot(Node node, StringBuilder sb) {
+        sb.append(node.getNodeType()).append('{')
+          .append(node.getNamespaceURI()).append('}')
+          .append(node.getNodeName()).append('=');
+        String value = node.getNodeValue();
+        if (value != null) {
+            sb.append(value.length()).append(':').append(value);
+        }
+        if (node.getNodeType() == Node.ELEMENT_NODE) {
+            NamedNodeMap attrs = node.getAttributes();
+            for (int i = 0; i < attrs.getLength(); i++) {
+                Attr a = (Attr) attrs.item(i);
+                sb.append('@').append(a.getNamespaceURI()).append(' ').append(a.getName())
+                  .append('=').append(a.getValue().length()).append(':').append(a.getValue());
+            }
+        }
+        sb.append('(');
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            snapshot(child, sb);
+        }
+        sb.append(')');
+    }
+
+    @Override
+    public SOAPHeader getSOAPHeader() throws SOAPException {
+        return headers().getSOAPHeader();
+    }
+
+    @Override
+    public SOAPBody getSOAPBody() throws SOAPException {
+        return message().getSOAPBody();
+    }
+
+    @Override
+    public String getContentDescription() {
+        return message().getContentDescription();
+    }
+
+    @Override
+    public void setContentDescription(String description) {
+        message().setContentDescription(description);
+    }
+
+    @Override
+    public SOAPPart getSOAPPart() {
+        return message().getSOAPPart();
+    }
+
+    @Override
+    public void removeAllAttachments() {
+        message().removeAllAttachments();
+    }
+
+    @Override
+    public int countAttachments() {
+        return message().countAttachments();
+    }
+
+    @Override
+    public Iterator getAttachments() {
+        return message().getAttachments();
+    }
+
+    @Override
+    public Iterator getAttachments(MimeHeaders headers) {
+        return message().getAttachments(headers);
+    }
+
+    @Override
+    public void removeAttachments(MimeHeaders headers) {
+        message().removeAttachments(headers);
+    }
+
+    @Override
+    public AttachmentPart getAttachment(SOAPElement element) throws SOAPException {
+        return message().getAttachment(element);
+    }
+
+    @Override
+    public void addAttachmentPart(AttachmentPart part) {
+        message().addAttachmentPart(part);
+    }
+
+    @Override
+    public AttachmentPart createAttachmentPart() {
+        return message().createAttachmentPart();
+    }
+
+    @Override
+    public MimeHeaders getMimeHeaders() {
+        return message().getMimeHeaders();
+    }
+
+    @Override
+    public void saveChanges() throws SOAPException {
+        message().saveChanges();
+    }
+
+    @Override
+    public boolean saveRequired() {
+        return message().saveRequired();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws SOAPException, IOException {
+        message().writeTo(out);
+    }
+
+    @Override
+    public void setProperty(String property, Object value) throws SOAPException {
+        message().setProperty(property, value);
+    }
+
+    @Override
+    public Object getProperty(String property) throws SOAPException {
+        return message().getProperty(property);
+    }
+}
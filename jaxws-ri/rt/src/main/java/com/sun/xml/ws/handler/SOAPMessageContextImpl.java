@@ -57,6 +57,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Implementation of {@link SOAPMessageContext}. This class is used at runtime
@@ -68,6 +70,30 @@ import java.util.Set;
  */
 public class SOAPMessageContextImpl extends MessageUpdatableContext implements SOAPMessageContext {
 
+    private static final Logger LOGGER = Logger.getLogger(SOAPMessageContextImpl.class.getName());
+
+    /**
+     * When set, {@link #getMessage()} returns a {@link SOAPMessage} that only converts
+     * the message headers to SAAJ until the handler accesses anything else. If the
+     * handler only looked at the headers, nothing is written back unless it changed
+     * them; otherwise the whole message is written back, since converting it consumed
+     * the packet's message.
+     * Off by default, as the returned object is not an instance of the SAAJ
+     * implementation's message class.
+     */
+    public static volatile boolean lazySAAJ = false;
+
+    static {
+        try {
+            lazySAAJ = Boolean.getBoolean(SOAPMessageContextImpl.class.getName() + ".lazySAAJ");
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {SOAPMessageContextImpl.class.getName() + ".lazySAAJ"});
+            }
+        }
+    }
+
     private Set<String> roles;
     private SOAPMessage soapMsg = null;
     private WSBinding binding;
@@ -82,7 +108,13 @@ public class SOAPMessageContextImpl extends MessageUpdatableContext implements S
         if(soapMsg == null) {
             try {
             	Message m = packet.getMessage();
-            	soapMsg = m != null ? m.readAsSOAPMessage() : null;
+            	if (m == null) {
+            	    soapMsg = null;
+            	} else if (lazySAAJ) {
+            	    soapMsg = new LazySOAPMessage(packet, binding.getSOAPVersion());
+            	} else {
+            	    soapMsg = m.readAsSOAPMessage();
+            	}
             } catch (SOAPException e) {
                 throw new WebServiceException(e);
             }
@@ -108,7 +140,10 @@ public class SOAPMessageContextImpl extends MessageUpdatableContext implements S
     protected void updateMessage() {
         //Check if SOAPMessage has changed, if so construct new one,
         // Packet are handled through MessageContext
-        if(soapMsg != null) {
+        if(soapMsg instanceof LazySOAPMessage) {
+            ((LazySOAPMessage) soapMsg).writeBack();
+            soapMsg = null;
+        } else if(soapMsg != null) {
             packet.setMessage(SAAJFactory.create(soapMsg));
             soapMsg = null;
         }
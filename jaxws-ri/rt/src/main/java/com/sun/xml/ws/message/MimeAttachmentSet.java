@@ -120,4 +120,14 @@ public final class MimeAttachmentSet implements AttachmentSet {
 
         return atts.values().iterator();
     }
+
+    /**
+     * Returns the memory allowance the underlying MIME message hasn't used.
+     * The attachments stay readable.
+     *
+     * @see MimeMultipartParser#releaseUnusedMemory()
+     */
+    public void releaseUnusedMemory() {
+        mpp.releaseUnusedMemory();
+    }
 }
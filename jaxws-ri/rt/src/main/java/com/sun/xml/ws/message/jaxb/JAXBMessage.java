@@ -41,6 +41,8 @@
 package com.sun.xml.ws.message.jaxb;
 
 import com.sun.istack.FragmentContentHandler;
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
 import com.sun.xml.stream.buffer.MutableXMLStreamBuffer;
 import com.sun.xml.stream.buffer.XMLStreamBuffer;
 import com.sun.xml.stream.buffer.XMLStreamBufferResult;
@@ -58,6 +60,7 @@ import com.sun.xml.ws.message.RootElementSniffer;
 import com.sun.xml.ws.message.stream.StreamMessage;
 import com.sun.xml.ws.spi.db.BindingContext;
 import com.sun.xml.ws.spi.db.BindingContextFactory;
+import com.sun.xml.ws.spi.db.TypeInfo;
 import com.sun.xml.ws.spi.db.XMLBridge;
 import com.sun.xml.ws.streaming.XMLStreamWriterUtil;
 import com.sun.xml.ws.streaming.XMLStreamReaderUtil;
@@ -255,6 +258,9 @@ public final class JAXBMessage extends AbstractMessageImpl implements StreamingS
         this.jaxbObject = that.jaxbObject;
         this.bridge = that.bridge;
         this.rawContext = that.rawContext;
+        // the tag name is that of the same object, don't sniff it again
+        this.nsUri = that.nsUri;
+        this.localName = that.localName;
         this.copyFrom(that);
     }
     
@@ -425,6 +431,38 @@ public final class JAXBMessage extends AbstractMessageImpl implements StreamingS
         }
     }
 
+    /**
+     * Gets the JAXB object of the payload as it is, if the given bridge would
+     * unmarshal the payload into an object of the same class.
+     *
+     * <p>
+     * This lets a transport that hands messages over within the same VM skip
+     * marshalling and unmarshalling the payload. The caller then shares the
+     * object with the sender of the message.
+     *
+     * @return
+     *      null if the payload is not bound the same way by the given bridge.
+     */
+    public @Nullable <T> T getJAXBObject(@NotNull XMLBridge<T> target) {
+        if (bridge == null || jaxbObject == null) {
+            return null;
+        }
+        TypeInfo source;
+        TypeInfo type;
+        try {
+            source = bridge.getTypeInfo();
+            type = target.getTypeInfo();
+        } catch (UnsupportedOperationException e) {
+            // fragment bridge of a message created from a whole BindingContext
+            return null;
+        }
+        if (source == null || type == null || !source.tagName.equals(type.tagName)
+                || !(type.type instanceof Class) || !((Class) type.type).isInstance(jaxbObject)) {
+            return null;
+        }
+        return (T) jaxbObject;
+    }
+
     @Override
     public Message copy() {
         return new JAXBMessage(this).copyFrom(this);
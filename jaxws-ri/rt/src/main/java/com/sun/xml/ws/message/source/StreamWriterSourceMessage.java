@@ -0,0 +1,188 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.message.source;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.stream.buffer.MutableXMLStreamBuffer;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.AttachmentSet;
+import com.sun.xml.ws.api.message.HeaderList;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.MessageHeaders;
+import com.sun.xml.ws.developer.StreamWriterSource;
+import com.sun.xml.ws.message.AbstractMessageImpl;
+import com.sun.xml.ws.message.AttachmentSetImpl;
+import com.sun.xml.ws.message.stream.StreamMessage;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Source;
+import javax.xml.ws.WebServiceException;
+
+/**
+ * {@link Message} backed by a {@link StreamWriterSource} as payload.
+ *
+ * <p>
+ * {@link #writePayloadTo(XMLStreamWriter)} lets the source write straight
+ * to the outgoing writer. Everything else works on a copy of the payload
+ * buffered the first time it is needed.
+ */
+public class StreamWriterSourceMessage extends AbstractMessageImpl {
+    private final StreamWriterSource source;
+    private final AttachmentSet attachmentSet;
+    private MessageHeaders headers;
+
+    /**
+     * The payload written to a buffer, once something needed to read it.
+     */
+    private StreamMessage buffered;
+
+    private boolean written;
+
+    public StreamWriterSourceMessage(@Nullable MessageHeaders headers, @NotNull StreamWriterSource source,
+                                     @NotNull AttachmentSet attSet, @NotNull SOAPVersion soapVersion) {
+        super(soapVersion);
+        this.headers = headers;
+        this.source = source;
+        this.attachmentSet = attSet;
+    }
+
+    public StreamWriterSourceMessage(StreamWriterSource source, SOAPVersion soapVer) {
+        this(null, source, new AttachmentSetImpl(), soapVer);
+    }
+
+    public boolean hasHeaders() {
+        return headers != null && headers.hasHeaders();
+    }
+
+    public @NotNull MessageHeaders getHeaders() {
+        if (headers == null) {
+            headers = new HeaderList(soapVersion);
+        }
+        return headers;
+    }
+
+    @Override
+    public @NotNull AttachmentSet getAttachments() {
+        return attachmentSet;
+    }
+
+    public String getPayloadLocalPart() {
+        if (source.getPayloadName() != null) {
+            return source.getPayloadName().getLocalPart();
+        }
+        return buffer().getPayloadLocalPart();
+    }
+
+    public String getPayloadNamespaceURI() {
+        if (source.getPayloadName() != null) {
+            return source.getPayloadName().getNamespaceURI();
+        }
+        return buffer().getPayloadNamespaceURI();
+    }
+
+    public boolean hasPayload() {
+        return true;
+    }
+
+    public Source readPayloadAsSource() {
+        return buffer().readPayloadAsSource();
+    }
+
+    public XMLStreamReader readPayload() throws XMLStreamException {
+        return buffer().readPayload();
+    }
+
+    @Override
+    public <T> T readPayloadAsJAXB(Unmarshaller unmarshaller) throws JAXBException {
+        return (T) buffer().readPayloadAsJAXB(unmarshaller);
+    }
+
+    public void writePayloadTo(XMLStreamWriter sw) throws XMLStreamException {
+        if (buffered == null && !written) {
+            written = true;
+            source.writeTo(sw);
+        } else {
+            buffer().writePayloadTo(sw);
+        }
+    }
+
+    protected void writePayloadTo(ContentHandler contentHandler, ErrorHandler errorHandler, boolean fragment) throws SAXException {
+        buffer().writePayloadTo(contentHandler, errorHandler, fragment);
+    }
+
+    public Message copy() {
+        return buffer().copy().copyFrom(this);
+    }
+
+    /**
+     * Writes the payload to a buffer the first time it is called, and
+     * returns the message reading it from then on.
+     */
+    private StreamMessage buffer() {
+        if (buffered == null) {
+            if (written) {
+                throw new WebServiceException("The payload of this message has already been written");
+            }
+            written = true;
+            try {
+                MutableXMLStreamBuffer xsb = new MutableXMLStreamBuffer();
+                XMLStreamWriter w = xsb.createFromXMLStreamWriter();
+                w.writeStartDocument();
+                source.writeTo(w);
+                w.writeEndDocument();
+                w.close();
+                buffered = new StreamMessage(getHeaders(), attachmentSet, xsb.readAsXMLStreamReader(), soapVersion);
+                return buffered;
+            } catch (XMLStreamException e) {
+                throw new WebServiceException(e);
+            }
+        }
+        return buffered;
+    }
+}
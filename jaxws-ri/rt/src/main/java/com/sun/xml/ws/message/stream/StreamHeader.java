@@ -49,6 +49,7 @@ import com.sun.xml.ws.api.addressing.AddressingVersion;
 import com.sun.xml.ws.api.addressing.WSEndpointReference;
 import com.sun.xml.ws.api.message.Header;
 import com.sun.xml.ws.message.AbstractHeaderImpl;
+import com.sun.xml.ws.streaming.XMLStreamReaderUtil;
 import com.sun.xml.ws.util.xml.XmlUtil;
 import org.w3c.dom.Node;
 import org.xml.sax.ContentHandler;
@@ -64,6 +65,7 @@ import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMResult;
+import javax.xml.ws.WebServiceException;
 import java.util.List;
 import java.util.Set;
 
@@ -113,13 +115,32 @@ public abstract class StreamHeader extends AbstractHeaderImpl {
      * We expect there to be only a small number of them,
      * so the use of {@link List} would be justified.
      *
-     * Null if no attribute is present.
+     * Null if no attribute is present, or if they haven't been parsed yet.
      */
-    private final FinalArrayList<Attribute> attributes;
+    private FinalArrayList<Attribute> attributes;
+
+    /**
+     * False until {@link #attributes} is set.
+     *
+     * <p>
+     * A header decoded from a message only reads its SOAP attributes up front,
+     * as those are needed for every header to process mustUnderstand; the
+     * rest are parsed from the mark the first time they are asked for, since
+     * most headers are never asked.
+     */
+    private boolean attributesParsed;
 
     /**
      * Creates a {@link StreamHeader}.
      *
+     * <p>
+     * Headers are created as soon as the headers of their message are read, not
+     * on first access. {@link StreamMessage} already defers reading its headers
+     * until they, or the payload, are first asked for, and by then the name and
+     * SOAP attributes of every header are needed to look headers up and to check
+     * mustUnderstand. The header is marked in the header buffer as the stream
+     * passes it anyway, so a placeholder would keep as much as this does.
+     *
      * @param reader
      *      The parser pointing at the start of the mark.
      *      Technically this information is redundant,
@@ -132,7 +153,10 @@ public abstract class StreamHeader extends AbstractHeaderImpl {
         _mark = mark;
         _localName = reader.getLocalName();
         _namespaceURI = reader.getNamespaceURI();
-        attributes = processHeaderAttributes(reader);
+        if (!processSOAPAttributes(reader)) {
+            attributes = processHeaderAttributes(reader);
+            attributesParsed = true;
+        }
     }
 
     /**
@@ -147,6 +171,7 @@ public abstract class StreamHeader extends AbstractHeaderImpl {
         _localName = reader.getLocalName();
         _namespaceURI = reader.getNamespaceURI();
         attributes = processHeaderAttributes(reader);
+        attributesParsed = true;
         // cache the body
         _mark = XMLStreamBuffer.createNewBufferFromXMLStreamReader(reader);
     }
@@ -180,6 +205,8 @@ public abstract class StreamHeader extends AbstractHeaderImpl {
     }
 
     public String getAttribute(String nsUri, String localName) {
+        if(!attributesParsed)
+            parseAttributes();
         if(attributes!=null) {
             for(int i=attributes.size()-1; i>=0; i-- ) {
                 Attribute a = attributes.get(i);
@@ -190,6 +217,27 @@ public abstract class StreamHeader extends AbstractHeaderImpl {
         return null;
     }
 
+    private void parseAttributes() {
+        try {
+            XMLStreamReader reader = readHeader();
+            if (reader.getEventType() != XMLStreamReader.START_ELEMENT) {
+                XMLStreamReaderUtil.nextElementContent(reader);
+            }
+            FinalArrayList<Attribute> atts = null;
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if(atts==null) {
+                    atts = new FinalArrayList<Attribute>();
+                }
+                atts.add(new Attribute(reader.getAttributeNamespace(i),
+                        reader.getAttributeLocalName(i), reader.getAttributeValue(i)));
+            }
+            attributes = atts;
+            attributesParsed = true;
+        } catch (XMLStreamException e) {
+            throw new WebServiceException("Unable to read the attributes for {"+_namespaceURI+"}"+_localName+" header",e);
+        }
+    }
+
     /**
      * Reads the header as a {@link XMLStreamReader}
      */
@@ -244,6 +292,19 @@ public abstract class StreamHeader extends AbstractHeaderImpl {
 
     protected abstract FinalArrayList<Attribute> processHeaderAttributes(XMLStreamReader reader);
 
+    /**
+     * Reads only the attributes that determine {@link #_isMustUnderstand},
+     * {@link #_role} and {@link #_isRelay}, leaving the others to be parsed
+     * from the mark if they are ever needed.
+     *
+     * @return
+     *      false if not supported, in which case {@link #processHeaderAttributes(XMLStreamReader)}
+     *      is used instead.
+     */
+    protected boolean processSOAPAttributes(XMLStreamReader reader) {
+        return false;
+    }
+
     /**
      * Convert null to "".
      */
@@ -78,13 +78,7 @@ public class StreamHeader11 extends StreamHeader {
             final String value = reader.getAttributeValue(i);
 
             if (SOAPConstants.URI_NS_SOAP_1_1_ENVELOPE.equals(namespaceURI)) {
-                if (SOAP_1_1_MUST_UNDERSTAND.equals(localName)) {
-                    _isMustUnderstand = Util.parseBool(value);
-                } else if (SOAP_1_1_ROLE.equals(localName)) {
-                    if (value != null && value.length() > 0) {
-                        _role = value;
-                    }
-                }
+                processSOAPAttribute(localName, value);
             }
 
             if(atts==null) {
@@ -95,4 +89,26 @@ public class StreamHeader11 extends StreamHeader {
 
         return atts;
     }
+
+    @Override
+    protected final boolean processSOAPAttributes(XMLStreamReader reader) {
+        _role = SOAPConstants.URI_SOAP_ACTOR_NEXT;
+
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (SOAPConstants.URI_NS_SOAP_1_1_ENVELOPE.equals(reader.getAttributeNamespace(i))) {
+                processSOAPAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            }
+        }
+        return true;
+    }
+
+    private void processSOAPAttribute(String localName, String value) {
+        if (SOAP_1_1_MUST_UNDERSTAND.equals(localName)) {
+            _isMustUnderstand = Util.parseBool(value);
+        } else if (SOAP_1_1_ROLE.equals(localName)) {
+            if (value != null && value.length() > 0) {
+                _role = value;
+            }
+        }
+    }
 }
@@ -80,15 +80,7 @@ public class StreamHeader12 extends StreamHeader {
             final String value = reader.getAttributeValue(i);
 
             if (SOAPConstants.URI_NS_SOAP_1_2_ENVELOPE.equals(namespaceURI)) {
-                if (SOAP_1_2_MUST_UNDERSTAND.equals(localName)) {
-                    _isMustUnderstand = Util.parseBool(value);
-                } else if (SOAP_1_2_ROLE.equals(localName)) {
-                    if (value != null && value.length() > 0) {
-                        _role = value;
-                    }
-                } else if (SOAP_1_2_RELAY.equals(localName)) {
-                    _isRelay = Util.parseBool(value);
-                }
+                processSOAPAttribute(localName, value);
             }
 
             if(atts==null) {
@@ -100,4 +92,28 @@ public class StreamHeader12 extends StreamHeader {
         return atts;
     }
 
+    @Override
+    protected final boolean processSOAPAttributes(XMLStreamReader reader) {
+        _role = SOAPConstants.URI_SOAP_1_2_ROLE_ULTIMATE_RECEIVER;
+
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (SOAPConstants.URI_NS_SOAP_1_2_ENVELOPE.equals(reader.getAttributeNamespace(i))) {
+                processSOAPAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            }
+        }
+        return true;
+    }
+
+    private void processSOAPAttribute(String localName, String value) {
+        if (SOAP_1_2_MUST_UNDERSTAND.equals(localName)) {
+            _isMustUnderstand = Util.parseBool(value);
+        } else if (SOAP_1_2_ROLE.equals(localName)) {
+            if (value != null && value.length() > 0) {
+                _role = value;
+            }
+        } else if (SOAP_1_2_RELAY.equals(localName)) {
+            _isRelay = Util.parseBool(value);
+        }
+    }
+
 }
@@ -65,6 +65,7 @@ import com.sun.xml.ws.spi.db.TypeInfo;
 import com.sun.xml.ws.util.Pool;
 import com.sun.xml.ws.developer.UsesJAXBContextFeature;
 import com.sun.xml.ws.developer.JAXBContextFactory;
+import com.sun.xml.ws.developer.PoolingFeature;
 import com.sun.xml.ws.binding.WebServiceFeatureList;
 
 import javax.jws.WebParam.Mode;
@@ -241,7 +242,7 @@ public abstract class AbstractSEIModelImpl implements SEIModel {
             }
         }
 
-        marshallers = new Pool.Marshaller(jaxbContext);
+        marshallers = new Pool.Marshaller(jaxbContext, features.get(PoolingFeature.class));
 
         //return getJAXBContext();
     }
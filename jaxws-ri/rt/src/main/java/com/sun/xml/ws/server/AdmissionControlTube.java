@@ -0,0 +1,190 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.model.SEIModel;
+import com.sun.xml.ws.api.model.WSDLOperationMapping;
+import com.sun.xml.ws.api.model.wsdl.WSDLPort;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.Tube;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractFilterTubeImpl;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.developer.AdmissionControlFeature;
+import com.sun.xml.ws.fault.SOAPFaultBuilder;
+
+import javax.xml.namespace.QName;
+import javax.xml.ws.handler.MessageContext;
+import java.net.HttpURLConnection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link Tube} that lets requests through only as far as the
+ * {@link AdmissionController} of the endpoint admits them.
+ *
+ * <p>
+ * It is the first tube of the endpoint, so that rejected requests cost next
+ * to nothing: only the headers of the request have been read. Requests that
+ * have to wait suspend their {@link Fiber}. An asynchronous fiber gives its
+ * thread back meanwhile, but a {@link Fiber#isSynchronous() synchronous} one,
+ * as used by the transports that call the endpoint with
+ * {@link com.sun.xml.ws.api.server.WSEndpoint.PipeHead#process} on their own
+ * thread, blocks that thread until the request is admitted or times out.
+ * Without a queue timeout, such requests are rejected instead of queued, so
+ * that they can't hold a thread forever.
+ *
+ * @see AdmissionControlFeature
+ * @since 2.3.0
+ */
+public class AdmissionControlTube extends AbstractFilterTubeImpl {
+
+    private static final Logger LOGGER = Logger.getLogger(AdmissionControlTube.class.getName());
+
+    private final AdmissionController controller;
+    private final WSBinding binding;
+    private final @Nullable WSDLPort wsdlPort;
+    private final @Nullable SEIModel seiModel;
+
+    /**
+     * Ticket of the request being processed, if it was admitted.
+     */
+    private volatile @Nullable AdmissionController.Ticket admitted;
+
+    public AdmissionControlTube(@NotNull AdmissionControlFeature feature, @NotNull WSBinding binding,
+            @Nullable WSDLPort wsdlPort, @Nullable SEIModel seiModel, Tube next) {
+        super(next);
+        this.controller = feature.getController();
+        this.binding = binding;
+        this.wsdlPort = wsdlPort;
+        this.seiModel = seiModel;
+    }
+
+    protected AdmissionControlTube(AdmissionControlTube that, TubeCloner cloner) {
+        super(that, cloner);
+        this.controller = that.controller;
+        this.binding = that.binding;
+        this.wsdlPort = that.wsdlPort;
+        this.seiModel = that.seiModel;
+    }
+
+    @Override
+    public AbstractTubeImpl copy(TubeCloner cloner) {
+        return new AdmissionControlTube(this, cloner);
+    }
+
+    @Override
+    public @NotNull NextAction processRequest(final Packet request) {
+        admitted = null;
+        final Fiber fiber = Fiber.current();
+        AdmissionController.Ticket ticket = new AdmissionController.Ticket(operationOf(request)) {
+            protected void admitted() {
+                admitted = this;
+                fiber.resume(request);
+            }
+
+            protected void timedOut() {
+                fiber.resumeAndReturn(reject(request), false);
+            }
+        };
+        boolean mayWait = controller.getQueueTimeout() > 0 || !Fiber.isSynchronous();
+        switch (mayWait ? controller.admit(ticket) : controller.tryAdmit(ticket)) {
+        case ADMITTED:
+            admitted = ticket;
+            return super.processRequest(request);
+        case QUEUED:
+            return doSuspend(next, null);
+        default:
+            return doReturnWith(reject(request));
+        }
+    }
+
+    @Override
+    public @NotNull NextAction processResponse(Packet response) {
+        release();
+        return super.processResponse(response);
+    }
+
+    @Override
+    public @NotNull NextAction processException(Throwable t) {
+        release();
+        return super.processException(t);
+    }
+
+    private void release() {
+        AdmissionController.Ticket ticket = admitted;
+        admitted = null;
+        if (ticket != null) {
+            controller.release(ticket);
+        }
+    }
+
+    private static @Nullable QName operationOf(Packet request) {
+        if (request.getMessage() == null) {
+            return null;
+        }
+        WSDLOperationMapping mapping = request.getWSDLOperationMapping();
+        return mapping != null ? mapping.getOperationName() : null;
+    }
+
+    /**
+     * Creates the response to a request that is not admitted.
+     */
+    private Packet reject(Packet request) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Rejecting request to {0}: {1} in flight, {2} waiting",
+                    new Object[]{operationOf(request), controller.getInFlightCount(), controller.getQueuedCount()});
+        }
+        Message fault = SOAPFaultBuilder.createSOAPFaultMessage(binding.getSOAPVersion(),
+                "The endpoint is overloaded, try again later", binding.getSOAPVersion().faultCodeServer);
+        Packet response = request.createServerResponse(fault, wsdlPort, seiModel, binding);
+        if (response.supports(MessageContext.HTTP_RESPONSE_CODE)) {
+            response.put(MessageContext.HTTP_RESPONSE_CODE, HttpURLConnection.HTTP_UNAVAILABLE);
+        }
+        return response;
+    }
+}
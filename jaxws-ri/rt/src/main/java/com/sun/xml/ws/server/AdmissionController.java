@@ -0,0 +1,375 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.developer.AdmissionControlFeature;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of requests an endpoint processes at a time, as configured
+ * by an {@link AdmissionControlFeature}.
+ *
+ * <p>
+ * A request is admitted when neither the endpoint nor its operation is at its
+ * limit. Otherwise it waits in a bounded FIFO queue until it can be admitted
+ * or its queue timeout expires, and is rejected right away when the queue is full.
+ * A waiting request is passed over, not blocking the queue, while its own
+ * operation is at its limit.
+ *
+ * <p>
+ * With an adaptive limit, the endpoint limit follows the observed latency:
+ * it shrinks while requests take longer than the shortest latency seen
+ * recently, and grows back while they don't, never exceeding the configured
+ * limit.
+ *
+ * @see AdmissionControlTube
+ * @since 2.3.0
+ */
+public final class AdmissionController {
+
+    /**
+     * Outcome of {@link #admit(Ticket)}.
+     */
+    public enum Admission {
+        ADMITTED, QUEUED, REJECTED
+    }
+
+    /**
+     * A request asking to be admitted.
+     */
+    public static abstract class Ticket {
+        private final @Nullable QName operation;
+        private ScheduledFuture<?> timeout;
+        private long admittedAt;
+
+        protected Ticket(@Nullable QName operation) {
+            this.operation = operation;
+        }
+
+        public final @Nullable QName getOperation() {
+            return operation;
+        }
+
+        /**
+         * Called when the queued request is admitted.
+         */
+        protected abstract void admitted();
+
+        /**
+         * Called when the queued request is dropped from the queue because
+         * it waited too long.
+         */
+        protected abstract void timedOut();
+    }
+
+    /**
+     * Samples over which the shortest latency is kept, before it is measured again.
+     */
+    private static final int MIN_LATENCY_WINDOW = 1000;
+
+    private static final ScheduledThreadPoolExecutor TIMER;
+
+    static {
+        TIMER = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "jaxws-admission-control-timer");
+                t.setDaemon(true);
+                // shared by all the endpoints, so it mustn't keep the first one's application loaded
+                t.setContextClassLoader(null);
+                return t;
+            }
+        });
+        TIMER.setRemoveOnCancelPolicy(true);
+        // no thread is left behind once no request is waiting
+        TIMER.setKeepAliveTime(60, TimeUnit.SECONDS);
+        TIMER.allowCoreThreadTimeOut(true);
+    }
+
+    private final int maxConcurrentRequests;
+    private final int maxConcurrentRequestsPerOperation;
+    private final int maxQueuedRequests;
+    private final long queueTimeout;
+    private final boolean adaptive;
+
+    private final LinkedList<Ticket> queue = new LinkedList<Ticket>();
+    private final Map<QName, int[]> inFlightPerOperation = new HashMap<QName, int[]>();
+    private int inFlight;
+
+    /**
+     * Current endpoint limit; only below {@link #maxConcurrentRequests} when adaptive.
+     */
+    private double limit;
+    private long minLatency;
+    private int samples;
+
+    private final AtomicLong admittedCount = new AtomicLong();
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+
+    public AdmissionController(int maxConcurrentRequests, int maxConcurrentRequestsPerOperation,
+                               int maxQueuedRequests, long queueTimeout, boolean adaptive) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxConcurrentRequestsPerOperation = maxConcurrentRequestsPerOperation;
+        this.maxQueuedRequests = maxQueuedRequests;
+        this.queueTimeout = queueTimeout;
+        this.adaptive = adaptive;
+        this.limit = maxConcurrentRequests;
+    }
+
+    /**
+     * Admits the request, queues it or rejects it.
+     *
+     * @return
+     *      {@link Admission#QUEUED} if the ticket will later be either
+     *      {@link Ticket#admitted() admitted} or {@link Ticket#timedOut() timed out}.
+     */
+    public @NotNull Admission admit(@NotNull final Ticket ticket) {
+        return admit(ticket, true);
+    }
+
+    /**
+     * Admits the request or rejects it, never queuing it.
+     *
+     * @return
+     *      {@link Admission#ADMITTED} or {@link Admission#REJECTED}.
+     */
+    public @NotNull Admission tryAdmit(@NotNull Ticket ticket) {
+        return admit(ticket, false);
+    }
+
+    private Admission admit(final Ticket ticket, boolean mayQueue) {
+        synchronized (this) {
+            if (queue.isEmpty() && canAdmit(ticket)) {
+                enter(ticket);
+                admittedCount.incrementAndGet();
+                return Admission.ADMITTED;
+            }
+            if (!mayQueue || queue.size() >= maxQueuedRequests) {
+                rejectedCount.incrementAndGet();
+                return Admission.REJECTED;
+            }
+            queue.add(ticket);
+            queuedCount.incrementAndGet();
+            if (queueTimeout > 0) {
+                ticket.timeout = TIMER.schedule(new Runnable() {
+                    public void run() {
+                        expire(ticket);
+                    }
+                }, queueTimeout, TimeUnit.MILLISECONDS);
+            }
+        }
+        // a request may have completed in the meantime
+        drain();
+        return Admission.QUEUED;
+    }
+
+    /**
+     * Releases the capacity taken by an admitted request, once its response
+     * has been produced, and admits queued requests.
+     */
+    public void release(@NotNull Ticket ticket) {
+        long latency = System.nanoTime() - ticket.admittedAt;
+        synchronized (this) {
+            inFlight--;
+            if (ticket.operation != null && maxConcurrentRequestsPerOperation > 0) {
+                int[] n = inFlightPerOperation.get(ticket.operation);
+                if (--n[0] == 0) {
+                    inFlightPerOperation.remove(ticket.operation);
+                }
+            }
+            if (adaptive) {
+                adapt(latency);
+            }
+        }
+        drain();
+    }
+
+    private void expire(Ticket ticket) {
+        synchronized (this) {
+            if (!queue.remove(ticket)) {
+                // admitted in the meantime
+                return;
+            }
+            timedOutCount.incrementAndGet();
+        }
+        ticket.timedOut();
+    }
+
+    /**
+     * Admits the queued requests that can be admitted, notifying them
+     * outside of the lock.
+     */
+    private void drain() {
+        List<Ticket> admitted = null;
+        synchronized (this) {
+            for (Iterator<Ticket> it = queue.iterator(); it.hasNext() && inFlight < limit; ) {
+                Ticket t = it.next();
+                if (canAdmit(t)) {
+                    it.remove();
+                    if (t.timeout != null) {
+                        t.timeout.cancel(false);
+                    }
+                    enter(t);
+                    admittedCount.incrementAndGet();
+                    if (admitted == null) {
+                        admitted = new ArrayList<Ticket>();
+                    }
+                    admitted.add(t);
+                }
+            }
+        }
+        if (admitted != null) {
+            for (Ticket t : admitted) {
+                t.admitted();
+            }
+        }
+    }
+
+    private boolean canAdmit(Ticket ticket) {
+        if (inFlight >= limit) {
+            return false;
+        }
+        if (ticket.operation == null || maxConcurrentRequestsPerOperation <= 0) {
+            return true;
+        }
+        int[] n = inFlightPerOperation.get(ticket.operation);
+        return n == null || n[0] < maxConcurrentRequestsPerOperation;
+    }
+
+    private void enter(Ticket ticket) {
+        inFlight++;
+        if (ticket.operation != null && maxConcurrentRequestsPerOperation > 0) {
+            int[] n = inFlightPerOperation.get(ticket.operation);
+            if (n == null) {
+                inFlightPerOperation.put(ticket.operation, n = new int[1]);
+            }
+            n[0]++;
+        }
+        ticket.admittedAt = System.nanoTime();
+    }
+
+    /**
+     * Gradient limit: scales the limit by the ratio of the shortest latency
+     * to the sampled one, leaving some headroom so that it can grow again.
+     */
+    private void adapt(long latency) {
+        if (latency <= 0) {
+            return;
+        }
+        if (++samples > MIN_LATENCY_WINDOW) {
+            // measure again, the service may have become slower for good
+            samples = 1;
+            minLatency = 0;
+        }
+        if (minLatency == 0 || latency < minLatency) {
+            minLatency = latency;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, (double) minLatency / latency));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(1, Math.min(maxConcurrentRequests, 0.8 * limit + 0.2 * target));
+    }
+
+    /**
+     * Milliseconds a queued request may wait, or 0 if it waits as long as it takes.
+     */
+    public long getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    /**
+     * Current limit on requests processed at a time by the endpoint.
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlightCount() {
+        return inFlight;
+    }
+
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Number of requests admitted so far, right away or after waiting.
+     */
+    public long getAdmitted() {
+        return admittedCount.get();
+    }
+
+    /**
+     * Number of requests that had to wait so far.
+     */
+    public long getQueued() {
+        return queuedCount.get();
+    }
+
+    /**
+     * Number of requests rejected so far because the queue was full, or
+     * because they couldn't wait.
+     */
+    public long getRejected() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Number of requests rejected so far because they waited too long.
+     */
+    public long getTimedOut() {
+        return timedOutCount.get();
+    }
+}
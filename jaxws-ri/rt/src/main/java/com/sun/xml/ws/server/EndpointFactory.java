@@ -305,7 +305,14 @@ public class EndpointFactory {
             }
             // Generate WSDL for SEI endpoints(not for Provider endpoints)
             if (primaryDoc == null) {
-                primaryDoc = generateWSDL(binding, seiModel, docList, container, implType);
+                if (docList.isEmpty()) {
+                    // generated by wsgen, if still up to date
+                    primaryDoc = PrecomputedMetadata.load(seiModel, binding,
+                            ServiceFinder.find(WSDLGeneratorExtension.class).toArray(), docList);
+                }
+                if (primaryDoc == null) {
+                    primaryDoc = generateWSDL(binding, seiModel, docList, container, implType);
+                }
                 // create WSDL model
                 wsdlPort = getWSDLPort(primaryDoc, docList, serviceName, portName, container, resolver);
                 seiModel.freeze(wsdlPort);
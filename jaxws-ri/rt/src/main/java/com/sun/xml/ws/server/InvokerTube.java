@@ -145,9 +145,13 @@ public abstract class InvokerTube<T> extends com.sun.xml.ws.server.sei.InvokerTu
         @Override
         public Object invoke(Packet p, Method m, Object... args) throws InvocationTargetException, IllegalAccessException {
             Packet old = set(p);
+            EndpointMetrics.Sample sample = startInvocation(p);
             try {
                 return invoker.invoke(p, m, args);
             } finally {
+                if (sample != null) {
+                    sample.invocationCompleted();
+                }
                 set(old);
             }
         }
@@ -155,9 +159,13 @@ public abstract class InvokerTube<T> extends com.sun.xml.ws.server.sei.InvokerTu
         @Override
         public <T>T invokeProvider(Packet p, T arg) throws IllegalAccessException, InvocationTargetException {
             Packet old = set(p);
+            EndpointMetrics.Sample sample = startInvocation(p);
             try {
                 return invoker.invokeProvider(p, arg);
             } finally {
+                if (sample != null) {
+                    sample.invocationCompleted();
+                }
                 set(old);
             }
         }
@@ -165,13 +173,32 @@ public abstract class InvokerTube<T> extends com.sun.xml.ws.server.sei.InvokerTu
         @Override
         public <T>void invokeAsyncProvider(Packet p, T arg, AsyncProviderCallback cbak, WebServiceContext ctxt) throws IllegalAccessException, InvocationTargetException {
             Packet old = set(p);
+            EndpointMetrics.Sample sample = startInvocation(p);
+            // the invocation completes when the provider calls back,
+            // unless it fails right away
+            boolean thrown = true;
             try {
                 invoker.invokeAsyncProvider(p, arg, cbak, ctxt);
+                thrown = false;
             } finally {
+                if (sample != null && thrown) {
+                    sample.invocationCompleted();
+                }
                 set(old);
             }
         }
 
+        private EndpointMetrics.Sample startInvocation(Packet p) {
+            if (endpoint == null || endpoint.getMetrics() == null) {
+                return null;
+            }
+            EndpointMetrics.Sample sample = EndpointMetrics.sampleOf(p);
+            if (sample != null) {
+                sample.invocationStarted();
+            }
+            return sample;
+        }
+
         private Packet set(Packet p) {
             Packet old = packets.get();
             packets.set(p);
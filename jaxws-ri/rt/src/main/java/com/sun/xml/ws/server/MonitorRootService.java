@@ -198,6 +198,12 @@ public final class MonitorRootService extends MonitorBase {
     @Description("Show what goes across HTTP transport")
     public void dumpHTTPMessages(final boolean x) { HttpAdapter.setDump(x); }
 
+    @ManagedAttribute
+    @Description("Request counts and latencies, if the MetricsFeature is enabled")
+    public EndpointMetrics metrics() {
+        return endpoint.getMetrics();
+    }
+
 }
 
 // End of file.
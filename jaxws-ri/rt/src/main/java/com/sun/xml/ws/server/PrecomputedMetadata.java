@@ -0,0 +1,447 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.oracle.webservices.api.EnvelopeStyleFeature;
+import com.oracle.webservices.api.databinding.DatabindingModeFeature;
+import com.oracle.webservices.api.databinding.ExternalMetadataFeature;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.server.SDDocumentSource;
+import com.sun.xml.ws.api.wsdl.writer.WSDLGeneratorExtension;
+import com.sun.xml.ws.developer.BindingTypeFeature;
+import com.sun.xml.ws.developer.MemberSubmissionAddressingFeature;
+import com.sun.xml.ws.developer.UsesJAXBContextFeature;
+import com.sun.xml.ws.model.AbstractSEIModelImpl;
+import com.sun.xml.ws.model.CheckedExceptionImpl;
+import com.sun.xml.ws.model.JavaMethodImpl;
+import com.sun.xml.ws.model.ParameterImpl;
+import com.sun.xml.ws.util.DigestUtil;
+
+import javax.xml.bind.annotation.XmlSeeAlso;
+import javax.xml.namespace.QName;
+import javax.xml.ws.WebServiceFeature;
+import javax.xml.ws.soap.AddressingFeature;
+import javax.xml.ws.soap.MTOMFeature;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * WSDL and schema documents of an endpoint generated ahead of time by wsgen,
+ * so that {@link EndpointFactory} doesn't have to generate them on every
+ * deployment.
+ *
+ * <p>
+ * wsgen {@code -XruntimeIndex} puts the documents of an endpoint class
+ * {@code a.b.C} in {@code META-INF/jax-ws/model/a.b.C/} alongside the
+ * compiled classes, with an {@code index.properties} file that records the
+ * format version, the names of the documents and a fingerprint of everything
+ * the documents were generated from: the binding, the settings of the features
+ * that show in the documents, the WSDL generator extensions, the service and
+ * port names, and the class files of the endpoint and of all the types
+ * reachable from its operations. Features that only change how messages are
+ * processed, such as pooling or metrics, are left out, so that they can be
+ * configured differently at deployment. The documents are only used if the
+ * fingerprint of the endpoint being deployed is the same, otherwise the WSDL
+ * is generated as before, and a message says why.
+ *
+ * @since 2.3.0
+ */
+public final class PrecomputedMetadata {
+
+    private static final Logger LOGGER = Logger.getLogger(PrecomputedMetadata.class.getName());
+
+    /**
+     * Resource directory of the documents, followed by the name of the endpoint class.
+     */
+    public static final String DIRECTORY = "META-INF/jax-ws/model/";
+
+    public static final String INDEX = "index.properties";
+
+    /**
+     * Version of the index format and of the fingerprint.
+     */
+    public static final String VERSION = "2";
+
+    private static final String VERSION_KEY = "version";
+    private static final String FINGERPRINT_KEY = "fingerprint";
+    private static final String WSDL_KEY = "wsdl";
+    private static final String DOCUMENTS_KEY = "documents";
+
+    /**
+     * Features of this runtime that change the generated documents.
+     */
+    private static final Set<Class<? extends WebServiceFeature>> DOCUMENT_FEATURES;
+
+    static {
+        Set<Class<? extends WebServiceFeature>> s = new HashSet<Class<? extends WebServiceFeature>>();
+        s.add(AddressingFeature.class);
+        s.add(MemberSubmissionAddressingFeature.class);
+        s.add(MTOMFeature.class);
+        s.add(EnvelopeStyleFeature.class);
+        s.add(BindingTypeFeature.class);
+        s.add(DatabindingModeFeature.class);
+        s.add(ExternalMetadataFeature.class);
+        s.add(UsesJAXBContextFeature.class);
+        DOCUMENT_FEATURES = s;
+    }
+
+    /**
+     * Packages of the features of this runtime. Those not in
+     * {@link #DOCUMENT_FEATURES} only affect message processing; features
+     * from anywhere else are fingerprinted, since policy configurators of
+     * other modules may put them in the WSDL.
+     */
+    private static final String[] RUNTIME_FEATURE_PACKAGES = {
+        "javax.xml.ws.", "com.oracle.webservices.api.", "com.sun.xml.ws.api.",
+        "com.sun.xml.ws.developer.", "com.sun.xml.ws.dump.", "com.sun.xml.ws.runtime.config."
+    };
+
+    private PrecomputedMetadata() {
+    }
+
+    /**
+     * Writes the generated documents of an endpoint, and their index, to the
+     * given class output directory.
+     *
+     * @param wsdl
+     *      the generated primary WSDL.
+     * @param documents
+     *      the other generated documents, in the same directory as the WSDL.
+     */
+    public static void write(@NotNull File destDir, @NotNull AbstractSEIModelImpl model, @NotNull WSBinding binding,
+            @NotNull WSDLGeneratorExtension[] extensions, @NotNull File wsdl, @NotNull Collection<File> documents) throws IOException {
+        File dir = new File(destDir, DIRECTORY + model.getEndpointClass().getName());
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        StringBuilder names = new StringBuilder();
+        List<File> all = new ArrayList<File>(documents);
+        all.add(0, wsdl);
+        for (File f : all) {
+            copy(f, new File(dir, f.getName()));
+            if (names.length() > 0) {
+                names.append(' ');
+            }
+            names.append(f.getName());
+        }
+        Properties index = new Properties();
+        index.setProperty(VERSION_KEY, VERSION);
+        index.setProperty(FINGERPRINT_KEY, fingerprint(model, binding, extensions));
+        index.setProperty(WSDL_KEY, wsdl.getName());
+        index.setProperty(DOCUMENTS_KEY, names.toString());
+        OutputStream out = new FileOutputStream(new File(dir, INDEX));
+        try {
+            index.store(out, model.getEndpointClass().getName());
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void copy(File from, File to) throws IOException {
+        InputStream in = new FileInputStream(from);
+        try {
+            OutputStream out = new FileOutputStream(to);
+            try {
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    out.write(buf, 0, n);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Adds the documents generated ahead of time for the endpoint to
+     * {@code docs}, and returns the primary WSDL among them, or null if
+     * there are none or they are out of date.
+     */
+    /*package*/ static @Nullable SDDocumentImpl load(@NotNull AbstractSEIModelImpl model, @NotNull WSBinding binding,
+            @NotNull WSDLGeneratorExtension[] extensions, @NotNull Collection<SDDocumentImpl> docs) {
+        Class<?> endpointClass = model.getEndpointClass();
+        ClassLoader cl = endpointClass.getClassLoader();
+        if (cl == null) {
+            return null;
+        }
+        URL indexUrl = cl.getResource(DIRECTORY + endpointClass.getName() + '/' + INDEX);
+        if (indexUrl == null) {
+            return null;
+        }
+        try {
+            Properties index = new Properties();
+            InputStream in = indexUrl.openStream();
+            try {
+                index.load(in);
+            } finally {
+                in.close();
+            }
+            if (!VERSION.equals(index.getProperty(VERSION_KEY))) {
+                LOGGER.log(Level.INFO, "{0} has version {1} instead of {2}, generating the WSDL of {3}",
+                        new Object[] {indexUrl, index.getProperty(VERSION_KEY), VERSION, endpointClass.getName()});
+                return null;
+            }
+            if (!fingerprint(model, binding, extensions).equals(index.getProperty(FINGERPRINT_KEY))) {
+                LOGGER.log(Level.INFO, "{0} was generated from other classes, features or extensions, "
+                        + "generating the WSDL of {1}", new Object[] {indexUrl, endpointClass.getName()});
+                return null;
+            }
+            String wsdl = index.getProperty(WSDL_KEY);
+            SDDocumentImpl primary = null;
+            List<SDDocumentImpl> loaded = new ArrayList<SDDocumentImpl>();
+            for (String name : index.getProperty(DOCUMENTS_KEY, "").split(" ")) {
+                SDDocumentImpl doc = SDDocumentImpl.create(SDDocumentSource.create(new URL(indexUrl, name)),
+                        model.getServiceQName(), model.getPortTypeName());
+                loaded.add(doc);
+                if (name.equals(wsdl)) {
+                    primary = doc;
+                }
+            }
+            if (primary == null) {
+                return null;
+            }
+            docs.addAll(loaded);
+            return primary;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot read " + indexUrl + ", generating the WSDL of " + endpointClass.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Computes the fingerprint of everything the generated documents of the
+     * endpoint depend on.
+     */
+    public static @NotNull String fingerprint(@NotNull AbstractSEIModelImpl model, @NotNull WSBinding binding,
+            @NotNull WSDLGeneratorExtension[] extensions) throws IOException {
+        MessageDigest md = DigestUtil.sha256();
+        DigestUtil.update(md, VERSION);
+        DigestUtil.update(md, binding.getBindingId().toString());
+        TreeMap<String, String> features = new TreeMap<String, String>();
+        for (WebServiceFeature f : binding.getFeatures()) {
+            if (affectsDocuments(f)) {
+                features.put(f.getID(), state(f));
+            }
+        }
+        for (Map.Entry<String, String> f : features.entrySet()) {
+            DigestUtil.update(md, f.getKey());
+            DigestUtil.update(md, f.getValue());
+        }
+        Set<String> extensionNames = new TreeSet<String>();
+        for (WSDLGeneratorExtension e : extensions) {
+            extensionNames.add(e.getClass().getName());
+        }
+        for (String e : extensionNames) {
+            DigestUtil.update(md, e);
+        }
+        DigestUtil.update(md, String.valueOf(model.getServiceQName()));
+        DigestUtil.update(md, String.valueOf(model.getPortName()));
+
+        Set<Class<?>> seen = new HashSet<Class<?>>();
+        collect(model.getEndpointClass(), seen);
+        collect(model.getContractClass(), seen);
+        for (JavaMethodImpl m : model.getJavaMethods()) {
+            Method sei = m.getSEIMethod();
+            collect(sei.getGenericReturnType(), seen);
+            for (Type t : sei.getGenericParameterTypes()) {
+                collect(t, seen);
+            }
+            for (ParameterImpl p : m.getRequestParameters()) {
+                collect(p.getTypeInfo().type, seen);
+            }
+            for (ParameterImpl p : m.getResponseParameters()) {
+                collect(p.getTypeInfo().type, seen);
+            }
+            for (CheckedExceptionImpl ce : m.getCheckedExceptions()) {
+                collect(ce.getExceptionClass(), seen);
+                collect(ce.getDetailBean(), seen);
+            }
+        }
+        TreeMap<String, Class<?>> sorted = new TreeMap<String, Class<?>>();
+        for (Class<?> c : seen) {
+            sorted.put(c.getName(), c);
+        }
+        byte[] buf = new byte[8192];
+        for (Class<?> c : sorted.values()) {
+            DigestUtil.update(md, c.getName());
+            ClassLoader cl = c.getClassLoader();
+            InputStream in = cl == null ? null : cl.getResourceAsStream(c.getName().replace('.', '/') + ".class");
+            if (in == null) {
+                continue;
+            }
+            try {
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    md.update(buf, 0, n);
+                }
+            } finally {
+                in.close();
+            }
+        }
+        return DigestUtil.toHex(md.digest());
+    }
+
+    private static boolean affectsDocuments(WebServiceFeature f) {
+        if (DOCUMENT_FEATURES.contains(f.getClass())) {
+            return true;
+        }
+        String name = f.getClass().getName();
+        for (String p : RUNTIME_FEATURE_PACKAGES) {
+            if (name.startsWith(p)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The settings of the feature, such as whether it is enabled, whether
+     * addressing is required or the MTOM threshold: the values of its public
+     * getters of primitive, string and enum types, in name order.
+     */
+    private static String state(WebServiceFeature f) {
+        TreeMap<String, Object> values = new TreeMap<String, Object>();
+        for (Method m : f.getClass().getMethods()) {
+            String name = m.getName();
+            Class<?> type = m.getReturnType();
+            if (m.getParameterTypes().length != 0 || Modifier.isStatic(m.getModifiers())
+                    || !(name.startsWith("get") || name.startsWith("is")) || name.equals("getClass")
+                    || !(type.isPrimitive() || type.isEnum() || type == String.class
+                        || Number.class.isAssignableFrom(type) || type == Boolean.class)) {
+                continue;
+            }
+            try {
+                values.put(name, m.invoke(f));
+            } catch (Exception e) {
+                // not part of the state then
+                LOGGER.log(Level.FINE, "Cannot get " + name + " of " + f, e);
+            }
+        }
+        return values.toString();
+    }
+
+    /**
+     * Collects the application classes reachable from the type through
+     * supertypes, fields, methods and {@link XmlSeeAlso}.
+     */
+    private static void collect(@Nullable Type t, Set<Class<?>> seen) {
+        if (t instanceof Class) {
+            Class<?> c = (Class<?>) t;
+            if (c.isArray()) {
+                collect(c.getComponentType(), seen);
+                return;
+            }
+            if (c.isPrimitive() || c.getClassLoader() == null || !seen.add(c)) {
+                // JDK classes don't change under an application
+                return;
+            }
+            collect(c.getGenericSuperclass(), seen);
+            for (Type i : c.getGenericInterfaces()) {
+                collect(i, seen);
+            }
+            for (Field f : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(f.getModifiers())) {
+                    collect(f.getGenericType(), seen);
+                }
+            }
+            for (Method m : c.getDeclaredMethods()) {
+                collect(m.getGenericReturnType(), seen);
+                for (Type p : m.getGenericParameterTypes()) {
+                    collect(p, seen);
+                }
+            }
+            XmlSeeAlso seeAlso = c.getAnnotation(XmlSeeAlso.class);
+            if (seeAlso != null) {
+                for (Class<?> s : seeAlso.value()) {
+                    collect(s, seen);
+                }
+            }
+        } else if (t instanceof ParameterizedType) {
+            collect(((ParameterizedType) t).getRawType(), seen);
+            for (Type a : ((ParameterizedType) t).getActualTypeArguments()) {
+                collect(a, seen);
+            }
+        } else if (t instanceof GenericArrayType) {
+            collect(((GenericArrayType) t).getGenericComponentType(), seen);
+        } else if (t instanceof WildcardType) {
+            for (Type b : ((WildcardType) t).getUpperBounds()) {
+                collect(b, seen);
+            }
+            for (Type b : ((WildcardType) t).getLowerBounds()) {
+                collect(b, seen);
+            }
+        } else if (t instanceof TypeVariable) {
+            for (Type b : ((TypeVariable<?>) t).getBounds()) {
+                collect(b, seen);
+            }
+        }
+    }
+}
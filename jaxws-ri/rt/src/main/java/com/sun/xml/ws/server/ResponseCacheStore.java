@@ -0,0 +1,498 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.developer.ResponseCacheFeature;
+import com.sun.xml.ws.developer.ResponseCacheFeature.Eviction;
+import com.sun.xml.ws.util.DigestUtil;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Responses of one endpoint kept by {@link ResponseCacheTube}, keyed by the
+ * WSDL operation and a digest of the request payload, headers and caller.
+ *
+ * <p>
+ * Entries live for at most the configured time to live, and the store keeps
+ * at most the configured number of entries and bytes, evicting the least
+ * recently or least frequently used entries first. The bytes are kept either
+ * on the heap or in direct buffers.
+ *
+ * <p>
+ * Lookups take no lock: they only stamp the entry they find, and the
+ * eviction order is worked out from those stamps when {@link #put} needs
+ * to make room.
+ *
+ * @see ResponseCacheFeature
+ * @since 2.3.0
+ */
+public final class ResponseCacheStore {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final boolean offHeap;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+    /**
+     * Which of two entries goes first.
+     */
+    private final Comparator<Entry> order;
+    private final AtomicLong clock = new AtomicLong();
+    /**
+     * Only updated when holding the lock.
+     */
+    private volatile long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param ttlMillis
+     *      how long entries are kept, or 0 to keep them until evicted.
+     * @param maxEntries
+     *      number of entries kept, or 0 for no limit.
+     * @param maxBytes
+     *      bytes kept by all the entries together, or 0 for no limit.
+     * @param eviction
+     *      which entries go first when one of the limits is reached.
+     * @param offHeap
+     *      true to keep the bytes in direct buffers rather than on the heap.
+     */
+    public ResponseCacheStore(long ttlMillis, int maxEntries, long maxBytes, @NotNull Eviction eviction, boolean offHeap) {
+        if (ttlMillis < 0 || maxEntries < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("ttlMillis, maxEntries and maxBytes must not be negative");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap;
+        this.order = (eviction == Eviction.LFU) ? LFU : LRU;
+    }
+
+    /**
+     * Returns the bytes cached for the key, or null if there are none or
+     * they have expired.
+     */
+    public @Nullable InputStream get(@NotNull Key key) {
+        Entry e = entries.get(key);
+        if (e == null) {
+            misses.increment();
+            return null;
+        }
+        if (e.expires != 0 && System.nanoTime() - e.expires >= 0) {
+            if (expire(e)) {
+                expirations.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        // racy, a lost update only makes LFU a little less exact
+        e.hits++;
+        e.seq = clock.incrementAndGet();
+        hits.increment();
+        return e.open();
+    }
+
+    private synchronized boolean expire(Entry e) {
+        if (entries.get(e.key) != e) {
+            // replaced or removed meanwhile
+            return false;
+        }
+        remove(e);
+        return true;
+    }
+
+    /**
+     * Caches the bytes for the key, replacing what was there, after evicting
+     * as many entries as needed to stay within the limits. Bytes larger than
+     * the whole store are not cached.
+     */
+    public synchronized void put(@NotNull Key key, @NotNull byte[] data) {
+        Entry old = entries.get(key);
+        if (old != null) {
+            remove(old);
+        }
+        if (maxBytes != 0 && data.length > maxBytes) {
+            return;
+        }
+        // room is made before adding, otherwise LFU would evict the new entry right away
+        while ((maxEntries != 0 && entries.size() >= maxEntries) || (maxBytes != 0 && bytes + data.length > maxBytes)) {
+            remove(first());
+            evictions.increment();
+        }
+        Entry e = new Entry(key, offHeap ? toDirect(data) : data, data.length);
+        e.seq = clock.incrementAndGet();
+        if (ttlNanos != 0) {
+            // 0 means never
+            e.expires = (System.nanoTime() + ttlNanos) | 1;
+        }
+        entries.put(key, e);
+        bytes += e.size;
+    }
+
+    /**
+     * Discards all the entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * The entry to evict first. Scanning is cheaper than keeping the entries
+     * sorted, which would need the lock on every lookup.
+     */
+    private Entry first() {
+        Entry first = null;
+        for (Entry e : entries.values()) {
+            if (first == null || order.compare(e, first) < 0) {
+                first = e;
+            }
+        }
+        return first;
+    }
+
+    private void remove(Entry e) {
+        entries.remove(e.key);
+        bytes -= e.size;
+    }
+
+    private static ByteBuffer toDirect(byte[] data) {
+        ByteBuffer buf = ByteBuffer.allocateDirect(data.length);
+        buf.put(data);
+        buf.flip();
+        return buf;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Entries discarded to stay within the limits.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Entries discarded because their time to live had elapsed.
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    public long getByteCount() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCacheStore[entries=" + entries.size() + ", bytes=" + bytes
+                + ", hits=" + hits.sum() + ", misses=" + misses.sum() + "]";
+    }
+
+    /**
+     * Computes the digest of the element the reader is at, which it reads up
+     * to and including the matching end tag.
+     *
+     * @see Digester
+     */
+    public static @NotNull byte[] digest(@NotNull XMLStreamReader reader) throws XMLStreamException {
+        Digester digester = new Digester();
+        digester.updateElement(reader);
+        return digester.digest();
+    }
+
+    /**
+     * Computes the digest of a request, from the XML elements and the strings
+     * that tell it apart from other requests.
+     *
+     * <p>
+     * The digest of an element doesn't depend on the namespace prefixes of
+     * elements and attributes, on the order of the attributes, on comments and
+     * processing instructions, or on how the text is split into character and
+     * CDATA events. The namespace declarations are part of it, since they may
+     * give meaning to QNames in attribute values and text.
+     *
+     * <p>
+     * An element can be fed one event at a time with {@link #update(XMLStreamReader)},
+     * so that its digest is computed while something else reads it.
+     */
+    public static final class Digester {
+        private final MessageDigest md = DigestUtil.sha256();
+        private final StringBuilder text = new StringBuilder();
+        private int depth;
+
+        /**
+         * Adds a string.
+         */
+        public void update(@NotNull String s) {
+            md.update((byte) 's');
+            DigestUtil.update(md, s);
+        }
+
+        /**
+         * Adds the element the reader is at, which it reads up to and
+         * including the matching end tag.
+         */
+        public void updateElement(@NotNull XMLStreamReader reader) throws XMLStreamException {
+            if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+                reader.nextTag();
+            }
+            update(reader);
+            while (depth > 0 && reader.hasNext() && reader.next() != XMLStreamConstants.END_DOCUMENT) {
+                update(reader);
+            }
+        }
+
+        /**
+         * Adds the event the reader is at. Events outside of an element are ignored.
+         */
+        public void update(@NotNull XMLStreamReader reader) {
+            switch (reader.getEventType()) {
+            case XMLStreamConstants.START_ELEMENT:
+                flushText();
+                depth++;
+                md.update((byte) '<');
+                DigestUtil.update(md, reader.getNamespaceURI());
+                DigestUtil.update(md, reader.getLocalName());
+                TreeMap<String, String> sorted = new TreeMap<String, String>();
+                for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                    String prefix = reader.getNamespacePrefix(i);
+                    sorted.put(prefix == null ? "" : prefix, reader.getNamespaceURI(i));
+                }
+                updateAll('n', sorted);
+                sorted.clear();
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    String ns = reader.getAttributeNamespace(i);
+                    sorted.put('{' + (ns == null ? "" : ns) + '}' + reader.getAttributeLocalName(i),
+                            reader.getAttributeValue(i));
+                }
+                updateAll('a', sorted);
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                if (depth > 0) {
+                    flushText();
+                    depth--;
+                    md.update((byte) '>');
+                }
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                if (depth > 0) {
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+                break;
+            default:
+                // comments, processing instructions
+            }
+        }
+
+        /**
+         * Completes the digest. The digester is not to be used afterwards.
+         */
+        public @NotNull byte[] digest() {
+            flushText();
+            return md.digest();
+        }
+
+        private void flushText() {
+            if (text.length() > 0) {
+                md.update((byte) 't');
+                DigestUtil.update(md, text.toString());
+                text.setLength(0);
+            }
+        }
+
+        private void updateAll(char tag, Map<String, String> values) {
+            for (Map.Entry<String, String> v : values.entrySet()) {
+                md.update((byte) tag);
+                DigestUtil.update(md, v.getKey());
+                DigestUtil.update(md, v.getValue());
+            }
+        }
+    }
+
+    /**
+     * Identifies a cached response: the operation and the digest of the request.
+     */
+    public static final class Key {
+        private final QName operation;
+        private final byte[] digest;
+        private final int hash;
+
+        public Key(@NotNull QName operation, @NotNull byte[] digest) {
+            this.operation = operation;
+            this.digest = digest;
+            this.hash = 31 * operation.hashCode() + Arrays.hashCode(digest);
+        }
+
+        public @NotNull QName getOperation() {
+            return operation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hash == that.hash && operation.equals(that.operation) && Arrays.equals(digest, that.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        final Key key;
+        /**
+         * byte[] or a direct {@link ByteBuffer}.
+         */
+        final Object data;
+        final int size;
+        long expires;
+        volatile long hits;
+        volatile long seq;
+
+        Entry(Key key, Object data, int size) {
+            this.key = key;
+            this.data = data;
+            this.size = size;
+        }
+
+        InputStream open() {
+            if (data instanceof byte[]) {
+                return new ByteArrayInputStream((byte[]) data);
+            }
+            // a duplicate has its own position, so concurrent readers don't share it
+            return new BufferInputStream(((ByteBuffer) data).duplicate());
+        }
+    }
+
+    /**
+     * Reads the bytes of a direct buffer without copying them to the heap first.
+     */
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buf;
+
+        BufferInputStream(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buf.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int k = (int) Math.max(0, Math.min(n, buf.remaining()));
+            buf.position(buf.position() + k);
+            return k;
+        }
+
+        @Override
+        public int available() {
+            return buf.remaining();
+        }
+    }
+
+    private static final Comparator<Entry> LRU = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return Long.compare(e1.seq, e2.seq);
+        }
+    };
+
+    private static final Comparator<Entry> LFU = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            int c = Long.compare(e1.hits, e2.hits);
+            return c != 0 ? c : Long.compare(e1.seq, e2.seq);
+        }
+    };
+}
@@ -0,0 +1,319 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.stream.buffer.MutableXMLStreamBuffer;
+import com.sun.xml.stream.buffer.stax.StreamReaderBufferCreator;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.message.Header;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.MessageHeaders;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.model.SEIModel;
+import com.sun.xml.ws.api.model.wsdl.WSDLPort;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.Tube;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractFilterTubeImpl;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.api.streaming.XMLStreamReaderFactory;
+import com.sun.xml.ws.api.streaming.XMLStreamWriterFactory;
+import com.sun.xml.ws.developer.ResponseCacheFeature;
+import com.sun.xml.ws.message.stream.PayloadStreamReaderMessage;
+import com.sun.xml.ws.streaming.XMLStreamReaderUtil;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.ws.WebServiceException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link Tube} that answers requests from the {@link ResponseCacheStore} of
+ * the endpoint when it can, and caches the responses of the service otherwise.
+ *
+ * <p>
+ * It sits right in front of the terminal tube, so that the request has gone
+ * through the handlers and the must-understand check, and the response
+ * doesn't have its addressing headers yet: those are added again, for the
+ * request at hand, to the cached responses.
+ *
+ * @see ResponseCacheFeature
+ * @since 2.3.0
+ */
+public class ResponseCacheTube extends AbstractFilterTubeImpl {
+
+    private static final Logger LOGGER = Logger.getLogger(ResponseCacheTube.class.getName());
+
+    private final ResponseCacheFeature feature;
+    private final ResponseCacheStore store;
+    private final WSBinding binding;
+    private final @Nullable WSDLPort wsdlPort;
+    private final @Nullable SEIModel seiModel;
+    private final @Nullable AddressingVersion addressingVersion;
+
+    /**
+     * Key of the response the service is working on, if it is to be cached.
+     */
+    private @Nullable ResponseCacheStore.Key pending;
+
+    public ResponseCacheTube(@NotNull ResponseCacheFeature feature, @NotNull WSBinding binding,
+            @Nullable WSDLPort wsdlPort, @Nullable SEIModel seiModel, Tube next) {
+        super(next);
+        this.feature = feature;
+        this.store = feature.getStore();
+        this.binding = binding;
+        this.wsdlPort = wsdlPort;
+        this.seiModel = seiModel;
+        this.addressingVersion = AddressingVersion.fromBinding(binding);
+    }
+
+    protected ResponseCacheTube(ResponseCacheTube that, TubeCloner cloner) {
+        super(that, cloner);
+        this.feature = that.feature;
+        this.store = that.store;
+        this.binding = that.binding;
+        this.wsdlPort = that.wsdlPort;
+        this.seiModel = that.seiModel;
+        this.addressingVersion = that.addressingVersion;
+    }
+
+    @Override
+    public AbstractTubeImpl copy(TubeCloner cloner) {
+        return new ResponseCacheTube(this, cloner);
+    }
+
+    @Override
+    public @NotNull NextAction processRequest(Packet request) {
+        pending = null;
+        ResponseCacheStore.Key key = keyOf(request);
+        if (key != null) {
+            InputStream cached = store.get(key);
+            if (cached != null) {
+                Message response = Messages.create(XMLStreamReaderFactory.create(null, cached, true));
+                return doReturnWith(request.createServerResponse(response, wsdlPort, seiModel, binding));
+            }
+            pending = key;
+        }
+        return super.processRequest(request);
+    }
+
+    @Override
+    public @NotNull NextAction processResponse(Packet response) {
+        ResponseCacheStore.Key key = pending;
+        pending = null;
+        Message msg = response.getMessage();
+        if (key != null && msg != null && !msg.isFault() && msg.getAttachments().isEmpty()) {
+            byte[] data = serialize(response, msg);
+            if (data != null) {
+                store.put(key, data);
+            }
+        }
+        return super.processResponse(response);
+    }
+
+    @Override
+    public @NotNull NextAction processException(Throwable t) {
+        pending = null;
+        return super.processException(t);
+    }
+
+    /**
+     * Returns the key of the response to the request, or null if it is not
+     * to be cached.
+     *
+     * <p>
+     * Besides the payload, the key covers the caller principal and the headers
+     * other than the addressing ones, reference parameters included, since
+     * they may change the response as much as the payload does.
+     *
+     * <p>
+     * The payload is digested while it is buffered, in a single pass, and the
+     * request then goes on with the buffered payload.
+     */
+    private @Nullable ResponseCacheStore.Key keyOf(Packet request) {
+        Message msg = request.getMessage();
+        if (msg == null || !msg.hasPayload() || msg.isFault() || !msg.getAttachments().isEmpty()) {
+            return null;
+        }
+        QName operation = request.getWSDLOperation();
+        if (operation == null) {
+            // no WSDL, the payload element stands for the operation
+            operation = new QName(msg.getPayloadNamespaceURI(), msg.getPayloadLocalPart());
+        }
+        if (!feature.isCached(operation)) {
+            return null;
+        }
+        ResponseCacheStore.Digester digester = new ResponseCacheStore.Digester();
+        Principal principal = request.webServiceContextDelegate != null
+                ? request.webServiceContextDelegate.getUserPrincipal(request) : null;
+        if (principal != null) {
+            digester.update(String.valueOf(principal.getName()));
+        }
+        MessageHeaders headers = msg.hasHeaders() ? msg.getHeaders() : null;
+        try {
+            if (headers != null) {
+                for (Header h : headers.asList()) {
+                    if (!isAddressingHeader(h)) {
+                        digester.updateElement(h.readHeader());
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            LOGGER.log(Level.FINE, "Cannot compute the cache key of the request", e);
+            return null;
+        }
+
+        XMLStreamReader payload = null;
+        try {
+            payload = msg.readPayload();
+            MutableXMLStreamBuffer buffer = new StreamReaderBufferCreator()
+                    .createElementFragment(new DigestingReader(payload, digester), true);
+            request.setMessage(new PayloadStreamReaderMessage(headers, buffer.readAsXMLStreamReader(),
+                    msg.getAttachments(), binding.getSOAPVersion()).copyFrom(msg));
+        } catch (XMLStreamException e) {
+            // the request is consumed, so it can't go on without a key
+            throw new WebServiceException(e);
+        } finally {
+            if (payload != null) {
+                XMLStreamReaderUtil.readRest(payload);
+                XMLStreamReaderUtil.close(payload);
+                XMLStreamReaderFactory.recycle(payload);
+            }
+        }
+        return new ResponseCacheStore.Key(operation, digester.digest());
+    }
+
+    private static boolean isAddressingHeader(Header h) {
+        for (AddressingVersion av : AddressingVersion.values()) {
+            if (av.nsUri.equals(h.getNamespaceURI())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the envelope of the response, without its addressing headers.
+     *
+     * <p>
+     * The response usually has no addressing headers yet, in which case it is
+     * written once, and goes on as read back from the bytes rather than being
+     * copied first. Otherwise a copy without them is written.
+     */
+    private @Nullable byte[] serialize(Packet response, Message msg) {
+        boolean addressed = false;
+        if (msg.hasHeaders()) {
+            for (Header h : msg.getHeaders().asList()) {
+                addressed |= isAddressingHeader(h);
+            }
+        }
+        Message written = msg;
+        if (addressed) {
+            written = msg.copy();
+            MessageHeaders headers = written.getHeaders();
+            List<QName> names = new ArrayList<QName>();
+            for (Header h : headers.asList()) {
+                if (isAddressingHeader(h)) {
+                    names.add(new QName(h.getNamespaceURI(), h.getLocalPart()));
+                }
+            }
+            for (QName name : names) {
+                headers.remove(name);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter writer = XMLStreamWriterFactory.create(out);
+        try {
+            written.writeTo(writer);
+            writer.flush();
+        } catch (XMLStreamException e) {
+            if (!addressed) {
+                // the response is consumed
+                throw new WebServiceException(e);
+            }
+            LOGGER.log(Level.FINE, "Cannot cache the response", e);
+            return null;
+        } finally {
+            XMLStreamWriterFactory.recycle(writer);
+        }
+        byte[] data = out.toByteArray();
+        if (!addressed) {
+            response.setMessage(Messages.create(XMLStreamReaderFactory.create(null, new ByteArrayInputStream(data), true))
+                    .copyFrom(msg));
+        }
+        return data;
+    }
+
+    /**
+     * Feeds the events of the payload to a {@link ResponseCacheStore.Digester}
+     * as they are read.
+     */
+    private static final class DigestingReader extends StreamReaderDelegate {
+        private final ResponseCacheStore.Digester digester;
+
+        DigestingReader(XMLStreamReader reader, ResponseCacheStore.Digester digester) {
+            super(reader);
+            this.digester = digester;
+            digester.update(reader);
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            int event = super.next();
+            digester.update(this);
+            return event;
+        }
+    }
+}
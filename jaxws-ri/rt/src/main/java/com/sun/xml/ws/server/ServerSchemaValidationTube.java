@@ -55,7 +55,6 @@ import com.sun.xml.ws.fault.SOAPFaultBuilder;
 import com.sun.xml.ws.util.pipe.AbstractSchemaValidationTube;
 import org.xml.sax.SAXException;
 
-import javax.xml.transform.Source;
 import javax.xml.validation.Schema;
 import javax.xml.validation.Validator;
 import javax.xml.ws.WebServiceException;
@@ -72,7 +71,12 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
     private static final Logger LOGGER = Logger.getLogger(ServerSchemaValidationTube.class.getName());
 
     private final Schema schema;
-    private final Validator validator;
+    private final Validators validators;
+    /**
+     * Only created if a subclass asks for it, as messages are validated
+     * with the {@link #validators} shared by all the copies.
+     */
+    private Validator validator;
 
     private final boolean noValidation;
     private final SEIModel seiModel;
@@ -86,29 +90,23 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
 
         if (endpoint.getServiceDefinition() != null) {
             MetadataResolverImpl mdresolver = new MetadataResolverImpl(endpoint.getServiceDefinition());
-            Source[] sources = getSchemaSources(endpoint.getServiceDefinition(), mdresolver);
-            for(Source source : sources) {
-                LOGGER.fine("Constructing service validation schema from = "+source.getSystemId());
-                //printDOM((DOMSource)source);
-            }
-            if (sources.length != 0) {
+            Schema s = createSchema(endpoint.getServiceDefinition(), mdresolver);
+            if (s != null) {
                 noValidation = false;
-                sf.setResourceResolver(mdresolver);
-                try {
-                    schema = sf.newSchema(sources);
-                } catch(SAXException e) {
-                    throw new WebServiceException(e);
-                }
-                validator = schema.newValidator();
+                schema = s;
+                validators = new Validators(schema);
                 return;
             }
         }
         noValidation = true;
         schema = null;
-        validator = null;
+        validators = null;
     }
 
     protected Validator getValidator() {
+        if (validator == null && !noValidation) {
+            validator = schema.newValidator();
+        }
         return validator;
     }
 
@@ -121,8 +119,12 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
         if (isNoValidation() || !feature.isInbound() || !request.getMessage().hasPayload() || request.getMessage().isFault()) {
             return super.processRequest(request);
         }
+        if (feature.isStreaming()) {
+            request.setMessage(createValidatingMessage(request, validators));
+            return super.processRequest(request);
+        }
         try {
-            doProcess(request);
+            doProcess(request, validators);
         } catch(SAXException se) {
             LOGGER.log(Level.WARNING, "Client Request doesn't pass Service's Schema Validation", se);
             // Client request is invalid. So sending specific fault code
@@ -143,7 +145,7 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
             return super.processResponse(response);
         }
         try {
-            doProcess(response);
+            doProcess(response, validators);
         } catch(SAXException se) {
             // TODO: Should we convert this to fault Message ??
             throw new WebServiceException(se);
@@ -155,7 +157,7 @@ public class ServerSchemaValidationTube extends AbstractSchemaValidationTube {
         super(that,cloner);
         //this.docs = that.docs;
         this.schema = that.schema;      // Schema is thread-safe
-        this.validator = schema.newValidator();
+        this.validators = that.validators;
         this.noValidation = that.noValidation;
         this.seiModel = that.seiModel;
         this.wsdlPort = that.wsdlPort;
@@ -59,6 +59,8 @@ import com.sun.xml.ws.api.model.wsdl.WSDLPort;
 import com.sun.xml.ws.api.pipe.*;
 import com.sun.xml.ws.api.server.*;
 import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.MetricsFeature;
+import com.sun.xml.ws.developer.PoolingFeature;
 import com.sun.xml.ws.fault.SOAPFaultBuilder;
 import com.sun.xml.ws.model.wsdl.WSDLDirectProperties;
 import com.sun.xml.ws.model.wsdl.WSDLPortProperties;
@@ -111,6 +113,7 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
     private final @NotNull PolicyMap endpointPolicy;
     private final Pool<Tube> tubePool;
     private final OperationDispatcher operationDispatcher;
+    private final @Nullable EndpointMetrics metrics;
     private @NotNull ManagedObjectManager managedObjectManager;
     private boolean managedObjectManagerClosed = false;
     private final Object managedObjectManagerLock = new Object();
@@ -200,9 +203,11 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
         }
         this.masterCodec = c;
 
-        tubePool = new TubePool(masterTubeline);
+        tubePool = new TubePool(masterTubeline, binding.getFeature(PoolingFeature.class));
         terminalTube.setEndpoint(this);
         engine = new Engine(toString(), container);
+        engine.configureExecutor(binding.getFeatures());
+        metrics = binding.isFeatureEnabled(MetricsFeature.class) ? new EndpointMetrics() : null;
         wsdlProperties = (port == null) ? new WSDLDirectProperties(serviceName, portName, seiModel) : new WSDLPortProperties(port, seiModel);
 
         Map<QName, WSEndpointReference.EPRExtension> eprExtensions = new HashMap<QName, WSEndpointReference.EPRExtension>();
@@ -235,6 +240,7 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
         if(!eprExtensions.isEmpty()) {
             serviceDef.addFilter(new EPRSDDocumentFilter(this));
         }
+        registerMetrics();
   }
 
   protected ServerTubeAssemblerContext createServerTubeAssemblerContext(
@@ -258,7 +264,7 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
                 this.serviceDef = null;
                 this.implementationClass = null;
                 this.masterTubeline = masterTubeline;
-                this.masterCodec = ((BindingImpl) this.binding).createCodec();
+                this.masterCodec = ((BindingImpl) this.binding).createCodec(port);
 
         LazyMOMProvider.INSTANCE.registerEndpoint(this);
         initManagedObjectManager();
@@ -267,11 +273,22 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
             this.context = new ServerPipeAssemblerContext(
                 seiModel, port, this, null /* not known */, false);
 
-                tubePool = new TubePool(masterTubeline);
+                tubePool = new TubePool(masterTubeline, binding.getFeature(PoolingFeature.class));
                 engine = new Engine(toString(), container);
+                engine.configureExecutor(binding.getFeatures());
+                metrics = binding.isFeatureEnabled(MetricsFeature.class) ? new EndpointMetrics() : null;
                 wsdlProperties = (port == null) ? new WSDLDirectProperties(serviceName, portName, seiModel) : new WSDLPortProperties(port, seiModel);
+                registerMetrics();
   }
 
+    private void registerMetrics() {
+        if (metrics != null) {
+            for (MetricsExporter exporter : ServiceFinder.find(MetricsExporter.class)) {
+                exporter.register(this, metrics);
+            }
+        }
+    }
+
     public Collection<WSEndpointReference.EPRExtension> getEndpointReferenceExtensions() {
         return endpointReferenceExtensions.values();
     }
@@ -318,6 +335,11 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
                 return engine;
         }
 
+    @Override
+    public @Nullable EndpointMetrics getMetrics() {
+        return metrics;
+    }
+
     public void schedule(final Packet request, final CompletionCallback callback, FiberContextSwitchInterceptor interceptor) {
         processAsync(request, callback, interceptor, true);
     }
@@ -335,6 +357,10 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
             if (interceptor != null) {
                 fiber.addInterceptor(interceptor);
             }
+            final EndpointMetrics.Sample sample = (metrics == null) ? null : metrics.start(request);
+            if (sample != null) {
+                fiber.addInterceptor(sample);
+            }
             final Tube tube = tubePool.take();
             Fiber.CompletionCallback cbak = new Fiber.CompletionCallback() {
                 public void onCompletion(@NotNull Packet response) {
@@ -344,6 +370,9 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
                         // in invalid state following exception
                         tubePool.recycle(tube);
                     }
+                    if (sample != null) {
+                        sample.completed(request, response);
+                    }
 
                     if (callback != null) {
                         if (tc != null) {
@@ -414,7 +443,11 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
                     request.addSatellite(wsdlProperties);
 
                     Fiber fiber = engine.createFiber();
-                    Packet response;
+                    EndpointMetrics.Sample sample = (metrics == null) ? null : metrics.start(request);
+                    if (sample != null) {
+                        fiber.addInterceptor(sample);
+                    }
+                    Packet response = null;
                     try {
                         response = fiber.runSync(tube, request);
                     } catch (RuntimeException re) {
@@ -427,6 +460,10 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
                         response = request.createServerResponse(faultMsg,
                                 request.endpoint.getPort(), null,
                                 request.endpoint.getBinding());
+                    } finally {
+                        if (sample != null) {
+                            sample.completed(request, response);
+                        }
                     }
                     return response;
                 } finally {
@@ -457,6 +494,11 @@ public /*final*/ class WSEndpointImpl<T> extends WSEndpoint<T> implements LazyMO
                     break;
                 }
             }
+            if (metrics != null) {
+                for (MetricsExporter exporter : ServiceFinder.find(MetricsExporter.class)) {
+                    exporter.unregister(this, metrics);
+                }
+            }
             closeManagedObjectManager();
             LazyMOMProvider.INSTANCE.unregisterEndpoint(this);
         }
@@ -51,6 +51,7 @@ import com.sun.xml.ws.api.pipe.FiberContextSwitchInterceptor;
 import com.sun.xml.ws.api.pipe.ServerTubeAssemblerContext;
 import com.sun.xml.ws.api.pipe.ThrowableContainerPropertySet;
 import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.api.server.EndpointMetrics;
 import com.sun.xml.ws.api.server.ServiceDefinition;
 import com.sun.xml.ws.api.server.WSEndpoint;
 import com.sun.xml.ws.policy.PolicyMap;
@@ -379,6 +380,11 @@ public class WSEndpointMOMProxy extends WSEndpoint implements ManagedObjectManag
         return wsEndpoint.getOperationDispatcher();
     }
 
+    @Override
+    public EndpointMetrics getMetrics() {
+        return wsEndpoint.getMetrics();
+    }
+
     @Override
     public Packet createServiceResponseForException(final ThrowableContainerPropertySet tc,
                                                     final Packet      responsePacket,
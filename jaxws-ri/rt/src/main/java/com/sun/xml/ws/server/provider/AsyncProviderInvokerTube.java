@@ -49,6 +49,7 @@ import com.sun.xml.ws.api.pipe.ThrowableContainerPropertySet;
 import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.server.AsyncProvider;
 import com.sun.xml.ws.api.server.AsyncProviderCallback;
+import com.sun.xml.ws.api.server.EndpointMetrics;
 import com.sun.xml.ws.api.server.Invoker;
 import com.sun.xml.ws.api.server.WSEndpoint;
 import com.sun.xml.ws.server.AbstractWebServiceContext;
@@ -147,6 +148,7 @@ class AsyncProviderInvokerTube<T> extends ProviderInvokerTube<T> {
         }
 
         public void send(@Nullable T param) {
+            invocationCompleted();
             if (param == null) {
                 if (request.transportBackChannel != null) {
                     request.transportBackChannel.close();
@@ -159,6 +161,7 @@ class AsyncProviderInvokerTube<T> extends ProviderInvokerTube<T> {
         }
 
         public void sendError(@NotNull Throwable t) {
+            invocationCompleted();
             Exception e;
             if (t instanceof Exception) {
                 e = (Exception) t;
@@ -170,6 +173,13 @@ class AsyncProviderInvokerTube<T> extends ProviderInvokerTube<T> {
             	resumer.onResume(packet);
             }
         }
+
+        private void invocationCompleted() {
+            EndpointMetrics.Sample sample = EndpointMetrics.sampleOf(request);
+            if (sample != null) {
+                sample.invocationCompleted();
+            }
+        }
     }
 
     /**
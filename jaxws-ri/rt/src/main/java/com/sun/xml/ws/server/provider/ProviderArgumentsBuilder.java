@@ -46,6 +46,7 @@ import com.sun.xml.ws.api.WSBinding;
 import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.model.wsdl.WSDLPort;
+import com.sun.xml.ws.developer.StreamingPayloadFeature;
 import com.sun.xml.ws.fault.SOAPFaultBuilder;
 
 import javax.xml.ws.soap.SOAPBinding;
@@ -94,7 +95,8 @@ abstract class ProviderArgumentsBuilder<T> {
     public static ProviderArgumentsBuilder<?> create(ProviderEndpointModel model, WSBinding binding) {
     	if (model.datatype == Packet.class)
     		return new PacketProviderArgumentsBuilder(binding.getSOAPVersion());
-        return (binding instanceof SOAPBinding) ? SOAPProviderArgumentBuilder.create(model, binding.getSOAPVersion())
+        return (binding instanceof SOAPBinding) ? SOAPProviderArgumentBuilder.create(model, binding.getSOAPVersion(),
+                        binding.isFeatureEnabled(StreamingPayloadFeature.class))
                 : XMLProviderArgumentBuilder.createBuilder(model, binding);
     }
     
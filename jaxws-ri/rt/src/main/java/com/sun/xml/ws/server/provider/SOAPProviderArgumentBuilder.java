@@ -47,6 +47,7 @@ import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Messages;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.model.wsdl.WSDLPort;
+import com.sun.xml.ws.developer.StreamingPayloadFeature;
 import com.sun.xml.ws.fault.SOAPFaultBuilder;
 import com.sun.xml.ws.resources.ServerMessages;
 
@@ -54,7 +55,10 @@ import javax.xml.soap.MimeHeader;
 import javax.xml.soap.MimeHeaders;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPMessage;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
+import javax.xml.transform.stax.StAXSource;
 import javax.xml.ws.Service;
 import javax.xml.ws.WebServiceException;
 import java.util.ArrayList;
@@ -73,8 +77,11 @@ abstract class SOAPProviderArgumentBuilder<T> extends ProviderArgumentsBuilder<T
         this.soapVersion = soapVersion;
     }
 
-    static ProviderArgumentsBuilder create(ProviderEndpointModel model, SOAPVersion soapVersion) {
+    static ProviderArgumentsBuilder create(ProviderEndpointModel model, SOAPVersion soapVersion, boolean streamingPayload) {
         if (model.mode == Service.Mode.PAYLOAD) {
+            if (streamingPayload) {
+                return new StreamingPayloadSource(soapVersion);
+            }
             return new PayloadSource(soapVersion);
         } else {
             if(model.datatype==Source.class)
@@ -106,6 +113,37 @@ abstract class SOAPProviderArgumentBuilder<T> extends ProviderArgumentsBuilder<T
 
     }
 
+    /**
+     * {@link PayloadSource} handing out the reader of the request itself,
+     * for {@link StreamingPayloadFeature}.
+     */
+    private static final class StreamingPayloadSource extends SOAPProviderArgumentBuilder<Source> {
+        StreamingPayloadSource(SOAPVersion soapVersion) {
+            super(soapVersion);
+        }
+
+        /*protected*/ public Source getParameter(Packet packet) {
+            Message msg = packet.getMessage();
+            if (!msg.hasPayload()) {
+                return null;
+            }
+            try {
+                XMLStreamReader reader = msg.readPayload();
+                return reader == null ? null : new StAXSource(reader);
+            } catch (XMLStreamException e) {
+                throw new WebServiceException(e);
+            }
+        }
+
+        protected Message getResponseMessage(Source source) {
+            return Messages.createUsingPayload(source, soapVersion);
+        }
+
+        protected Message getResponseMessage(Exception e) {
+            return SOAPFaultBuilder.createSOAPFaultMessage(soapVersion, null, e);
+        }
+    }
+
     private static final class MessageSource extends SOAPProviderArgumentBuilder<Source> {
         MessageSource(SOAPVersion soapVersion) {
             super(soapVersion);
@@ -50,6 +50,7 @@ import javax.xml.transform.Transformer;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stax.StAXSource;
 import javax.xml.transform.stream.StreamSource;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -127,7 +128,11 @@ public class SourceReaderFactory {
                 dsr.setCurrentNode(((DOMSource) source).getNode());
                 return dsr;
             }
-            else if (source instanceof SAXSource) {
+            else if (source instanceof StAXSource
+                    && ((StAXSource) source).getXMLStreamReader() != null) {
+                return ((StAXSource) source).getXMLStreamReader();
+            }
+            else if (source instanceof SAXSource || source instanceof StAXSource) {
                 // TODO: need SAX to StAX adapter here -- Use transformer for now
                 Transformer tx =  XmlUtil.newTransformer();
                 DOMResult domResult = new DOMResult();
@@ -47,6 +47,7 @@ import com.sun.xml.ws.api.BindingID;
 import com.sun.xml.ws.api.WSBinding;
 import com.sun.xml.ws.api.databinding.MetadataReader;
 import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.api.server.ContainerResolver;
 import com.sun.xml.ws.api.server.SDDocumentSource;
 import com.sun.xml.ws.api.server.WSEndpoint;
 import com.sun.xml.ws.api.streaming.XMLStreamReaderFactory;
@@ -87,6 +88,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -133,6 +142,28 @@ public class DeploymentDescriptorParser<A> {
 
     private static final Logger logger = Logger.getLogger(com.sun.xml.ws.util.Constants.LoggingDomain + ".server.http");
 
+    /**
+     * System property that turns on parallel endpoint creation by default.
+     *
+     * @see #setParallel(boolean)
+     */
+    public static final String PARALLEL_PROPERTY = DeploymentDescriptorParser.class.getName() + ".parallel";
+
+    private static final boolean defaultParallel;
+
+    static {
+        boolean b = false;
+        try {
+            b = Boolean.getBoolean(PARALLEL_PROPERTY);
+        } catch (SecurityException se) {
+            if (logger.isLoggable(Level.CONFIG)) {
+                logger.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {PARALLEL_PROPERTY});
+            }
+        }
+        defaultParallel = b;
+    }
+
     private final Container container;
     private final ClassLoader classLoader;
     private final ResourceLoader loader;
@@ -149,6 +180,8 @@ public class DeploymentDescriptorParser<A> {
      */
     private final Map<String, SDDocumentSource> docs = new HashMap<String, SDDocumentSource>();
 
+    private boolean parallel = defaultParallel;
+
     /**
      * @param cl             Used to load service implementations.
      * @param loader         Used to locate resources, in particular WSDL.
@@ -166,6 +199,30 @@ public class DeploymentDescriptorParser<A> {
         logger.log(Level.FINE, "war metadata={0}", docs);
     }
 
+    /**
+     * Controls whether the endpoints declared in the descriptor are created
+     * concurrently.
+     * <p/>
+     * The descriptor itself is always read sequentially, but the expensive part
+     * of the deployment - building the runtime model, parsing or generating
+     * WSDL and assembling the tubeline - is independent for every endpoint
+     * and can run on a fork-join pool, with the context class loader and the
+     * {@link ContainerResolver#getDefault() thread's container} of the calling
+     * thread. The adapters are then created on the calling thread, in the
+     * order in which the endpoints are declared, since {@link AdapterFactory}s
+     * such as {@link HttpAdapterList} aren't thread-safe. If several endpoints
+     * fail, the failure of the first one in declaration order is thrown.
+     * <p/>
+     * Defaults to the value of the {@link #PARALLEL_PROPERTY} system property.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
     /**
      * Parses the {@code sun-jaxws.xml} file and configures
      * a set of {@link HttpAdapter}s.
@@ -232,7 +289,9 @@ public class DeploymentDescriptorParser<A> {
             failWithFullName("runtime.parser.invalidElement", reader);
         }
 
-        List<A> adapters = new ArrayList<A>();
+        List<Callable<WSEndpoint<?>>> tasks = new ArrayList<Callable<WSEndpoint<?>>>();
+        List<String> endpointNames = new ArrayList<String>();
+        List<String> urlPatterns = new ArrayList<String>();
 
         Attributes attrs = XMLStreamReaderUtil.getAttributes(reader);
         String version = getMandatoryNonEmptyAttribute(reader, attrs, ATTR_VERSION);
@@ -245,7 +304,7 @@ public class DeploymentDescriptorParser<A> {
             if (reader.getName().equals(QNAME_ENDPOINT)) {
                 attrs = XMLStreamReaderUtil.getAttributes(reader);
 
-                String name = getMandatoryNonEmptyAttribute(reader, attrs, ATTR_NAME);
+                final String name = getMandatoryNonEmptyAttribute(reader, attrs, ATTR_NAME);
                 if (!names.add(name)) {
                     logger.warning(
                             WsservletMessages.SERVLET_WARNING_DUPLICATE_ENDPOINT_NAME(/*name*/));
@@ -253,7 +312,7 @@ public class DeploymentDescriptorParser<A> {
 
                 String implementationName =
                         getMandatoryNonEmptyAttribute(reader, attrs, ATTR_IMPLEMENTATION);
-                Class<?> implementorClass = getImplementorClass(implementationName, reader);
+                final Class<?> implementorClass = getImplementorClass(implementationName, reader);
 
                 MetadataReader metadataReader = null;
                 ExternalMetadataFeature externalMetadataFeature = null;
@@ -286,34 +345,164 @@ public class DeploymentDescriptorParser<A> {
                     // Convert short-form tokens to API's binding ids
                     bindingId = getBindingIdForToken(bindingId);
                 }
-                WSBinding binding = createBinding(bindingId, implementorClass, enable_mtom, mtomThreshold, dbMode);
+                final WSBinding binding = createBinding(bindingId, implementorClass, enable_mtom, mtomThreshold, dbMode);
                 if (externalMetadataFeature != null) {
                 	binding.getFeatures().mergeFeatures(new WebServiceFeature[]{externalMetadataFeature}, 
                         true);
                 }
 
-                String urlPattern = getMandatoryNonEmptyAttribute(reader, attrs, ATTR_URL_PATTERN);
+                final String urlPattern = getMandatoryNonEmptyAttribute(reader, attrs, ATTR_URL_PATTERN);
 
                 // TODO use 'docs' as the metadata. If wsdl is non-null it's the primary.
-                boolean handlersSetInDD = setHandlersAndRoles(binding, reader, serviceName, portName);
+                final boolean handlersSetInDD = setHandlersAndRoles(binding, reader, serviceName, portName);
 
                 EndpointFactory.verifyImplementorClass(implementorClass, metadataReader);
-                SDDocumentSource primaryWSDL = getPrimaryWSDL(reader, attrs, implementorClass, metadataReader);
-
-                WSEndpoint<?> endpoint = WSEndpoint.create(
-                        implementorClass, !handlersSetInDD,
-                        null,
-                        serviceName, portName, container, binding,
-                        primaryWSDL, docs.values(), createEntityResolver(), false
-                );
-                adapters.add(adapterFactory.createAdapter(name, urlPattern, endpoint));
+                final SDDocumentSource primaryWSDL = getPrimaryWSDL(reader, attrs, implementorClass, metadataReader);
+
+                final QName service = serviceName;
+                final QName port = portName;
+                tasks.add(new Callable<WSEndpoint<?>>() {
+                    @Override
+                    public WSEndpoint<?> call() {
+                        return WSEndpoint.create(
+                                implementorClass, !handlersSetInDD,
+                                null,
+                                service, port, container, binding,
+                                primaryWSDL, docs.values(), createEntityResolver(), false
+                        );
+                    }
+                });
+                endpointNames.add(name);
+                urlPatterns.add(urlPattern);
             } else {
                 failWithLocalName("runtime.parser.invalidElement", reader);
             }
         }
+
+        List<WSEndpoint<?>> endpoints = (parallel && tasks.size() > 1) ? createEndpointsInParallel(tasks) : null;
+        List<A> adapters = new ArrayList<A>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            WSEndpoint<?> endpoint = (endpoints != null) ? endpoints.get(i) : call(tasks.get(i));
+            adapters.add(adapterFactory.createAdapter(endpointNames.get(i), urlPatterns.get(i), endpoint));
+        }
         return adapters;
     }
 
+    private static List<WSEndpoint<?>> createEndpointsInParallel(List<Callable<WSEndpoint<?>>> tasks) {
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        final Container threadContainer = ContainerResolver.getDefault().getContainer();
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()), new DaemonThreadFactory());
+        try {
+            List<Future<WSEndpoint<?>>> futures = new ArrayList<Future<WSEndpoint<?>>>(tasks.size());
+            for (final Callable<WSEndpoint<?>> task : tasks) {
+                futures.add(pool.submit(new Callable<WSEndpoint<?>>() {
+                    @Override
+                    public WSEndpoint<?> call() {
+                        // service implementations and their resources are loaded through the application's
+                        // loader, and may look up the container just like on the deploying thread
+                        Thread thread = Thread.currentThread();
+                        ClassLoader old = thread.getContextClassLoader();
+                        thread.setContextClassLoader(contextClassLoader);
+                        Container oldContainer = ContainerResolver.getDefault().enterContainer(threadContainer);
+                        try {
+                            return DeploymentDescriptorParser.call(task);
+                        } finally {
+                            ContainerResolver.getDefault().exitContainer(oldContainer);
+                            thread.setContextClassLoader(old);
+                        }
+                    }
+                }));
+            }
+
+            List<WSEndpoint<?>> endpoints = new ArrayList<WSEndpoint<?>>(tasks.size());
+            Throwable failure = null;
+            boolean interrupted = false;
+            for (Future<WSEndpoint<?>> future : futures) {
+                // wait for every endpoint even when interrupted, so that none is left behind undisposed
+                while (true) {
+                    try {
+                        endpoints.add(future.get());
+                        break;
+                    } catch (ExecutionException e) {
+                        if (failure == null) {
+                            failure = e.getCause();
+                        } else {
+                            logger.log(Level.SEVERE, e.getCause().getMessage(), e.getCause());
+                        }
+                        break;
+                    } catch (InterruptedException e) {
+                        if (!interrupted) {
+                            interrupted = true;
+                            for (Future<WSEndpoint<?>> f : futures) {
+                                f.cancel(false);
+                            }
+                        }
+                    } catch (CancellationException e) {
+                        break;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+                if (failure == null) {
+                    failure = new InterruptedException();
+                }
+            }
+            if (failure != null) {
+                for (WSEndpoint<?> endpoint : endpoints) {
+                    try {
+                        endpoint.dispose();
+                    } catch (RuntimeException e) {
+                        logger.log(Level.WARNING, e.getMessage(), e);
+                    }
+                }
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw new WebServiceException(failure);
+            }
+            return endpoints;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Creates the daemon threads that create the endpoints, so that a
+     * deployment that hangs doesn't keep the VM from exiting.
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+        static final AtomicInteger poolNumber = new AtomicInteger(1);
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String namePrefix;
+
+        DaemonThreadFactory() {
+            namePrefix = "jaxws-deployment-" + poolNumber.getAndIncrement() + "-thread-";
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, namePrefix + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    private static <A> A call(Callable<A> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new WebServiceException(e);
+        }
+    }
+
     /**
      * @param ddBindingId   binding id explicitlyspecified in the DeploymentDescriptor or parameter
      * @param implClass     Endpoint Implementation class
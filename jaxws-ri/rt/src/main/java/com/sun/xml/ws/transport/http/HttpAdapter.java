@@ -72,6 +72,7 @@ import com.sun.xml.ws.api.SOAPVersion;
 import com.sun.xml.ws.api.addressing.AddressingVersion;
 import com.sun.xml.ws.api.addressing.NonAnonymousResponseProcessor;
 import com.sun.xml.ws.api.ha.HaInfo;
+import com.sun.xml.ws.api.message.AttachmentSet;
 import com.sun.xml.ws.api.message.ExceptionHasMessage;
 import com.sun.xml.ws.api.message.Message;
 import com.sun.xml.ws.api.message.Packet;
@@ -81,6 +82,7 @@ import com.sun.xml.ws.api.server.AbstractServerAsyncTransport;
 import com.sun.xml.ws.api.server.Adapter;
 import com.sun.xml.ws.api.server.BoundEndpoint;
 import com.sun.xml.ws.api.server.DocumentAddressResolver;
+import com.sun.xml.ws.api.server.EndpointMetrics;
 import com.sun.xml.ws.api.server.Module;
 import com.sun.xml.ws.api.server.PortAddressResolver;
 import com.sun.xml.ws.api.server.SDDocument;
@@ -89,9 +91,11 @@ import com.sun.xml.ws.api.server.TransportBackChannel;
 import com.sun.xml.ws.api.server.WSEndpoint;
 import com.sun.xml.ws.api.server.WebServiceContextDelegate;
 import com.sun.xml.ws.fault.SOAPFaultBuilder;
+import com.sun.xml.ws.message.MimeAttachmentSet;
 import com.sun.xml.ws.resources.WsservletMessages;
 import com.sun.xml.ws.server.UnsupportedMediaException;
 import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.SegmentedBuffer;
 import com.sun.xml.ws.util.Pool;
 
 
@@ -130,6 +134,13 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
      */
     private ServiceDefinition serviceDefinition = null;
 
+    /**
+     * Documents of {@link #wsdls} as last patched for the base addresses they
+     * were requested with; null if {@link #metadataCacheSize} is 0.
+     */
+    private final PatchedDocumentCache patchedDocuments =
+            metadataCacheSize > 0 ? new PatchedDocumentCache(metadataCacheSize) : null;
+
     public final HttpAdapterList<? extends HttpAdapter> owner;
 
     /**
@@ -192,6 +203,9 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
      */
     public final void initWSDLMap(final ServiceDefinition serviceDefinition) {
         this.serviceDefinition = serviceDefinition;
+        if (patchedDocuments != null) {
+            patchedDocuments.clear();
+        }
         if(serviceDefinition==null) {
             wsdls = Collections.emptyMap();
             revWsdls = Collections.emptyMap();
@@ -494,13 +508,19 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
         packet.webServiceContextDelegate = con.getWebServiceContextDelegate();
         packet.setState(Packet.State.ServerRequest);
         if (dump || LOGGER.isLoggable(Level.FINER)) {
-            ByteArrayBuffer buf = new ByteArrayBuffer();
+            SegmentedBuffer buf = new SegmentedBuffer();
             buf.write(in);
             in.close();
             dump(buf, "HTTP request", con.getRequestHeaders());
+            // segments are released when the decoder closes the stream
             in = buf.newInputStream();
         }
+        EndpointMetrics metrics = endpoint.getMetrics();
+        long start = (metrics == null) ? 0 : System.nanoTime();
         codec.decode(in, ct, packet);
+        if (metrics != null) {
+            metrics.record(null, EndpointMetrics.Phase.DECODE, System.nanoTime() - start);
+        }
         return packet;
     }
 
@@ -586,10 +606,14 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
                 }
                 OutputStream os = con.getProtocol().contains("1.1") ? con.getOutput() : new Http10OutputStream(con);
                 if (dump || LOGGER.isLoggable(Level.FINER)) {
-                    ByteArrayBuffer buf = new ByteArrayBuffer();
-                    codec.encode(packet, buf);
-                    dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
-                    buf.writeTo(os);
+                    SegmentedBuffer buf = new SegmentedBuffer();
+                    try {
+                        codec.encode(packet, buf);
+                        dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
+                        buf.writeTo(os);
+                    } finally {
+                        buf.release();
+                    }
                 } else {
                     codec.encode(packet, os);
                 }
@@ -612,10 +636,14 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
             if (isClientErrorStatus(con.getStatus())) {
                 OutputStream os = con.getOutput();
                 if (dump || LOGGER.isLoggable(Level.FINER)) {
-                    ByteArrayBuffer buf = new ByteArrayBuffer();
-                    writeClientError(con.getStatus(), buf, packet);
-                    dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
-                    buf.writeTo(os);
+                    SegmentedBuffer buf = new SegmentedBuffer();
+                    try {
+                        writeClientError(con.getStatus(), buf, packet);
+                        dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
+                        buf.writeTo(os);
+                    } finally {
+                        buf.release();
+                    }
                 } else {
                     writeClientError(con.getStatus(), os, packet);
                 }
@@ -623,30 +651,45 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
             	  return;
             }
 
+            EndpointMetrics metrics = endpoint.getMetrics();
+            long start = (metrics == null) ? 0 : System.nanoTime();
             ContentType contentType = codec.getStaticContentType(packet);
             if (contentType != null) {
                 con.setContentTypeResponseHeader(contentType.getContentType());
                 OutputStream os = con.getProtocol().contains("1.1") ? con.getOutput() : new Http10OutputStream(con);
                 if (dump || LOGGER.isLoggable(Level.FINER)) {
-                    ByteArrayBuffer buf = new ByteArrayBuffer();
-                    codec.encode(packet, buf);
-                    dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
-                    buf.writeTo(os);
+                    SegmentedBuffer buf = new SegmentedBuffer();
+                    try {
+                        codec.encode(packet, buf);
+                        dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
+                        buf.writeTo(os);
+                    } finally {
+                        buf.release();
+                    }
                 } else {
                     codec.encode(packet, os);
                 }
                 os.close();
             } else {
 
-                ByteArrayBuffer buf = new ByteArrayBuffer();
-                contentType = codec.encode(packet, buf);
-                con.setContentTypeResponseHeader(contentType.getContentType());
-                if (dump || LOGGER.isLoggable(Level.FINER)) {
-                    dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
+                SegmentedBuffer buf = new SegmentedBuffer();
+                try {
+                    contentType = codec.encode(packet, buf);
+                    con.setContentTypeResponseHeader(contentType.getContentType());
+                    if (dump || LOGGER.isLoggable(Level.FINER)) {
+                        dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
+                    }
+                    OutputStream os = con.getOutput();
+                    buf.writeTo(os);
+                    os.close();
+                } finally {
+                    buf.release();
                 }
-                OutputStream os = con.getOutput();
-                buf.writeTo(os);
-                os.close();
+            }
+            if (metrics != null) {
+                EndpointMetrics.Sample sample = EndpointMetrics.sampleOf(packet);
+                metrics.record(sample == null ? null : sample.getOperation(),
+                        EndpointMetrics.Phase.ENCODE, System.nanoTime() - start);
             }
         }
     }
@@ -731,6 +774,7 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
                 return;
             }
 
+            final Message requestMessage = request.getMessage();
             endpoint.process(request, new WSEndpoint.CompletionCallback() {
                 @Override
                 public void onCompletion(@NotNull Packet response) {
@@ -740,6 +784,7 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
                         } catch (IOException ioe) {
                             LOGGER.log(Level.SEVERE, ioe.getMessage(), ioe);
                         }
+                        releaseAttachmentMemory(requestMessage);
                         currentPool.recycle(tk);
                     } finally {
                         con.close();
@@ -823,7 +868,7 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
 
                 if (dump || LOGGER.isLoggable(Level.FINER)) {
                     try {
-                        ByteArrayBuffer buf = new ByteArrayBuffer();
+                        SegmentedBuffer buf = new SegmentedBuffer();
                         dump(buf, "HTTP response " + con.getStatus(), con.getResponseHeaders());
                     } catch (Exception e) {
                         throw new WebServiceException(e.toString(), e);
@@ -842,13 +887,31 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
         }
     }
 
+    /**
+     * Returns the memory allowance the MIME parts of a request haven't used to
+     * its {@link com.sun.xml.ws.encoding.AttachmentStore}, once the response is
+     * written. The parts stay readable, for an endpoint that kept their data
+     * handlers, and what they hold in memory is only given back once they are
+     * collected.
+     */
+    private static void releaseAttachmentMemory(@Nullable Message request) {
+        if (request != null) {
+            AttachmentSet attachments = request.getAttachments();
+            if (attachments instanceof MimeAttachmentSet) {
+                ((MimeAttachmentSet) attachments).releaseUnusedMemory();
+            }
+        }
+    }
+
     final class HttpToolkit extends Adapter.Toolkit {
         public void handle(WSHTTPConnection con) throws IOException {
             try {
                 boolean invoke = false;
                 Packet packet;
+                Message requestMessage = null;
                 try {
                     packet = decodePacket(con, codec);
+                    requestMessage = packet.getMessage();
                     invoke = true;
                 } catch(Exception e) {
                     packet = new Packet();
@@ -876,6 +939,7 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
                     }
                 }
                 encodePacket(packet, con, codec);
+                releaseAttachmentMemory(requestMessage);
             } finally {
                 if (!con.isClosed()) {
                     if (LOGGER.isLoggable(Level.FINE)) {
@@ -906,6 +970,13 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
      * Sends out the WSDL (and other referenced documents)
      * in response to the GET requests to URLs like "?wsdl" or "?xsd=2".
      *
+     * <p>
+     * The documents are patched with the addresses of the base address of the
+     * request once, and then served from {@link #patchedDocuments} with a strong
+     * entity tag, so that a request with a matching {@code If-None-Match} gets
+     * a 304 response. If gzip compression of metadata is on, clients that accept
+     * it get the precompressed document.
+     *
      * @param con
      *      The connection to which the data will be sent.
      *
@@ -920,6 +991,11 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
             return;
         }
 
+        if (patchedDocuments != null) {
+            publishPatchedDocument(con, doc);
+            return;
+        }
+
         con.setStatus(HttpURLConnection.HTTP_OK);
         con.setContentTypeResponseHeader("text/xml;charset=utf-8");
 
@@ -932,6 +1008,93 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
         os.close();
     }
 
+    private void publishPatchedDocument(@NotNull WSHTTPConnection con, @NotNull SDDocument doc) throws IOException {
+        String baseAddress = con.getBaseAddress();
+        PatchedDocumentCache.Entry entry = patchedDocuments.get(doc, baseAddress);
+        if (entry == null) {
+            ByteArrayBuffer buf = new ByteArrayBuffer();
+            PortAddressResolver portAddressResolver = getPortAddressResolver(baseAddress);
+            doc.writeTo(portAddressResolver, getDocumentAddressResolver(portAddressResolver), buf);
+            entry = new PatchedDocumentCache.Entry(buf.toByteArray(), gzipMetadata);
+            patchedDocuments.put(doc, baseAddress, entry);
+        }
+
+        boolean gzip = entry.gzipped != null && acceptsGzip(con.getRequestHeaderValues("Accept-Encoding"));
+        String etag = gzip ? entry.gzippedETag : entry.etag;
+        con.setResponseHeader("ETag", etag);
+        if (entry.gzipped != null) {
+            con.setResponseHeader("Vary", "Accept-Encoding");
+        }
+        if (matchesETag(con.getRequestHeaderValues("If-None-Match"), etag)) {
+            con.setStatus(HttpURLConnection.HTTP_NOT_MODIFIED);
+            con.getOutput().close();
+            return;
+        }
+
+        byte[] bytes = gzip ? entry.gzipped : entry.bytes;
+        con.setStatus(HttpURLConnection.HTTP_OK);
+        con.setContentTypeResponseHeader("text/xml;charset=utf-8");
+        if (gzip) {
+            con.setResponseHeader("Content-Encoding", "gzip");
+        }
+        con.setContentLengthResponseHeader(bytes.length);
+        OutputStream os = con.getProtocol().contains("1.1") ? con.getOutput() : new Http10OutputStream(con);
+        os.write(bytes);
+        os.close();
+    }
+
+    /**
+     * Checks if one of the entity tags of If-None-Match headers matches the given one,
+     * using the weak comparison.
+     */
+    static boolean matchesETag(@Nullable List<String> ifNoneMatch, @NotNull String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String header : ifNoneMatch) {
+            for (String tag : header.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if Accept-Encoding headers accept gzip.
+     */
+    static boolean acceptsGzip(@Nullable List<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String header : acceptEncoding) {
+            for (String coding : header.split(",")) {
+                String[] params = coding.split(";");
+                String name = params[0].trim();
+                if (!name.equalsIgnoreCase("gzip") && !name.equalsIgnoreCase("x-gzip")) {
+                    continue;
+                }
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            return Float.parseFloat(param.substring(2)) > 0;
+                        } catch (NumberFormatException e) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
     public PortAddressResolver getPortAddressResolver(String baseAddress) {
         return owner.createPortAddressResolver(baseAddress, endpoint.getImplementationClass());
     }
@@ -954,7 +1117,7 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
      * HTTP/1.0 connections require Content-Length. So just buffer to find out
      * the length.
      */
-    private final static class Http10OutputStream extends ByteArrayBuffer {
+    private final static class Http10OutputStream extends SegmentedBuffer {
         private final WSHTTPConnection con;
 
         Http10OutputStream(WSHTTPConnection con) {
@@ -963,11 +1126,14 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
 
         @Override
         public void close() throws IOException {
-            super.close();
-            con.setContentLengthResponseHeader(size());
-            OutputStream os = con.getOutput();
-            writeTo(os);
-            os.close();
+            try {
+                con.setContentLengthResponseHeader((int) size());
+                OutputStream os = con.getOutput();
+                writeTo(os);
+                os.close();
+            } finally {
+                release();
+            }
         }
     }
 
@@ -999,7 +1165,7 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
         }
     }
 
-    private static void dump(ByteArrayBuffer buf, String caption, Map<String, List<String>> headers) throws IOException {
+    private static void dump(SegmentedBuffer buf, String caption, Map<String, List<String>> headers) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         PrintWriter pw = new PrintWriter(baos, true);
         pw.println("---["+caption +"]---");
@@ -1017,8 +1183,7 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
             }
         }
         if (buf.size() > dump_threshold) {
-            byte[] b = buf.getRawData();
-            baos.write(b, 0, dump_threshold);
+            buf.writeTo(baos, dump_threshold);
             pw.println();
             pw.println(WsservletMessages.MESSAGE_TOO_LONG(HttpAdapter.class.getName() + ".dumpTreshold"));
         } else {
@@ -1121,6 +1286,18 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
 
     public static volatile boolean publishStatusPage = true;
 
+    /**
+     * Maximum number of patched metadata documents an adapter keeps, for all
+     * the base addresses they are requested with; 0 to patch them on every request.
+     */
+    public static volatile int metadataCacheSize = 64;
+
+    /**
+     * Whether metadata documents are also kept gzip compressed, for the clients
+     * that accept it.
+     */
+    public static volatile boolean gzipMetadata = false;
+
     public static synchronized void setPublishStatus(boolean publish) {
         publishStatusPage = publish;
     }
@@ -1142,6 +1319,15 @@ public class HttpAdapter extends Adapter<HttpAdapter.HttpToolkit> {
                         new Object[] {HttpAdapter.class.getName() + ".dumpTreshold"});
             }
         }
+        try {
+            metadataCacheSize = Integer.getInteger(HttpAdapter.class.getName() + ".metadataCacheSize", 64);
+            gzipMetadata = Boolean.getBoolean(HttpAdapter.class.getName() + ".gzipMetadata");
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {HttpAdapter.class.getName() + ".metadataCacheSize"});
+            }
+        }
         try {
             if (System.getProperty(HttpAdapter.class.getName() + ".publishStatusPage") != null) {
                 setPublishStatus(Boolean.getBoolean(HttpAdapter.class.getName() + ".publishStatusPage"));
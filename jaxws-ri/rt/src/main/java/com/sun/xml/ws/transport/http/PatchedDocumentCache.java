@@ -0,0 +1,156 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.server.SDDocument;
+import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.DigestUtil;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Metadata documents, as {@link SDDocument#writeTo patched} for a base address,
+ * kept so that they are not patched again on every {@code ?wsdl} or {@code ?xsd=N}
+ * request.
+ *
+ * <p>
+ * Holds the documents of the most recently used pairs of document and base
+ * address, up to a maximum, so that requests with arbitrary {@code Host}
+ * headers can't make it grow without bound.
+ *
+ * @see HttpAdapter#publishWSDL(WSHTTPConnection)
+ */
+final class PatchedDocumentCache {
+
+    /**
+     * Bytes of the digest of a document that go into its entity tag.
+     */
+    private static final int DIGEST_LENGTH = 16;
+
+    /**
+     * A patched document.
+     */
+    static final class Entry {
+        final byte[] bytes;
+        final String etag;
+        /**
+         * The same document, gzip compressed; null when compression is off.
+         */
+        final @Nullable byte[] gzipped;
+        final @Nullable String gzippedETag;
+
+        Entry(byte[] bytes, boolean gzip) throws IOException {
+            this.bytes = bytes;
+            String digest = digest(bytes);
+            this.etag = '"' + digest + '"';
+            if (gzip) {
+                ByteArrayBuffer buf = new ByteArrayBuffer(bytes.length / 4 + 64);
+                GZIPOutputStream out = new GZIPOutputStream(buf);
+                out.write(bytes);
+                out.close();
+                this.gzipped = buf.toByteArray();
+                this.gzippedETag = "\"" + digest + "-gzip\"";
+            } else {
+                this.gzipped = null;
+                this.gzippedETag = null;
+            }
+        }
+    }
+
+    private static final class Key {
+        final SDDocument document;
+        final String baseAddress;
+
+        Key(SDDocument document, String baseAddress) {
+            this.document = document;
+            this.baseAddress = baseAddress;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return document == that.document && baseAddress.equals(that.baseAddress);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(document) * 31 + baseAddress.hashCode();
+        }
+    }
+
+    private final Map<Key, Entry> entries;
+
+    PatchedDocumentCache(final int maxSize) {
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PatchedDocumentCache.Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized @Nullable Entry get(@NotNull SDDocument document, @NotNull String baseAddress) {
+        return entries.get(new Key(document, baseAddress));
+    }
+
+    synchronized void put(@NotNull SDDocument document, @NotNull String baseAddress, @NotNull Entry entry) {
+        entries.put(new Key(document, baseAddress), entry);
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Hex SHA-256 of the document, truncated to {@link #DIGEST_LENGTH} bytes.
+     */
+    private static String digest(byte[] bytes) {
+        return DigestUtil.toHex(DigestUtil.sha256().digest(bytes), DIGEST_LENGTH);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.EndpointAddress;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.developer.AsyncHttpTransportFeature;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link HttpTransportPipe} that does not block the {@link Fiber} while the
+ * HTTP exchange is in progress.
+ *
+ * <p>
+ * For fibers that run asynchronously, {@link #processRequest(Packet)}
+ * suspends the fiber and hands the exchange to a transport {@link Executor};
+ * the fiber is resumed with the response (or the failure) once the exchange
+ * is done, so the {@link com.sun.xml.ws.api.pipe.Engine} thread is free to
+ * run other fibers in the meantime. Synchronous invocations are processed on
+ * the calling thread as {@link HttpTransportPipe} does, since that thread
+ * would just wait for the response anyway.
+ *
+ * <p>
+ * In both cases the number of concurrent exchanges per host is capped
+ * as configured by {@link AsyncHttpTransportFeature}, across all the pipes
+ * with the same cap. Suspended fibers
+ * above the cap wait in a queue of the host without holding a thread of
+ * the transport {@link Executor}.
+ *
+ * @see AsyncHttpTransportTubeFactory
+ */
+public class AsyncHttpTransportPipe extends HttpTransportPipe {
+
+    private static final Logger LOGGER = Logger.getLogger(AsyncHttpTransportPipe.class.getName());
+
+    private final HostConnectionLimiter limiter;
+    private final Executor executor;
+
+    public AsyncHttpTransportPipe(Codec codec, WSBinding binding) {
+        this(codec, binding, getFeature(binding));
+    }
+
+    private AsyncHttpTransportPipe(Codec codec, WSBinding binding, AsyncHttpTransportFeature feature) {
+        super(codec, binding);
+        this.limiter = HostConnectionLimiter.get(feature.getMaxConnectionsPerHost());
+        this.executor = feature.getExecutor() != null ? feature.getExecutor() : DefaultExecutor.INSTANCE;
+    }
+
+    /*
+     * Copy constructor for {@link Tube#copy(TubeCloner)}.
+     * The limiter is shared with all the pipes that have the same cap.
+     */
+    protected AsyncHttpTransportPipe(AsyncHttpTransportPipe that, TubeCloner cloner) {
+        super(that, cloner);
+        this.limiter = that.limiter;
+        this.executor = that.executor;
+    }
+
+    private static AsyncHttpTransportFeature getFeature(WSBinding binding) {
+        AsyncHttpTransportFeature f = binding.getFeature(AsyncHttpTransportFeature.class);
+        return f != null ? f : new AsyncHttpTransportFeature();
+    }
+
+    @Override
+    public NextAction processRequest(@NotNull final Packet request) {
+        if (Fiber.isSynchronous()) {
+            return doReturnWith(process(request));
+        }
+        final Fiber fiber = Fiber.current();
+        final EndpointAddress address = request.endpointAddress;
+        final Runnable exchange = new Runnable() {
+            @Override
+            public void run() {
+                Packet reply;
+                try {
+                    reply = exchange(request);
+                } catch (Throwable t) {
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.log(Level.FINE, "HTTP exchange with " + address + " failed", t);
+                    }
+                    limiter.release(address);
+                    fiber.resume(t, request);
+                    return;
+                }
+                limiter.release(address);
+                fiber.resume(reply);
+            }
+        };
+        // start only once the fiber is fully suspended, so that a fast
+        // exchange cannot resume it before it has been suspended
+        return doSuspend(new Runnable() {
+            @Override
+            public void run() {
+                // waits for a permit in the queue of the host, not on a thread
+                limiter.start(address, new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            executor.execute(exchange);
+                        } catch (RuntimeException e) {
+                            limiter.release(address);
+                            fiber.resume(e, request);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public Packet process(Packet request) {
+        EndpointAddress address = request.endpointAddress;
+        limiter.acquire(address);
+        try {
+            return exchange(request);
+        } finally {
+            limiter.release(address);
+        }
+    }
+
+    /**
+     * Performs the HTTP exchange, once the limiter let it start.
+     */
+    Packet exchange(Packet request) {
+        return super.process(request);
+    }
+
+    @Override
+    public AsyncHttpTransportPipe copy(TubeCloner cloner) {
+        return new AsyncHttpTransportPipe(this, cloner);
+    }
+
+    /**
+     * Shared pool of daemon threads for the blocking part of HTTP exchanges.
+     */
+    private static final class DefaultExecutor {
+        static final ExecutorService INSTANCE = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "jaxws-http-transport-thread-" + threadNumber.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+}
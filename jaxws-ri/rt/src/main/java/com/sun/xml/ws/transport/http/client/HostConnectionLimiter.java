@@ -0,0 +1,219 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.EndpointAddress;
+
+import javax.xml.ws.WebServiceException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Caps the number of concurrent HTTP exchanges per host.
+ *
+ * <p>
+ * A host is identified by the scheme, host and port of the
+ * {@link EndpointAddress}, which is also how {@link java.net.HttpURLConnection}
+ * keys its keep-alive cache.
+ *
+ * <p>
+ * Exchanges above the cap wait in a queue per host, in the order they were
+ * {@link #start started}, without holding a thread; a {@link #release released}
+ * permit is handed right on to the first of them.
+ *
+ * <p>
+ * There is one limiter per cap, shared by all the pipes with that cap, so that
+ * the cap applies to the host and not to a port.
+ */
+final class HostConnectionLimiter {
+
+    private static final ConcurrentMap<Integer, HostConnectionLimiter> LIMITERS =
+            new ConcurrentHashMap<Integer, HostConnectionLimiter>();
+
+    private final int maxPerHost;
+    private final ConcurrentMap<String, Host> hosts = new ConcurrentHashMap<String, Host>();
+
+    /**
+     * Exchanges with one host.
+     */
+    private static final class Host {
+        int inFlight;
+        final Queue<Runnable> waiting = new ArrayDeque<Runnable>();
+    }
+
+    HostConnectionLimiter(int maxPerHost) {
+        this.maxPerHost = maxPerHost;
+    }
+
+    /**
+     * Gets the limiter shared by all the pipes that cap the exchanges per host at the given number.
+     */
+    static @NotNull HostConnectionLimiter get(int maxPerHost) {
+        HostConnectionLimiter l = LIMITERS.get(maxPerHost);
+        if (l == null) {
+            HostConnectionLimiter n = new HostConnectionLimiter(maxPerHost);
+            l = LIMITERS.putIfAbsent(maxPerHost, n);
+            if (l == null) {
+                l = n;
+            }
+        }
+        return l;
+    }
+
+    /**
+     * Runs the task as soon as an exchange with the host of the given address
+     * may start: right away on the calling thread if the host is below the cap,
+     * otherwise on the thread that releases the permit. The task is expected
+     * to return quickly, and its exchange must be paired with
+     * {@link #release(EndpointAddress)}.
+     */
+    void start(@NotNull EndpointAddress address, @NotNull Runnable task) {
+        Host h = getHost(address);
+        synchronized (h) {
+            if (h.inFlight >= maxPerHost) {
+                h.waiting.add(task);
+                return;
+            }
+            h.inFlight++;
+        }
+        task.run();
+    }
+
+    /**
+     * Blocks until an exchange with the host of the given address may start.
+     * Every successful call must be paired with {@link #release(EndpointAddress)}.
+     */
+    void acquire(@NotNull EndpointAddress address) {
+        final CountDownLatch granted = new CountDownLatch(1);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                granted.countDown();
+            }
+        };
+        start(address, task);
+        try {
+            granted.await();
+        } catch (InterruptedException e) {
+            Host h = getHost(address);
+            boolean dequeued;
+            synchronized (h) {
+                dequeued = h.waiting.remove(task);
+            }
+            if (!dequeued) {
+                // the permit was granted meanwhile
+                release(address);
+            }
+            Thread.currentThread().interrupt();
+            throw new WebServiceException(e);
+        }
+    }
+
+    /**
+     * Ends an exchange, starting the next one waiting for the host, if any.
+     */
+    void release(@NotNull EndpointAddress address) {
+        Host h = getHost(address);
+        Runnable next;
+        synchronized (h) {
+            next = h.waiting.poll();
+            if (next == null) {
+                h.inFlight--;
+                return;
+            }
+        }
+        // the permit passes on to the next exchange
+        next.run();
+    }
+
+    /**
+     * Number of exchanges with the host of the given address that are currently in progress.
+     */
+    int getInFlight(@NotNull EndpointAddress address) {
+        Host h = hosts.get(key(address));
+        if (h == null) {
+            return 0;
+        }
+        synchronized (h) {
+            return h.inFlight;
+        }
+    }
+
+    /**
+     * Number of exchanges with the host of the given address that wait for one in progress to end.
+     */
+    int getWaiting(@NotNull EndpointAddress address) {
+        Host h = hosts.get(key(address));
+        if (h == null) {
+            return 0;
+        }
+        synchronized (h) {
+            return h.waiting.size();
+        }
+    }
+
+    private Host getHost(EndpointAddress address) {
+        String key = key(address);
+        Host h = hosts.get(key);
+        if (h == null) {
+            Host n = new Host();
+            h = hosts.putIfAbsent(key, n);
+            if (h == null) {
+                h = n;
+            }
+        }
+        return h;
+    }
+
+    private static String key(EndpointAddress address) {
+        URI uri = address.getURI();
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getScheme() + "://" + uri.getHost() + ':' + port;
+    }
+}
@@ -53,7 +53,7 @@ import com.sun.xml.ws.resources.ClientMessages;
 import com.sun.xml.ws.resources.WsservletMessages;
 import com.sun.xml.ws.transport.Headers;
 import com.sun.xml.ws.transport.http.HttpAdapter;
-import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.SegmentedBuffer;
 import com.sun.xml.ws.util.RuntimeVersion;
 import com.sun.xml.ws.util.StreamUtils;
 
@@ -130,7 +130,7 @@ public class HttpTransportPipe extends AbstractTubeImpl {
     /*
      * Copy constructor for {@link Tube#copy(TubeCloner)}.
      */
-    private HttpTransportPipe(HttpTransportPipe that, TubeCloner cloner) {
+    protected HttpTransportPipe(HttpTransportPipe that, TubeCloner cloner) {
         this(that.codec.copy(), that.binding);
         cloner.add(that,this);
     }
@@ -183,24 +183,27 @@ public class HttpTransportPipe extends AbstractTubeImpl {
 
             ContentType ct = codec.getStaticContentType(request);
             if (ct == null) {
-                ByteArrayBuffer buf = new ByteArrayBuffer();
+                SegmentedBuffer buf = new SegmentedBuffer();
+                try {
+                    ct = codec.encode(request, buf);
+                    // data size is available, set it as Content-Length
+                    reqHeaders.put("Content-Length", Collections.singletonList(Long.toString(buf.size())));
+                    reqHeaders.put("Content-Type", Collections.singletonList(ct.getContentType()));
+                    if (ct.getAcceptHeader() != null) {
+                        reqHeaders.put("Accept", Collections.singletonList(ct.getAcceptHeader()));
+                    }
+                    if (binding instanceof SOAPBinding) {
+                        writeSOAPAction(reqHeaders, ct.getSOAPActionHeader());
+                    }
 
-                ct = codec.encode(request, buf);
-                // data size is available, set it as Content-Length
-                reqHeaders.put("Content-Length", Collections.singletonList(Integer.toString(buf.size())));
-                reqHeaders.put("Content-Type", Collections.singletonList(ct.getContentType()));
-                if (ct.getAcceptHeader() != null) {
-                    reqHeaders.put("Accept", Collections.singletonList(ct.getAcceptHeader()));
-                }
-                if (binding instanceof SOAPBinding) {
-                    writeSOAPAction(reqHeaders, ct.getSOAPActionHeader());
-                }
+                    if (dump || LOGGER.isLoggable(Level.FINER)) {
+                        dump(buf, "HTTP request", reqHeaders);
+                    }
 
-                if (dump || LOGGER.isLoggable(Level.FINER)) {
-                    dump(buf, "HTTP request", reqHeaders);
+                    buf.writeTo(con.getOutput());
+                } finally {
+                    buf.release();
                 }
-
-                buf.writeTo(con.getOutput());
             } else {
                 // Set static Content-Type
                 reqHeaders.put("Content-Type", Collections.singletonList(ct.getContentType()));
@@ -212,12 +215,16 @@ public class HttpTransportPipe extends AbstractTubeImpl {
                 }
 
                 if(dump || LOGGER.isLoggable(Level.FINER)) {
-                    ByteArrayBuffer buf = new ByteArrayBuffer();
-                    codec.encode(request, buf);
-                    dump(buf, "HTTP request - "+request.endpointAddress, reqHeaders);
-                    OutputStream out = con.getOutput();
-                    if (out != null) {
-                        buf.writeTo(out);
+                    SegmentedBuffer buf = new SegmentedBuffer();
+                    try {
+                        codec.encode(request, buf);
+                        dump(buf, "HTTP request - "+request.endpointAddress, reqHeaders);
+                        OutputStream out = con.getOutput();
+                        if (out != null) {
+                            buf.writeTo(out);
+                        }
+                    } finally {
+                        buf.release();
                     }
                 } else {
                     OutputStream os = con.getOutput();
@@ -243,12 +250,13 @@ public class HttpTransportPipe extends AbstractTubeImpl {
 
         InputStream responseStream = con.getInput();
         if (dump || LOGGER.isLoggable(Level.FINER)) {
-            ByteArrayBuffer buf = new ByteArrayBuffer();
+            SegmentedBuffer buf = new SegmentedBuffer();
             if (responseStream != null) {
                 buf.write(responseStream);
                 responseStream.close();
             }
             dump(buf,"HTTP response - "+request.endpointAddress+" - "+con.statusCode, con.getHeaders());
+            // segments are released when the decoder closes the stream
             responseStream = buf.newInputStream();
         }
 
@@ -274,11 +282,15 @@ public class HttpTransportPipe extends AbstractTubeImpl {
         checkStatusCode(responseStream, con); // throws ClientTransportException
         //To avoid zero-length chunk for One-Way
         if (cl ==-1 && con.statusCode == 202 && "Accepted".equals(con.statusMessage) && responseStream != null) {
-            ByteArrayBuffer buf = new ByteArrayBuffer();
+            SegmentedBuffer buf = new SegmentedBuffer();
             buf.write(responseStream); //What is within the responseStream?
             responseStream.close();
-            responseStream = (buf.size()==0)? null : buf.newInputStream();
-            buf.close();
+            if (buf.size() == 0) {
+                buf.release();
+                responseStream = null;
+            } else {
+                responseStream = buf.newInputStream();
+            }
         }
         Packet reply = request.createClientResponse(null);
         reply.wasTransportSecure = con.isSecure();
@@ -434,7 +446,7 @@ public class HttpTransportPipe extends AbstractTubeImpl {
     }
 
 
-    private void dump(ByteArrayBuffer buf, String caption, Map<String, List<String>> headers) throws IOException {
+    private void dump(SegmentedBuffer buf, String caption, Map<String, List<String>> headers) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         PrintWriter pw = new PrintWriter(baos, true);
         pw.println("---["+caption +"]---");
@@ -451,8 +463,7 @@ public class HttpTransportPipe extends AbstractTubeImpl {
         }
 
         if (buf.size() > HttpAdapter.dump_threshold) {
-            byte[] b = buf.getRawData();
-            baos.write(b, 0, HttpAdapter.dump_threshold);
+            buf.writeTo(baos, HttpAdapter.dump_threshold);
             pw.println();
             pw.println(WsservletMessages.MESSAGE_TOO_LONG(HttpAdapter.class.getName() + ".dumpTreshold"));
         } else {
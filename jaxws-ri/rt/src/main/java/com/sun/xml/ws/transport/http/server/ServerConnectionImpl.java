@@ -61,6 +61,7 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.security.Principal;
 import java.util.ArrayList;
@@ -195,6 +196,10 @@ final class ServerConnectionImpl extends WSHTTPConnection implements WebServiceC
         if (out == null) {
             String lenHeader = httpExchange.getResponseHeaders().getFirst("Content-Length");
             int length = (lenHeader != null) ? Integer.parseInt(lenHeader) : 0;
+            if (getStatus() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                // no body at all, not even an empty chunked one
+                length = -1;
+            }
             httpExchange.sendResponseHeaders(getStatus(), length);
 
             // Light weight http server's OutputStream.close() throws exception if
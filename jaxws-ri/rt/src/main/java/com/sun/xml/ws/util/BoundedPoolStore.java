@@ -0,0 +1,166 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded storage behind a {@link Pool}.
+ *
+ * <p>
+ * Idle instances are first parked in a small array of striped slots indexed
+ * by the calling thread, so that a thread which recycles an object usually
+ * gets the very same one back without touching shared state. Only when its
+ * slot is occupied (or empty on {@link #poll()}) does the shared queue come
+ * into play. Unlike the default pool storage, instances are held strongly
+ * and the total number of retained instances never exceeds the configured
+ * maximum.
+ */
+final class BoundedPoolStore<T> implements Pool.Statistics {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final ConcurrentLinkedQueue<T> shared = new ConcurrentLinkedQueue<T>();
+    private final AtomicInteger sharedSize = new AtomicInteger();
+    private final int maxShared;
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder creations = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+
+    BoundedPoolStore(int maxSize, int fastSlots) {
+        int n = (fastSlots > 0 && maxSize > 0) ? Integer.highestOneBit(Math.min(fastSlots, maxSize)) : 0;
+        this.slots = n == 0 ? null : new AtomicReferenceArray<T>(n);
+        this.mask = n - 1;
+        this.maxSize = maxSize;
+        this.maxShared = maxSize - n;
+    }
+
+    /**
+     * @return
+     *      an idle instance, or null if none is available.
+     */
+    T poll() {
+        if (slots != null) {
+            int i = slotIndex();
+            T t = slots.get(i);
+            if (t != null && slots.compareAndSet(i, t, null)) {
+                hits.increment();
+                return t;
+            }
+        }
+        T t = shared.poll();
+        if (t != null) {
+            sharedSize.decrementAndGet();
+            hits.increment();
+            return t;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Parks an idle instance, or drops it if the pool is full.
+     */
+    void offer(T t) {
+        if (slots != null && slots.compareAndSet(slotIndex(), null, t)) {
+            return;
+        }
+        if (sharedSize.incrementAndGet() <= maxShared) {
+            shared.offer(t);
+        } else {
+            sharedSize.decrementAndGet();
+            discards.increment();
+        }
+    }
+
+    void created() {
+        creations.increment();
+    }
+
+    private int slotIndex() {
+        return (int) Thread.currentThread().getId() & mask;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getIdleCount() {
+        int idle = sharedSize.get();
+        if (slots != null) {
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) != null) {
+                    idle++;
+                }
+            }
+        }
+        return idle;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getCreationCount() {
+        return creations.sum();
+    }
+
+    public long getDiscardCount() {
+        return discards.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Pool.Statistics[maxSize=" + maxSize + ", idle=" + getIdleCount()
+                + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", creations=" + getCreationCount() + ", discards=" + getDiscardCount() + "]";
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 digests, as used to key caches by content and to fingerprint
+ * generated documents.
+ *
+ * @since 2.3.0
+ */
+public final class DigestUtil {
+
+    private DigestUtil() {
+    }
+
+    /**
+     * Returns a new SHA-256 {@link MessageDigest}, which every Java platform has.
+     */
+    public static @NotNull MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Updates the digest with the length of the data, then the data itself,
+     * so that no two sequences of values digest the same bytes.
+     */
+    public static void update(@NotNull MessageDigest md, @NotNull byte[] data) {
+        int n = data.length;
+        md.update(new byte[] {(byte) (n >>> 24), (byte) (n >>> 16), (byte) (n >>> 8), (byte) n});
+        md.update(data);
+    }
+
+    /**
+     * Same as {@link #update(MessageDigest, byte[])} with the UTF-8 bytes of
+     * the string, null being the same as the empty string.
+     */
+    public static void update(@NotNull MessageDigest md, @Nullable String s) {
+        update(md, (s == null ? "" : s).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lowercase hex of the digest.
+     */
+    public static @NotNull String toHex(@NotNull byte[] digest) {
+        return toHex(digest, digest.length);
+    }
+
+    /**
+     * Lowercase hex of the first {@code length} bytes of the digest.
+     */
+    public static @NotNull String toHex(@NotNull byte[] digest, int length) {
+        StringBuilder sb = new StringBuilder(length * 2);
+        for (int i = 0; i < length; i++) {
+            byte b = digest[i];
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
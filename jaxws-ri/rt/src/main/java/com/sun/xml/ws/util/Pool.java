@@ -40,8 +40,10 @@
 
 package com.sun.xml.ws.util;
 
+import com.sun.istack.Nullable;
 import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.developer.PoolingFeature;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -57,8 +59,11 @@ import java.lang.ref.WeakReference;
  *
  * <p>
  * This class provides a default implementation of such a pool.
- *
- * TODO: improve the implementation
+ * By default, idle objects are kept in an unbounded queue that is only weakly
+ * reachable, so that the whole pool can be reclaimed under memory pressure.
+ * When created with an enabled {@link PoolingFeature}, the pool instead keeps
+ * up to a fixed number of objects strongly, in per-thread fast slots backed by
+ * a bounded shared queue, and maintains {@link Statistics}.
  *
  * @author Kohsuke Kawaguchi
  */
@@ -67,6 +72,25 @@ public abstract class Pool<T> {
     // volatile since multiple threads may access queue reference
     private volatile WeakReference<ConcurrentLinkedQueue<T>> queue;
 
+    /**
+     * Non-null if this pool is bounded.
+     */
+    private final BoundedPoolStore<T> store;
+
+    protected Pool() {
+        this.store = null;
+    }
+
+    /**
+     * @param feature
+     *      if null or disabled, this pool behaves as the default pool.
+     */
+    protected Pool(@Nullable PoolingFeature feature) {
+        this.store = (feature != null && feature.isEnabled())
+                ? new BoundedPoolStore<T>(feature.getMaxSize(), feature.getFastSlots())
+                : null;
+    }
+
     /**
      * Gets a new object from the pool.
      *
@@ -77,6 +101,15 @@ public abstract class Pool<T> {
      *      always non-null.
      */
     public final T take() {
+        final BoundedPoolStore<T> s = store;
+        if (s != null) {
+            T t = s.poll();
+            if (t == null) {
+                s.created();
+                return create();
+            }
+            return t;
+        }
         T t = getQueue().poll();
         if(t==null)
             return create();
@@ -102,9 +135,24 @@ public abstract class Pool<T> {
      * Returns an object back to the pool.
      */
     public final void recycle(T t) {
+        if (store != null) {
+            store.offer(t);
+            return;
+        }
         getQueue().offer(t);
     }
 
+    /**
+     * Gets the usage counters of this pool.
+     *
+     * @return
+     *      null if this pool was not configured with a {@link PoolingFeature},
+     *      in which case no counters are kept.
+     */
+    public final @Nullable Statistics getStatistics() {
+        return store;
+    }
+
     /**
      * Creates a new instance of object.
      *
@@ -118,6 +166,41 @@ public abstract class Pool<T> {
      */
     protected abstract T create();
 
+    /**
+     * Usage counters of a bounded {@link Pool}.
+     */
+    public interface Statistics {
+        /**
+         * Maximum number of idle objects the pool retains.
+         */
+        int getMaxSize();
+
+        /**
+         * Approximate number of idle objects currently in the pool.
+         */
+        int getIdleCount();
+
+        /**
+         * Number of {@link Pool#take()} calls served from the pool.
+         */
+        long getHitCount();
+
+        /**
+         * Number of {@link Pool#take()} calls that found the pool empty.
+         */
+        long getMissCount();
+
+        /**
+         * Number of objects created by {@link Pool#create()}.
+         */
+        long getCreationCount();
+
+        /**
+         * Number of recycled objects dropped because the pool was full.
+         */
+        long getDiscardCount();
+    }
+
 
     /**
      * JAXB {@link javax.xml.bind.Marshaller} pool.
@@ -129,6 +212,11 @@ public abstract class Pool<T> {
             this.context = context;
         }
 
+        public Marshaller(JAXBContext context, @Nullable PoolingFeature feature) {
+            super(feature);
+            this.context = context;
+        }
+
         @Override
         protected javax.xml.bind.Marshaller create() {
             try {
@@ -150,6 +238,11 @@ public abstract class Pool<T> {
             this.context = context;
         }
 
+        public Unmarshaller(JAXBContext context, @Nullable PoolingFeature feature) {
+            super(feature);
+            this.context = context;
+        }
+
         @Override
         protected javax.xml.bind.Unmarshaller create() {
             try {
@@ -172,6 +265,12 @@ public abstract class Pool<T> {
             recycle(master);    // we'll use master as a part of the pool, too.
         }
 
+        public TubePool(Tube master, @Nullable PoolingFeature feature) {
+            super(feature);
+            this.master = master;
+            recycle(master);    // we'll use master as a part of the pool, too.
+        }
+
         @Override
         protected Tube create() {
             return TubeCloner.clone(master);
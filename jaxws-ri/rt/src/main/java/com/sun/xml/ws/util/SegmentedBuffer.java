@@ -0,0 +1,387 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import com.sun.xml.ws.developer.PoolingFeature;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read/write buffer that stores a sequence of bytes in a chain of
+ * fixed-size segments.
+ *
+ * <p>
+ * It is used in place of {@link ByteArrayBuffer} wherever a whole message
+ * needs to be buffered by the transport (to compute Content-Length, to dump
+ * it, etc.) Unlike {@link ByteArrayBuffer}:
+ *
+ * <ol>
+ *  <li>growing never copies the data written so far; a new segment is
+ *      simply appended to the chain.
+ *  <li>segments come from a shared, bounded pool and go back to it on
+ *      {@link #release()}, so large messages don't turn into multi-megabyte
+ *      garbage arrays.
+ *  <li>segments can be direct {@link ByteBuffer}s and can be written out
+ *      with a single gathering write by {@link #writeTo(GatheringByteChannel)}.
+ * </ol>
+ *
+ * <p>
+ * Segment size, direct allocation and the number of pooled segments are
+ * controlled by the {@code com.sun.xml.ws.util.SegmentedBuffer.segmentSize},
+ * {@code .direct} and {@code .poolSize} system properties.
+ *
+ * <p>
+ * Like {@link ByteArrayBuffer}, this class is not thread-safe. Once
+ * {@link #release()} is called the buffer is empty and may be reused.
+ */
+public class SegmentedBuffer extends OutputStream {
+
+    private static final Logger LOGGER = Logger.getLogger(SegmentedBuffer.class.getName());
+
+    static final int SEGMENT_SIZE;
+    static final boolean DIRECT;
+    private static final int POOL_SIZE;
+
+    static {
+        SEGMENT_SIZE = Math.max(getInteger("segmentSize", 8192), 512);
+        DIRECT = getBoolean("direct");
+        POOL_SIZE = getInteger("poolSize", 1024);
+    }
+
+    private static final Pool<ByteBuffer> SEGMENTS = new SegmentPool();
+
+    /**
+     * Segments in the order they were filled. All but the last one are full.
+     */
+    private final List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+
+    /**
+     * Segment currently being written to, or null if none.
+     */
+    private ByteBuffer current;
+
+    private long size;
+
+    public SegmentedBuffer() {
+    }
+
+    /**
+     * Reads the given {@link InputStream} completely into the buffer.
+     */
+    public final void write(InputStream in) throws IOException {
+        // scratch array for direct segments, which have no backing array
+        byte[] tmp = null;
+        while (true) {
+            ByteBuffer seg = writable();
+            if (seg.hasArray()) {
+                int n = in.read(seg.array(), seg.arrayOffset() + seg.position(), seg.remaining());
+                if (n < 0) {
+                    return;
+                }
+                seg.position(seg.position() + n);
+                size += n;
+            } else {
+                if (tmp == null) {
+                    tmp = new byte[Math.min(SEGMENT_SIZE, 8192)];
+                }
+                int n = in.read(tmp, 0, Math.min(seg.remaining(), tmp.length));
+                if (n < 0) {
+                    return;
+                }
+                seg.put(tmp, 0, n);
+                size += n;
+            }
+        }
+    }
+
+    @Override
+    public final void write(int b) {
+        writable().put((byte) b);
+        size++;
+    }
+
+    @Override
+    public final void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            ByteBuffer seg = writable();
+            int chunk = Math.min(len, seg.remaining());
+            seg.put(b, off, chunk);
+            off += chunk;
+            len -= chunk;
+            size += chunk;
+        }
+    }
+
+    private ByteBuffer writable() {
+        if (current == null || !current.hasRemaining()) {
+            current = SEGMENTS.take();
+            segments.add(current);
+        }
+        return current;
+    }
+
+    /**
+     * Number of bytes written so far.
+     */
+    public final long size() {
+        return size;
+    }
+
+    /**
+     * Writes the whole content of this buffer to the given {@link OutputStream}.
+     * The buffer is left unchanged.
+     */
+    public final void writeTo(OutputStream out) throws IOException {
+        writeTo(out, size);
+    }
+
+    /**
+     * Writes at most {@code limit} bytes from the beginning of this buffer
+     * to the given {@link OutputStream}. The buffer is left unchanged.
+     */
+    public final void writeTo(OutputStream out, long limit) throws IOException {
+        byte[] tmp = null;
+        for (ByteBuffer seg : segments) {
+            if (limit <= 0) {
+                return;
+            }
+            int len = (int) Math.min(seg.position(), limit);
+            if (seg.hasArray()) {
+                out.write(seg.array(), seg.arrayOffset(), len);
+            } else {
+                if (tmp == null) {
+                    tmp = new byte[SEGMENT_SIZE];
+                }
+                ByteBuffer dup = seg.duplicate();
+                dup.flip();
+                dup.get(tmp, 0, len);
+                out.write(tmp, 0, len);
+            }
+            limit -= len;
+        }
+    }
+
+    /**
+     * Gets an exact-size copy of the written data.
+     */
+    public final byte[] toByteArray() {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Buffer too large for an array: " + size);
+        }
+        byte[] b = new byte[(int) size];
+        int off = 0;
+        for (ByteBuffer seg : segments) {
+            ByteBuffer dup = seg.duplicate();
+            dup.flip();
+            int len = dup.remaining();
+            dup.get(b, off, len);
+            off += len;
+        }
+        return b;
+    }
+
+    /**
+     * Writes the whole content of this buffer to the given channel, issuing
+     * gathering writes over all the segments. The buffer is left unchanged.
+     */
+    public final void writeTo(GatheringByteChannel channel) throws IOException {
+        ByteBuffer[] srcs = new ByteBuffer[segments.size()];
+        for (int i = 0; i < srcs.length; i++) {
+            ByteBuffer dup = segments.get(i).duplicate();
+            dup.flip();
+            srcs[i] = dup;
+        }
+        long remaining = size;
+        while (remaining > 0) {
+            remaining -= channel.write(srcs);
+        }
+    }
+
+    /**
+     * Creates a new {@link InputStream} that reads from this buffer.
+     *
+     * <p>
+     * Closing the returned stream {@link #release() releases} this buffer,
+     * so that a buffer handed over to a decoder is recycled as soon as the
+     * decoder is done with it.
+     */
+    public final InputStream newInputStream() {
+        return new SegmentInputStream();
+    }
+
+    /**
+     * Returns all the segments to the pool and empties this buffer.
+     * Calling it more than once is harmless.
+     */
+    public void release() {
+        for (ByteBuffer seg : segments) {
+            seg.clear();
+            SEGMENTS.recycle(seg);
+        }
+        segments.clear();
+        current = null;
+        size = 0;
+    }
+
+    /**
+     * Statistics of the pool that segments come from, for monitoring.
+     */
+    public static Pool.Statistics getPoolStatistics() {
+        return SEGMENTS.getStatistics();
+    }
+
+    /**
+     * Decodes the contents of this buffer by the default encoding
+     * and returns it as a string.
+     *
+     * <p>
+     * Meant to aid debugging, but no more.
+     */
+    @Override
+    public String toString() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream((int) Math.min(size, Integer.MAX_VALUE));
+        try {
+            writeTo(baos);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return baos.toString();
+    }
+
+    private final class SegmentInputStream extends InputStream {
+        private int index;
+        private int pos;
+        private boolean closed;
+
+        private ByteBuffer readable() {
+            while (!closed && index < segments.size()) {
+                ByteBuffer seg = segments.get(index);
+                if (pos < seg.position()) {
+                    return seg;
+                }
+                index++;
+                pos = 0;
+            }
+            return null;
+        }
+
+        @Override
+        public int read() {
+            ByteBuffer seg = readable();
+            return seg == null ? -1 : seg.get(pos++) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            ByteBuffer seg = readable();
+            if (seg == null) {
+                return -1;
+            }
+            int n = Math.min(len, seg.position() - pos);
+            if (seg.hasArray()) {
+                System.arraycopy(seg.array(), seg.arrayOffset() + pos, b, off, n);
+            } else {
+                ByteBuffer dup = seg.duplicate();
+                dup.position(pos);
+                dup.get(b, off, n);
+            }
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            ByteBuffer seg = readable();
+            return seg == null ? 0 : seg.position() - pos;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release();
+            }
+        }
+    }
+
+    private static final class SegmentPool extends Pool<ByteBuffer> {
+        SegmentPool() {
+            super(new PoolingFeature(POOL_SIZE, 16));
+        }
+
+        @Override
+        protected ByteBuffer create() {
+            return DIRECT ? ByteBuffer.allocateDirect(SEGMENT_SIZE) : ByteBuffer.allocate(SEGMENT_SIZE);
+        }
+    }
+
+    private static int getInteger(String name, int defaultValue) {
+        try {
+            return Integer.getInteger(SegmentedBuffer.class.getName() + '.' + name, defaultValue);
+        } catch (SecurityException se) {
+            LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                    SegmentedBuffer.class.getName() + '.' + name);
+            return defaultValue;
+        }
+    }
+
+    private static boolean getBoolean(String name) {
+        try {
+            return Boolean.getBoolean(SegmentedBuffer.class.getName() + '.' + name);
+        } catch (SecurityException se) {
+            LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                    SegmentedBuffer.class.getName() + '.' + name);
+            return false;
+        }
+    }
+}
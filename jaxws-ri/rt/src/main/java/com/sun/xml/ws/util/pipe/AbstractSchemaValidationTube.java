@@ -56,6 +56,8 @@ import com.sun.xml.ws.developer.SchemaValidationFeature;
 import com.sun.xml.ws.developer.ValidationErrorHandler;
 import com.sun.xml.ws.server.SDDocumentImpl;
 import com.sun.xml.ws.util.ByteArrayBuffer;
+import com.sun.xml.ws.util.DigestUtil;
+import com.sun.xml.ws.util.Pool;
 import com.sun.xml.ws.util.xml.XmlUtil;
 import com.sun.xml.ws.wsdl.SDDocumentResolver;
 import com.sun.xml.ws.wsdl.parser.WSDLConstants;
@@ -73,17 +75,22 @@ import javax.xml.transform.TransformerException;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
 import javax.xml.ws.WebServiceException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.lang.ref.SoftReference;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -98,6 +105,13 @@ public abstract class AbstractSchemaValidationTube extends AbstractFilterTubeImp
 
     private static final Logger LOGGER = Logger.getLogger(AbstractSchemaValidationTube.class.getName());
 
+    /**
+     * Compiled schemas, keyed by a digest of the metadata documents they were compiled from.
+     * {@link Schema} objects are immutable and thread-safe, so one of them can be shared
+     * by all the endpoints and clients that have the same metadata.
+     */
+    private static final Map<String, SoftReference<Schema>> schemas = new ConcurrentHashMap<String, SoftReference<Schema>>();
+
     protected final WSBinding binding;
     protected final SchemaValidationFeature feature;
     protected final DocumentAddressResolver resolver = new ValidationDocumentAddressResolver();
@@ -119,6 +133,116 @@ public abstract class AbstractSchemaValidationTube extends AbstractFilterTubeImp
 
     protected abstract Validator getValidator();
 
+    /**
+     * {@link Validator}s and {@link ValidatorHandler}s of a {@link Schema}, shared
+     * by all the copies of a tube so that copies don't create their own and messages
+     * can be validated after the tube that was processing them has been reused.
+     */
+    protected static final class Validators {
+        private final Schema schema;
+
+        private final Pool<Validator> validators = new Pool<Validator>() {
+            @Override
+            protected Validator create() {
+                return schema.newValidator();
+            }
+        };
+
+        private final Pool<ValidatorHandler> handlers = new Pool<ValidatorHandler>() {
+            @Override
+            protected ValidatorHandler create() {
+                return schema.newValidatorHandler();
+            }
+        };
+
+        public Validators(@NotNull Schema schema) {
+            this.schema = schema;
+        }
+
+        public @NotNull Schema getSchema() {
+            return schema;
+        }
+
+        public Validator takeValidator() {
+            Validator validator = validators.take();
+            validator.reset();
+            return validator;
+        }
+
+        public void recycle(Validator validator) {
+            // don't keep the packet of the last message alive
+            validator.setErrorHandler(null);
+            validators.recycle(validator);
+        }
+
+        ValidatorHandler takeValidatorHandler() {
+            return handlers.take();
+        }
+
+        void recycle(ValidatorHandler handler) {
+            handlers.recycle(handler);
+        }
+    }
+
+    /**
+     * Compiles the schema for the given metadata documents, or returns the one
+     * compiled earlier for documents with the same content.
+     *
+     * @return null if the documents don't contain any schema
+     */
+    protected @Nullable Schema createSchema(Iterable<SDDocument> docs, MetadataResolverImpl mdresolver) {
+        String key = digest(docs);
+        SoftReference<Schema> ref = schemas.get(key);
+        Schema schema = ref == null ? null : ref.get();
+        if (schema != null) {
+            LOGGER.log(Level.FINE, "Reusing the validation schema compiled for the same metadata");
+            return schema;
+        }
+        Source[] sources = getSchemaSources(docs, mdresolver);
+        for(Source source : sources) {
+            LOGGER.log(Level.FINE, "Constructing validation schema from = {0}", source.getSystemId());
+        }
+        if (sources.length == 0) {
+            return null;
+        }
+        synchronized (sf) {
+            sf.setResourceResolver(mdresolver);
+            try {
+                schema = sf.newSchema(sources);
+            } catch(SAXException e) {
+                throw new WebServiceException(e);
+            }
+        }
+        schemas.put(key, new SoftReference<Schema>(schema));
+        return schema;
+    }
+
+    /**
+     * Discards the schemas kept by {@link #createSchema(Iterable, MetadataResolverImpl)}.
+     */
+    public static void clearSchemaCache() {
+        schemas.clear();
+    }
+
+    private String digest(Iterable<SDDocument> docs) {
+        SortedMap<String, SDDocument> sorted = new TreeMap<String, SDDocument>();
+        for (SDDocument doc : docs) {
+            sorted.put(doc.getURL().toExternalForm(), doc);
+        }
+        MessageDigest md = DigestUtil.sha256();
+        for (Map.Entry<String, SDDocument> e : sorted.entrySet()) {
+            ByteArrayBuffer bab = new ByteArrayBuffer();
+            try {
+                e.getValue().writeTo(null, resolver, bab);
+            } catch (IOException ioe) {
+                throw new WebServiceException(ioe);
+            }
+            DigestUtil.update(md, e.getKey());
+            DigestUtil.update(md, bab.toByteArray());
+        }
+        return DigestUtil.toHex(md.digest());
+    }
+
     protected abstract boolean isNoValidation();
 
     private static class ValidationDocumentAddressResolver implements DocumentAddressResolver {
@@ -555,8 +679,7 @@ public abstract class AbstractSchemaValidationTube extends AbstractFilterTubeImp
         };
     }
 
-    protected void doProcess(Packet packet) throws SAXException {
-        getValidator().reset();
+    private ValidationErrorHandler createErrorHandler(Packet packet) {
         Class<? extends ValidationErrorHandler> handlerClass = feature.getErrorHandler();
         ValidationErrorHandler handler;
         try {
@@ -565,13 +688,43 @@ public abstract class AbstractSchemaValidationTube extends AbstractFilterTubeImp
             throw new WebServiceException(e);
         }
         handler.setPacket(packet);
-        getValidator().setErrorHandler(handler);
+        return handler;
+    }
+
+    /**
+     * Wraps the packet's message so that its payload is validated while it
+     * is read, instead of being copied and validated by {@link #doProcess(Packet)}.
+     *
+     * @see SchemaValidationFeature#isStreaming()
+     */
+    protected Message createValidatingMessage(Packet packet, Validators validators) {
+        return new ValidatingMessage(packet.getMessage(), validators, createErrorHandler(packet));
+    }
+
+    protected void doProcess(Packet packet) throws SAXException {
+        getValidator().reset();
+        validate(packet, getValidator());
+    }
+
+    /**
+     * Validates a copy of the packet's message with a {@link Validator} of the pool,
+     * rather than with the one of this tube.
+     */
+    protected void doProcess(Packet packet, Validators validators) throws SAXException {
+        Validator validator = validators.takeValidator();
+        validate(packet, validator);
+        // a validator that failed isn't reused
+        validators.recycle(validator);
+    }
+
+    private void validate(Packet packet, Validator validator) throws SAXException {
+        validator.setErrorHandler(createErrorHandler(packet));
         Message msg = packet.getMessage().copy();
         Source source = msg.readPayloadAsSource();
         try {
             // Validator javadoc allows ONLY SAX, and DOM Sources
             // But the impl seems to handle all kinds.
-            getValidator().validate(source);
+            validator.validate(source);
         } catch(IOException e) {
             throw new WebServiceException(e);
         }
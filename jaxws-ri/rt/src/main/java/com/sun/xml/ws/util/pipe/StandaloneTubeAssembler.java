@@ -77,6 +77,7 @@ public class StandaloneTubeAssembler implements TubelineAssembler {
      */
     public Tube createServer(ServerTubeAssemblerContext context) {
         Tube head = context.getTerminalTube();
+        head = context.createResponseCacheTube(head);
         head = context.createValidationTube(head);
         head = context.createHandlerTube(head);
         head = context.createMonitoringTube(head);
@@ -88,6 +89,7 @@ public class StandaloneTubeAssembler implements TubelineAssembler {
             head = context.createDumpTube("server", System.out, head);
         }
         head = context.createSecurityTube(head);
+        head = context.createAdmissionControlTube(head);
         return head;
     }
 
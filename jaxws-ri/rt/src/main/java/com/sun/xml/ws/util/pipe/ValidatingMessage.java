@@ -0,0 +1,222 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util.pipe;
+
+import com.sun.xml.bind.api.Bridge;
+import com.sun.xml.ws.api.message.FilterMessageImpl;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.message.AttachmentUnmarshallerImpl;
+import com.sun.xml.ws.spi.db.XMLBridge;
+import com.sun.xml.ws.streaming.XMLStreamReaderUtil;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Source;
+import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
+import javax.xml.ws.WebServiceException;
+import java.io.IOException;
+
+/**
+ * {@link Message} whose payload is validated as it is read.
+ *
+ * <p>
+ * When the payload is read as a {@link XMLStreamReader} or unmarshalled
+ * from one, it is validated in that same pass. When it is read in any other
+ * way, it is first validated against a copy of the message, as
+ * {@link AbstractSchemaValidationTube#doProcess(Packet)} does.
+ *
+ * @see AbstractSchemaValidationTube#createValidatingMessage(Packet, AbstractSchemaValidationTube.Validators)
+ */
+final class ValidatingMessage extends FilterMessageImpl {
+
+    private final Message delegate;
+    private final AbstractSchemaValidationTube.Validators validators;
+    private final ErrorHandler errorHandler;
+    private boolean validated;
+
+    ValidatingMessage(Message delegate, AbstractSchemaValidationTube.Validators validators, ErrorHandler errorHandler) {
+        super(delegate);
+        this.delegate = delegate;
+        this.validators = validators;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Validates a copy of the payload, unless it has been validated already.
+     */
+    private void validate() {
+        if (validated || !delegate.hasPayload()) {
+            return;
+        }
+        validated = true;
+        Validator validator = validators.takeValidator();
+        validator.setErrorHandler(errorHandler);
+        try {
+            validator.validate(delegate.copy().readPayloadAsSource());
+        } catch (SAXException e) {
+            throw new WebServiceException(e);
+        } catch (IOException e) {
+            throw new WebServiceException(e);
+        }
+        validators.recycle(validator);
+    }
+
+    @Override
+    public XMLStreamReader readPayload() throws XMLStreamException {
+        XMLStreamReader reader = delegate.readPayload();
+        if (validated || reader == null) {
+            return reader;
+        }
+        validated = true;
+        ValidatorHandler handler = validators.takeValidatorHandler();
+        handler.setErrorHandler(errorHandler);
+        return new ValidatingStreamReader(reader, validators, handler);
+    }
+
+    @Override
+    public <T> T readPayloadAsJAXB(Unmarshaller unmarshaller) throws JAXBException {
+        if (!hasPayload()) {
+            return null;
+        }
+        XMLStreamReader reader = read();
+        if (hasAttachments()) {
+            unmarshaller.setAttachmentUnmarshaller(new AttachmentUnmarshallerImpl(getAttachments()));
+        }
+        try {
+            return (T) unmarshaller.unmarshal(reader);
+        } finally {
+            unmarshaller.setAttachmentUnmarshaller(null);
+            XMLStreamReaderUtil.readRest(reader);
+            XMLStreamReaderUtil.close(reader);
+        }
+    }
+
+    @Override
+    public <T> T readPayloadAsJAXB(Bridge<T> bridge) throws JAXBException {
+        if (!hasPayload()) {
+            return null;
+        }
+        XMLStreamReader reader = read();
+        T r = bridge.unmarshal(reader,
+                hasAttachments() ? new AttachmentUnmarshallerImpl(getAttachments()) : null);
+        XMLStreamReaderUtil.readRest(reader);
+        XMLStreamReaderUtil.close(reader);
+        return r;
+    }
+
+    @Override
+    public <T> T readPayloadAsJAXB(XMLBridge<T> bridge) throws JAXBException {
+        if (!hasPayload()) {
+            return null;
+        }
+        XMLStreamReader reader = read();
+        T r = bridge.unmarshal(reader,
+                hasAttachments() ? new AttachmentUnmarshallerImpl(getAttachments()) : null);
+        XMLStreamReaderUtil.readRest(reader);
+        XMLStreamReaderUtil.close(reader);
+        return r;
+    }
+
+    private XMLStreamReader read() throws JAXBException {
+        try {
+            return readPayload();
+        } catch (XMLStreamException e) {
+            throw new JAXBException(e);
+        }
+    }
+
+    @Override
+    public Source readEnvelopeAsSource() {
+        validate();
+        return super.readEnvelopeAsSource();
+    }
+
+    @Override
+    public Source readPayloadAsSource() {
+        validate();
+        return super.readPayloadAsSource();
+    }
+
+    @Override
+    public SOAPMessage readAsSOAPMessage() throws SOAPException {
+        validate();
+        return super.readAsSOAPMessage();
+    }
+
+    @Override
+    public SOAPMessage readAsSOAPMessage(Packet packet, boolean inbound) throws SOAPException {
+        validate();
+        return super.readAsSOAPMessage(packet, inbound);
+    }
+
+    @Override
+    public void writePayloadTo(XMLStreamWriter sw) throws XMLStreamException {
+        validate();
+        super.writePayloadTo(sw);
+    }
+
+    @Override
+    public void writeTo(XMLStreamWriter sw) throws XMLStreamException {
+        validate();
+        super.writeTo(sw);
+    }
+
+    @Override
+    public void writeTo(ContentHandler contentHandler, ErrorHandler errorHandler) throws SAXException {
+        validate();
+        super.writeTo(contentHandler, errorHandler);
+    }
+
+    @Override
+    public Message copy() {
+        return validated ? super.copy() : new ValidatingMessage(delegate.copy(), validators, errorHandler);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util.pipe;
+
+import com.sun.xml.ws.util.xml.XMLStreamReaderFilter;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.NamespaceSupport;
+
+import javax.xml.XMLConstants;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.validation.ValidatorHandler;
+import java.util.Enumeration;
+
+/**
+ * {@link XMLStreamReader} over a message payload that feeds the events
+ * pulled by its consumer to a {@link ValidatorHandler}, so that the payload
+ * is validated in the same pass that reads it.
+ *
+ * <p>
+ * Validation errors are reported to the error handler of the
+ * {@link ValidatorHandler}; an error it throws surfaces as an
+ * {@link XMLStreamException} from {@link #next()}.
+ *
+ * @see AbstractSchemaValidationTube
+ */
+final class ValidatingStreamReader extends XMLStreamReaderFilter {
+
+    private final AbstractSchemaValidationTube.Validators validators;
+    private ValidatorHandler handler;
+    private final AttributesImpl atts = new AttributesImpl();
+    private final NamespaceSupport nss = new NamespaceSupport();
+    private int depth;
+
+    /**
+     * @param reader positioned at the start tag of the payload
+     */
+    ValidatingStreamReader(XMLStreamReader reader, AbstractSchemaValidationTube.Validators validators,
+                           ValidatorHandler handler) throws XMLStreamException {
+        super(reader);
+        this.validators = validators;
+        this.handler = handler;
+        try {
+            handler.startDocument();
+        } catch (SAXException e) {
+            throw new XMLStreamException(e.getMessage(), e);
+        }
+        forward(reader.getEventType());
+    }
+
+    @Override
+    public int next() throws XMLStreamException {
+        int event = super.next();
+        forward(event);
+        return event;
+    }
+
+    @Override
+    public int nextTag() throws XMLStreamException {
+        int event = next();
+        while ((event == XMLStreamConstants.CHARACTERS && isWhiteSpace())
+                || (event == XMLStreamConstants.CDATA && isWhiteSpace())
+                || event == XMLStreamConstants.SPACE
+                || event == XMLStreamConstants.PROCESSING_INSTRUCTION
+                || event == XMLStreamConstants.COMMENT) {
+            event = next();
+        }
+        if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+            throw new XMLStreamException("expected start or end tag", getLocation());
+        }
+        return event;
+    }
+
+    @Override
+    public String getElementText() throws XMLStreamException {
+        if (getEventType() != XMLStreamConstants.START_ELEMENT) {
+            throw new XMLStreamException("parser must be on START_ELEMENT to read next text", getLocation());
+        }
+        StringBuilder content = new StringBuilder();
+        int event = next();
+        while (event != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                content.append(getText());
+            } else if (event != XMLStreamConstants.PROCESSING_INSTRUCTION && event != XMLStreamConstants.COMMENT) {
+                throw new XMLStreamException("unexpected event while reading element text", getLocation());
+            }
+            event = next();
+        }
+        return content.toString();
+    }
+
+    private void forward(int event) throws XMLStreamException {
+        if (handler == null) {
+            // past the end of the payload
+            return;
+        }
+        try {
+            switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                startElement();
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                endElement();
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                handler.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                break;
+            default:
+            }
+        } catch (SAXException e) {
+            // the handler is left in an unknown state, don't give it back
+            handler = null;
+            throw new XMLStreamException(e.getMessage(), e);
+        }
+    }
+
+    private void startElement() throws SAXException {
+        nss.pushContext();
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            declare(fixNull(reader.getNamespacePrefix(i)), fixNull(reader.getNamespaceURI(i)));
+        }
+        atts.clear();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = reader.getAttributePrefix(i);
+            String localName = reader.getAttributeLocalName(i);
+            String value = reader.getAttributeValue(i);
+            if (XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(reader.getAttributeNamespace(i))
+                    && "type".equals(localName)) {
+                // the prefix of the type may be declared on the envelope, outside the payload
+                int idx = value.indexOf(':');
+                String typePrefix = idx < 0 ? "" : value.substring(0, idx);
+                if (nss.getURI(typePrefix) == null) {
+                    String uri = reader.getNamespaceURI(typePrefix);
+                    if (uri != null) {
+                        declare(typePrefix, uri);
+                    }
+                }
+            }
+            atts.addAttribute(fixNull(reader.getAttributeNamespace(i)), localName, qname(prefix, localName),
+                    reader.getAttributeType(i), value);
+        }
+        String localName = reader.getLocalName();
+        handler.startElement(fixNull(reader.getNamespaceURI()), localName, qname(reader.getPrefix(), localName), atts);
+        depth++;
+    }
+
+    private void declare(String prefix, String uri) throws SAXException {
+        nss.declarePrefix(prefix, uri);
+        handler.startPrefixMapping(prefix, uri);
+    }
+
+    private void endElement() throws SAXException {
+        String localName = reader.getLocalName();
+        handler.endElement(fixNull(reader.getNamespaceURI()), localName, qname(reader.getPrefix(), localName));
+        for (Enumeration e = nss.getDeclaredPrefixes(); e.hasMoreElements(); ) {
+            handler.endPrefixMapping((String) e.nextElement());
+        }
+        nss.popContext();
+        if (--depth == 0) {
+            handler.endDocument();
+            validators.recycle(handler);
+            handler = null;
+        }
+    }
+
+    private static String qname(String prefix, String localName) {
+        return prefix == null || prefix.length() == 0 ? localName : prefix + ':' + localName;
+    }
+
+    private static String fixNull(String s) {
+        return s == null ? "" : s;
+    }
+}
@@ -55,6 +55,7 @@ import com.sun.xml.ws.api.message.Messages;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.model.AbstractSEIModelImpl;
 import com.sun.xml.ws.model.JavaMethodImpl;
+import com.sun.xml.ws.util.QNameMap;
 import static com.sun.xml.ws.wsdl.PayloadQNameBasedOperationFinder.*;
 import com.sun.xml.ws.resources.AddressingMessages;
 
@@ -78,7 +79,11 @@ import java.util.logging.Logger;
 final class ActionBasedOperationFinder extends WSDLOperationFinder {
     
     private static final Logger LOGGER = Logger.getLogger(ActionBasedOperationFinder.class.getName());
-    private final Map<ActionBasedOperationSignature, WSDLOperationMapping> uniqueOpSignatureMap;
+    /**
+     * Operations keyed by {@code wsa:Action} and then by payload QName,
+     * so that a lookup doesn't need to allocate an {@link ActionBasedOperationSignature}.
+     */
+    private final Map<String, QNameMap<WSDLOperationMapping>> uniqueOpSignatureMap;
     private final Map<String, WSDLOperationMapping> actionMap;
 
     private final @NotNull AddressingVersion av;
@@ -88,7 +93,7 @@ final class ActionBasedOperationFinder extends WSDLOperationFinder {
 
         assert binding.getAddressingVersion() != null;    // this dispatcher can be only used when addressing is on.
         av = binding.getAddressingVersion();
-        uniqueOpSignatureMap = new HashMap<ActionBasedOperationSignature, WSDLOperationMapping>();
+        uniqueOpSignatureMap = new HashMap<String, QNameMap<WSDLOperationMapping>>();
         actionMap = new HashMap<String,WSDLOperationMapping>();
 
         if (seiModel != null) {
@@ -106,12 +111,11 @@ final class ActionBasedOperationFinder extends WSDLOperationFinder {
 //                    action = m.getInputAction();
                 }
                 if (action != null) {
-                    ActionBasedOperationSignature opSignature = new ActionBasedOperationSignature(action, payloadName);
-                    if(uniqueOpSignatureMap.get(opSignature) != null) {
+                    WSDLOperationMapping previous = put(action, payloadName, wsdlOperationMapping(m));
+                    if(previous != null) {
                         LOGGER.warning(AddressingMessages.NON_UNIQUE_OPERATION_SIGNATURE(
-                                uniqueOpSignatureMap.get(opSignature),m.getOperationQName(),action,payloadName));
+                                previous,m.getOperationQName(),action,payloadName));
                     }
-                    uniqueOpSignatureMap.put(opSignature, wsdlOperationMapping(m));
                     actionMap.put(action,wsdlOperationMapping(m));
                 }
             }
@@ -121,19 +125,32 @@ final class ActionBasedOperationFinder extends WSDLOperationFinder {
                 if (payloadName == null)
                     payloadName = EMPTY_PAYLOAD;
                 String action = wsdlOp.getOperation().getInput().getAction();
-                ActionBasedOperationSignature opSignature = new ActionBasedOperationSignature(
-                        action, payloadName);
-                if(uniqueOpSignatureMap.get(opSignature) != null) {
+                WSDLOperationMapping previous = put(action, payloadName, wsdlOperationMapping(wsdlOp));
+                if(previous != null) {
                     LOGGER.warning(AddressingMessages.NON_UNIQUE_OPERATION_SIGNATURE(
-                                    uniqueOpSignatureMap.get(opSignature),wsdlOp.getName(),action,payloadName));
+                                    previous,wsdlOp.getName(),action,payloadName));
 
                 }
-                uniqueOpSignatureMap.put(opSignature, wsdlOperationMapping(wsdlOp));
                 actionMap.put(action,wsdlOperationMapping(wsdlOp));
             }
         }
     }
 
+    /**
+     * Registers the operation for the given signature, and returns the one
+     * previously registered for it, if any.
+     */
+    private WSDLOperationMapping put(String action, QName payloadName, WSDLOperationMapping mapping) {
+        QNameMap<WSDLOperationMapping> byPayload = uniqueOpSignatureMap.get(action);
+        if (byPayload == null) {
+            byPayload = new QNameMap<WSDLOperationMapping>();
+            uniqueOpSignatureMap.put(action, byPayload);
+        }
+        WSDLOperationMapping previous = byPayload.get(payloadName);
+        byPayload.put(payloadName, mapping);
+        return previous;
+    }
+
 //    /**
 //     *
 //     * @param request  Request Packet that is used to find the associated WSDLOperation
@@ -148,26 +165,36 @@ final class ActionBasedOperationFinder extends WSDLOperationFinder {
 //    }
 
     public WSDLOperationMapping getWSDLOperationMapping(Packet request) throws DispatchException {
-        MessageHeaders hl = request.getMessage().getHeaders();
-        String action = AddressingUtils.getAction(hl, av, binding.getSOAPVersion());
-
-        if (action == null)
-            // Addressing is not enagaged, return null to use other ways to dispatch.
-            return null;
-
         Message message = request.getMessage();
-        QName payloadName;
         String localPart = message.getPayloadLocalPart();
+        String nsUri;
         if (localPart == null) {
-            payloadName = EMPTY_PAYLOAD;
+            localPart = EMPTY_PAYLOAD_LOCAL;
+            nsUri = EMPTY_PAYLOAD_NSURI;
         } else {
-            String nsUri = message.getPayloadNamespaceURI();
+            nsUri = message.getPayloadNamespaceURI();
             if (nsUri == null)
                 nsUri = EMPTY_PAYLOAD_NSURI;
-            payloadName = new QName(nsUri, localPart);
         }
+        return getWSDLOperationMapping(request, nsUri, localPart);
+    }
+
+    /**
+     * Same as {@link #getWSDLOperationMapping(Packet)}, with the payload
+     * QName already extracted by {@link OperationDispatcher}.
+     */
+    WSDLOperationMapping getWSDLOperationMapping(Packet request, @NotNull String nsUri, @NotNull String localPart) throws DispatchException {
+        MessageHeaders hl = request.getMessage().getHeaders();
+        String action = AddressingUtils.getAction(hl, av, binding.getSOAPVersion());
+
+        if (action == null)
+            // Addressing is not enagaged, return null to use other ways to dispatch.
+            return null;
 
-        WSDLOperationMapping opMapping = uniqueOpSignatureMap.get(new ActionBasedOperationSignature(action, payloadName));
+        WSDLOperationMapping opMapping = null;
+        QNameMap<WSDLOperationMapping> byPayload = uniqueOpSignatureMap.get(action);
+        if (byPayload != null)
+            opMapping = byPayload.get(nsUri, localPart);
         if (opMapping != null)
             return opMapping;
 
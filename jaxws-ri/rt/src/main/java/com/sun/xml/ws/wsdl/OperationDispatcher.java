@@ -52,32 +52,42 @@ import com.sun.xml.ws.resources.ServerMessages;
 import com.sun.xml.ws.fault.SOAPFaultBuilder;
 
 import javax.xml.namespace.QName;
-import java.util.List;
-import java.util.ArrayList;
 import java.text.MessageFormat;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class abstracts the process of identifying the wsdl operation from a SOAP Message request.
  * This is primarily for dispatching the request messages to an endpoint method.
  *
  * Different implementations of {@link WSDLOperationFinder} are used underneath to identify the wsdl operation based on
- * if AddressingFeature is enabled or not.
+ * if AddressingFeature is enabled or not. Their lookup tables are all built once, when the dispatcher is created,
+ * and the payload QName is extracted from the request only once, however many finders end up being consulted.
+ *
+ * <p>
+ * {@link #getStatistics()} tells which strategy resolved the requests, which helps to figure out
+ * whether the cheaper strategies are being defeated (for example by non-unique payload QNames).
  * 
  * @author Rama Pulavarthi
  */
 public class OperationDispatcher {
-    private List<WSDLOperationFinder> opFinders;
-    private WSBinding binding;
+    private final WSBinding binding;
+    private final @Nullable ActionBasedOperationFinder actionFinder;
+    private final PayloadQNameBasedOperationFinder payloadFinder;
+    private final SOAPActionBasedOperationFinder soapActionFinder;
+
+    private final LongAdder[] resolved = new LongAdder[Strategy.values().length];
+    private final LongAdder unresolved = new LongAdder();
+    private final Statistics statistics = new Statistics();
 
     public OperationDispatcher(@NotNull WSDLPort wsdlModel, @NotNull WSBinding binding, @Nullable SEIModel seiModel) {
         this.binding = binding;
-        opFinders = new ArrayList<WSDLOperationFinder>();
-        if (binding.getAddressingVersion() != null) {
-            opFinders.add(new ActionBasedOperationFinder(wsdlModel, binding, seiModel));
+        actionFinder = (binding.getAddressingVersion() != null)
+                ? new ActionBasedOperationFinder(wsdlModel, binding, seiModel) : null;
+        payloadFinder = new PayloadQNameBasedOperationFinder(wsdlModel, binding, seiModel);
+        soapActionFinder = new SOAPActionBasedOperationFinder(wsdlModel, binding, seiModel);
+        for (int i = 0; i < resolved.length; i++) {
+            resolved[i] = new LongAdder();
         }
-        opFinders.add(new PayloadQNameBasedOperationFinder(wsdlModel, binding, seiModel));
-        opFinders.add(new SOAPActionBasedOperationFinder(wsdlModel, binding, seiModel));
-
     }
 
     /**
@@ -92,12 +102,37 @@ public class OperationDispatcher {
     }
 
     public @NotNull WSDLOperationMapping getWSDLOperationMapping(Packet request) throws DispatchException {
+        Message message = request.getMessage();
+        String localPart = message.getPayloadLocalPart();
+        String nsUri;
+        if (localPart == null) {
+            localPart = PayloadQNameBasedOperationFinder.EMPTY_PAYLOAD_LOCAL;
+            nsUri = PayloadQNameBasedOperationFinder.EMPTY_PAYLOAD_NSURI;
+        } else {
+            nsUri = message.getPayloadNamespaceURI();
+            if (nsUri == null)
+                nsUri = PayloadQNameBasedOperationFinder.EMPTY_PAYLOAD_NSURI;
+        }
+
         WSDLOperationMapping opName;
-        for(WSDLOperationFinder finder: opFinders) {
-            opName = finder.getWSDLOperationMapping(request);
-            if(opName != null)
-                return opName;
+        try {
+            if (actionFinder != null) {
+                opName = actionFinder.getWSDLOperationMapping(request, nsUri, localPart);
+                if (opName != null)
+                    return resolved(Strategy.ACTION, opName);
+            }
+            opName = payloadFinder.getWSDLOperationMapping(nsUri, localPart);
+            if (opName != null)
+                return resolved(Strategy.PAYLOAD_QNAME, opName);
+            opName = soapActionFinder.getWSDLOperationMapping(request);
+            if (opName != null)
+                return resolved(Strategy.SOAP_ACTION, opName);
+        } catch (DispatchException e) {
+            unresolved.increment();
+            throw e;
         }
+        unresolved.increment();
+
         //No way to dispatch this request
         String err = MessageFormat.format("Request=[SOAPAction={0},Payload='{'{1}'}'{2}]",
                 request.soapAction, request.getMessage().getPayloadNamespaceURI(),
@@ -107,4 +142,65 @@ public class OperationDispatcher {
                 binding.getSOAPVersion(), faultString, binding.getSOAPVersion().faultCodeClient);
         throw new DispatchException(faultMsg);
     }
+
+    private WSDLOperationMapping resolved(Strategy strategy, WSDLOperationMapping mapping) {
+        resolved[strategy.ordinal()].increment();
+        return mapping;
+    }
+
+    /**
+     * Gets the dispatch statistics of this dispatcher.
+     */
+    public @NotNull Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * The ways a request can be dispatched, in the order they are tried.
+     */
+    public enum Strategy {
+        /**
+         * {@code wsa:Action} header (with the payload QName to disambiguate).
+         * Only used when addressing is enabled.
+         */
+        ACTION,
+        /**
+         * QName of the first child of the SOAP body.
+         */
+        PAYLOAD_QNAME,
+        /**
+         * SOAPAction HTTP header.
+         */
+        SOAP_ACTION
+    }
+
+    /**
+     * Counts of requests by the {@link Strategy} that resolved them.
+     */
+    public final class Statistics {
+        private Statistics() {}
+
+        /**
+         * Number of requests resolved by the given strategy.
+         */
+        public long getResolvedCount(@NotNull Strategy strategy) {
+            return resolved[strategy.ordinal()].sum();
+        }
+
+        /**
+         * Number of requests that couldn't be dispatched to any operation.
+         */
+        public long getUnresolvedCount() {
+            return unresolved.sum();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (Strategy s : Strategy.values()) {
+                sb.append(s).append('=').append(getResolvedCount(s)).append(", ");
+            }
+            return sb.append("unresolved=").append(getUnresolvedCount()).toString();
+        }
+    }
 }
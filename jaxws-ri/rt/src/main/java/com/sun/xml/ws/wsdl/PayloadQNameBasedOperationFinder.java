@@ -40,6 +40,7 @@
 
 package com.sun.xml.ws.wsdl;
 
+import com.sun.istack.NotNull;
 import com.sun.istack.Nullable;
 import com.sun.xml.ws.api.WSBinding;
 import com.sun.xml.ws.api.model.SEIModel;
@@ -149,6 +150,14 @@ final class PayloadQNameBasedOperationFinder extends WSDLOperationFinder {
             if(nsUri == null)
                 nsUri = EMPTY_PAYLOAD_NSURI;
         }
+        return getWSDLOperationMapping(nsUri, localPart);
+    }
+
+    /**
+     * Same as {@link #getWSDLOperationMapping(Packet)}, with the payload
+     * QName already extracted by {@link OperationDispatcher}.
+     */
+    WSDLOperationMapping getWSDLOperationMapping(@NotNull String nsUri, @NotNull String localPart) throws DispatchException {
         WSDLOperationMapping op = methodHandlers.get(nsUri, localPart);
 
         // Check if payload itself is correct. Usually it is, so let us check last
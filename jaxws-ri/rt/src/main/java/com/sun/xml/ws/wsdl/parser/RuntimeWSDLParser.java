@@ -126,6 +126,11 @@ public class RuntimeWSDLParser {
      * System IDs of WSDLs that are already read.
      */
     private final Set<String> importedWSDLs = new HashSet<String>();
+    /**
+     * System IDs the WSDLs were asked for, before the resolver mapped them.
+     * Looking these up again through the same resolver finds the same documents.
+     */
+    private final Set<String> requestedWSDLs = new LinkedHashSet<String>();
     /**
      * Must not be null.
      */
@@ -223,6 +228,21 @@ public class RuntimeWSDLParser {
                                       @NotNull PolicyResolver policyResolver,
                                       boolean isUseStreamFromEntityResolverWrapper,
                                       WSDLParserExtension... extensions) throws IOException, XMLStreamException, SAXException {
+        return parse(wsdlLoc, wsdlSource, resolver, isClientSide, container, serviceClass, policyResolver,
+                isUseStreamFromEntityResolverWrapper, null, extensions);
+    }
+
+    /**
+     * Same as above, and also adds the system IDs of the WSDL documents the
+     * model was built from to {@code documents}. Nothing is added if the
+     * WSDL was obtained through MEX or has no system ID.
+     */
+    /*package*/ static WSDLModel parse(@Nullable URL wsdlLoc, @NotNull Source wsdlSource, @NotNull EntityResolver resolver,
+                                      boolean isClientSide, Container container, Class serviceClass,
+                                      @NotNull PolicyResolver policyResolver,
+                                      boolean isUseStreamFromEntityResolverWrapper,
+                                      @Nullable Collection<String> documents,
+                                      WSDLParserExtension... extensions) throws IOException, XMLStreamException, SAXException {
         assert resolver != null;
 
         RuntimeWSDLParser wsdlParser = new RuntimeWSDLParser(wsdlSource.getSystemId(), new EntityResolverWrapper(resolver, isUseStreamFromEntityResolverWrapper), isClientSide, container, policyResolver, extensions);
@@ -254,6 +274,8 @@ public class RuntimeWSDLParser {
         if(wsdlParser.wsdlDoc.getServices().isEmpty())
             throw new WebServiceException(ClientMessages.WSDL_CONTAINS_NO_SERVICE(wsdlLoc));
 
+        if (documents != null && parser.systemId != null)
+            documents.addAll(wsdlParser.requestedWSDLs);
         return wsdlParser.wsdlDoc;
     }
     
@@ -374,10 +396,12 @@ public class RuntimeWSDLParser {
 
     private Parser resolveWSDL(@Nullable URL wsdlLoc, @NotNull Source wsdlSource, Class serviceClass) throws IOException, SAXException, XMLStreamException {
         String systemId = wsdlSource.getSystemId();
+        String requested = systemId;
 
         XMLEntityResolver.Parser parser = resolver.resolveEntity(null, systemId);
         if (parser == null && wsdlLoc != null) {
         	String exForm = wsdlLoc.toExternalForm();
+            requested = exForm;
             parser = resolver.resolveEntity(null, exForm);
 
             if (parser == null && serviceClass != null) {
@@ -386,10 +410,16 @@ public class RuntimeWSDLParser {
             		String ruExForm = ru.toExternalForm();
 	            	if (exForm.startsWith(ruExForm)) {
 	            		parser = resolver.resolveEntity(null, exForm.substring(ruExForm.length()));
+	            		if (parser != null) {
+	            		    requested = exForm.substring(ruExForm.length());
+	            		}
 	            	}
             	}
             }
         }
+        if (requested != null) {
+            requestedWSDLs.add(requested);
+        }
         if (parser == null) {
             //If a WSDL source is provided that is known to be readable, then
             //prioritize that over the URL - this avoids going over the network
@@ -425,6 +455,7 @@ public class RuntimeWSDLParser {
 
     private void parseImport(@NotNull URL wsdlLoc) throws XMLStreamException, IOException, SAXException {
         String systemId = wsdlLoc.toExternalForm();
+        requestedWSDLs.add(systemId);
         XMLEntityResolver.Parser parser = resolver.resolveEntity(null, systemId);
         if (parser == null) {
             parser = new Parser(wsdlLoc, createReader(wsdlLoc));
@@ -0,0 +1,328 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.wsdl.parser;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.model.wsdl.WSDLModel;
+import com.sun.xml.ws.api.policy.PolicyResolverFactory;
+import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.api.wsdl.parser.WSDLParserExtension;
+import com.sun.xml.ws.util.DigestUtil;
+
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide cache of the {@link WSDLModel}s parsed by
+ * {@link RuntimeWSDLParser} for clients.
+ *
+ * <p>
+ * A model is reused for a WSDL location as long as all the WSDL documents
+ * it was built from still have the same content. The documents are looked
+ * up again through the resolver of the request, the way the parser found
+ * them, and their digests compared to those taken when the model was
+ * parsed, which costs much less than parsing them again. This is done at
+ * most once per {@link #revalidateInterval}; within it, a cached model is
+ * used without checking. Only WSDLs given by location are cached, not
+ * those given as a stream, nor those obtained through MEX.
+ *
+ * <p>
+ * Models are frozen once parsed and only read afterwards, so one model may
+ * be shared by any number of services. The cache is kept per context class
+ * loader, which is only weakly referenced, and the models are softly
+ * referenced, so they may be discarded under memory pressure and don't keep
+ * an undeployed application in memory.
+ *
+ * <p>
+ * The cache is disabled by default; set the system property
+ * {@code com.sun.xml.ws.wsdl.parser.WSDLModelCache} to {@code true} to
+ * enable it.
+ *
+ * @since 2.3.0
+ */
+public final class WSDLModelCache {
+
+    private static final Logger LOGGER = Logger.getLogger(WSDLModelCache.class.getName());
+
+    private static final boolean ENABLED = getBoolean(WSDLModelCache.class.getName());
+
+    /**
+     * How long, in milliseconds, a cached model is used before its documents
+     * are checked again; 0 checks them on every use. Set with the system
+     * property {@code com.sun.xml.ws.wsdl.parser.WSDLModelCache.revalidateInterval},
+     * 60 seconds by default.
+     */
+    public static volatile long revalidateInterval = 60000L;
+
+    static {
+        try {
+            revalidateInterval = Long.getLong(WSDLModelCache.class.getName() + ".revalidateInterval", revalidateInterval);
+        } catch (SecurityException se) {
+            LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                    new Object[] {WSDLModelCache.class.getName() + ".revalidateInterval"});
+        }
+    }
+
+    /**
+     * The entries of each context class loader, through which catalogs and
+     * extensions are found. The keys of the entries only hold strings, so
+     * nothing in the cache refers to a class loader strongly.
+     */
+    private static final Map<ClassLoader, Map<List<Object>, SoftReference<Entry>>> entries =
+            new WeakHashMap<ClassLoader, Map<List<Object>, SoftReference<Entry>>>();
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private WSDLModelCache() {
+    }
+
+    private static boolean getBoolean(final String name) {
+        try {
+            return Boolean.getBoolean(name);
+        } catch (SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Tells if the cache was enabled with the system property.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns the cached model of the WSDL if its documents haven't changed,
+     * otherwise parses it like
+     * {@link RuntimeWSDLParser#parse(URL, Source, EntityResolver, boolean, Container, Class, WSDLParserExtension...)}
+     * and caches the result.
+     *
+     * <p>
+     * The model depends on the resolver, the container and the extensions
+     * too, so callers must only use the cache when those are the same for
+     * all the WSDLs of a given location, as they are for the default client
+     * configuration.
+     */
+    public static @NotNull WSDLModel parse(@Nullable URL wsdlLoc, @NotNull Source wsdlSource, @NotNull EntityResolver resolver,
+            boolean isClientSide, Container container, Class serviceClass,
+            WSDLParserExtension... extensions) throws IOException, XMLStreamException, SAXException {
+        if (!isCacheable(wsdlSource)) {
+            return RuntimeWSDLParser.parse(wsdlLoc, wsdlSource, resolver, isClientSide, container, serviceClass, extensions);
+        }
+        Map<List<Object>, SoftReference<Entry>> entries = entries();
+        List<Object> key = key(wsdlSource.getSystemId(), isClientSide, serviceClass, extensions);
+        SoftReference<Entry> ref = entries.get(key);
+        Entry e = ref == null ? null : ref.get();
+        if (e != null && e.isCurrent(resolver)) {
+            hits.incrementAndGet();
+            return e.model;
+        }
+        misses.incrementAndGet();
+
+        List<String> documents = new ArrayList<String>();
+        WSDLModel model = RuntimeWSDLParser.parse(wsdlLoc, wsdlSource, resolver, isClientSide, container, serviceClass,
+                PolicyResolverFactory.create(), false, documents, extensions);
+        if (documents.isEmpty()) {
+            entries.remove(key);
+            return model;
+        }
+        Map<String, byte[]> digests = new LinkedHashMap<String, byte[]>();
+        for (String doc : documents) {
+            byte[] digest = digest(doc, resolver);
+            if (digest == null) {
+                entries.remove(key);
+                return model;
+            }
+            digests.put(doc, digest);
+        }
+        entries.put(key, new SoftReference<Entry>(new Entry(model, digests)));
+        return model;
+    }
+
+    /**
+     * Discards all the cached models.
+     */
+    public static void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Number of models taken from the cache.
+     */
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Number of models that had to be parsed while the cache was in use.
+     */
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Only a source that is nothing but a location can be read again.
+     */
+    private static boolean isCacheable(Source wsdlSource) {
+        if (wsdlSource.getSystemId() == null || !(wsdlSource instanceof StreamSource)) {
+            return false;
+        }
+        StreamSource ss = (StreamSource) wsdlSource;
+        return ss.getInputStream() == null && ss.getReader() == null;
+    }
+
+    /**
+     * Returns the entries of the context class loader.
+     */
+    private static Map<List<Object>, SoftReference<Entry>> entries() {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        synchronized (entries) {
+            Map<List<Object>, SoftReference<Entry>> m = entries.get(cl);
+            if (m == null) {
+                m = new ConcurrentHashMap<List<Object>, SoftReference<Entry>>();
+                entries.put(cl, m);
+            }
+            return m;
+        }
+    }
+
+    private static List<Object> key(String location, boolean isClientSide, Class serviceClass, WSDLParserExtension[] extensions) {
+        Object[] key = new Object[extensions.length + 3];
+        key[0] = location;
+        key[1] = isClientSide;
+        key[2] = serviceClass == null ? null : serviceClass.getName();
+        for (int i = 0; i < extensions.length; i++) {
+            key[i + 3] = extensions[i].getClass().getName();
+        }
+        return Arrays.asList(key);
+    }
+
+    /**
+     * Returns the digest of the document, looked up through the resolver
+     * like the parser does, or null if it can't be read.
+     */
+    private static @Nullable byte[] digest(String systemId, EntityResolver resolver) {
+        MessageDigest md = DigestUtil.sha256();
+        try {
+            InputSource is = resolver.resolveEntity(null, systemId);
+            if (is != null) {
+                // the parser reads the resolved location, not the stream
+                if (is.getSystemId() != null) {
+                    systemId = is.getSystemId();
+                }
+                if (is.getByteStream() != null) {
+                    is.getByteStream().close();
+                }
+            }
+            InputStream in = new URL(systemId).openStream();
+            try {
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    md.update(buf, 0, n);
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Cannot read " + systemId + ", its model won't be cached", e);
+            return null;
+        } catch (SAXException e) {
+            LOGGER.log(Level.FINE, "Cannot resolve " + systemId + ", its model won't be cached", e);
+            return null;
+        }
+        return md.digest();
+    }
+
+    private static final class Entry {
+        final WSDLModel model;
+        final Map<String, byte[]> digests;
+        /**
+         * When the documents were last found unchanged, in {@link System#nanoTime()}.
+         */
+        volatile long checked;
+
+        Entry(WSDLModel model, Map<String, byte[]> digests) {
+            this.model = model;
+            this.digests = digests;
+            this.checked = System.nanoTime();
+        }
+
+        boolean isCurrent(EntityResolver resolver) {
+            long now = System.nanoTime();
+            if (now - checked < TimeUnit.MILLISECONDS.toNanos(revalidateInterval)) {
+                return true;
+            }
+            for (Map.Entry<String, byte[]> d : digests.entrySet()) {
+                if (!Arrays.equals(d.getValue(), digest(d.getKey(), resolver))) {
+                    return false;
+                }
+            }
+            checked = now;
+            return true;
+        }
+    }
+}
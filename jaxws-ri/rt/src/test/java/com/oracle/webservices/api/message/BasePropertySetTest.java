@@ -0,0 +1,128 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.oracle.webservices.api.message;
+
+import junit.framework.TestCase;
+
+public class BasePropertySetTest extends TestCase {
+
+    public static class Props extends BasePropertySet {
+        private static final PropertyMap model = parse(Props.class);
+
+        @Property("field")
+        public String field;
+
+        @Property("hidden")
+        private Integer hidden;
+
+        private int count;
+        private String readOnly = "fixed";
+
+        @Property("count")
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        @Property("readOnly")
+        public String getReadOnly() {
+            return readOnly;
+        }
+
+        @Override
+        protected PropertyMap getPropertyMap() {
+            return model;
+        }
+    }
+
+    public void testFieldAccessor() throws Exception {
+        Props props = new Props();
+        BasePropertySet.Accessor a = new BasePropertySet.FieldAccessor(Props.class.getField("field"), "field");
+        a.set(props, "value");
+        assertEquals("value", props.field);
+        assertEquals("value", a.get(props));
+        assertTrue(a.hasValue(props));
+
+        BasePropertySet.Accessor h = new BasePropertySet.FieldAccessor(Props.class.getDeclaredField("hidden"), "hidden");
+        h.set(props, 5);
+        assertEquals(5, h.get(props));
+        try {
+            h.set(props, "not an integer");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testGeneratedMethodAccessor() throws Throwable {
+        Props props = new Props();
+        BasePropertySet.Accessor a = new BasePropertySet.GeneratedMethodAccessor(
+                Props.class.getMethod("getCount"), Props.class.getMethod("setCount", int.class), "count");
+        a.set(props, 3);
+        assertEquals(3, props.getCount());
+        assertEquals(3, a.get(props));
+        try {
+            a.set(props, null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        BasePropertySet.Accessor r = new BasePropertySet.GeneratedMethodAccessor(
+                Props.class.getMethod("getReadOnly"), null, "readOnly");
+        assertEquals("fixed", r.get(props));
+        try {
+            r.set(props, "other");
+            fail();
+        } catch (ReadOnlyPropertyException expected) {
+        }
+    }
+
+    public void testParse() {
+        Props props = new Props();
+        props.put("count", 7);
+        props.put("field", "f");
+        assertEquals(7, props.get("count"));
+        assertEquals("f", props.get("field"));
+        assertEquals("fixed", props.get("readOnly"));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.api.fastinfoset;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.model.wsdl.WSDLPort;
+import com.sun.xml.ws.util.xml.XmlUtil;
+import com.sun.xml.ws.wsdl.parser.RuntimeWSDLParser;
+
+import junit.framework.TestCase;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.stream.StreamSource;
+import java.net.URL;
+
+public class FastInfosetVocabularyTest extends TestCase {
+
+    private static final URL WSDL_URL = FastInfosetVocabularyTest.class.getResource("/com/sun/xml/ws/client/hello_literal.wsdl");
+    private static final QName SERVICE_NAME = new QName("urn:test", "Hello");
+    private static final QName PORT_NAME = new QName("urn:test", "HelloPort");
+
+    private static WSDLPort parse() throws Exception {
+        return RuntimeWSDLParser.parse(WSDL_URL, new StreamSource(WSDL_URL.toExternalForm()),
+                XmlUtil.createDefaultCatalogResolver(), false, null).getService(SERVICE_NAME).get(PORT_NAME);
+    }
+
+    public void testNamesOfThePort() throws Exception {
+        FastInfosetVocabulary v = FastInfosetVocabulary.create(parse(), SOAPVersion.SOAP_11);
+        assertTrue(v.getNamespaceNames().contains("urn:test:types"));
+        assertTrue(v.getNamespaceNames().contains(SOAPVersion.SOAP_11.nsUri));
+        assertTrue(v.getLocalNames().contains("Hello"));
+        assertTrue(v.getElements().contains(new QName(SOAPVersion.SOAP_11.nsUri, "Envelope", "S")));
+    }
+
+    public void testSameWSDLSameURI() throws Exception {
+        FastInfosetVocabulary v1 = FastInfosetVocabulary.create(parse(), SOAPVersion.SOAP_11);
+        FastInfosetVocabulary v2 = FastInfosetVocabulary.create(parse(), SOAPVersion.SOAP_11);
+        assertNotSame(v1, v2);
+        assertEquals(v1.getURI(), v2.getURI());
+        assertFalse(v1.getURI().equals(FastInfosetVocabulary.create(parse(), SOAPVersion.SOAP_12).getURI()));
+    }
+
+    public void testAcceptedByEndpointAddress() throws Exception {
+        FastInfosetVocabulary v = FastInfosetVocabulary.create(parse(), SOAPVersion.SOAP_11);
+        assertTrue(v.isMarked("application/fastinfoset" + v.getParameter() + ", text/xml"));
+        assertFalse(v.isMarked("application/fastinfoset, text/xml"));
+
+        assertFalse(v.isAcceptedBy("http://localhost/hello"));
+        v.setAcceptedBy("http://localhost/hello");
+        assertTrue(v.isAcceptedBy("http://localhost/hello"));
+        assertFalse(v.isAcceptedBy("http://localhost/other"));
+
+        v.removeAcceptedBy("http://localhost/hello");
+        assertFalse(v.isAcceptedBy("http://localhost/hello"));
+        v.removeAcceptedBy(null);
+    }
+}
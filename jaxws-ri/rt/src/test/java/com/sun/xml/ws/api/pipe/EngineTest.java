@@ -42,7 +42,10 @@ package com.sun.xml.ws.api.pipe;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import com.sun.istack.NotNull;
 import com.sun.xml.ws.api.message.Packet;
@@ -50,6 +53,7 @@ import com.sun.xml.ws.api.pipe.Fiber.CompletionCallback;
 import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
 import com.sun.xml.ws.api.server.Container;
 import com.sun.xml.ws.api.server.ContainerResolver;
+import com.sun.xml.ws.binding.WebServiceFeatureList;
 
 import junit.framework.TestCase;
 
@@ -141,6 +145,86 @@ public class EngineTest extends TestCase {
         assertEquals(testContainer, firstCall.container);
     }
     
+    public void testDefaultExecutorRunsFibersOnDaemonThreads() throws Exception {
+        // the virtual threads property is not set for the tests
+        Thread t = runFiber(new Engine("engine1"));
+        assertTrue(t.getName(), t.getName().startsWith("jaxws-engine-"));
+        assertTrue(t.isDaemon());
+        assertFalse(isVirtual(t));
+    }
+
+    public void testVirtualThreadsMode() throws Exception {
+        Executor x = Engine.createDefaultExecutor(true);
+        try {
+            Engine e = new Engine("engine1", x);
+            Thread t = runFiber(e);
+            if (Engine.isVirtualThreadSupported()) {
+                assertTrue(isVirtual(t));
+            } else {
+                // falls back to the cached pool
+                assertTrue(t.getName(), t.getName().startsWith("jaxws-engine-"));
+            }
+        } finally {
+            ((ExecutorService) x).shutdownNow();
+        }
+    }
+
+    public void testVirtualThreadsFeature() throws Exception {
+        Engine e = new Engine("engine1");
+        e.configureExecutor(new WebServiceFeatureList(new VirtualThreadsFeature()));
+        assertEquals(Engine.isVirtualThreadSupported(), e.getExecutor() != null);
+        Thread t = runFiber(e);
+        assertEquals(Engine.isVirtualThreadSupported(), isVirtual(t));
+
+        // an explicit executor wins
+        Engine f = new Engine("engine2", new InlineExecutor());
+        Executor x = f.getExecutor();
+        f.configureExecutor(new WebServiceFeatureList(new VirtualThreadsFeature()));
+        assertSame(x, f.getExecutor());
+        assertSame(Thread.currentThread(), runFiber(f));
+
+        // no feature, no change
+        Engine g = new Engine("engine3");
+        g.configureExecutor(new WebServiceFeatureList());
+        assertNull(g.getExecutor());
+    }
+
+    /**
+     * Runs a fiber on the engine and returns the thread it ran on.
+     */
+    private static Thread runFiber(Engine e) throws InterruptedException {
+        final Thread[] thread = new Thread[1];
+        final CountDownLatch done = new CountDownLatch(1);
+        e.createFiber().start(new TestTube() {
+            @Override
+            @NotNull
+            public NextAction processRequest(@NotNull Packet request) {
+                thread[0] = Thread.currentThread();
+                return doReturnWith(request);
+            }
+        }, new Packet(), new CompletionCallback() {
+            @Override
+            public void onCompletion(@NotNull Packet response) {
+                done.countDown();
+            }
+
+            @Override
+            public void onCompletion(@NotNull Throwable error) {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return thread[0];
+    }
+
+    private static boolean isVirtual(Thread t) throws Exception {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(t);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     static class SimpleCompletionCallback implements CompletionCallback {
         public Packet response = null;
         public Throwable error = null;
@@ -0,0 +1,151 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.api.server;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.server.EndpointMetrics.Phase;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.MetricsFeature;
+import junit.framework.TestCase;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.Provider;
+import javax.xml.ws.ServiceMode;
+import javax.xml.ws.WebServiceProvider;
+import javax.xml.ws.Service;
+import javax.xml.ws.WebServiceContext;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+public class EndpointMetricsTest extends TestCase {
+
+    @WebServiceProvider(serviceName = "EchoService", portName = "EchoPort", targetNamespace = "urn:echo")
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class EchoProvider implements Provider<Source> {
+        public Source invoke(Source request) {
+            return request;
+        }
+    }
+
+    @WebServiceProvider(serviceName = "EchoService", portName = "EchoPort", targetNamespace = "urn:echo")
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class LaterProvider implements AsyncProvider<Source> {
+        public void invoke(final Source request, final AsyncProviderCallback<Source> callback, WebServiceContext context) {
+            new Thread() {
+                public void run() {
+                    try {
+                        Thread.sleep(DELAY);
+                    } catch (InterruptedException e) {
+                        // send anyway
+                    }
+                    callback.send(request);
+                }
+            }.start();
+        }
+    }
+
+    private static final long DELAY = 100;
+
+    private static WSEndpoint<EchoProvider> createEndpoint(MetricsFeature... features) {
+        return createEndpoint(EchoProvider.class, features);
+    }
+
+    private static <T> WSEndpoint<T> createEndpoint(Class<T> implType, MetricsFeature... features) {
+        return WSEndpoint.create(implType, false, null, null, null, null,
+                BindingImpl.create(BindingID.SOAP11_HTTP, features), null, null, null, true);
+    }
+
+    private static Packet request() {
+        Packet p = new Packet(Messages.createUsingPayload(
+                new StreamSource(new StringReader("<e:echo xmlns:e='urn:echo'/>")), SOAPVersion.SOAP_11));
+        p.setState(Packet.State.ServerRequest);
+        return p;
+    }
+
+    public void testDisabledByDefault() {
+        WSEndpoint<EchoProvider> endpoint = createEndpoint();
+        try {
+            assertNull(endpoint.getMetrics());
+        } finally {
+            endpoint.dispose();
+        }
+    }
+
+    public void testRequestIsTimed() {
+        WSEndpoint<EchoProvider> endpoint = createEndpoint(new MetricsFeature());
+        try {
+            WSEndpoint.PipeHead head = endpoint.createPipeHead();
+            for (int i = 0; i < 3; i++) {
+                Packet response = head.process(request(), null, null);
+                assertEquals("echo", response.getMessage().getPayloadLocalPart());
+            }
+
+            OperationMetrics totals = endpoint.getMetrics().getTotals();
+            assertEquals(3, totals.getRequestCount());
+            assertEquals(0, totals.getFaultCount());
+            assertEquals(3, totals.getLatency(Phase.TOTAL).getCount());
+            assertEquals(3, totals.getLatency(Phase.INVOKE).getCount());
+            assertTrue(totals.getLatency(Phase.TOTAL).getMax() >= totals.getLatency(Phase.INVOKE).getMax());
+            // no WSDL, so the operation is never known
+            assertTrue(endpoint.getMetrics().getOperations().isEmpty());
+        } finally {
+            endpoint.dispose();
+        }
+    }
+
+    public void testAsyncInvocationEndsWhenProviderCallsBack() {
+        WSEndpoint<LaterProvider> endpoint = createEndpoint(LaterProvider.class, new MetricsFeature());
+        try {
+            Packet response = endpoint.createPipeHead().process(request(), null, null);
+            assertEquals("echo", response.getMessage().getPayloadLocalPart());
+
+            OperationMetrics totals = endpoint.getMetrics().getTotals();
+            assertEquals(1, totals.getLatency(Phase.INVOKE).getCount());
+            assertTrue(totals.getLatency(Phase.INVOKE).getMax() >= TimeUnit.MILLISECONDS.toNanos(DELAY));
+        } finally {
+            endpoint.dispose();
+        }
+    }
+}
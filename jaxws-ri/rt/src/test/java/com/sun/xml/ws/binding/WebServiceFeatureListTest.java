@@ -0,0 +1,190 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.binding;
+
+import com.sun.xml.ws.api.WSFeatureList;
+import com.sun.xml.ws.api.model.wsdl.WSDLFeaturedObject;
+import junit.framework.TestCase;
+import org.xml.sax.Locator;
+
+import javax.xml.ws.RespectBindingFeature;
+import javax.xml.ws.WebServiceFeature;
+import javax.xml.ws.soap.AddressingFeature;
+import javax.xml.ws.soap.MTOMFeature;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class WebServiceFeatureListTest extends TestCase {
+
+    private static WSDLFeaturedObject featured(final WebServiceFeatureList features) {
+        return new WSDLFeaturedObject() {
+            public <F extends WebServiceFeature> F getFeature(Class<F> featureType) {
+                return features.get(featureType);
+            }
+
+            public WSFeatureList getFeatures() {
+                return features;
+            }
+
+            public void addFeature(WebServiceFeature feature) {
+                features.add(feature);
+            }
+
+            public Locator getLocation() {
+                return null;
+            }
+        };
+    }
+
+    public void testLookupAfterChanges() {
+        WebServiceFeatureList list = new WebServiceFeatureList();
+        assertNull(list.get(MTOMFeature.class));
+
+        list.add(new MTOMFeature(false));
+        assertNotNull(list.get(MTOMFeature.class));
+        assertFalse(list.isEnabled(MTOMFeature.class));
+
+        list.setMTOMEnabled(true);
+        assertTrue(list.isEnabled(MTOMFeature.class));
+
+        AddressingFeature af = new AddressingFeature();
+        list.put(AddressingFeature.class, af);
+        assertSame(af, list.get(AddressingFeature.class));
+
+        list.remove(AddressingFeature.class);
+        assertNull(list.get(AddressingFeature.class));
+
+        list.clear();
+        assertFalse(list.contains(MTOMFeature.class));
+    }
+
+    public void testChangesThroughTheViews() {
+        WebServiceFeatureList list = new WebServiceFeatureList(new MTOMFeature(false), new AddressingFeature());
+        Set<Map.Entry<Class<? extends WebServiceFeature>, WebServiceFeature>> entries = list.entrySet();
+        // the view is taken before the lookups
+        assertNotNull(list.get(AddressingFeature.class));
+        assertFalse(list.isEnabled(MTOMFeature.class));
+
+        for (Iterator<Map.Entry<Class<? extends WebServiceFeature>, WebServiceFeature>> it = entries.iterator(); it.hasNext();) {
+            Map.Entry<Class<? extends WebServiceFeature>, WebServiceFeature> e = it.next();
+            if (e.getKey() == AddressingFeature.class) {
+                it.remove();
+            } else {
+                e.setValue(new MTOMFeature(true));
+            }
+        }
+        assertNull(list.get(AddressingFeature.class));
+        assertTrue(list.isEnabled(MTOMFeature.class));
+
+        list.add(new AddressingFeature());
+        assertNotNull(list.get(AddressingFeature.class));
+        assertTrue(list.keySet().remove(AddressingFeature.class));
+        assertNull(list.get(AddressingFeature.class));
+
+        assertNotNull(list.get(MTOMFeature.class));
+        list.values().clear();
+        assertNull(list.get(MTOMFeature.class));
+        assertTrue(list.isEmpty());
+    }
+
+    public void testLookupsWhileChanging() throws Exception {
+        final WebServiceFeatureList list = new WebServiceFeatureList(new MTOMFeature(true));
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final AtomicBoolean done = new AtomicBoolean();
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        while (!done.get()) {
+                            list.get(AddressingFeature.class);
+                            assertTrue(list.isEnabled(MTOMFeature.class));
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            };
+            readers[i].start();
+        }
+        AddressingFeature af = new AddressingFeature();
+        for (int i = 0; i < 20000; i++) {
+            list.put(AddressingFeature.class, af);
+            list.remove(AddressingFeature.class);
+            list.put(RespectBindingFeature.class, new RespectBindingFeature());
+            list.remove(RespectBindingFeature.class);
+        }
+        list.put(AddressingFeature.class, af);
+        done.set(true);
+        for (Thread t : readers) {
+            t.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        // no lookup keeps an index built before the last change
+        assertSame(af, list.get(AddressingFeature.class));
+    }
+
+    public void testParentFeatures() {
+        WebServiceFeatureList parent = new WebServiceFeatureList(new MTOMFeature(true));
+        WebServiceFeatureList list = new WebServiceFeatureList(new MTOMFeature(false));
+        assertNull(list.get(AddressingFeature.class));
+
+        list.setParentFeaturedObject(featured(parent));
+        // ours override those of the parent
+        assertFalse(list.isEnabled(MTOMFeature.class));
+        assertNull(list.get(AddressingFeature.class));
+
+        AddressingFeature af = new AddressingFeature();
+        parent.add(af);
+        assertSame(af, list.get(AddressingFeature.class));
+    }
+
+    public void testLookupsNotCountedByDefault() {
+        new WebServiceFeatureList(new MTOMFeature()).get(MTOMFeature.class);
+        assertTrue(WebServiceFeatureList.getLookupCounts().isEmpty());
+    }
+}
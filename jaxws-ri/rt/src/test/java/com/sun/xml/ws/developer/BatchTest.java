@@ -0,0 +1,197 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.developer;
+
+import junit.framework.TestCase;
+
+import javax.xml.ws.AsyncHandler;
+import javax.xml.ws.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Tests {@link Batch} against a sender whose requests are completed by the test.
+ */
+public class BatchTest extends TestCase {
+
+    /**
+     * Records the requests sent and lets the test complete them.
+     */
+    private static class Sender extends Batch.Run<String> {
+        final List<Integer> sent = new ArrayList<Integer>();
+        final List<AsyncHandler<String>> handlers = new ArrayList<AsyncHandler<String>>();
+        int failing = -1;
+
+        Sender(int size, int maxConcurrency, AsyncHandler<String> handler) {
+            super(size, maxConcurrency, handler);
+        }
+
+        void send(int i, AsyncHandler<String> h) {
+            if (i == failing) {
+                throw new IllegalStateException("cannot send " + i);
+            }
+            sent.add(i);
+            handlers.add(h);
+        }
+
+        void complete(int n, String value, Throwable t) {
+            handlers.get(sent.indexOf(n)).handleResponse(new Done(value, t));
+        }
+    }
+
+    private static class Done extends FutureTask<String> implements Response<String> {
+        Done(String v, Throwable t) {
+            super(new Runnable() {
+                public void run() {
+                }
+            }, null);
+            if (t != null) {
+                setException(t);
+            } else {
+                set(v);
+            }
+        }
+
+        public Map<String, Object> getContext() {
+            return null;
+        }
+    }
+
+    public void testConcurrencyIsBoundedAndOrderKept() throws Exception {
+        final List<String> completions = new ArrayList<String>();
+        Sender s = new Sender(4, 2, new AsyncHandler<String>() {
+            public void handleResponse(Response<String> res) {
+                try {
+                    completions.add(res.get());
+                } catch (Exception e) {
+                    fail(e.toString());
+                }
+            }
+        });
+        List<Response<String>> responses = s.start();
+        assertEquals(4, responses.size());
+        assertEquals("[0, 1]", s.sent.toString());
+
+        s.complete(1, "b", null);
+        assertEquals("[0, 1, 2]", s.sent.toString());
+        assertTrue(responses.get(1).isDone());
+        assertFalse(responses.get(0).isDone());
+
+        s.complete(2, "c", null);
+        s.complete(0, "a", null);
+        s.complete(3, "d", null);
+        assertEquals("[0, 1, 2, 3]", s.sent.toString());
+        assertEquals("[b, c, a, d]", completions.toString());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(String.valueOf((char) ('a' + i)), responses.get(i).get());
+        }
+    }
+
+    public void testFailuresAreIsolated() throws Exception {
+        Sender s = new Sender(3, 1, null);
+        s.failing = 1;
+        List<Response<String>> responses = s.start();
+        s.complete(0, null, new IllegalArgumentException("boom"));
+        // request 1 failed to be sent, request 2 still goes out
+        s.complete(2, "c", null);
+
+        try {
+            responses.get(0).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("boom", e.getCause().getMessage());
+        }
+        try {
+            responses.get(1).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals("c", responses.get(2).get());
+    }
+
+    public void testCancelledRequestIsNotSent() throws Exception {
+        Sender s = new Sender(3, 1, null);
+        List<Response<String>> responses = s.start();
+        assertTrue(responses.get(1).cancel(false));
+        s.complete(0, "a", null);
+        assertEquals("[0, 2]", s.sent.toString());
+        s.complete(2, "c", null);
+        assertEquals("a", responses.get(0).get());
+        assertTrue(responses.get(1).isCancelled());
+        assertEquals("c", responses.get(2).get());
+    }
+
+    public void testCancelledRequestKeepsSlotUntilItsResponse() throws Exception {
+        final List<String> completions = new ArrayList<String>();
+        Sender s = new Sender(2, 1, new AsyncHandler<String>() {
+            public void handleResponse(Response<String> res) {
+                try {
+                    completions.add(res.get());
+                } catch (Exception e) {
+                    fail(e.toString());
+                }
+            }
+        });
+        List<Response<String>> responses = s.start();
+        assertTrue(responses.get(0).cancel(true));
+        // request 0 is still in flight
+        assertEquals("[0]", s.sent.toString());
+        s.complete(0, "a", null);
+        assertEquals("[0, 1]", s.sent.toString());
+        assertTrue(responses.get(0).isCancelled());
+        s.complete(1, "b", null);
+        assertEquals("b", responses.get(1).get());
+        assertEquals("[b]", completions.toString());
+    }
+
+    public void testInvalidConcurrency() {
+        try {
+            new Sender(1, 0, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.encoding;
+
+import com.sun.xml.ws.api.message.Attachment;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class AttachmentStoreTest extends TestCase {
+
+    private static final String BOUNDARY = "uuid:boundary";
+    private static final String CONTENT_TYPE =
+            "multipart/related; type=\"text/xml\"; boundary=\"" + BOUNDARY + "\"; start=\"<root>\"";
+
+    private static byte[] message(byte[] attachment) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Type: text/xml\r\nContent-Id: <root>\r\n\r\n"
+                + "<root/>\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Type: application/octet-stream\r\nContent-Id: <data>\r\n\r\n").getBytes("US-ASCII"));
+        out.write(attachment);
+        out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes("US-ASCII"));
+        return out.toByteArray();
+    }
+
+    public void testBytesBeyondThresholdAreSpilled() throws Exception {
+        byte[] data = new byte[100000];
+        Arrays.fill(data, (byte) 'x');
+        byte[] msg = message(data);
+
+        AttachmentStore store = new AttachmentStore(1000, 0, null);
+        MimeMultipartParser mpp = new MimeMultipartParser(new ByteArrayInputStream(msg), CONTENT_TYPE, null, store);
+        Attachment a = mpp.getAttachmentPart("data");
+        assertTrue(Arrays.equals(data, a.asByteArray()));
+
+        assertEquals(1000, store.getBytesBuffered());
+        assertEquals(msg.length - 1000, store.getBytesSpilled());
+        assertEquals(1000, store.getMemoryInUse());
+    }
+
+    public void testMemoryBudgetIsShared() throws Exception {
+        byte[] msg = message(new byte[10]);
+        AttachmentStore store = new AttachmentStore(100, 150, null);
+
+        MimeMultipartParser first = new MimeMultipartParser(new ByteArrayInputStream(msg), CONTENT_TYPE, null, store);
+        assertEquals(100, store.getMemoryInUse());
+        MimeMultipartParser second = new MimeMultipartParser(new ByteArrayInputStream(msg), CONTENT_TYPE, null, store);
+        assertEquals(150, store.getMemoryInUse());
+        MimeMultipartParser third = new MimeMultipartParser(new ByteArrayInputStream(msg), CONTENT_TYPE, null, store);
+        assertEquals(150, store.getMemoryInUse());
+
+        // the third message got no allowance, so it is read straight to disk
+        InputStream in = third.getAttachmentPart("data").asInputStream();
+        while (in.read() != -1) {
+        }
+        assertEquals(msg.length, store.getBytesSpilled());
+        assertNotNull(first);
+        assertNotNull(second);
+    }
+
+    public void testAllowanceIsSharedByTheParts() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Type: text/xml\r\nContent-Id: <root>\r\n\r\n"
+                + "<root/>\r\n").getBytes("US-ASCII"));
+        byte[] data = new byte[60000];
+        Arrays.fill(data, (byte) 'x');
+        for (int i = 0; i < 4; i++) {
+            out.write(("--" + BOUNDARY + "\r\n"
+                    + "Content-Type: application/octet-stream\r\nContent-Id: <data" + i + ">\r\n\r\n").getBytes("US-ASCII"));
+            out.write(data);
+            out.write("\r\n".getBytes("US-ASCII"));
+        }
+        out.write(("--" + BOUNDARY + "--\r\n").getBytes("US-ASCII"));
+
+        File dir = createTempDir();
+        try {
+            // each part fits in the threshold, but all of them together don't
+            AttachmentStore store = new AttachmentStore(100000, 0, dir.getPath());
+            MimeMultipartParser mpp = new MimeMultipartParser(new ByteArrayInputStream(out.toByteArray()), CONTENT_TYPE, null, store);
+            assertEquals(4, mpp.getAttachmentParts().size());
+
+            long onDisk = 0;
+            for (File f : dir.listFiles()) {
+                onDisk += f.length();
+            }
+            // at most one read-ahead chunk more than the threshold stays in memory
+            assertTrue("only " + onDisk + " bytes on disk", onDisk >= 4 * data.length - 100000 - 8192);
+            for (int i = 0; i < 4; i++) {
+                assertTrue(Arrays.equals(data, mpp.getAttachmentPart("data" + i).asByteArray()));
+            }
+        } finally {
+            for (File f : dir.listFiles()) {
+                f.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    public void testReleaseReturnsUnusedAllowance() throws Exception {
+        byte[] data = new byte[1000];
+        byte[] msg = message(data);
+        byte[] small = message(new byte[10]);
+        AttachmentStore store = new AttachmentStore(100, 250, null);
+
+        MimeMultipartParser first = new MimeMultipartParser(new ByteArrayInputStream(msg), CONTENT_TYPE, null, store);
+        assertTrue(Arrays.equals(data, first.getAttachmentPart("data").asByteArray()));
+        long buffered = store.getBytesBuffered();
+        MimeMultipartParser second = new MimeMultipartParser(new ByteArrayInputStream(small), CONTENT_TYPE, null, store);
+        assertEquals(200, store.getMemoryInUse());
+
+        // the first message used all of its allowance, which it keeps while it can be read
+        first.releaseUnusedMemory();
+        assertEquals(200, store.getMemoryInUse());
+        assertEquals(0, store.getBytesEvicted());
+        assertTrue(Arrays.equals(data, first.getAttachmentPart("data").asByteArray()));
+
+        // the second one only keeps what it read into memory so far
+        long inMemory = store.getBytesBuffered() - buffered;
+        assertTrue(inMemory < 100);
+        second.releaseUnusedMemory();
+        second.releaseUnusedMemory();
+        assertEquals(100 + inMemory, store.getMemoryInUse());
+        assertEquals(10, second.getAttachmentPart("data").asByteArray().length);
+        assertEquals(0, store.getBytesEvicted());
+    }
+
+    public void testAllowanceReturnedOnceCollected() throws Exception {
+        byte[] data = new byte[1000];
+        AttachmentStore store = new AttachmentStore(100, 0, null);
+        MimeMultipartParser mpp = new MimeMultipartParser(new ByteArrayInputStream(message(data)), CONTENT_TYPE, null, store);
+        Attachment a = mpp.getAttachmentPart("data");
+        assertTrue(Arrays.equals(data, a.asByteArray()));
+        mpp.releaseUnusedMemory();
+        assertEquals(100, store.getMemoryInUse());
+
+        mpp = null;
+        // the attachment alone keeps the message, and its memory, alive
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        assertEquals(100, store.getMemoryInUse());
+        assertEquals(0, store.getBytesEvicted());
+        assertTrue(Arrays.equals(data, a.asByteArray()));
+
+        a = null;
+        for (int i = 0; i < 50 && store.getMemoryInUse() != 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, store.getMemoryInUse());
+        assertEquals(100, store.getBytesEvicted());
+    }
+
+    public void testMessageReleasedBeforeReadGoesToDisk() throws Exception {
+        byte[] data = new byte[1000];
+        byte[] msg = message(data);
+        AttachmentStore store = new AttachmentStore(100000, 0, null);
+
+        MimeMultipartParser mpp = new MimeMultipartParser(new ByteArrayInputStream(msg), CONTENT_TYPE, null, store);
+        mpp.releaseUnusedMemory();
+        assertEquals(0, store.getMemoryInUse());
+        assertTrue(Arrays.equals(data, mpp.getAttachmentPart("data").asByteArray()));
+        assertEquals(0, store.getBytesBuffered());
+        assertEquals(msg.length, store.getBytesSpilled());
+    }
+
+    private static File createTempDir() throws IOException {
+        File dir = File.createTempFile("AttachmentStoreTest", null);
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        return dir;
+    }
+}
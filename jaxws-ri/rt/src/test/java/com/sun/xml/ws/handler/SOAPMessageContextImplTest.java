@@ -0,0 +1,138 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.handler;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.message.Header;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.streaming.XMLStreamReaderFactory;
+import com.sun.xml.ws.binding.BindingImpl;
+import junit.framework.TestCase;
+
+import javax.xml.namespace.QName;
+import javax.xml.soap.SOAPElement;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.WebServiceFeature;
+import java.io.StringReader;
+import java.util.Collections;
+
+public class SOAPMessageContextImplTest extends TestCase {
+
+    private static final QName AUDIT = new QName("urn:audit", "audit");
+
+    private static final String ENVELOPE =
+            "<S:Envelope xmlns:S='http://schemas.xmlsoap.org/soap/envelope/'>" +
+            "<S:Header><a:audit xmlns:a='urn:audit'>original</a:audit><a:trace xmlns:a='urn:audit'>1</a:trace></S:Header>" +
+            "<S:Body><e:echo xmlns:e='urn:echo'>hello</e:echo></S:Body>" +
+            "</S:Envelope>";
+
+    private boolean lazySAAJ;
+
+    @Override
+    protected void setUp() throws Exception {
+        lazySAAJ = SOAPMessageContextImpl.lazySAAJ;
+        SOAPMessageContextImpl.lazySAAJ = true;
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SOAPMessageContextImpl.lazySAAJ = lazySAAJ;
+    }
+
+    private static SOAPMessageContextImpl context(Packet packet) {
+        return new SOAPMessageContextImpl(BindingImpl.create(BindingID.SOAP11_HTTP, new WebServiceFeature[0]),
+                packet, Collections.<String>emptySet());
+    }
+
+    private static Packet packet() {
+        return new Packet(Messages.create(XMLStreamReaderFactory.create(null, new StringReader(ENVELOPE), true)));
+    }
+
+    private static SOAPElement header(SOAPMessage msg, QName name) throws Exception {
+        return (SOAPElement) msg.getSOAPHeader().getChildElements(name).next();
+    }
+
+    public void testReadingHeadersLeavesMessageAlone() throws Exception {
+        Packet packet = packet();
+        Message original = packet.getMessage();
+        SOAPMessageContextImpl context = context(packet);
+
+        assertEquals("original", header(context.getMessage(), AUDIT).getTextContent());
+        context.updatePacket();
+
+        assertSame(original, packet.getMessage());
+        assertTrue(original.hasPayload());
+        assertEquals("echo", original.getPayloadLocalPart());
+    }
+
+    public void testModifiedHeadersAreWrittenBackWithoutTheBody() throws Exception {
+        Packet packet = packet();
+        Message original = packet.getMessage();
+        SOAPMessageContextImpl context = context(packet);
+
+        header(context.getMessage(), AUDIT).setTextContent("changed");
+        context.updatePacket();
+
+        assertSame(original, packet.getMessage());
+        Header audit = original.getHeaders().get(AUDIT, false);
+        assertEquals("changed", audit.getStringContent());
+        assertNotNull(original.getHeaders().get("urn:audit", "trace", false));
+        assertEquals(2, original.getHeaders().asList().size());
+        assertEquals("echo", original.getPayloadLocalPart());
+    }
+
+    public void testBodyAccessConvertsWholeMessage() throws Exception {
+        Packet packet = packet();
+        SOAPMessageContextImpl context = context(packet);
+
+        SOAPMessage msg = context.getMessage();
+        header(msg, AUDIT).setTextContent("changed");
+        assertEquals("hello", msg.getSOAPBody().getTextContent());
+        assertEquals("changed", header(msg, AUDIT).getTextContent());
+        context.updatePacket();
+
+        SOAPMessage result = packet.getMessage().readAsSOAPMessage();
+        assertEquals("changed", header(result, AUDIT).getTextContent());
+        assertEquals("hello", result.getSOAPBody().getTextContent());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.message.jaxb;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.spi.db.BindingContext;
+import com.sun.xml.ws.spi.db.BindingContextFactory;
+import com.sun.xml.ws.spi.db.BindingInfo;
+import com.sun.xml.ws.spi.db.TypeInfo;
+import com.sun.xml.ws.spi.db.XMLBridge;
+
+import junit.framework.TestCase;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.namespace.QName;
+
+public class JAXBMessageTest extends TestCase {
+
+    private static final QName TAG = new QName("urn:test", "bean");
+
+    @XmlRootElement(name = "bean", namespace = "urn:test")
+    public static class Bean {
+        public String value;
+    }
+
+    private final TypeInfo beanType = new TypeInfo(TAG, Bean.class);
+    private final TypeInfo otherTagType = new TypeInfo(new QName("urn:test", "other"), Bean.class);
+    private final TypeInfo stringType = new TypeInfo(TAG, String.class);
+    private BindingContext context;
+
+    @Override
+    protected void setUp() throws Exception {
+        BindingInfo bi = new BindingInfo();
+        bi.contentClasses().add(Bean.class);
+        bi.typeInfos().add(beanType);
+        bi.typeInfos().add(otherTagType);
+        bi.typeInfos().add(stringType);
+        context = BindingContextFactory.create(bi);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> XMLBridge<T> bridge(TypeInfo type, Class<T> clazz) {
+        return (XMLBridge<T>) context.createBridge(type);
+    }
+
+    private JAXBMessage create(Bean bean) {
+        return (JAXBMessage) JAXBMessage.create(bridge(beanType, Bean.class), bean, SOAPVersion.SOAP_11);
+    }
+
+    public void testGetJAXBObjectWithTheSameBinding() {
+        Bean bean = new Bean();
+        JAXBMessage message = create(bean);
+        assertSame(bean, message.getJAXBObject(bridge(beanType, Bean.class)));
+    }
+
+    public void testGetJAXBObjectWithAnotherBinding() {
+        JAXBMessage message = create(new Bean());
+        assertNull(message.getJAXBObject(bridge(otherTagType, Bean.class)));
+        assertNull(message.getJAXBObject(bridge(stringType, String.class)));
+    }
+
+    public void testGetJAXBObjectWithoutBridge() throws Exception {
+        JAXBMessage message = (JAXBMessage) JAXBMessage.create(context, new Bean(), SOAPVersion.SOAP_11);
+        assertNull(message.getJAXBObject(bridge(beanType, Bean.class)));
+    }
+
+    public void testCopyKeepsTheObjectAndTheTagName() throws Exception {
+        Bean bean = new Bean();
+        bean.value = "hello";
+        JAXBMessage message = create(bean);
+        assertEquals("bean", message.getPayloadLocalPart());
+
+        Message copy = message.copy();
+        assertTrue(copy instanceof JAXBMessage);
+        assertSame(bean, ((JAXBMessage) copy).getJAXBObject(bridge(beanType, Bean.class)));
+        assertEquals("urn:test", copy.getPayloadNamespaceURI());
+        assertEquals("bean", copy.getPayloadLocalPart());
+        assertEquals("hello", copy.readPayloadAsJAXB(bridge(beanType, Bean.class)).value);
+
+        // reading the copy leaves the original alone
+        assertTrue(message.hasPayload());
+        assertEquals("hello", message.readPayloadAsJAXB(bridge(beanType, Bean.class)).value);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.message.source;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.api.pipe.Codecs;
+import com.sun.xml.ws.developer.StreamWriterSource;
+import junit.framework.TestCase;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.stax.StAXSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class StreamWriterSourceMessageTest extends TestCase {
+
+    private static final String NS = "urn:report";
+
+    private static class ReportSource extends StreamWriterSource {
+        int writes;
+
+        ReportSource(QName name) {
+            super(name);
+        }
+
+        public void writeTo(XMLStreamWriter w) throws XMLStreamException {
+            writes++;
+            w.writeStartElement("r", "report", NS);
+            w.writeNamespace("r", NS);
+            for (int i = 0; i < 3; i++) {
+                w.writeStartElement("r", "row", NS);
+                w.writeCharacters(String.valueOf(i));
+                w.writeEndElement();
+            }
+            w.writeEndElement();
+        }
+    }
+
+    private static String encode(Message msg) throws IOException {
+        Codec codec = Codecs.createSOAPEnvelopeXmlCodec(SOAPVersion.SOAP_11);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.encode(new Packet(msg), out);
+        return out.toString("UTF-8");
+    }
+
+    public void testPayloadIsWrittenToTheOutgoingWriter() throws Exception {
+        ReportSource source = new ReportSource(new QName(NS, "report"));
+        Message msg = Messages.createUsingPayload(source, SOAPVersion.SOAP_11);
+        assertTrue(msg instanceof StreamWriterSourceMessage);
+
+        assertEquals("report", msg.getPayloadLocalPart());
+        assertEquals(NS, msg.getPayloadNamespaceURI());
+        assertEquals(0, source.writes);
+
+        String xml = encode(msg);
+        assertTrue(xml, xml.contains("<r:row>2</r:row></r:report></S:Body>"));
+        assertEquals(1, source.writes);
+    }
+
+    public void testPayloadIsBufferedWhenReadBeforeWriting() throws Exception {
+        ReportSource source = new ReportSource(null);
+        Message msg = Messages.createUsingPayload(source, SOAPVersion.SOAP_11);
+
+        assertEquals("report", msg.getPayloadLocalPart());
+        Message copy = msg.copy();
+        assertTrue(encode(msg).contains("<r:row>1</r:row>"));
+        assertTrue(encode(copy).contains("<r:row>1</r:row>"));
+        assertEquals(1, source.writes);
+    }
+
+    public void testStAXSourceOfLiveReaderIsEchoed() throws Exception {
+        String request = "<S:Envelope xmlns:S='http://schemas.xmlsoap.org/soap/envelope/'><S:Body>"
+                + "<r:report xmlns:r='urn:report'><r:row>0</r:row></r:report>"
+                + "</S:Body></S:Envelope>";
+        Codec codec = Codecs.createSOAPEnvelopeXmlCodec(SOAPVersion.SOAP_11);
+        Packet packet = new Packet();
+        codec.decode(new ByteArrayInputStream(request.getBytes("UTF-8")), "text/xml", packet);
+
+        StAXSource payload = new StAXSource(packet.getMessage().readPayload());
+        Message echo = Messages.createUsingPayload(payload, SOAPVersion.SOAP_11);
+        assertEquals("report", echo.getPayloadLocalPart());
+        assertTrue(encode(echo).contains("<r:row>0</r:row></r:report></S:Body>"));
+    }
+}
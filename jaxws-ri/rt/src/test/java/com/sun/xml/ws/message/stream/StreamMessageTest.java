@@ -44,7 +44,9 @@ import com.oracle.webservices.api.message.ContentType;
 import com.oracle.webservices.api.message.MessageContext;
 import com.oracle.webservices.api.message.MessageContextFactory;
 import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Header;
 import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.MessageHeaders;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.message.Packet.State;
 import com.sun.xml.ws.api.pipe.Codec;
@@ -74,6 +76,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 
 /**
  * StreamMessage test
@@ -298,6 +301,30 @@ public class StreamMessageTest extends TestCase {
         return bab.newInputStream();
     }
     
+    public void testHeaderAttributesAreParsedOnDemand() throws Exception {
+        String soap =
+"<S:Envelope xmlns:S='http://schemas.xmlsoap.org/soap/envelope/'><S:Header>" +
+"<h:a xmlns:h='urn:h' S:mustUnderstand='1' S:actor='urn:role' h:x='1' y='2'>a</h:a>" +
+"<h:b xmlns:h='urn:h'>b</h:b>" +
+"</S:Header><S:Body><e:echo xmlns:e='urn:e'/></S:Body></S:Envelope>";
+        Message message = useStreamCodec(soap);
+        MessageHeaders headers = message.getHeaders();
+
+        Header a = headers.get("urn:h", "a", false);
+        assertFalse(a.isIgnorable(SOAPVersion.SOAP_11, Collections.singleton("urn:role")));
+        assertTrue(a.isIgnorable(SOAPVersion.SOAP_11, Collections.singleton("urn:other")));
+        assertEquals("urn:role", a.getRole(SOAPVersion.SOAP_11));
+        assertEquals("1", a.getAttribute("urn:h", "x"));
+        assertEquals("2", a.getAttribute("", "y"));
+        assertEquals("1", a.getAttribute("http://schemas.xmlsoap.org/soap/envelope/", "mustUnderstand"));
+        assertNull(a.getAttribute("urn:h", "z"));
+
+        Header b = headers.get("urn:h", "b", false);
+        assertTrue(b.isIgnorable(SOAPVersion.SOAP_11, Collections.singleton("urn:role")));
+        assertNull(b.getAttribute("urn:h", "x"));
+        assertEquals("b", b.getStringContent());
+    }
+
     public void testEmptySoapHeader() throws Exception {
 		String soap = 
 				"<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>" +
@@ -0,0 +1,202 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Engine;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.AdmissionControlFeature;
+import junit.framework.TestCase;
+
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.WebServiceFeature;
+import java.io.StringReader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class AdmissionControlTubeTest extends TestCase {
+
+    /**
+     * Terminal tube that waits for the test before answering.
+     */
+    private static class ServiceTube extends AbstractTubeImpl {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final WSBinding binding;
+
+        ServiceTube(WSBinding binding) {
+            this.binding = binding;
+        }
+
+        public @NotNull NextAction processRequest(@NotNull Packet request) {
+            entered.countDown();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return doReturnWith(request.createServerResponse(payload("<ok/>"), null, null, binding));
+        }
+
+        public @NotNull NextAction processResponse(@NotNull Packet response) {
+            throw new IllegalStateException();
+        }
+
+        public @NotNull NextAction processException(@NotNull Throwable t) {
+            throw new IllegalStateException();
+        }
+
+        public AbstractTubeImpl copy(TubeCloner cloner) {
+            return this;
+        }
+
+        public void preDestroy() {
+        }
+    }
+
+    private static class Callback implements Fiber.CompletionCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Packet response;
+
+        public void onCompletion(@NotNull Packet response) {
+            this.response = response;
+            done.countDown();
+        }
+
+        public void onCompletion(@NotNull Throwable error) {
+            done.countDown();
+        }
+    }
+
+    private static com.sun.xml.ws.api.message.Message payload(String xml) {
+        return Messages.createUsingPayload(new StreamSource(new StringReader(xml)), SOAPVersion.SOAP_11);
+    }
+
+    private static Packet request() {
+        Packet p = new Packet(payload("<request/>"));
+        p.setState(Packet.State.ServerRequest);
+        return p;
+    }
+
+    public void testExcessRequestIsRejectedAndQueuedOneWaits() throws Exception {
+        AdmissionControlFeature feature = new AdmissionControlFeature(1, 0, 1, 0, false);
+        WSBinding binding = BindingImpl.create(BindingID.SOAP11_HTTP, new WebServiceFeature[] {feature});
+        ServiceTube service = new ServiceTube(binding);
+        AdmissionControlTube tube = new AdmissionControlTube(feature, binding, null, null, service);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Engine engine = new Engine("admission-test", executor);
+            Callback first = new Callback();
+            engine.createFiber().start(TubeCloner.clone(tube), request(), first);
+            assertTrue(service.entered.await(5, TimeUnit.SECONDS));
+
+            Callback second = new Callback();
+            engine.createFiber().start(TubeCloner.clone(tube), request(), second);
+            Callback third = new Callback();
+            engine.createFiber().start(TubeCloner.clone(tube), request(), third);
+
+            // the queue holds one request, the other one is rejected right away; waiting on
+            // one callback after the other could outlast the service tube, which admits the queued one
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (second.response == null && third.response == null && System.nanoTime() - deadline < 0) {
+                Thread.sleep(10);
+            }
+            assertTrue(second.response != null || third.response != null);
+            Callback rejected = third.response != null ? third : second;
+            Callback queued = rejected == third ? second : third;
+            assertTrue(rejected.response.getMessage().isFault());
+            assertEquals(1, feature.getRejected());
+            // the other request may be rejected before this one is queued
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (feature.getQueuedCount() == 0 && System.nanoTime() - deadline < 0) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, feature.getQueuedCount());
+
+            service.proceed.countDown();
+            assertTrue(first.done.await(5, TimeUnit.SECONDS));
+            assertTrue(queued.done.await(5, TimeUnit.SECONDS));
+            assertFalse(first.response.getMessage().isFault());
+            assertFalse(queued.response.getMessage().isFault());
+            assertEquals(0, feature.getInFlightCount());
+            assertEquals(2, feature.getAdmitted());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void testSynchronousRequestIsNotQueuedWithoutTimeout() throws Exception {
+        AdmissionControlFeature feature = new AdmissionControlFeature(1, 0, 1, 0, false);
+        WSBinding binding = BindingImpl.create(BindingID.SOAP11_HTTP, new WebServiceFeature[] {feature});
+        ServiceTube service = new ServiceTube(binding);
+        AdmissionControlTube tube = new AdmissionControlTube(feature, binding, null, null, service);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Engine engine = new Engine("admission-test", executor);
+            Callback first = new Callback();
+            engine.createFiber().start(TubeCloner.clone(tube), request(), first);
+            assertTrue(service.entered.await(5, TimeUnit.SECONDS));
+
+            // waiting would block this thread, with no timeout to end it
+            Packet response = engine.createFiber().runSync(TubeCloner.clone(tube), request());
+            assertTrue(response.getMessage().isFault());
+            assertEquals(1, feature.getRejected());
+            assertEquals(0, feature.getQueuedCount());
+
+            service.proceed.countDown();
+            assertTrue(first.done.await(5, TimeUnit.SECONDS));
+            assertFalse(first.response.getMessage().isFault());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.xml.ws.server.AdmissionController.Admission;
+import com.sun.xml.ws.server.AdmissionController.Ticket;
+import junit.framework.TestCase;
+
+import javax.xml.namespace.QName;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AdmissionControllerTest extends TestCase {
+
+    private static final QName OP1 = new QName("urn:test", "op1");
+    private static final QName OP2 = new QName("urn:test", "op2");
+
+    private static class TestTicket extends Ticket {
+        final CountDownLatch admitted = new CountDownLatch(1);
+        final CountDownLatch timedOut = new CountDownLatch(1);
+
+        TestTicket(QName operation) {
+            super(operation);
+        }
+
+        protected void admitted() {
+            admitted.countDown();
+        }
+
+        protected void timedOut() {
+            timedOut.countDown();
+        }
+
+        boolean isAdmitted() {
+            return admitted.getCount() == 0;
+        }
+    }
+
+    public void testQueueAndReject() {
+        AdmissionController c = new AdmissionController(2, 0, 1, 0, false);
+        TestTicket t1 = new TestTicket(OP1);
+        TestTicket t2 = new TestTicket(OP1);
+        TestTicket t3 = new TestTicket(OP1);
+        assertEquals(Admission.ADMITTED, c.admit(t1));
+        assertEquals(Admission.ADMITTED, c.admit(t2));
+        assertEquals(Admission.QUEUED, c.admit(t3));
+        assertEquals(Admission.REJECTED, c.admit(new TestTicket(OP2)));
+        assertEquals(2, c.getInFlightCount());
+        assertEquals(1, c.getQueuedCount());
+
+        c.release(t1);
+        assertTrue(t3.isAdmitted());
+        assertEquals(2, c.getInFlightCount());
+        assertEquals(0, c.getQueuedCount());
+        assertEquals(3, c.getAdmitted());
+        assertEquals(1, c.getQueued());
+        assertEquals(1, c.getRejected());
+    }
+
+    public void testOperationLimitDoesNotBlockOtherOperations() {
+        AdmissionController c = new AdmissionController(10, 1, 10, 0, false);
+        TestTicket a1 = new TestTicket(OP1);
+        TestTicket a2 = new TestTicket(OP1);
+        TestTicket b1 = new TestTicket(OP2);
+        assertEquals(Admission.ADMITTED, c.admit(a1));
+        assertEquals(Admission.QUEUED, c.admit(a2));
+        // queued behind a2, but op2 has room
+        assertEquals(Admission.QUEUED, c.admit(b1));
+        assertTrue(b1.isAdmitted());
+        assertFalse(a2.isAdmitted());
+
+        c.release(a1);
+        assertTrue(a2.isAdmitted());
+        assertEquals(2, c.getInFlightCount());
+    }
+
+    public void testQueueTimeout() throws Exception {
+        AdmissionController c = new AdmissionController(1, 0, 1, 50, false);
+        TestTicket t1 = new TestTicket(null);
+        TestTicket t2 = new TestTicket(null);
+        assertEquals(Admission.ADMITTED, c.admit(t1));
+        assertEquals(Admission.QUEUED, c.admit(t2));
+        assertTrue(t2.timedOut.await(5, TimeUnit.SECONDS));
+        assertEquals(0, c.getQueuedCount());
+        assertEquals(1, c.getTimedOut());
+
+        c.release(t1);
+        assertFalse(t2.isAdmitted());
+        assertEquals(0, c.getInFlightCount());
+    }
+
+    public void testAdaptiveLimitShrinksWithLatency() throws Exception {
+        AdmissionController c = new AdmissionController(100, 0, 0, 0, true);
+        TestTicket fast = new TestTicket(null);
+        c.admit(fast);
+        c.release(fast);
+        assertEquals(100, c.getLimit());
+        for (int i = 0; i < 50; i++) {
+            TestTicket slow = new TestTicket(null);
+            c.admit(slow);
+            Thread.sleep(2);
+            c.release(slow);
+        }
+        assertTrue("limit " + c.getLimit(), c.getLimit() < 100);
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.oracle.webservices.api.databinding.WSDLResolver;
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.databinding.WSDLGenInfo;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.api.wsdl.writer.WSDLGeneratorExtension;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.MetricsFeature;
+import com.sun.xml.ws.developer.PoolingFeature;
+import com.sun.xml.ws.model.AbstractSEIModelImpl;
+import com.sun.xml.ws.util.ServiceFinder;
+import junit.framework.TestCase;
+
+import javax.jws.WebService;
+import javax.xml.transform.Result;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.ws.Holder;
+import javax.xml.ws.WebServiceFeature;
+import javax.xml.ws.soap.AddressingFeature;
+import javax.xml.ws.soap.MTOMFeature;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PrecomputedMetadataTest extends TestCase {
+
+    @WebService(serviceName = "HelloService", portName = "HelloPort", targetNamespace = "urn:hello")
+    public static class Hello {
+        public String hello(String name) {
+            return "Hello " + name;
+        }
+    }
+
+    private File classes;
+    private File generated;
+
+    @Override
+    protected void setUp() throws Exception {
+        classes = new File(Hello.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        generated = File.createTempFile("wsgen", "");
+        generated.delete();
+        generated.mkdirs();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        delete(new File(classes, "META-INF/jax-ws"));
+        delete(generated);
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File c : children) {
+                delete(c);
+            }
+        }
+        f.delete();
+    }
+
+    private static WSEndpoint<Hello> createEndpoint(WebServiceFeature... features) {
+        return WSEndpoint.create(Hello.class, false, null, null, null, null,
+                BindingImpl.create(BindingID.SOAP11_HTTP, features), null, null, null, true);
+    }
+
+    private static boolean isPrecomputed(WSEndpoint<?> endpoint) {
+        return endpoint.getServiceDefinition().getPrimary().getURL().toExternalForm()
+                .contains(PrecomputedMetadata.DIRECTORY);
+    }
+
+    /**
+     * Does what wsgen -wsdl -XruntimeIndex does.
+     */
+    private void precompute(WebServiceFeature... features) throws IOException {
+        WSEndpoint<Hello> endpoint = createEndpoint(features);
+        try {
+            AbstractSEIModelImpl model = (AbstractSEIModelImpl) endpoint.getSEIModel();
+            final List<OutputStream> streams = new ArrayList<OutputStream>();
+            final List<File> files = new ArrayList<File>();
+            WSDLGenInfo info = new WSDLGenInfo();
+            info.setWsdlResolver(new WSDLResolver() {
+                private Result toResult(String name) {
+                    try {
+                        File f = new File(generated, name);
+                        files.add(f);
+                        OutputStream out = new FileOutputStream(f);
+                        streams.add(out);
+                        StreamResult result = new StreamResult(out);
+                        result.setSystemId(name);
+                        return result;
+                    } catch (IOException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+
+                public Result getWSDL(String suggestedFilename) {
+                    return toResult(suggestedFilename);
+                }
+
+                public Result getAbstractWSDL(Holder<String> filename) {
+                    return toResult(filename.value);
+                }
+
+                public Result getSchemaOutput(String namespace, Holder<String> filename) {
+                    return namespace == null ? null : toResult(filename.value);
+                }
+            });
+            WSDLGeneratorExtension[] extensions = ServiceFinder.find(WSDLGeneratorExtension.class).toArray();
+            info.setExtensions(extensions);
+            model.getDatabinding().generateWSDL(info);
+            for (OutputStream out : streams) {
+                out.close();
+            }
+            PrecomputedMetadata.write(classes, model, endpoint.getBinding(), extensions,
+                    files.get(0), files.subList(1, files.size()));
+        } finally {
+            endpoint.dispose();
+        }
+    }
+
+    public void testPrecomputedDocumentsAreUsed() throws Exception {
+        precompute();
+        WSEndpoint<Hello> endpoint = createEndpoint();
+        try {
+            assertTrue(isPrecomputed(endpoint));
+            assertNotNull(endpoint.getPort());
+        } finally {
+            endpoint.dispose();
+        }
+    }
+
+    public void testOutOfDateDocumentsAreIgnored() throws Exception {
+        precompute();
+        // features may change the WSDL
+        WSEndpoint<Hello> endpoint = createEndpoint(new MTOMFeature());
+        try {
+            assertFalse(isPrecomputed(endpoint));
+        } finally {
+            endpoint.dispose();
+        }
+    }
+
+    public void testFeatureSettingsAreFingerprinted() throws Exception {
+        precompute(new AddressingFeature(true, false));
+        WSEndpoint<Hello> endpoint = createEndpoint(new AddressingFeature(true, false));
+        try {
+            assertTrue(isPrecomputed(endpoint));
+        } finally {
+            endpoint.dispose();
+        }
+        // same feature, but required addressing changes the WSDL
+        endpoint = createEndpoint(new AddressingFeature(true, true));
+        try {
+            assertFalse(isPrecomputed(endpoint));
+        } finally {
+            endpoint.dispose();
+        }
+    }
+
+    public void testRuntimeFeaturesAreNotFingerprinted() throws Exception {
+        precompute();
+        // only change how messages are processed, not the documents
+        WSEndpoint<Hello> endpoint = createEndpoint(new MetricsFeature(), new PoolingFeature(4, 2));
+        try {
+            assertTrue(isPrecomputed(endpoint));
+        } finally {
+            endpoint.dispose();
+        }
+    }
+}
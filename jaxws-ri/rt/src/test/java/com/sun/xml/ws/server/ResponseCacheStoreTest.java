@@ -0,0 +1,201 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.xml.ws.developer.ResponseCacheFeature.Eviction;
+import junit.framework.TestCase;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.Arrays;
+
+public class ResponseCacheStoreTest extends TestCase {
+
+    private static final QName OP = new QName("urn:test", "lookup");
+
+    private static byte[] digest(String xml) throws Exception {
+        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+        return ResponseCacheStore.digest(reader);
+    }
+
+    private static ResponseCacheStore.Key key(String name) {
+        return new ResponseCacheStore.Key(OP, name.getBytes());
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            out.write(b);
+        }
+        return out.toString("UTF-8");
+    }
+
+    public void testDigestIgnoresSyntax() throws Exception {
+        byte[] d = digest("<a:get xmlns:a='urn:a' x='1' y='2'><id>42</id></a:get>");
+        assertTrue(Arrays.equals(d, digest("<a:get xmlns:a='urn:a' y='2' x='1'><!-- c --><id>4<![CDATA[2]]></id></a:get>")));
+        assertFalse(Arrays.equals(d, digest("<a:get xmlns:a='urn:a' x='1' y='2'><id>43</id></a:get>")));
+        assertFalse(Arrays.equals(d, digest("<a:get xmlns:a='urn:b' x='1' y='2'><id>42</id></a:get>")));
+        // QNames in text may depend on the declarations
+        assertFalse(Arrays.equals(d, digest("<b:get xmlns:b='urn:a' x='1' y='2'><id>42</id></b:get>")));
+    }
+
+    public void testDigestStopsAtEndOfElement() throws Exception {
+        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(
+                new StringReader("<body><get><id>1</id></get><next/></body>"));
+        reader.nextTag();
+        reader.nextTag();
+        ResponseCacheStore.digest(reader);
+        assertEquals("get", reader.getLocalName());
+        reader.nextTag();
+        assertEquals("next", reader.getLocalName());
+    }
+
+    public void testGetAndPut() throws Exception {
+        ResponseCacheStore store = new ResponseCacheStore(0, 0, 0, Eviction.LRU, false);
+        assertNull(store.get(key("a")));
+        store.put(key("a"), "<r/>".getBytes("UTF-8"));
+        assertEquals("<r/>", read(store.get(key("a"))));
+        assertEquals(1, store.getHits());
+        assertEquals(1, store.getMisses());
+        assertEquals(4, store.getByteCount());
+    }
+
+    public void testOffHeap() throws Exception {
+        ResponseCacheStore store = new ResponseCacheStore(0, 0, 0, Eviction.LRU, true);
+        store.put(key("a"), "<r/>".getBytes("UTF-8"));
+        assertEquals("<r/>", read(store.get(key("a"))));
+        assertEquals("<r/>", read(store.get(key("a"))));
+    }
+
+    public void testLeastRecentlyUsedIsEvicted() {
+        ResponseCacheStore store = new ResponseCacheStore(0, 2, 0, Eviction.LRU, false);
+        store.put(key("a"), new byte[1]);
+        store.put(key("b"), new byte[1]);
+        store.get(key("a"));
+        store.put(key("c"), new byte[1]);
+        assertNotNull(store.get(key("a")));
+        assertNull(store.get(key("b")));
+        assertNotNull(store.get(key("c")));
+        assertEquals(1, store.getEvictions());
+    }
+
+    public void testLeastFrequentlyUsedIsEvicted() {
+        ResponseCacheStore store = new ResponseCacheStore(0, 2, 0, Eviction.LFU, false);
+        store.put(key("a"), new byte[1]);
+        store.put(key("b"), new byte[1]);
+        store.get(key("a"));
+        store.get(key("a"));
+        store.get(key("b"));
+        store.put(key("c"), new byte[1]);
+        assertNotNull(store.get(key("a")));
+        assertNull(store.get(key("b")));
+        assertNotNull(store.get(key("c")));
+    }
+
+    public void testByteLimit() {
+        ResponseCacheStore store = new ResponseCacheStore(0, 0, 10, Eviction.LRU, false);
+        store.put(key("a"), new byte[6]);
+        store.put(key("b"), new byte[6]);
+        assertNull(store.get(key("a")));
+        assertEquals(6, store.getByteCount());
+        // larger than the whole store
+        store.put(key("c"), new byte[11]);
+        assertNull(store.get(key("c")));
+        assertEquals(1, store.getEntryCount());
+    }
+
+    public void testExpiration() throws Exception {
+        ResponseCacheStore store = new ResponseCacheStore(1, 0, 0, Eviction.LRU, false);
+        store.put(key("a"), new byte[1]);
+        Thread.sleep(20);
+        assertNull(store.get(key("a")));
+        assertEquals(1, store.getExpirations());
+        assertEquals(0, store.getEntryCount());
+    }
+
+    public void testOffHeapReadersHaveTheirOwnPosition() throws Exception {
+        ResponseCacheStore store = new ResponseCacheStore(0, 0, 0, Eviction.LRU, true);
+        store.put(key("a"), "<r/>".getBytes("UTF-8"));
+        InputStream first = store.get(key("a"));
+        InputStream second = store.get(key("a"));
+        assertEquals('<', first.read());
+        assertEquals(3, first.available());
+        assertEquals("<r/>", read(second));
+        assertEquals("r/>", read(first));
+    }
+
+    public void testConcurrentUseStaysWithinLimits() throws Exception {
+        final ResponseCacheStore store = new ResponseCacheStore(0, 10, 0, Eviction.LRU, false);
+        Thread[] threads = new Thread[4];
+        final Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 10000; i++) {
+                            ResponseCacheStore.Key k = key(Integer.toString(i % 37));
+                            if (store.get(k) == null) {
+                                store.put(k, new byte[3]);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure[0] = e;
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertNull(failure[0]);
+        assertEquals(10, store.getEntryCount());
+        assertEquals(30, store.getByteCount());
+        assertEquals(40000, store.getHits() + store.getMisses());
+    }
+}
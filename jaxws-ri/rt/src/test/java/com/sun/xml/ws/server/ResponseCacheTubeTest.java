@@ -0,0 +1,181 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.server;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.message.Headers;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.api.server.WebServiceContextDelegate;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.ResponseCacheFeature;
+import junit.framework.TestCase;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.Provider;
+import javax.xml.ws.Service;
+import javax.xml.ws.ServiceMode;
+import javax.xml.ws.WebServiceFeature;
+import javax.xml.ws.WebServiceProvider;
+import java.io.StringReader;
+import java.security.Principal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResponseCacheTubeTest extends TestCase {
+
+    static final AtomicInteger invocations = new AtomicInteger();
+
+    @WebServiceProvider(serviceName = "LookupService", portName = "LookupPort", targetNamespace = "urn:lookup")
+    @ServiceMode(Service.Mode.PAYLOAD)
+    public static class LookupProvider implements Provider<Source> {
+        public Source invoke(Source request) {
+            int n = invocations.incrementAndGet();
+            return new StreamSource(new StringReader("<l:result xmlns:l='urn:lookup'>" + n + "</l:result>"));
+        }
+    }
+
+    private static Packet request(String id) {
+        Packet p = new Packet(Messages.createUsingPayload(new StreamSource(new StringReader(
+                "<l:lookup xmlns:l='urn:lookup'><id>" + id + "</id></l:lookup>")), SOAPVersion.SOAP_11));
+        p.setState(Packet.State.ServerRequest);
+        return p;
+    }
+
+    private static Packet request(String id, String headerName, String headerValue) {
+        Packet p = request(id);
+        Message msg = p.getMessage();
+        msg.getHeaders().add(Headers.create(new QName(headerName.startsWith("{urn:lookup}") ? "urn:lookup"
+                : AddressingVersion.W3C.nsUri, headerName.substring(headerName.indexOf('}') + 1)), headerValue));
+        return p;
+    }
+
+    private static WebServiceContextDelegate caller(final String name) {
+        return new WebServiceContextDelegate() {
+            public Principal getUserPrincipal(Packet request) {
+                return new Principal() {
+                    public String getName() {
+                        return name;
+                    }
+                };
+            }
+
+            public boolean isUserInRole(Packet request, String role) {
+                return false;
+            }
+
+            public String getEPRAddress(Packet request, WSEndpoint endpoint) {
+                return "http://localhost/lookup";
+            }
+
+            public String getWSDLAddress(Packet request, WSEndpoint endpoint) {
+                return null;
+            }
+        };
+    }
+
+    private static WSEndpoint<LookupProvider> endpoint(ResponseCacheFeature feature) {
+        return WSEndpoint.create(LookupProvider.class, false, null, null, null, null,
+                BindingImpl.create(BindingID.SOAP11_HTTP, new WebServiceFeature[] {feature}), null, null, null, true);
+    }
+
+    public void testRepeatedRequestIsAnsweredFromCache() throws Exception {
+        ResponseCacheFeature feature = new ResponseCacheFeature();
+        WSEndpoint<LookupProvider> endpoint = WSEndpoint.create(LookupProvider.class, false, null, null, null, null,
+                BindingImpl.create(BindingID.SOAP11_HTTP, new WebServiceFeature[] {feature}), null, null, null, true);
+        try {
+            WSEndpoint.PipeHead head = endpoint.createPipeHead();
+            invocations.set(0);
+            String first = text(head.process(request("1"), null, null));
+            assertEquals(first, text(head.process(request("1"), null, null)));
+            assertEquals(1, invocations.get());
+            text(head.process(request("2"), null, null));
+            assertEquals(2, invocations.get());
+            assertEquals(1, feature.getHits());
+            assertEquals(2, feature.getMisses());
+        } finally {
+            endpoint.dispose();
+        }
+    }
+
+    public void testCallersDoNotShareResponses() throws Exception {
+        WSEndpoint<LookupProvider> endpoint = endpoint(new ResponseCacheFeature());
+        try {
+            WSEndpoint.PipeHead head = endpoint.createPipeHead();
+            invocations.set(0);
+            String alice = text(head.process(request("1"), caller("alice"), null));
+            String bob = text(head.process(request("1"), caller("bob"), null));
+            assertFalse(alice.equals(bob));
+            assertEquals(alice, text(head.process(request("1"), caller("alice"), null)));
+            assertEquals(2, invocations.get());
+        } finally {
+            endpoint.dispose();
+        }
+    }
+
+    public void testHeadersArePartOfTheKey() throws Exception {
+        WSEndpoint<LookupProvider> endpoint = endpoint(new ResponseCacheFeature());
+        try {
+            WSEndpoint.PipeHead head = endpoint.createPipeHead();
+            invocations.set(0);
+            String first = text(head.process(request("1", "{urn:lookup}tenant", "a"), null, null));
+            assertFalse(first.equals(text(head.process(request("1", "{urn:lookup}tenant", "b"), null, null))));
+            assertEquals(first, text(head.process(request("1", "{urn:lookup}tenant", "a"), null, null)));
+            assertEquals(2, invocations.get());
+
+            // addressing headers differ from one request to the next
+            String addressed = text(head.process(request("2", "MessageID", "uuid:1"), null, null));
+            assertEquals(addressed, text(head.process(request("2", "MessageID", "uuid:2"), null, null)));
+            assertEquals(3, invocations.get());
+        } finally {
+            endpoint.dispose();
+        }
+    }
+
+    private static String text(Packet response) throws Exception {
+        return response.getMessage().readPayload().getElementText();
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http;
+
+import com.sun.xml.ws.api.server.Container;
+import com.sun.xml.ws.api.server.ContainerResolver;
+import com.sun.xml.ws.api.server.PortAddressResolver;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.transport.http.server.ServerAdapter;
+import com.sun.xml.ws.transport.http.server.ServerAdapterList;
+import junit.framework.TestCase;
+
+import javax.annotation.PreDestroy;
+import javax.jws.WebService;
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DeploymentDescriptorParserTest extends TestCase {
+
+    @WebService(serviceName = "FirstService", portName = "FirstPort", targetNamespace = "urn:test")
+    public static class First {
+        public String first(String s) {
+            return s;
+        }
+    }
+
+    @WebService(serviceName = "SecondService", portName = "SecondPort", targetNamespace = "urn:test")
+    public static class Second {
+        /**
+         * Containers seen by the thread that created each instance.
+         */
+        static final List<Container> containers = Collections.synchronizedList(new ArrayList<Container>());
+
+        public Second() {
+            containers.add(ContainerResolver.getInstance().getContainer());
+        }
+
+        public String second(String s) {
+            return s;
+        }
+    }
+
+    @WebService(serviceName = "DisposedService", portName = "DisposedPort", targetNamespace = "urn:test")
+    public static class Disposed {
+        static final AtomicInteger disposed = new AtomicInteger();
+
+        public String disposed(String s) {
+            return s;
+        }
+
+        @PreDestroy
+        public void destroy() {
+            disposed.incrementAndGet();
+        }
+    }
+
+    @WebService(serviceName = "BrokenService", portName = "BrokenPort", targetNamespace = "urn:test")
+    public static class Broken {
+        public Broken() {
+            throw new IllegalStateException("broken");
+        }
+
+        public String broken(String s) {
+            return s;
+        }
+    }
+
+    private static final String DD =
+            "<endpoints xmlns='" + DeploymentDescriptorParser.NS_RUNTIME + "' version='2.0'>" +
+            endpoint("first", First.class) +
+            endpoint("second", Second.class) +
+            endpoint("third", First.class) +
+            "</endpoints>";
+
+    private static String endpoint(String name, Class<?> impl) {
+        return "<endpoint name='" + name + "' implementation='" + impl.getName() + "' url-pattern='/" + name + "'/>";
+    }
+
+    private static final ResourceLoader NO_RESOURCES = new ResourceLoader() {
+        public URL getResource(String path) {
+            return null;
+        }
+
+        public URL getCatalogFile() {
+            return null;
+        }
+
+        public Set<String> getResourcePaths(String path) {
+            return null;
+        }
+    };
+
+    private static final class Adapter {
+        final String name;
+        final WSEndpoint<?> endpoint;
+
+        Adapter(String name, WSEndpoint<?> endpoint) {
+            this.name = name;
+            this.endpoint = endpoint;
+        }
+    }
+
+    private static List<Adapter> parse(boolean parallel) throws Exception {
+        return parse(parallel, DD);
+    }
+
+    private static List<Adapter> parse(boolean parallel, String dd) throws Exception {
+        DeploymentDescriptorParser<Adapter> parser = new DeploymentDescriptorParser<Adapter>(
+                DeploymentDescriptorParserTest.class.getClassLoader(), NO_RESOURCES, null,
+                new DeploymentDescriptorParser.AdapterFactory<Adapter>() {
+                    public Adapter createAdapter(String name, String urlPattern, WSEndpoint<?> endpoint) {
+                        return new Adapter(name, endpoint);
+                    }
+                });
+        parser.setParallel(parallel);
+        return parser.parse("sun-jaxws.xml", new ByteArrayInputStream(dd.getBytes("UTF-8")));
+    }
+
+    private static void assertDeployed(List<Adapter> adapters) {
+        assertEquals(3, adapters.size());
+        assertEquals("first", adapters.get(0).name);
+        assertEquals("second", adapters.get(1).name);
+        assertEquals("third", adapters.get(2).name);
+        assertEquals("FirstPort", adapters.get(0).endpoint.getPortName().getLocalPart());
+        assertEquals("SecondPort", adapters.get(1).endpoint.getPortName().getLocalPart());
+        assertEquals("FirstPort", adapters.get(2).endpoint.getPortName().getLocalPart());
+        for (Adapter a : adapters) {
+            a.endpoint.dispose();
+        }
+    }
+
+    public void testSequentialDeployment() throws Exception {
+        assertDeployed(parse(false));
+    }
+
+    public void testParallelDeploymentKeepsDeclarationOrder() throws Exception {
+        List<Adapter> adapters = parse(true);
+        List<WSEndpoint<?>> endpoints = new ArrayList<WSEndpoint<?>>();
+        for (Adapter a : adapters) {
+            endpoints.add(a.endpoint);
+        }
+        assertNotSame(endpoints.get(0), endpoints.get(2));
+        assertDeployed(adapters);
+    }
+
+    public void testParallelDeploymentIntoHttpAdapterList() throws Exception {
+        Container container = new Container() {
+            public <T> T getSPI(Class<T> spiType) {
+                return null;
+            }
+        };
+        Second.containers.clear();
+        ServerAdapterList list = new ServerAdapterList();
+        DeploymentDescriptorParser<ServerAdapter> parser = new DeploymentDescriptorParser<ServerAdapter>(
+                DeploymentDescriptorParserTest.class.getClassLoader(), NO_RESOURCES, null, list);
+        parser.setParallel(true);
+        List<ServerAdapter> adapters;
+        Container old = ContainerResolver.getDefault().enterContainer(container);
+        try {
+            adapters = parser.parse("sun-jaxws.xml", new ByteArrayInputStream(DD.getBytes("UTF-8")));
+        } finally {
+            ContainerResolver.getDefault().exitContainer(old);
+        }
+        try {
+            // the list holds the adapters in declaration order
+            assertEquals(adapters, list);
+            assertEquals(3, list.size());
+            assertEquals("first", list.get(0).getName());
+            assertEquals("second", list.get(1).getName());
+            assertEquals("third", list.get(2).getName());
+            assertEquals("/second", list.get(1).urlPattern);
+
+            // and knows the address of every port
+            PortAddressResolver resolver = list.createPortAddressResolver("http://localhost", Second.class);
+            assertEquals("http://localhost/second",
+                    resolver.getAddressFor(new QName("urn:test", "SecondService"), "SecondPort"));
+
+            // the endpoint was created with the deploying thread's container
+            assertEquals(Collections.singletonList(container), Second.containers);
+        } finally {
+            for (ServerAdapter a : list) {
+                a.getEndpoint().dispose();
+            }
+        }
+    }
+
+    public void testFailedParallelDeploymentDisposesCreatedEndpoints() throws Exception {
+        String dd = "<endpoints xmlns='" + DeploymentDescriptorParser.NS_RUNTIME + "' version='2.0'>" +
+                endpoint("first", Disposed.class) +
+                endpoint("broken", Broken.class) +
+                endpoint("third", Disposed.class) +
+                "</endpoints>";
+        Disposed.disposed.set(0);
+        try {
+            parse(true, dd);
+            fail();
+        } catch (RuntimeException e) {
+            // expected
+        }
+        assertEquals(2, Disposed.disposed.get());
+    }
+}
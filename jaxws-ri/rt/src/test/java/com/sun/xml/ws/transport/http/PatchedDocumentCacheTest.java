@@ -0,0 +1,121 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http;
+
+import com.sun.xml.ws.api.server.SDDocument;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+public class PatchedDocumentCacheTest extends TestCase {
+
+    private static SDDocument document() {
+        return (SDDocument) Proxy.newProxyInstance(SDDocument.class.getClassLoader(), new Class[]{SDDocument.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("equals")) {
+                            return proxy == args[0];
+                        }
+                        if (method.getName().equals("hashCode")) {
+                            return System.identityHashCode(proxy);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    public void testEntry() throws Exception {
+        byte[] wsdl = "<definitions/>".getBytes("UTF-8");
+        PatchedDocumentCache.Entry e = new PatchedDocumentCache.Entry(wsdl, true);
+        assertEquals(e.etag, new PatchedDocumentCache.Entry(wsdl.clone(), false).etag);
+        assertFalse(e.etag.equals(new PatchedDocumentCache.Entry("<definitions />".getBytes("UTF-8"), false).etag));
+        assertTrue(e.etag.startsWith("\"") && e.etag.endsWith("\""));
+        assertFalse(e.etag.equals(e.gzippedETag));
+
+        InputStream in = new GZIPInputStream(new ByteArrayInputStream(e.gzipped));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int b; (b = in.read()) != -1; ) {
+            out.write(b);
+        }
+        assertTrue(Arrays.equals(wsdl, out.toByteArray()));
+        assertNull(new PatchedDocumentCache.Entry(wsdl, false).gzipped);
+    }
+
+    public void testBounded() throws Exception {
+        PatchedDocumentCache cache = new PatchedDocumentCache(2);
+        SDDocument doc = document();
+        PatchedDocumentCache.Entry e = new PatchedDocumentCache.Entry(new byte[0], false);
+        cache.put(doc, "http://a", e);
+        cache.put(doc, "http://b", e);
+        assertSame(e, cache.get(doc, "http://a"));
+        assertNull(cache.get(document(), "http://a"));
+        cache.put(doc, "http://c", e);
+        // b was the least recently used
+        assertNull(cache.get(doc, "http://b"));
+        assertSame(e, cache.get(doc, "http://a"));
+        cache.clear();
+        assertNull(cache.get(doc, "http://a"));
+    }
+
+    public void testIfNoneMatch() {
+        assertFalse(HttpAdapter.matchesETag(null, "\"x\""));
+        assertTrue(HttpAdapter.matchesETag(Collections.singletonList("\"x\""), "\"x\""));
+        assertTrue(HttpAdapter.matchesETag(Collections.singletonList("\"y\", W/\"x\""), "\"x\""));
+        assertTrue(HttpAdapter.matchesETag(Collections.singletonList("*"), "\"x\""));
+        assertFalse(HttpAdapter.matchesETag(Collections.singletonList("\"y\""), "\"x\""));
+    }
+
+    public void testAcceptEncoding() {
+        assertFalse(HttpAdapter.acceptsGzip(null));
+        assertTrue(HttpAdapter.acceptsGzip(Collections.singletonList("deflate, gzip")));
+        assertTrue(HttpAdapter.acceptsGzip(Collections.singletonList("GZIP;q=0.5")));
+        assertFalse(HttpAdapter.acceptsGzip(Collections.singletonList("gzip;q=0")));
+        assertFalse(HttpAdapter.acceptsGzip(Collections.singletonList("identity")));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.EndpointAddress;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Engine;
+import com.sun.xml.ws.api.pipe.Fiber;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.AsyncHttpTransportFeature;
+import junit.framework.TestCase;
+
+import javax.xml.ws.WebServiceFeature;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncHttpTransportPipeTest extends TestCase {
+
+    /**
+     * Pipe whose exchanges wait for the test instead of going to the network.
+     */
+    private static class PausedPipe extends AsyncHttpTransportPipe {
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final AtomicInteger exchanges = new AtomicInteger();
+
+        PausedPipe(WSBinding binding) {
+            super(null, binding);
+        }
+
+        @Override
+        Packet exchange(Packet request) {
+            exchanges.incrementAndGet();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return request.createClientResponse(Messages.createEmpty(SOAPVersion.SOAP_11));
+        }
+    }
+
+    private static class Callback implements Fiber.CompletionCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Packet response;
+
+        public void onCompletion(@NotNull Packet response) {
+            this.response = response;
+            done.countDown();
+        }
+
+        public void onCompletion(@NotNull Throwable error) {
+            done.countDown();
+        }
+    }
+
+    private static Packet request() {
+        Packet p = new Packet(Messages.createEmpty(SOAPVersion.SOAP_11));
+        p.endpointAddress = EndpointAddress.create("http://example.org/service");
+        return p;
+    }
+
+    public void testSuspendedFiberWaitsForHostWithoutThread() throws Exception {
+        final AtomicInteger submitted = new AtomicInteger();
+        final ExecutorService transport = Executors.newCachedThreadPool();
+        Executor counting = new Executor() {
+            public void execute(Runnable command) {
+                submitted.incrementAndGet();
+                transport.execute(command);
+            }
+        };
+        WSBinding binding = BindingImpl.create(BindingID.SOAP11_HTTP,
+                new WebServiceFeature[] {new AsyncHttpTransportFeature(1, counting)});
+        PausedPipe pipe = new PausedPipe(binding);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Engine engine = new Engine("async-http-test", executor);
+            Callback first = new Callback();
+            engine.createFiber().start(pipe, request(), first);
+            Callback second = new Callback();
+            engine.createFiber().start(pipe, request(), second);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (pipe.exchanges.get() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            // the second fiber is suspended in the queue of the host, not on a transport thread
+            assertEquals(1, pipe.exchanges.get());
+            assertEquals(1, submitted.get());
+            assertEquals(1, second.done.getCount());
+
+            pipe.proceed.countDown();
+            assertTrue(first.done.await(5, TimeUnit.SECONDS));
+            assertTrue(second.done.await(5, TimeUnit.SECONDS));
+            assertNotNull(first.response);
+            assertNotNull(second.response);
+            assertEquals(2, submitted.get());
+        } finally {
+            executor.shutdownNow();
+            transport.shutdownNow();
+        }
+    }
+
+    public void testCapIsSharedByPorts() throws Exception {
+        // a cap that the other tests don't use, so that the host starts idle
+        WebServiceFeature[] features = {new AsyncHttpTransportFeature(2)};
+        final PausedPipe first = new PausedPipe(BindingImpl.create(BindingID.SOAP11_HTTP, features));
+        final PausedPipe second = new PausedPipe(BindingImpl.create(BindingID.SOAP11_HTTP, features));
+        HostConnectionLimiter limiter = HostConnectionLimiter.get(2);
+        assertSame(limiter, HostConnectionLimiter.get(2));
+        assertNotSame(limiter, HostConnectionLimiter.get(3));
+
+        EndpointAddress address = request().endpointAddress;
+        ExecutorService callers = Executors.newCachedThreadPool();
+        try {
+            for (final PausedPipe pipe : new PausedPipe[] {first, first, second}) {
+                callers.execute(new Runnable() {
+                    public void run() {
+                        pipe.process(request());
+                    }
+                });
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (limiter.getWaiting(address) < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // the two ports share the two permits of the host
+            assertEquals(2, limiter.getInFlight(address));
+            assertEquals(1, limiter.getWaiting(address));
+            assertEquals(2, first.exchanges.get() + second.exchanges.get());
+
+            first.proceed.countDown();
+            second.proceed.countDown();
+            callers.shutdown();
+            assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(3, first.exchanges.get() + second.exchanges.get());
+            assertEquals(0, limiter.getInFlight(address));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
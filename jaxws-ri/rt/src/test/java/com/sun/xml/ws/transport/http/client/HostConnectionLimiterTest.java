@@ -0,0 +1,120 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.client;
+
+import com.sun.xml.ws.api.EndpointAddress;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HostConnectionLimiterTest extends TestCase {
+
+    public void testHostsAreLimitedIndependently() {
+        HostConnectionLimiter limiter = new HostConnectionLimiter(2);
+        EndpointAddress a = EndpointAddress.create("http://example.org/a");
+        EndpointAddress sameHost = EndpointAddress.create("http://example.org:80/b");
+        EndpointAddress other = EndpointAddress.create("https://example.org/a");
+
+        limiter.acquire(a);
+        limiter.acquire(sameHost);
+        assertEquals(2, limiter.getInFlight(a));
+        assertEquals(0, limiter.getInFlight(other));
+
+        limiter.acquire(other);
+        assertEquals(1, limiter.getInFlight(other));
+
+        limiter.release(a);
+        limiter.release(sameHost);
+        limiter.release(other);
+        assertEquals(0, limiter.getInFlight(a));
+        assertEquals(0, limiter.getInFlight(other));
+    }
+
+    public void testAcquireBlocksWhenHostIsSaturated() throws Exception {
+        final HostConnectionLimiter limiter = new HostConnectionLimiter(1);
+        final EndpointAddress a = EndpointAddress.create("http://example.org/a");
+        limiter.acquire(a);
+
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                limiter.acquire(a);
+                limiter.release(a);
+            }
+        };
+        t.start();
+        t.join(200);
+        assertTrue(t.isAlive());
+
+        limiter.release(a);
+        t.join(5000);
+        assertFalse(t.isAlive());
+        assertEquals(0, limiter.getInFlight(a));
+    }
+
+    public void testWaitingExchangesStartInOrderOnRelease() {
+        HostConnectionLimiter limiter = new HostConnectionLimiter(1);
+        EndpointAddress a = EndpointAddress.create("http://example.org/a");
+        final List<String> started = new ArrayList<String>();
+        for (final String name : new String[] {"first", "second", "third"}) {
+            limiter.start(a, new Runnable() {
+                public void run() {
+                    started.add(name);
+                }
+            });
+        }
+        assertEquals(1, started.size());
+        assertEquals(1, limiter.getInFlight(a));
+        assertEquals(2, limiter.getWaiting(a));
+
+        limiter.release(a);
+        assertEquals("second", started.get(1));
+        assertEquals(1, limiter.getInFlight(a));
+        limiter.release(a);
+        limiter.release(a);
+        assertEquals(3, started.size());
+        assertEquals("third", started.get(2));
+        assertEquals(0, limiter.getInFlight(a));
+        assertEquals(0, limiter.getWaiting(a));
+    }
+}
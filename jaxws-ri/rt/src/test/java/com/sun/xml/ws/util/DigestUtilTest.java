@@ -0,0 +1,71 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import junit.framework.TestCase;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+public class DigestUtilTest extends TestCase {
+
+    public void testHex() {
+        byte[] digest = DigestUtil.sha256().digest(new byte[0]);
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", DigestUtil.toHex(digest));
+        assertEquals("e3b0c442", DigestUtil.toHex(digest, 4));
+    }
+
+    public void testValuesAreDelimited() {
+        MessageDigest md1 = DigestUtil.sha256();
+        DigestUtil.update(md1, "ab");
+        DigestUtil.update(md1, "c");
+        MessageDigest md2 = DigestUtil.sha256();
+        DigestUtil.update(md2, "a");
+        DigestUtil.update(md2, "bc");
+        assertFalse(Arrays.equals(md1.digest(), md2.digest()));
+
+        md1 = DigestUtil.sha256();
+        DigestUtil.update(md1, (String) null);
+        md2 = DigestUtil.sha256();
+        DigestUtil.update(md2, "");
+        assertTrue(Arrays.equals(md1.digest(), md2.digest()));
+    }
+}
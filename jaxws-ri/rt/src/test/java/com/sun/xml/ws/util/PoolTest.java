@@ -0,0 +1,107 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.util;
+
+import com.sun.xml.ws.developer.PoolingFeature;
+
+import junit.framework.TestCase;
+
+public class PoolTest extends TestCase {
+
+    static final class CountingPool extends Pool<Object> {
+        int created;
+
+        CountingPool(PoolingFeature feature) {
+            super(feature);
+        }
+
+        @Override
+        protected Object create() {
+            created++;
+            return new Object();
+        }
+    }
+
+    public void testDefaultPoolHasNoStatistics() {
+        assertNull(new CountingPool(null).getStatistics());
+    }
+
+    public void testFastSlotReturnsRecycledInstance() {
+        CountingPool pool = new CountingPool(new PoolingFeature(4, 2));
+        Object o = pool.take();
+        pool.recycle(o);
+        assertSame(o, pool.take());
+        assertEquals(1, pool.created);
+
+        Pool.Statistics stats = pool.getStatistics();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getCreationCount());
+    }
+
+    public void testPoolIsBounded() {
+        CountingPool pool = new CountingPool(new PoolingFeature(2, 1));
+        Object a = pool.take();
+        Object b = pool.take();
+        Object c = pool.take();
+        pool.recycle(a);
+        pool.recycle(b);
+        pool.recycle(c);
+
+        Pool.Statistics stats = pool.getStatistics();
+        assertEquals(2, stats.getIdleCount());
+        assertEquals(1, stats.getDiscardCount());
+
+        pool.take();
+        pool.take();
+        assertEquals(0, stats.getIdleCount());
+        assertEquals(2, stats.getHitCount());
+        assertEquals(3, pool.created);
+    }
+
+    public void testZeroSizePoolRetainsNothing() {
+        CountingPool pool = new CountingPool(new PoolingFeature(0, 4));
+        pool.recycle(pool.take());
+        pool.take();
+        assertEquals(2, pool.created);
+        assertEquals(1, pool.getStatistics().getDiscardCount());
+    }
+}
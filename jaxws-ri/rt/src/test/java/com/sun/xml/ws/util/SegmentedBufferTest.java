@@ -0,0 +1,126 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package com.sun.xml.ws.util;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+public class SegmentedBufferTest extends TestCase {
+
+    private static byte[] data(int size) {
+        byte[] b = new byte[size];
+        new Random(size).nextBytes(b);
+        return b;
+    }
+
+    public void testWriteSpanningSegments() throws Exception {
+        byte[] data = data(SegmentedBuffer.SEGMENT_SIZE * 3 + 17);
+        SegmentedBuffer buf = new SegmentedBuffer();
+        buf.write(data, 0, 10);
+        buf.write(data[10]);
+        buf.write(data, 11, data.length - 11);
+        assertEquals(data.length, buf.size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buf.writeTo(out);
+        assertTrue(Arrays.equals(data, out.toByteArray()));
+
+        buf.release();
+        assertEquals(0, buf.size());
+    }
+
+    public void testGatheringWrite() throws Exception {
+        byte[] data = data(SegmentedBuffer.SEGMENT_SIZE * 2 + 5);
+        SegmentedBuffer buf = new SegmentedBuffer();
+        buf.write(data);
+
+        File f = File.createTempFile("segmented", ".bin");
+        try {
+            FileChannel ch = new RandomAccessFile(f, "rw").getChannel();
+            try {
+                buf.writeTo(ch);
+            } finally {
+                ch.close();
+            }
+            assertEquals(data.length, f.length());
+        } finally {
+            f.delete();
+            buf.release();
+        }
+    }
+
+    public void testWriteToWithLimit() throws Exception {
+        byte[] data = data(SegmentedBuffer.SEGMENT_SIZE + 100);
+        SegmentedBuffer buf = new SegmentedBuffer();
+        buf.write(new ByteArrayInputStream(data));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buf.writeTo(out, SegmentedBuffer.SEGMENT_SIZE + 1);
+        assertTrue(Arrays.equals(Arrays.copyOf(data, SegmentedBuffer.SEGMENT_SIZE + 1), out.toByteArray()));
+        buf.release();
+    }
+
+    public void testInputStreamReleasesOnClose() throws Exception {
+        byte[] data = data(SegmentedBuffer.SEGMENT_SIZE * 2 + 1);
+        SegmentedBuffer buf = new SegmentedBuffer();
+        buf.write(data);
+
+        InputStream in = buf.newInputStream();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] tmp = new byte[1000];
+        int n;
+        while ((n = in.read(tmp)) != -1) {
+            out.write(tmp, 0, n);
+        }
+        assertTrue(Arrays.equals(data, out.toByteArray()));
+
+        in.close();
+        assertEquals(0, buf.size());
+        assertEquals(-1, in.read());
+    }
+}
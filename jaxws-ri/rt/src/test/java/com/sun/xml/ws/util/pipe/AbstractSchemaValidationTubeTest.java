@@ -40,27 +40,49 @@
 
 package com.sun.xml.ws.util.pipe;
 
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
 import javax.xml.validation.Validator;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.WebServiceFeature;
+
+import org.xml.sax.SAXException;
 
 import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.stream.buffer.XMLStreamBufferResult;
+import com.sun.xml.ws.api.SOAPVersion;
 import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
 import com.sun.xml.ws.api.message.Packet;
 import com.sun.xml.ws.api.pipe.NextAction;
 import com.sun.xml.ws.api.pipe.Tube;
 import com.sun.xml.ws.api.pipe.TubeCloner;
 import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.api.server.SDDocument;
+import com.sun.xml.ws.api.server.SDDocumentSource;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.developer.SchemaValidationFeature;
+import com.sun.xml.ws.server.DraconianValidationErrorHandler;
+import com.sun.xml.ws.server.SDDocumentImpl;
+import com.sun.xml.ws.streaming.XMLStreamReaderUtil;
+import com.sun.xml.ws.util.xml.XmlUtil;
 
 import junit.framework.TestCase;
 
@@ -107,6 +129,99 @@ public class AbstractSchemaValidationTubeTest extends TestCase {
 		assertEquals(-1, strResult.indexOf("targetNamespace"));
 	}
 	
+	private static final String WSDL =
+			"<definitions xmlns='http://schemas.xmlsoap.org/wsdl/' targetNamespace='urn:echo'><types>" +
+			"<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema' targetNamespace='urn:echo' elementFormDefault='qualified'>" +
+			"<xs:element name='echo'><xs:complexType><xs:sequence>" +
+			"<xs:element name='arg' type='xs:int'/>" +
+			"</xs:sequence></xs:complexType></xs:element>" +
+			"</xs:schema></types></definitions>";
+
+	private static List<SDDocument> metadata() throws Exception {
+		StreamSource source = new StreamSource(new StringReader(WSDL));
+		XMLStreamBufferResult xsbr = XmlUtil.identityTransform(source, new XMLStreamBufferResult());
+		SDDocumentSource sds = SDDocumentSource.create(new URL("file:/echo.wsdl"), xsbr.getXMLStreamBuffer());
+		List<SDDocument> docs = new ArrayList<SDDocument>();
+		docs.add(SDDocumentImpl.create(sds, new QName("urn:echo", "EchoService"), new QName("urn:echo", "Echo")));
+		return docs;
+	}
+
+	private static WSBinding streamingBinding() {
+		return BindingImpl.create(BindingID.SOAP11_HTTP, new WebServiceFeature[] {
+				new SchemaValidationFeature(true, true, DraconianValidationErrorHandler.class, true)});
+	}
+
+	private Schema createSchema(AbstractSchemaValidationTube tube) throws Exception {
+		List<SDDocument> docs = metadata();
+		return tube.createSchema(docs, tube.new MetadataResolverImpl(docs));
+	}
+
+	public void testSchemaIsSharedForSameMetadata() throws Exception {
+		AbstractSchemaValidationTube.clearSchemaCache();
+		Schema first = createSchema(new StractSchemaValidationTubeMock(streamingBinding(), new TubeMock()));
+		Schema second = createSchema(new StractSchemaValidationTubeMock(streamingBinding(), new TubeMock()));
+		assertNotNull(first);
+		assertSame(first, second);
+	}
+
+	private Message validatingMessage(String arg) throws Exception {
+		AbstractSchemaValidationTube tube = new StractSchemaValidationTubeMock(streamingBinding(), new TubeMock());
+		AbstractSchemaValidationTube.Validators validators = new AbstractSchemaValidationTube.Validators(createSchema(tube));
+		Message msg = Messages.createUsingPayload(new StreamSource(new StringReader(
+				"<echo xmlns='urn:echo'><arg>" + arg + "</arg></echo>")), SOAPVersion.SOAP_11);
+		return tube.createValidatingMessage(new Packet(msg), validators);
+	}
+
+	public void testPayloadIsValidatedWhileRead() throws Exception {
+		XMLStreamReader reader = validatingMessage("1").readPayload();
+		XMLStreamReaderUtil.readRest(reader);
+
+		reader = validatingMessage("one").readPayload();
+		try {
+			while (reader.hasNext()) {
+				reader.next();
+			}
+			fail("invalid payload was read without error");
+		} catch (XMLStreamException e) {
+			// expected
+		}
+	}
+
+	public void testPayloadIsValidatedBeforeOtherReads() throws Exception {
+		assertNotNull(validatingMessage("1").readPayloadAsSource());
+		try {
+			validatingMessage("one").readPayloadAsSource();
+			fail("invalid payload was read without error");
+		} catch (WebServiceException e) {
+			// expected
+		}
+	}
+
+	private static Packet packet(String arg) {
+		return new Packet(Messages.createUsingPayload(new StreamSource(new StringReader(
+				"<echo xmlns='urn:echo'><arg>" + arg + "</arg></echo>")), SOAPVersion.SOAP_11));
+	}
+
+	public void testCopiesAreValidatedWithPooledValidators() throws Exception {
+		AbstractSchemaValidationTube tube = new StractSchemaValidationTubeMock(streamingBinding(), new TubeMock());
+		AbstractSchemaValidationTube.Validators validators = new AbstractSchemaValidationTube.Validators(createSchema(tube));
+		Validator v = validators.takeValidator();
+		validators.recycle(v);
+
+		tube.doProcess(packet("1"), validators);
+		assertSame(v, validators.takeValidator());
+		validators.recycle(v);
+
+		try {
+			tube.doProcess(packet("one"), validators);
+			fail("invalid payload passed validation");
+		} catch (SAXException e) {
+			// expected
+		}
+		// the validator that failed is dropped
+		assertNotSame(v, validators.takeValidator());
+	}
+
 	class StractSchemaValidationTubeMock extends AbstractSchemaValidationTube {
 		public StractSchemaValidationTubeMock(WSBinding binding, Tube next) {
 			super(binding, next);
@@ -0,0 +1,109 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.wsdl;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.model.WSDLOperationMapping;
+import com.sun.xml.ws.api.model.wsdl.WSDLModel;
+import com.sun.xml.ws.api.model.wsdl.WSDLPort;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.util.xml.XmlUtil;
+import com.sun.xml.ws.wsdl.parser.RuntimeWSDLParser;
+
+import junit.framework.TestCase;
+
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.stream.StreamSource;
+import java.net.URL;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+public class OperationDispatcherTest extends TestCase {
+
+    private static final URL WSDL_URL = OperationDispatcherTest.class.getResource("/com/sun/xml/ws/client/hello_literal.wsdl");
+    private static final QName SERVICE_NAME = new QName("urn:test", "Hello");
+    private static final QName PORT_NAME = new QName("urn:test", "HelloPort");
+
+    private OperationDispatcher dispatcher;
+
+    @Override
+    protected void setUp() throws Exception {
+        WSDLModel model = RuntimeWSDLParser.parse(WSDL_URL, new StreamSource(WSDL_URL.toExternalForm()),
+                XmlUtil.createDefaultCatalogResolver(), false, null);
+        WSDLPort port = model.getService(SERVICE_NAME).get(PORT_NAME);
+        dispatcher = new OperationDispatcher(port, BindingImpl.create(BindingID.SOAP11_HTTP), null);
+    }
+
+    private static Packet request(String nsUri, String localName) throws Exception {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        Document doc = dbf.newDocumentBuilder().newDocument();
+        Element payload = doc.createElementNS(nsUri, localName);
+        payload.setTextContent("hello");
+        Packet p = new Packet(Messages.createUsingPayload(payload, SOAPVersion.SOAP_11));
+        p.soapAction = "\"urn:test:hello\"";
+        return p;
+    }
+
+    public void testDispatchByPayloadQName() throws Exception {
+        WSDLOperationMapping m = dispatcher.getWSDLOperationMapping(request("urn:test:types", "Hello"));
+        assertEquals(new QName("urn:test", "hello"), m.getOperationName());
+
+        OperationDispatcher.Statistics stats = dispatcher.getStatistics();
+        assertEquals(1, stats.getResolvedCount(OperationDispatcher.Strategy.PAYLOAD_QNAME));
+        assertEquals(0, stats.getResolvedCount(OperationDispatcher.Strategy.SOAP_ACTION));
+        assertEquals(0, stats.getUnresolvedCount());
+    }
+
+    public void testUnknownPayloadIsCountedAsUnresolved() throws Exception {
+        try {
+            dispatcher.getWSDLOperationMapping(request("urn:test:types", "Unknown"));
+            fail("expected DispatchException");
+        } catch (DispatchException expected) {
+        }
+        assertEquals(1, dispatcher.getStatistics().getUnresolvedCount());
+    }
+}
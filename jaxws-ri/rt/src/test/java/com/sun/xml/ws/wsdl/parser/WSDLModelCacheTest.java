@@ -0,0 +1,191 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.wsdl.parser;
+
+import com.sun.xml.ws.api.model.wsdl.WSDLModel;
+import com.sun.xml.ws.util.xml.XmlUtil;
+import junit.framework.TestCase;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.Service;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+public class WSDLModelCacheTest extends TestCase {
+
+    private File wsdl;
+    private long revalidateInterval;
+
+    @Override
+    protected void setUp() throws Exception {
+        wsdl = File.createTempFile("cached", ".wsdl");
+        copy(getClass().getResource("/com/sun/xml/ws/client/hello_literal.wsdl"), wsdl, false);
+        WSDLModelCache.clear();
+        revalidateInterval = WSDLModelCache.revalidateInterval;
+        WSDLModelCache.revalidateInterval = 0;
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        WSDLModelCache.revalidateInterval = revalidateInterval;
+        wsdl.delete();
+    }
+
+    private void change() throws Exception {
+        File copy = File.createTempFile("cached", ".wsdl");
+        try {
+            copy(wsdl.toURI().toURL(), copy, false);
+            copy(copy.toURI().toURL(), wsdl, true);
+        } finally {
+            copy.delete();
+        }
+    }
+
+    private static void copy(URL from, File to, boolean append) throws Exception {
+        InputStream in = from.openStream();
+        OutputStream out = new FileOutputStream(to, append);
+        try {
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            if (append) {
+                out.write("<!-- changed -->".getBytes("UTF-8"));
+            }
+        } finally {
+            in.close();
+            out.close();
+        }
+    }
+
+    private WSDLModel parse() throws Exception {
+        URL url = wsdl.toURI().toURL();
+        return WSDLModelCache.parse(url, new StreamSource(url.toExternalForm()),
+                XmlUtil.createDefaultCatalogResolver(), true, null, Service.class);
+    }
+
+    public void testModelIsReused() throws Exception {
+        long hits = WSDLModelCache.getHits();
+        WSDLModel model = parse();
+        assertSame(model, parse());
+        assertEquals(hits + 1, WSDLModelCache.getHits());
+    }
+
+    public void testChangedWSDLIsParsedAgain() throws Exception {
+        WSDLModel model = parse();
+        change();
+        WSDLModel changed = parse();
+        assertNotSame(model, changed);
+        assertSame(changed, parse());
+    }
+
+    public void testWSDLIsNotCheckedWithinInterval() throws Exception {
+        WSDLModelCache.revalidateInterval = 60000L;
+        WSDLModel model = parse();
+        change();
+        assertSame(model, parse());
+    }
+
+    public void testWSDLIsCheckedThroughResolver() throws Exception {
+        final String location = "http://example.invalid/cached.wsdl";
+        final File other = File.createTempFile("cached", ".wsdl");
+        final File[] target = {wsdl};
+        final int[] resolved = new int[1];
+        EntityResolver resolver = new EntityResolver() {
+            @Override
+            public InputSource resolveEntity(String publicId, String systemId) {
+                if (!location.equals(systemId)) {
+                    return null;
+                }
+                resolved[0]++;
+                return new InputSource(target[0].toURI().toString());
+            }
+        };
+        try {
+            copy(wsdl.toURI().toURL(), other, true);
+            URL url = new URL(location);
+            WSDLModel model = WSDLModelCache.parse(url, new StreamSource(location), resolver, true, null, Service.class);
+            int parsed = resolved[0];
+            assertSame(model, WSDLModelCache.parse(url, new StreamSource(location), resolver, true, null, Service.class));
+            assertTrue(resolved[0] > parsed);
+
+            target[0] = other;
+            assertNotSame(model, WSDLModelCache.parse(url, new StreamSource(location), resolver, true, null, Service.class));
+        } finally {
+            other.delete();
+        }
+    }
+
+    public void testClassLoaderIsNotHeld() throws Exception {
+        ClassLoader loader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        WeakReference<ClassLoader> ref = new WeakReference<ClassLoader>(loader);
+        Thread t = Thread.currentThread();
+        ClassLoader old = t.getContextClassLoader();
+        t.setContextClassLoader(loader);
+        try {
+            parse();
+        } finally {
+            t.setContextClassLoader(old);
+        }
+        loader = null;
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+    }
+
+    public void testStreamIsNotCached() throws Exception {
+        URL url = wsdl.toURI().toURL();
+        StreamSource source = new StreamSource(url.openStream(), url.toExternalForm());
+        WSDLModel model = WSDLModelCache.parse(url, source,
+                XmlUtil.createDefaultCatalogResolver(), true, null, Service.class);
+        assertNotSame(model, parse());
+    }
+}
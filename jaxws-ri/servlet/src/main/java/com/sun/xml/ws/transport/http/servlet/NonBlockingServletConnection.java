@@ -0,0 +1,443 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.servlet;
+
+import com.sun.istack.NotNull;
+import com.sun.xml.ws.developer.PoolingFeature;
+import com.sun.xml.ws.transport.http.HttpAdapter;
+import com.sun.xml.ws.util.Pool;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link ServletConnectionImpl} that reads the request and writes the response
+ * with the non-blocking I/O of Servlet 3.1, so that a slow client doesn't hold
+ * a container thread while its request or response is on the wire.
+ *
+ * <p>
+ * The request body is read by a {@link ReadListener} into chunks taken from a
+ * pool, and only once all of it is there is the request processed. The response
+ * is encoded into pooled chunks too, and written by a {@link WriteListener}
+ * as the client takes it.
+ *
+ * <p>
+ * A request body larger than {@link ServletAdapter#maxRequestSize} is not
+ * buffered: the request is answered with 413 as soon as its size is known.
+ *
+ * <p>
+ * Until {@link #readRequest} succeeds, the connection does blocking I/O just
+ * like {@link ServletConnectionImpl}.
+ *
+ * @see ServletAdapter#nonBlockingIO
+ */
+final class NonBlockingServletConnection extends ServletConnectionImpl {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Idle chunks kept for reuse; those returned beyond this are left to the GC,
+     * so that a burst of large requests doesn't pin their memory for good.
+     */
+    static final int MAX_IDLE_CHUNKS = 256;
+
+    static final Pool<byte[]> CHUNKS = new Pool<byte[]>(
+            new PoolingFeature(MAX_IDLE_CHUNKS, PoolingFeature.DEFAULT_FAST_SLOTS)) {
+        @Override
+        protected byte[] create() {
+            return new byte[CHUNK_SIZE];
+        }
+    };
+
+    private boolean blocking = true;
+    private final Chunks requestBody = new Chunks();
+    private ChunksInputStream in;
+    private Chunks responseBody;
+    private ChunksOutputStream out;
+    private boolean written;
+    private HttpAdapter.CompletionCallback writeCallback;
+    private boolean rejected;
+
+    NonBlockingServletConnection(@NotNull ServletAdapter adapter, ServletContext context, HttpServletRequest request, HttpServletResponse response) {
+        super(adapter, context, request, response);
+    }
+
+    /**
+     * Reads the request body without blocking, then runs the task.
+     *
+     * @param task
+     *      processes the request, on the container thread that read the last of it.
+     * @param maxSize
+     *      largest request body, in bytes, that is read; a larger one is
+     *      answered with 413.
+     * @param onError
+     *      called instead of the task when the request can't be read, or once
+     *      it has been answered with 413.
+     * @return
+     *      false if the container doesn't support non-blocking reads; the
+     *      connection then keeps doing blocking I/O and the task doesn't run.
+     */
+    boolean readRequest(final Runnable task, final int maxSize, final HttpAdapter.CompletionCallback onError) throws IOException {
+        if (getRequest().getContentLength() > maxSize) {
+            reject(onError);
+            return true;
+        }
+        final ServletInputStream is = getRequest().getInputStream();
+        ReadListener listener = new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (!rejected && is.isReady()) {
+                    byte[] chunk = requestBody.tail();
+                    int n = is.read(chunk, requestBody.tailLength, CHUNK_SIZE - requestBody.tailLength);
+                    if (n < 0) {
+                        return;
+                    }
+                    requestBody.advance(n);
+                    if (requestBody.size > maxSize) {
+                        // chunked, or lying about its Content-Length
+                        reject(onError);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                if (!rejected) {
+                    task.run();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (rejected) {
+                    return;
+                }
+                LOGGER.log(Level.FINE, "Error reading request of " + getRequestURI(), t);
+                requestBody.release();
+                onError.onCompletion();
+            }
+        };
+        blocking = false;
+        try {
+            is.setReadListener(listener);
+        } catch (Throwable t) {
+            // the loaded Servlet API is 3.1, but the impl is not, ending up as AbstractMethodError
+            LOGGER.log(Level.INFO, is.getClass().getName() + " does not support non-blocking reads, continuing with blocking I/O", t);
+            blocking = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Answers a request whose body is too large with 413, without reading the rest of it.
+     */
+    private void reject(HttpAdapter.CompletionCallback onError) {
+        LOGGER.log(Level.FINE, "Request body of {0} is too large", getRequestURI());
+        rejected = true;
+        requestBody.release();
+        HttpServletResponse response = getResponse();
+        if (!response.isCommitted()) {
+            response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            response.setHeader("Connection", "close");
+            response.setContentLength(0);
+        }
+        onError.onCompletion();
+    }
+
+    /**
+     * Runs the callback once the response is written, or failed to be.
+     *
+     * <p>
+     * The response is written as soon as its stream is closed, which for a
+     * one-way request may be well before the request is processed.
+     */
+    void whenResponseWritten(@NotNull HttpAdapter.CompletionCallback callback) throws IOException {
+        if (!blocking && out != null) {
+            // starts writing, unless the response was closed already
+            out.close();
+            synchronized (this) {
+                if (!written) {
+                    writeCallback = callback;
+                    return;
+                }
+            }
+        }
+        callback.onCompletion();
+    }
+
+    /**
+     * Writes the buffered response without blocking.
+     */
+    private void writeResponse() throws IOException {
+        HttpServletResponse response = getResponse();
+        final ServletOutputStream os;
+        try {
+            setResponseStatusAndHeaders();
+            response.setContentLength(responseBody.size);
+            os = response.getOutputStream();
+            os.setWriteListener(new WriteListener() {
+                private int index;
+                private boolean done;
+
+                @Override
+                public void onWritePossible() throws IOException {
+                    while (!done && os.isReady()) {
+                        if (index == responseBody.chunks.size()) {
+                            // the chunks go back to the pool, so they must not be written again
+                            done = true;
+                            written();
+                            return;
+                        }
+                        os.write(responseBody.chunks.get(index), 0, responseBody.length(index));
+                        index++;
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    LOGGER.log(Level.FINE, "Error writing response of " + getRequestURI(), t);
+                    written();
+                }
+            });
+        } catch (IllegalStateException e) {
+            // the request timed out meanwhile
+            LOGGER.log(Level.FINE, "Cannot write response of " + getRequestURI(), e);
+            written();
+        }
+    }
+
+    private void written() {
+        HttpAdapter.CompletionCallback callback;
+        synchronized (this) {
+            if (written) {
+                return;
+            }
+            written = true;
+            callback = writeCallback;
+            writeCallback = null;
+        }
+        responseBody.release();
+        if (callback != null) {
+            callback.onCompletion();
+        }
+    }
+
+    @Override
+    public @NotNull InputStream getInput() throws IOException {
+        if (blocking) {
+            return super.getInput();
+        }
+        if (in == null) {
+            in = new ChunksInputStream(requestBody);
+        }
+        return in;
+    }
+
+    @Override
+    public @NotNull OutputStream getOutput() throws IOException {
+        if (blocking) {
+            return super.getOutput();
+        }
+        if (out == null) {
+            responseBody = new Chunks();
+            out = new ChunksOutputStream();
+        }
+        return out;
+    }
+
+    /**
+     * Bytes kept in pooled chunks, all of them full but the last one.
+     */
+    private static final class Chunks {
+        final List<byte[]> chunks = new ArrayList<byte[]>();
+        /**
+         * Bytes used in the last chunk.
+         */
+        int tailLength = CHUNK_SIZE;
+        int size;
+
+        /**
+         * The last chunk, a new one if the last one is full.
+         */
+        byte[] tail() {
+            if (tailLength == CHUNK_SIZE) {
+                chunks.add(CHUNKS.take());
+                tailLength = 0;
+            }
+            return chunks.get(chunks.size() - 1);
+        }
+
+        void advance(int n) {
+            tailLength += n;
+            size += n;
+        }
+
+        int length(int index) {
+            return index == chunks.size() - 1 ? tailLength : CHUNK_SIZE;
+        }
+
+        void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                byte[] chunk = tail();
+                int n = Math.min(len, CHUNK_SIZE - tailLength);
+                System.arraycopy(b, off, chunk, tailLength, n);
+                advance(n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        /**
+         * Returns the chunks to the pool.
+         */
+        void release() {
+            for (byte[] chunk : chunks) {
+                CHUNKS.recycle(chunk);
+            }
+            chunks.clear();
+            tailLength = CHUNK_SIZE;
+            size = 0;
+        }
+    }
+
+    /**
+     * Reads the request body. Closing it returns the chunks to the pool,
+     * after which it reads nothing more.
+     */
+    private static final class ChunksInputStream extends InputStream {
+        private Chunks chunks;
+        private int index;
+        private int pos;
+
+        ChunksInputStream(Chunks chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (chunks != null && index < chunks.chunks.size()) {
+                if (pos < chunks.length(index)) {
+                    return chunks.chunks.get(index)[pos++] & 0xff;
+                }
+                index++;
+                pos = 0;
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (chunks != null && index < chunks.chunks.size()) {
+                int available = chunks.length(index) - pos;
+                if (available > 0) {
+                    int n = Math.min(len, available);
+                    System.arraycopy(chunks.chunks.get(index), pos, b, off, n);
+                    pos += n;
+                    return n;
+                }
+                index++;
+                pos = 0;
+            }
+            return -1;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (chunks == null || index >= chunks.chunks.size()) {
+                return 0;
+            }
+            return chunks.length(index) - pos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (chunks != null) {
+                chunks.release();
+                chunks = null;
+            }
+        }
+    }
+
+    /**
+     * Buffers the response body, and starts writing it once closed.
+     */
+    private final class ChunksOutputStream extends OutputStream {
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            byte[] chunk = responseBody.tail();
+            chunk[responseBody.tailLength] = (byte) b;
+            responseBody.advance(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            responseBody.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                writeResponse();
+            }
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(NonBlockingServletConnection.class.getName());
+}
@@ -180,6 +180,10 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
      * When run in async mode, this method returns immediately. The response is delayed until the application is ready with the response or
      *  the corresponding asynchronous operation times out. The CompletionCallback is guaranteed to run after response is committed..
      *
+     * <p>
+     * With {@link #nonBlockingIO} on, async requests read their body and write their response
+     * without blocking, see {@link NonBlockingServletConnection}.
+     *
      * @param context Servlet Context
      * @param request Servlet Request
      * @param response Servlet Response
@@ -189,7 +193,9 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
     public void invokeAsync(ServletContext context, HttpServletRequest request, HttpServletResponse response, final CompletionCallback callback) throws IOException {
         boolean asyncStarted = false;
         try {
-            WSHTTPConnection connection = new ServletConnectionImpl(this, context, request, response);
+            WSHTTPConnection connection = nonBlockingIO && isServlet31Based
+                    ? new NonBlockingServletConnection(this, context, request, response)
+                    : new ServletConnectionImpl(this, context, request, response);
             if (handleGet(connection)) {
                 return;
             }
@@ -209,7 +215,7 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
                 final AsyncCompletionCheck completionCheck = new AsyncCompletionCheck();
                 new WSAsyncListener(connection, callback).addListenerTo(asyncContext,completionCheck);
                 //asyncContext.setTimeout(10000L);// TODO get it from @ or config file
-                super.invokeAsync(connection, new CompletionCallback() {
+                CompletionCallback complete = new CompletionCallback() {
                     @Override
                     public void onCompletion() {
                         synchronized (completionCheck) {
@@ -219,7 +225,12 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
                             }
                         }
                     }
-                });
+                };
+                if (connection instanceof NonBlockingServletConnection) {
+                    invokeNonBlocking((NonBlockingServletConnection) connection, completionCheck, complete);
+                } else {
+                    super.invokeAsync(connection, complete);
+                }
                 asyncStarted = true;
             } else {
                 super.handle(connection);
@@ -231,6 +242,48 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
         }
     }
 
+    /**
+     * Processes the request once its body is read without blocking, and completes
+     * the async request once the response is written without blocking.
+     */
+    private void invokeNonBlocking(final NonBlockingServletConnection connection,
+                                   final AsyncCompletionCheck completionCheck,
+                                   final CompletionCallback complete) throws IOException {
+        final CompletionCallback processed = new CompletionCallback() {
+            @Override
+            public void onCompletion() {
+                try {
+                    if (completionCheck.isCompleted()) {
+                        return;     // timed out, the container has completed the request
+                    }
+                    connection.whenResponseWritten(complete);
+                } catch (IOException e) {
+                    LOGGER.log(Level.SEVERE, e.getMessage(), e);
+                    complete.onCompletion();
+                }
+            }
+        };
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ServletAdapter.super.invokeAsync(connection, processed);
+                } catch (Throwable t) {
+                    LOGGER.log(Level.SEVERE, "caught throwable", t);
+                    if (!connection.getResponse().isCommitted()) {
+                        connection.getResponse().setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    }
+                    complete.onCompletion();
+                }
+            }
+        };
+        if (!connection.readRequest(task, maxRequestSize, complete)) {
+            //Continue with blocking I/O and don't try non-blocking I/O for further requests
+            isServlet31Based = false;
+            super.invokeAsync(connection, complete);
+        }
+    }
+
     /**
      * Synchronizes the CompletionHandler action and Container's timeout action.
      */
@@ -268,4 +321,42 @@ public class ServletAdapter extends HttpAdapter implements BoundEndpoint {
 
     private boolean isServlet30Based = ServletUtil.isServlet30Based();
 
+    private boolean isServlet31Based = ServletUtil.isServlet31Based();
+
+    /**
+     * Read the body of async requests and write their response with the non-blocking
+     * I/O of Servlet 3.1, so that slow clients don't hold container threads. The
+     * request and the response are then buffered in memory.
+     *
+     * Off by default.
+     */
+    public static volatile boolean nonBlockingIO = false;
+
+    /**
+     * Largest request body, in bytes, that {@link #nonBlockingIO} buffers in
+     * memory. Larger requests are answered with 413 (Request Entity Too Large).
+     *
+     * 16 MiB by default.
+     */
+    public static volatile int maxRequestSize = 16 * 1024 * 1024;
+
+    static {
+        try {
+            nonBlockingIO = Boolean.getBoolean(ServletAdapter.class.getName() + ".nonBlockingIO");
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {ServletAdapter.class.getName() + ".nonBlockingIO"});
+            }
+        }
+        try {
+            maxRequestSize = Integer.getInteger(ServletAdapter.class.getName() + ".maxRequestSize", maxRequestSize);
+        } catch (SecurityException se) {
+            if (LOGGER.isLoggable(Level.CONFIG)) {
+                LOGGER.log(Level.CONFIG, "Cannot read ''{0}'' property, using defaults.",
+                        new Object[] {ServletAdapter.class.getName() + ".maxRequestSize"});
+            }
+        }
+    }
+
 }
@@ -55,4 +55,15 @@ public class ServletUtil {
         }
         return false;        
     }
+
+    public static boolean isServlet31Based() {
+        try {
+            Class.forName("javax.servlet.ReadListener");
+            //no exception
+            return true;
+        } catch (Throwable t) {
+            // Not Servlet 3.1 API
+        }
+        return false;
+    }
 }
@@ -122,5 +122,7 @@ public class WSServlet extends HttpServlet {
         "com.sun.xml.ws.server.http.publishWSDL";
     public static final String JAXWS_RI_PROPERTY_PUBLISH_STATUS_PAGE =
         "com.sun.xml.ws.server.http.publishStatusPage";
+    public static final String JAXWS_RI_PROPERTY_PARALLEL_DEPLOYMENT =
+        "com.sun.xml.ws.server.http.parallelDeployment";
 
 }
@@ -128,6 +128,10 @@ public final class WSServletContextListener
             // Parse the descriptor file and build endpoint infos
             DeploymentDescriptorParser<ServletAdapter> parser = new DeploymentDescriptorParser<ServletAdapter>(
                 classLoader,new ServletResourceLoader(context), createContainer(context), new ServletAdapterList(context));
+            String parallelParam = context.getInitParameter(WSServlet.JAXWS_RI_PROPERTY_PARALLEL_DEPLOYMENT);
+            if (parallelParam != null) {
+                parser.setParallel(Boolean.parseBoolean(parallelParam));
+            }
             adapters = parser.parse(sunJaxWsXml.toExternalForm(), sunJaxWsXml.openStream());
             registerWSServlet(adapters, context);
             delegate = createDelegate(adapters, context);
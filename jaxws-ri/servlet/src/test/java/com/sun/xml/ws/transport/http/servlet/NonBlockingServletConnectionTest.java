@@ -0,0 +1,404 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.http.servlet;
+
+import com.sun.xml.ws.transport.http.HttpAdapter;
+import com.sun.xml.ws.util.Pool;
+
+import junit.framework.TestCase;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drives the {@link ReadListener} and {@link WriteListener} of
+ * {@link NonBlockingServletConnection} the way a Servlet 3.1 container would.
+ */
+public class NonBlockingServletConnectionTest extends TestCase {
+
+    private static final int MAX_SIZE = 64 * 1024;
+
+    private Input in;
+    private Output out;
+    private int contentLength;
+    private boolean timedOut;
+    private int status;
+    private final Map<String, String> headers = new HashMap<String, String>();
+    private final List<Integer> contentLengths = new ArrayList<Integer>();
+    private Counter task;
+    private Counter onError;
+    private NonBlockingServletConnection connection;
+
+    @Override
+    protected void setUp() throws Exception {
+        in = new Input();
+        out = new Output();
+        contentLength = -1;
+        task = new Counter();
+        onError = new Counter();
+        connection = new NonBlockingServletConnection(null, null, request(), response());
+    }
+
+    public void testReadsTheBodyAsItArrives() throws Exception {
+        byte[] body = bytes(20000);
+        assertTrue(connection.readRequest(task, MAX_SIZE, onError));
+        assertNotNull(in.listener);
+
+        in.arrive(Arrays.copyOfRange(body, 0, 5000));
+        in.listener.onDataAvailable();
+        in.arrive(Arrays.copyOfRange(body, 5000, body.length));
+        in.listener.onDataAvailable();
+        assertEquals(0, task.count);
+
+        in.listener.onAllDataRead();
+        assertEquals(1, task.count);
+        assertEquals(0, onError.count);
+        assertTrue(Arrays.equals(body, readFully(connection.getInput())));
+    }
+
+    public void testWritesTheResponseAsTheClientTakesIt() throws Exception {
+        readEmptyRequest();
+        byte[] body = bytes(30000);
+        connection.setStatus(HttpServletResponse.SC_OK);
+        OutputStream os = connection.getOutput();
+        os.write(body, 0, 100);
+        os.write(body[100]);
+        os.write(body, 101, body.length - 101);
+
+        Counter written = new Counter();
+        out.ready = false;
+        connection.whenResponseWritten(written);
+        assertNotNull(out.listener);
+        assertEquals(HttpServletResponse.SC_OK, status);
+        assertEquals(Arrays.asList(body.length), contentLengths);
+
+        out.listener.onWritePossible();
+        assertEquals(0, written.count);
+        out.ready = true;
+        out.listener.onWritePossible();
+        assertEquals(1, written.count);
+        assertTrue(Arrays.equals(body, out.bytes.toByteArray()));
+
+        out.listener.onWritePossible();
+        assertEquals(1, written.count);
+    }
+
+    public void testReadError() throws Exception {
+        assertTrue(connection.readRequest(task, MAX_SIZE, onError));
+        in.arrive(bytes(10000));
+        in.listener.onDataAvailable();
+        in.listener.onError(new IOException("connection reset"));
+        assertEquals(1, onError.count);
+        assertEquals(0, task.count);
+        assertEquals(-1, connection.getInput().read());
+    }
+
+    public void testWriteError() throws Exception {
+        readEmptyRequest();
+        connection.getOutput().write(bytes(100));
+        Counter written = new Counter();
+        out.ready = false;
+        connection.whenResponseWritten(written);
+        out.listener.onError(new IOException("broken pipe"));
+        assertEquals(1, written.count);
+        out.listener.onError(new IOException("broken pipe"));
+        assertEquals(1, written.count);
+    }
+
+    public void testTimedOutBeforeTheResponseIsWritten() throws Exception {
+        readEmptyRequest();
+        connection.getOutput().write(bytes(100));
+        timedOut = true;
+        Counter written = new Counter();
+        connection.whenResponseWritten(written);
+        assertNull(out.listener);
+        assertEquals(1, written.count);
+    }
+
+    public void testResponseClosedBeforeProcessingEnds() throws Exception {
+        readEmptyRequest();
+        // one-way request: the response is written as soon as it is closed
+        connection.getOutput().close();
+        out.listener.onWritePossible();
+        Counter written = new Counter();
+        connection.whenResponseWritten(written);
+        assertEquals(1, written.count);
+    }
+
+    public void testContentLengthTooLarge() throws Exception {
+        contentLength = MAX_SIZE + 1;
+        assertTrue(connection.readRequest(task, MAX_SIZE, onError));
+        assertNull(in.listener);
+        assertEquals(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, status);
+        assertEquals("close", headers.get("Connection"));
+        assertEquals(1, onError.count);
+        assertEquals(0, task.count);
+    }
+
+    public void testChunkedBodyTooLarge() throws Exception {
+        assertTrue(connection.readRequest(task, MAX_SIZE, onError));
+        in.arrive(bytes(MAX_SIZE));
+        in.listener.onDataAvailable();
+        assertEquals(0, onError.count);
+
+        in.arrive(bytes(10000));
+        in.listener.onDataAvailable();
+        assertEquals(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, status);
+        assertEquals(1, onError.count);
+        assertTrue("stops reading", in.available() > 0);
+
+        in.listener.onDataAvailable();
+        in.listener.onAllDataRead();
+        in.listener.onError(new IOException("connection closed"));
+        assertEquals(1, onError.count);
+        assertEquals(0, task.count);
+    }
+
+    public void testChunkPoolIsBounded() {
+        Pool.Statistics statistics = NonBlockingServletConnection.CHUNKS.getStatistics();
+        assertNotNull(statistics);
+        assertEquals(NonBlockingServletConnection.MAX_IDLE_CHUNKS, statistics.getMaxSize());
+
+        List<byte[]> chunks = new ArrayList<byte[]>();
+        for (int i = 0; i < 2 * NonBlockingServletConnection.MAX_IDLE_CHUNKS; i++) {
+            chunks.add(NonBlockingServletConnection.CHUNKS.take());
+        }
+        long discarded = statistics.getDiscardCount();
+        for (byte[] chunk : chunks) {
+            NonBlockingServletConnection.CHUNKS.recycle(chunk);
+        }
+        assertTrue(statistics.getIdleCount() <= NonBlockingServletConnection.MAX_IDLE_CHUNKS);
+        assertTrue(statistics.getDiscardCount() >= discarded + NonBlockingServletConnection.MAX_IDLE_CHUNKS);
+    }
+
+    private void readEmptyRequest() throws IOException {
+        assertTrue(connection.readRequest(task, MAX_SIZE, onError));
+        in.listener.onAllDataRead();
+        assertEquals(1, task.count);
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] b = new byte[length];
+        for (int i = 0; i < length; i++) {
+            b[i] = (byte) (i * 31);
+        }
+        return b;
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buf = new byte[1000];
+        int n;
+        while ((n = is.read(buf)) != -1) {
+            bytes.write(buf, 0, n);
+        }
+        return bytes.toByteArray();
+    }
+
+    private HttpServletRequest request() {
+        return stub(HttpServletRequest.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if (name.equals("getInputStream")) {
+                    return in;
+                } else if (name.equals("getContentLength")) {
+                    return contentLength;
+                } else if (name.equals("getRequestURI")) {
+                    return "/hello";
+                }
+                return defaultValue(method);
+            }
+        });
+    }
+
+    private HttpServletResponse response() {
+        return stub(HttpServletResponse.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if (name.equals("getOutputStream")) {
+                    if (timedOut) {
+                        throw new IllegalStateException("async request timed out");
+                    }
+                    return out;
+                } else if (name.equals("setStatus")) {
+                    status = (Integer) args[0];
+                } else if (name.equals("setContentLength")) {
+                    contentLengths.add((Integer) args[0]);
+                } else if (name.equals("setHeader") || name.equals("addHeader")) {
+                    headers.put((String) args[0], (String) args[1]);
+                }
+                return defaultValue(method);
+            }
+        });
+    }
+
+    private static <T> T stub(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    private static final class Counter implements Runnable, HttpAdapter.CompletionCallback {
+        int count;
+
+        @Override
+        public void run() {
+            count++;
+        }
+
+        @Override
+        public void onCompletion() {
+            count++;
+        }
+    }
+
+    /**
+     * Request body that is available as the test makes it arrive.
+     */
+    private static final class Input extends ServletInputStream {
+        ReadListener listener;
+        private byte[] data = new byte[0];
+        private int pos;
+
+        void arrive(byte[] b) {
+            byte[] rest = Arrays.copyOfRange(data, pos, data.length + b.length);
+            System.arraycopy(b, 0, rest, data.length - pos, b.length);
+            data = rest;
+            pos = 0;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+        @Override
+        public boolean isReady() {
+            return pos < data.length;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            listener = readListener;
+        }
+
+        @Override
+        public int available() {
+            return data.length - pos;
+        }
+
+        @Override
+        public int read() {
+            return pos < data.length ? data[pos++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!isReady()) {
+                throw new IllegalStateException("read while not ready");
+            }
+            int n = Math.min(len, data.length - pos);
+            System.arraycopy(data, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+    }
+
+    /**
+     * Response body that is taken whenever the test says the client is ready.
+     */
+    private static final class Output extends ServletOutputStream {
+        WriteListener listener;
+        boolean ready = true;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            listener = writeListener;
+        }
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (!ready) {
+                throw new IllegalStateException("write while not ready");
+            }
+            bytes.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.pipe.Engine;
+import com.sun.xml.ws.api.pipe.VirtualThreadsFeature;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.transport.local.InVmServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.Dispatch;
+import javax.xml.ws.Response;
+import javax.xml.ws.Service;
+import javax.xml.ws.WebServiceFeature;
+import javax.xml.ws.handler.Handler;
+import javax.xml.ws.handler.LogicalHandler;
+import javax.xml.ws.handler.LogicalMessageContext;
+import javax.xml.ws.handler.MessageContext;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Many concurrent asynchronous {@link Dispatch} calls, with the fibers of the
+ * client run either by the default cached thread pool or by virtual threads
+ * ({@link VirtualThreadsFeature}).
+ *
+ * <p>
+ * The in-VM transport answers on the thread that sends the request, so a
+ * handler that sleeps on the way out stands for the time a blocking transport
+ * holds the thread waiting for the response. With a latency, the cached pool
+ * needs about one platform thread per call in flight.
+ *
+ * <p>
+ * Each operation is one burst of {@link #calls} calls, timed until the last
+ * response arrives. The "virtual" executor needs a JVM with virtual threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AsyncDispatchBenchmark {
+
+    @Param({"cached", "virtual"})
+    public String executor;
+
+    @Param({"10000"})
+    public int calls;
+
+    /**
+     * Milliseconds each call holds its thread in the transport.
+     */
+    @Param({"0", "10"})
+    public int latency;
+
+    private static final String REQUEST =
+            "<ns:echo xmlns:ns='" + Fixtures.NS + "'><arg0>hello</arg0></ns:echo>";
+
+    /**
+     * Each trial deploys its own {@link InVmServer}, and the IDs must not clash.
+     */
+    private static final AtomicInteger SERVER_IDS = new AtomicInteger();
+
+    private InVmServer server;
+    private Dispatch<Source> dispatch;
+
+    @Setup
+    public void setup() throws Exception {
+        WebServiceFeature[] features;
+        if ("virtual".equals(executor)) {
+            if (!Engine.isVirtualThreadSupported()) {
+                throw new IllegalStateException("This JVM has no virtual threads");
+            }
+            features = new WebServiceFeature[] {new VirtualThreadsFeature()};
+        } else {
+            features = new WebServiceFeature[0];
+        }
+
+        WSEndpoint<EchoImpl> endpoint = Fixtures.createEndpoint(BindingID.SOAP11_HTTP);
+        String id = "async" + SERVER_IDS.incrementAndGet();
+        String address = "in-vm://" + id + "/";
+        server = new InVmServer(id, Collections.<WSEndpoint>singletonList(endpoint));
+
+        Service service = Service.create(Fixtures.publishWsdl(endpoint, address),
+                new QName(Fixtures.NS, "EchoService"));
+        dispatch = service.createDispatch(new QName(Fixtures.NS, "EchoPort"), Source.class,
+                Service.Mode.PAYLOAD, features);
+        dispatch.getRequestContext().put(BindingProvider.ENDPOINT_ADDRESS_PROPERTY, address);
+        if (latency > 0) {
+            List<Handler> chain = new ArrayList<Handler>();
+            chain.add(new Latency(latency));
+            dispatch.getBinding().setHandlerChain(chain);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        // also disposes the endpoint
+        server.undeploy();
+    }
+
+    @Benchmark
+    public int invokeAsync() throws Exception {
+        List<Response<Source>> responses = new ArrayList<Response<Source>>(calls);
+        for (int i = 0; i < calls; i++) {
+            responses.add(dispatch.invokeAsync(new StreamSource(new StringReader(REQUEST))));
+        }
+        int n = 0;
+        for (Response<Source> r : responses) {
+            if (r.get() != null) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private static final class Latency implements LogicalHandler<LogicalMessageContext> {
+        private final long millis;
+
+        Latency(long millis) {
+            this.millis = millis;
+        }
+
+        public boolean handleMessage(LogicalMessageContext context) {
+            if (Boolean.TRUE.equals(context.get(MessageContext.MESSAGE_OUTBOUND_PROPERTY))) {
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return true;
+        }
+
+        public boolean handleFault(LogicalMessageContext context) {
+            return true;
+        }
+
+        public void close(MessageContext context) {
+        }
+    }
+}
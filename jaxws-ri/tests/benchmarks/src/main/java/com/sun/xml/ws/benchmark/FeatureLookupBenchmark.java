@@ -0,0 +1,128 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.WSFeatureList;
+import com.sun.xml.ws.api.fastinfoset.FastInfosetFeature;
+import com.sun.xml.ws.api.model.wsdl.WSDLFeaturedObject;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.binding.WebServiceFeatureList;
+import com.sun.xml.ws.developer.StreamingAttachmentFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.Locator;
+
+import javax.xml.ws.WebServiceFeature;
+import javax.xml.ws.soap.AddressingFeature;
+import javax.xml.ws.soap.MTOMFeature;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feature lookups, which tubes and codecs do on every message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeatureLookupBenchmark {
+
+    private WSBinding binding;
+    private WebServiceFeatureList port;
+
+    @Setup
+    public void setup() {
+        binding = BindingImpl.create(BindingID.SOAP11_HTTP,
+                new WebServiceFeature[]{new AddressingFeature(), new MTOMFeature()});
+
+        // like the features of a WSDL port, backed by those of its binding
+        final WebServiceFeatureList bound = new WebServiceFeatureList(new AddressingFeature());
+        port = new WebServiceFeatureList(new MTOMFeature());
+        port.setParentFeaturedObject(new WSDLFeaturedObject() {
+            public <F extends WebServiceFeature> F getFeature(Class<F> featureType) {
+                return bound.get(featureType);
+            }
+
+            public WSFeatureList getFeatures() {
+                return bound;
+            }
+
+            public void addFeature(WebServiceFeature feature) {
+                bound.add(feature);
+            }
+
+            public Locator getLocation() {
+                return null;
+            }
+        });
+    }
+
+    @Benchmark
+    public boolean bindingHit() {
+        return binding.isFeatureEnabled(AddressingFeature.class);
+    }
+
+    @Benchmark
+    public FastInfosetFeature bindingMiss() {
+        return binding.getFeature(FastInfosetFeature.class);
+    }
+
+    @Benchmark
+    public AddressingFeature portParentHit() {
+        return port.get(AddressingFeature.class);
+    }
+
+    @Benchmark
+    public StreamingAttachmentFeature portMiss() {
+        return port.get(StreamingAttachmentFeature.class);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.server.DocumentAddressResolver;
+import com.sun.xml.ws.api.server.PortAddressResolver;
+import com.sun.xml.ws.api.server.SDDocument;
+import com.sun.xml.ws.api.server.ServiceDefinition;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.binding.BindingImpl;
+
+import javax.xml.namespace.QName;
+import javax.xml.ws.WebServiceFeature;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import org.xml.sax.EntityResolver;
+
+/**
+ * Shared set-up code for the benchmarks.
+ */
+final class Fixtures {
+
+    static final String NS = "http://benchmark.ws.xml.sun.com/";
+
+    private Fixtures() {}
+
+    /**
+     * Deploys {@link EchoImpl} in-process, the same way a container would.
+     */
+    static WSEndpoint<EchoImpl> createEndpoint(BindingID bindingId, WebServiceFeature... features) {
+        WSBinding binding = BindingImpl.create(bindingId, features);
+        return WSEndpoint.create(EchoImpl.class, false, null, null, null, null, binding,
+                null, null, (EntityResolver) null, true);
+    }
+
+    /**
+     * Writes the generated WSDL and schemas of the endpoint into a temporary
+     * directory, so that a client proxy can be created against an address
+     * that doesn't serve metadata (such as {@code in-vm://}).
+     *
+     * @return
+     *      the location of the primary WSDL.
+     */
+    static URL publishWsdl(WSEndpoint<?> endpoint, final String address) throws IOException {
+        ServiceDefinition sd = endpoint.getServiceDefinition();
+        File dir = File.createTempFile("jaxws-benchmark", "");
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException("Unable to create " + dir);
+        }
+        dir.deleteOnExit();
+
+        final Map<SDDocument, String> names = new HashMap<SDDocument, String>();
+        for (SDDocument doc : sd) {
+            names.put(doc, "doc" + names.size() + (doc.isWSDL() ? ".wsdl" : ".xsd"));
+        }
+        PortAddressResolver par = new PortAddressResolver() {
+            @Override
+            public String getAddressFor(QName serviceName, String portName) {
+                return address;
+            }
+        };
+        DocumentAddressResolver dar = new DocumentAddressResolver() {
+            public String getRelativeAddressFor(SDDocument current, SDDocument referenced) {
+                return names.get(referenced);
+            }
+        };
+        for (Map.Entry<SDDocument, String> e : names.entrySet()) {
+            File f = new File(dir, e.getValue());
+            f.deleteOnExit();
+            OutputStream os = new FileOutputStream(f);
+            try {
+                e.getKey().writeTo(par, dar, os);
+            } finally {
+                os.close();
+            }
+        }
+        return new File(dir, names.get(sd.getPrimary())).toURI().toURL();
+    }
+
+    /**
+     * {@link OutputStream} that discards everything, so that encoding
+     * benchmarks don't measure buffer growth.
+     */
+    static final class NullOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
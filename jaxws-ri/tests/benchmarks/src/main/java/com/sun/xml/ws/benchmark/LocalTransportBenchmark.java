@@ -0,0 +1,128 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.transport.local.InVmServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.namespace.QName;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.Service;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Full client-to-endpoint round trip over the in-VM transport: proxy
+ * invocation, tubeline, codecs on both sides and endpoint dispatch, without
+ * any network in the way.
+ *
+ * <p>
+ * The "in-vm-direct" scheme hands the messages over without the codecs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalTransportBenchmark {
+
+    @Param({"1", "100"})
+    public int entries;
+
+    @Param({"in-vm", "in-vm-direct"})
+    public String scheme;
+
+    /**
+     * Each trial deploys its own {@link InVmServer}, and the IDs must not clash.
+     */
+    private static final AtomicInteger SERVER_IDS = new AtomicInteger();
+
+    private WSEndpoint<EchoImpl> endpoint;
+    private InVmServer server;
+    private Echo port;
+    private Item item;
+
+    @Setup
+    public void setup() throws Exception {
+        endpoint = Fixtures.createEndpoint(BindingID.SOAP11_HTTP);
+        String id = "benchmark" + SERVER_IDS.incrementAndGet();
+        String address = scheme + "://" + id + "/";
+        server = new InVmServer(id, Collections.<WSEndpoint>singletonList(endpoint));
+
+        Service service = Service.create(Fixtures.publishWsdl(endpoint, address),
+                new QName(Fixtures.NS, "EchoService"));
+        port = service.getPort(new QName(Fixtures.NS, "EchoPort"), Echo.class);
+        ((BindingProvider) port).getRequestContext().put(BindingProvider.ENDPOINT_ADDRESS_PROPERTY, address);
+
+        item = Item.create(entries);
+    }
+
+    @TearDown
+    public void tearDown() {
+        // also disposes the endpoint
+        server.undeploy();
+    }
+
+    @Benchmark
+    public String echo() {
+        return port.echo("hello");
+    }
+
+    @Benchmark
+    public Item echoItem() {
+        return port.echoItem(item);
+    }
+}
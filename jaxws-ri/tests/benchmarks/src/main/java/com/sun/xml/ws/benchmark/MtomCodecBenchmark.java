@@ -0,0 +1,149 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Attachment;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codec;
+import com.sun.xml.ws.binding.BindingImpl;
+import com.sun.xml.ws.message.ByteArrayAttachment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.WebServiceFeature;
+import javax.xml.ws.soap.MTOMFeature;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MTOM encoding and decoding of a message carrying one large binary
+ * attachment, which is dominated by MIME framing and buffer copies.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class MtomCodecBenchmark {
+
+    private static final String CID = "payload@benchmark.ws.xml.sun.com";
+
+    /**
+     * Attachment size in bytes.
+     */
+    @Param({"1048576", "16777216"})
+    public int size;
+
+    private MTOMFeature mtom;
+    private Codec codec;
+    private byte[] data;
+    private byte[] encoded;
+    private String contentType;
+    private final Fixtures.NullOutputStream out = new Fixtures.NullOutputStream();
+    private final byte[] drain = new byte[8192];
+
+    @Setup
+    public void setup() throws Exception {
+        mtom = new MTOMFeature(true);
+        codec = BindingImpl.create(BindingID.SOAP11_HTTP, new WebServiceFeature[]{mtom}).createCodec();
+        data = new byte[size];
+        new Random(42).nextBytes(data);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(size + 4096);
+        contentType = codec.encode(createRequest(), baos).getContentType();
+        encoded = baos.toByteArray();
+    }
+
+    private Packet createRequest() {
+        Message m = Messages.createUsingPayload(new StreamSource(new StringReader(
+                "<ns:upload xmlns:ns='" + Fixtures.NS + "'><data>"
+                + "<xop:Include xmlns:xop='http://www.w3.org/2004/08/xop/include' href='cid:" + CID + "'/>"
+                + "</data></ns:upload>")), SOAPVersion.SOAP_11);
+        m.getAttachments().add(new ByteArrayAttachment(CID, data, "application/octet-stream"));
+        Packet p = new Packet(m);
+        p.setState(Packet.State.ClientRequest);
+        p.setMtomFeature(mtom);
+        return p;
+    }
+
+    @Benchmark
+    public long encode() throws Exception {
+        codec.encode(createRequest(), out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long decode() throws Exception {
+        Packet p = new Packet();
+        codec.decode(new ByteArrayInputStream(encoded), contentType, p);
+        Attachment a = p.getMessage().getAttachments().get(CID);
+        long total = 0;
+        InputStream in = a.asInputStream();
+        try {
+            int n;
+            while ((n = in.read(drain)) != -1) {
+                total += n;
+            }
+        } finally {
+            in.close();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.benchmark;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.Codecs;
+import com.sun.xml.ws.api.pipe.StreamSOAPCodec;
+import com.sun.xml.ws.binding.WebServiceFeatureList;
+import com.sun.xml.ws.message.jaxb.JAXBMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.bind.JAXBContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of SOAP envelopes by the plain XML {@link StreamSOAPCodec}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamCodecBenchmark {
+
+    @Param({"SOAP_11", "SOAP_12"})
+    public SOAPVersion soapVersion;
+
+    /**
+     * Number of entries in the payload.
+     */
+    @Param({"1", "100", "1000"})
+    public int entries;
+
+    private StreamSOAPCodec codec;
+    private JAXBContext context;
+    private Item item;
+    private byte[] envelope;
+    private String contentType;
+    private final Fixtures.NullOutputStream out = new Fixtures.NullOutputStream();
+
+    @Setup
+    public void setup() throws Exception {
+        codec = Codecs.createSOAPEnvelopeXmlCodec(new WebServiceFeatureList(soapVersion.toFeature()));
+        context = JAXBContext.newInstance(Item.class);
+        item = Item.create(entries);
+
+        Packet p = new Packet(JAXBMessage.create(context, item, soapVersion));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        contentType = codec.encode(p, baos).getContentType();
+        envelope = baos.toByteArray();
+    }
+
+    @Benchmark
+    public long encode() throws Exception {
+        Packet p = new Packet(JAXBMessage.create(context, item, soapVersion));
+        codec.encode(p, out);
+        return out.count;
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        Packet p = new Packet();
+        codec.decode(new ByteArrayInputStream(envelope), contentType, p);
+        Message m = p.getMessage();
+        return m.readPayloadAsJAXB(context.createUnmarshaller());
+    }
+}
@@ -105,6 +105,11 @@ public class WsgenOptions extends Options {
      */
     public boolean doNotOverWrite;
 
+    /**
+     * -XruntimeIndex
+     */
+    public boolean runtimeIndex;
+
     /**
      * Tells if user specified a specific protocol
      */
@@ -186,6 +191,9 @@ public class WsgenOptions extends Options {
         } else if (args[i].equals("-Xdonotoverwrite")) {
             doNotOverWrite = true;
             return 1;
+        } else if (args[i].equals("-XruntimeIndex")) {
+            runtimeIndex = true;
+            return 1;
         } else if (args[i].equals("-inlineSchemas")) {
             inlineSchemas = true;
             return 1;
@@ -231,6 +239,9 @@ public class WsgenOptions extends Options {
         if (inlineSchemas && !genWsdl) {
             throw new BadCommandLineException(WscompileMessages.WSGEN_INLINE_SCHEMAS_ONLY_WITH_WSDL());
         }
+        if (runtimeIndex && (!genWsdl || inlineSchemas || !externalMetadataFiles.isEmpty())) {
+            throw new BadCommandLineException(WscompileMessages.WSGEN_RUNTIME_INDEX_ONLY_WITH_WSDL());
+        }
 
         validateEndpointClass();
         validateArguments();
@@ -60,6 +60,7 @@ import com.sun.xml.ws.api.wsdl.writer.WSDLGeneratorExtension;
 import com.sun.xml.ws.binding.WebServiceFeatureList;
 import com.sun.xml.ws.model.ExternalMetadataReader;
 import com.sun.xml.ws.model.AbstractSEIModelImpl;
+import com.sun.xml.ws.server.PrecomputedMetadata;
 import com.sun.xml.ws.util.ServiceFinder;
 import org.xml.sax.SAXParseException;
 
@@ -240,6 +241,7 @@ public class WsgenTool {
 
             final File[] wsdlFileName = new File[1]; // used to capture the generated WSDL file.
             final Map<String, File> schemaFiles = new HashMap<String, File>();
+            final List<File> abstractWsdlFiles = new ArrayList<File>();
 
             WSDLGenInfo wsdlGenInfo = new WSDLGenInfo();
             wsdlGenInfo.setSecureXmlProcessingDisabled(disableXmlSecurity);
@@ -279,7 +281,9 @@ public class WsgenTool {
 
                         @Override
                         public Result getAbstractWSDL(Holder<String> filename) {
-                            return toResult(toFile(filename.value));
+                            File f = toFile(filename.value);
+                            abstractWsdlFiles.add(f);
+                            return toResult(f);
                         }
 
                         @Override
@@ -289,11 +293,26 @@ public class WsgenTool {
                         // TODO pass correct impl's class name
                     });
 
+            WSDLGeneratorExtension[] extensions = ServiceFinder.find(WSDLGeneratorExtension.class).toArray();
             wsdlGenInfo.setContainer(container);
-            wsdlGenInfo.setExtensions(ServiceFinder.find(WSDLGeneratorExtension.class).toArray());
+            wsdlGenInfo.setExtensions(extensions);
             wsdlGenInfo.setInlineSchemas(options.inlineSchemas);
             rt.generateWSDL(wsdlGenInfo);
 
+            if (options.runtimeIndex) {
+                AbstractSEIModelImpl model = (AbstractSEIModelImpl) rt.getModel();
+                List<File> documents = new ArrayList<File>();
+                documents.addAll(abstractWsdlFiles);
+                documents.addAll(schemaFiles.values());
+                try {
+                    PrecomputedMetadata.write(options.destDir, model, model.getWSBinding(), extensions,
+                            wsdlFileName[0], documents);
+                } catch (IOException e) {
+                    errReceiver.error(e);
+                    return false;
+                }
+            }
+
 
             if (options.wsgenReport != null)
                 generateWsgenReport(endpointClass, (AbstractSEIModelImpl) rt.getModel(), wsdlFileName[0], schemaFiles);
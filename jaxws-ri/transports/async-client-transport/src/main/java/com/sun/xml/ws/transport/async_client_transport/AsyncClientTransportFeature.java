@@ -41,6 +41,9 @@
 package com.sun.xml.ws.transport.async_client_transport;
 
 import javax.xml.ws.WebServiceFeature;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * @author Rama.Pulavarthi@sun.com
@@ -52,13 +55,35 @@ public class AsyncClientTransportFeature extends WebServiceFeature{
     public static final String ID = "http://java.sun.com/xml/ns/jaxws/async/client/transport";
     private NonAnonymousResponsesReceiver receiver;
     private String nonanonAddress;
+    private long responseTimeout;
+    private int maxPendingResponses;
+    private final List<ResponseCorrelator> correlators = new CopyOnWriteArrayList<ResponseCorrelator>();
 
     public AsyncClientTransportFeature() {
         this(null,null);
     }
     public AsyncClientTransportFeature(String nonanonAddress, NonAnonymousResponsesReceiver receiver) {
+        this(nonanonAddress, receiver, 0, 0);
+    }
+
+    /**
+     * @param receiver
+     *      receiver of the responses, which may be shared by several ports;
+     *      if null, the port publishes its own endpoint at {@code nonanonAddress}.
+     * @param responseTimeout
+     *      milliseconds a request waits for its response before it fails,
+     *      0 to wait until the port is closed.
+     * @param maxPendingResponses
+     *      maximum number of requests of the port waiting for their response
+     *      at a time, 0 for no limit. Requests above it fail right away.
+     * @see ResponseCorrelator
+     */
+    public AsyncClientTransportFeature(String nonanonAddress, NonAnonymousResponsesReceiver receiver,
+                                       long responseTimeout, int maxPendingResponses) {
         this.receiver = receiver;
         this.nonanonAddress = nonanonAddress;
+        this.responseTimeout = responseTimeout;
+        this.maxPendingResponses = maxPendingResponses;
     }
 
     public NonAnonymousResponsesReceiver getReceiver() {
@@ -77,4 +102,29 @@ public class AsyncClientTransportFeature extends WebServiceFeature{
         return nonanonAddress;
     }
 
+    public long getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    public int getMaxPendingResponses() {
+        return maxPendingResponses;
+    }
+
+    /**
+     * Correlators of the open ports created with this feature, one per port.
+     * Their counters tell how many requests wait for their response, and how
+     * many were answered, timed out or rejected so far.
+     */
+    public List<ResponseCorrelator> getCorrelators() {
+        return Collections.unmodifiableList(correlators);
+    }
+
+    void addCorrelator(ResponseCorrelator correlator) {
+        correlators.add(correlator);
+    }
+
+    void removeCorrelator(ResponseCorrelator correlator) {
+        correlators.remove(correlator);
+    }
+
 }
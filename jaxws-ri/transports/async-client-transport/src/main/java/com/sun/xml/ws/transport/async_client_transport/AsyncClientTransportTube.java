@@ -58,7 +58,7 @@ import com.sun.xml.ws.binding.BindingImpl;
 import com.sun.istack.NotNull;
 
 import javax.xml.stream.XMLStreamWriter;
-import java.util.*;
+import javax.xml.ws.WebServiceException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -68,7 +68,8 @@ import java.util.logging.Logger;
 public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
     WSBinding binding;
     NonAnonymousResponsesReceiver<Message> responseReceiver;
-    RINonAnonymousResponseHandler nonAnonHandler;
+    AsyncClientTransportFeature feature;
+    ResponseCorrelator correlator;
     RequestSender requestSender;
     AddressingVersion addrVersion;
     WSEndpointReference nonAnonymousEPR;
@@ -88,8 +89,11 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
                 responseReceiver = nonanonftr.getReceiver();
             }
         }
-        nonAnonHandler = new RINonAnonymousResponseHandler();
-        responseReceiver.register(nonAnonHandler);
+        correlator = new ResponseCorrelator(addrVersion, binding.getSOAPVersion(),
+                nonanonftr.getResponseTimeout(), nonanonftr.getMaxPendingResponses());
+        responseReceiver.register(correlator);
+        feature = nonanonftr;
+        feature.addCorrelator(correlator);
         requestSender = new RequestSender(toString(), next);
         nonAnonymousEPR = new WSEndpointReference(responseReceiver.getAddress(), binding.getAddressingVersion());
         nonAnonymousHeader = nonAnonymousEPR.createHeader(binding.getAddressingVersion().replyToTag);
@@ -99,7 +103,8 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
     protected AsyncClientTransportTube(AsyncClientTransportTube that, TubeCloner cloner) {
         super(that, cloner);
         this.binding = that.binding;
-        this.nonAnonHandler = that.nonAnonHandler;
+        this.feature = that.feature;
+        this.correlator = that.correlator;
         this.responseReceiver = that.responseReceiver;
         this.requestSender = that.requestSender;
         this.nonAnonymousEPR = that.nonAnonymousEPR;
@@ -132,10 +137,20 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
         if (request.expectReply) {
             setNonAnnonymousReplyTo(request.getMessage(), binding.getAddressingVersion(), nonAnonymousHeader);
             String msgId = getMessageId(request.getMessage());
-            nonAnonHandler.addNonAnonymousResponseHandler(msgId, new ClientResponseHandler(request));
+            correlator.register(msgId, new ClientResponseHandler(request));
             LOGGER.log(Level.FINE, "Sending request with message id{0}", msgId);
-            //requestSender.sendAsync(request, new SyncResponseHandler(msgId, nonAnonHandler));
-            requestSender.send(request);
+            Packet backChannel;
+            try {
+                backChannel = requestSender.send(request);
+            } catch (RuntimeException e) {
+                correlator.cancel(msgId);
+                throw e;
+            }
+            Message m = backChannel.getMessage();
+            if (m != null && m.hasPayload() && !correlator.deliver(m) && correlator.cancel(msgId)) {
+                // e.g. a fault, the response won't come to the non-anonymous address
+                return doReturnWith(request.createClientResponse(m));
+            }
             return doSuspend();
         } else {
             //oneway, continue as usual
@@ -160,10 +175,11 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
 
     @Override
     public void preDestroy() {
-        responseReceiver.unregister(nonAnonHandler);
+        responseReceiver.unregister(correlator);
+        feature.removeCorrelator(correlator);
         requestSender.close();
-        nonAnonHandler.cleanUp();
-        nonAnonHandler = null;
+        correlator.cancelAll(new WebServiceException("The port is closed"));
+        correlator = null;
         responseReceiver = null;
         requestSender = null;
 
@@ -214,94 +230,6 @@ public class AsyncClientTransportTube extends AbstractFilterTubeImpl {
 
     }
 
-    class RINonAnonymousResponseHandler implements NonAnonymousResponseHandler<Message> {
-        Map<String, NonAnonymousResponseHandler> waiting = Collections.synchronizedMap(
-                new HashMap<String, NonAnonymousResponseHandler>());
-
-        public void addNonAnonymousResponseHandler(String msgId, NonAnonymousResponseHandler handler) {
-            waiting.put(msgId, handler);
-        }
-
-        public NonAnonymousResponseHandler remove(String msgId) {
-            return waiting.remove(msgId);
-        }
-
-        public void cleanUp() {
-            waiting.clear();
-        }
-
-        @Override
-        public void onReceive(final @NotNull Message response) {
-            String msgId = getRelatesTo(response);
-            LOGGER.log(Level.FINE, "Received message with id{0}", msgId);
-            if (msgId != null) {
-                final NonAnonymousResponseHandler handler = waiting.remove(msgId);
-                if (handler == null) {
-                    LOGGER.log(Level.WARNING, "Received unexpected message with realtesTo id = {0}", msgId);
-                } else {
-                    handler.onReceive(response);
-                    /*
-                    Thread clientResponseHandlerThread = new Thread(new Runnable() {
-
-                        public void run() {
-                            handler.onReceive(response);
-                        }
-                    }, "Client ResponseHadler Thread for handling response for message id" + msgId);
-
-                    clientResponseHandlerThread.start();
-                    */
-                }
-            } else {
-                LOGGER.warning("Received unexpected message - cannot find key");
-            }
-        }
-
-        @Override
-        public void onError(@NotNull Throwable t) {
-            // no op
-        }
-
-    }
-
-
-    class SyncResponseHandler implements Fiber.CompletionCallback {
-        private final String msgId;
-        private RINonAnonymousResponseHandler nonAnonResponseTracker;
-
-        SyncResponseHandler(String msgId, RINonAnonymousResponseHandler nonAnonResponseTracker) {
-            this.msgId = msgId;
-            this.nonAnonResponseTracker = nonAnonResponseTracker;
-        }
-
-        @Override
-        public void onCompletion(@NotNull Packet response) {
-            Message responseMessage = response.getMessage();
-            if (responseMessage != null) {
-                if (responseMessage.hasPayload()) {
-                    String relatesToId = getRelatesTo(responseMessage);
-                    if (!msgId.equals(relatesToId)) {
-                        LOGGER.log(Level.WARNING, "Received unexpected message for id = {0}with id = {1}", new Object[]{msgId, getMessageId(responseMessage)});
-                    }
-                    NonAnonymousResponseHandler responseHandler = nonAnonResponseTracker.remove(msgId);
-                    if (responseHandler != null) {
-                        responseHandler.onReceive(responseMessage);
-                    }
-
-                }
-            }
-        }
-
-        @Override
-        public void onCompletion(@NotNull Throwable error) {
-            LOGGER.log(Level.WARNING, "Received unexpected error for request with id = {0}", msgId);
-
-            NonAnonymousResponseHandler responseHandler = nonAnonResponseTracker.remove(msgId);
-            if (responseHandler != null) {
-                responseHandler.onError(error);
-            }
-        }
-    }
-
     void setNonAnnonymousReplyTo(Message m, AddressingVersion av, Header nonAnonymousHeader) {
         MessageHeaders headers = m.getHeaders();
         headers.remove(av.replyToTag);
@@ -40,26 +40,59 @@
 
 package com.sun.xml.ws.transport.async_client_transport;
 
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.message.AddressingUtils;
 import com.sun.xml.ws.api.message.Message;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import javax.xml.ws.*;
 import java.util.logging.Logger;
 
 /**
+ * Receives non-anonymous responses on a {@link Provider} endpoint published
+ * at the non-anonymous address.
+ *
+ * <p>
+ * Any number of handlers can register with one receiver, so ports that are
+ * given the same receiver through their {@link AsyncClientTransportFeature}
+ * share one endpoint. The endpoint is published when the first handler
+ * registers and stopped when the last one unregisters. A response goes to
+ * the {@link ResponseCorrelator} that waits for it, found by its
+ * {@code RelatesTo} in an index of the waiting requests of all the correlators,
+ * and to every other kind of handler.
+ *
  * @author Rama.Pulavarthi@sun.com
  */
 public class DefaultNonAnonymousResponseReceiver implements NonAnonymousResponsesReceiver<Message>{
     private Endpoint e;
     private String bindingId;
     private String nonanonAddress;
+    private final List<NonAnonymousResponseHandler<Message>> handlers =
+            new CopyOnWriteArrayList<NonAnonymousResponseHandler<Message>>();
+    /**
+     * Correlators by the message ids of their waiting requests.
+     */
+    final ConcurrentMap<String, ResponseCorrelator> correlators = new ConcurrentHashMap<String, ResponseCorrelator>();
+
     public DefaultNonAnonymousResponseReceiver(String nonanonAddress, String bindingId) {
         this.bindingId = bindingId;
         this.nonanonAddress = nonanonAddress;
     }
 
     @Override
-    public void register(NonAnonymousResponseHandler<Message> nonAnonymousResponseHandler) {
-        e = Endpoint.create(bindingId, new DefaultNonAnonymousEndpoint(nonAnonymousResponseHandler));
+    public synchronized void register(NonAnonymousResponseHandler<Message> nonAnonymousResponseHandler) {
+        handlers.add(nonAnonymousResponseHandler);
+        if (nonAnonymousResponseHandler instanceof ResponseCorrelator) {
+            ((ResponseCorrelator) nonAnonymousResponseHandler).setIndex(correlators);
+        }
+        if (e != null) {
+            return;
+        }
+        e = Endpoint.create(bindingId, new DefaultNonAnonymousEndpoint(this));
         if(nonanonAddress == null) {
             nonanonAddress = NonAnonymousAddressAllocator.getInstance().createNonAnonymousAddress();
 
@@ -68,15 +101,24 @@ public class DefaultNonAnonymousResponseReceiver implements NonAnonymousResponse
         try {
         e.publish(nonanonAddress);
         } catch (Exception ex) {
-//           ex.printStackTrace();
+           handlers.remove(nonAnonymousResponseHandler);
+           if (nonAnonymousResponseHandler instanceof ResponseCorrelator) {
+               ((ResponseCorrelator) nonAnonymousResponseHandler).setIndex(null);
+           }
+           e = null;
            throw new WebServiceException(ex);
         }
     }
 
     @Override
-    public void unregister(NonAnonymousResponseHandler<Message> nonAnonymousResponseHandler) {
-        if (e != null) {
+    public synchronized void unregister(NonAnonymousResponseHandler<Message> nonAnonymousResponseHandler) {
+        handlers.remove(nonAnonymousResponseHandler);
+        if (nonAnonymousResponseHandler instanceof ResponseCorrelator) {
+            ((ResponseCorrelator) nonAnonymousResponseHandler).setIndex(null);
+        }
+        if (e != null && handlers.isEmpty()) {
             e.stop();
+            e = null;
         }
     }
 
@@ -85,21 +127,50 @@ public class DefaultNonAnonymousResponseReceiver implements NonAnonymousResponse
         return nonanonAddress;
     }
 
+    /**
+     * Hands a response to the correlator that waits for it, and to the other handlers.
+     */
+    void receive(Message m) {
+        String relatesTo = getRelatesTo(m);
+        ResponseCorrelator correlator = (relatesTo != null) ? correlators.get(relatesTo) : null;
+        boolean received = correlator != null && correlator.deliver(relatesTo, m);
+        for (NonAnonymousResponseHandler<Message> handler : handlers) {
+            if (!(handler instanceof ResponseCorrelator)) {
+                handler.onReceive(m);
+                received = true;
+            }
+        }
+        if (!received) {
+            LOGGER.log(Level.WARNING, "Received unexpected message with relatesTo id = {0}", relatesTo);
+        }
+    }
+
+    /**
+     * Reads the {@code RelatesTo} of a response, in whichever WS-Addressing version it came.
+     */
+    private static String getRelatesTo(Message m) {
+        for (AddressingVersion av : AddressingVersion.values()) {
+            String relatesTo = AddressingUtils.getRelatesTo(m.getHeaders(), av, m.getSOAPVersion());
+            if (relatesTo != null) {
+                return relatesTo;
+            }
+        }
+        return null;
+    }
+
     @ServiceMode(value= Service.Mode.MESSAGE)
     @WebServiceProvider(serviceName ="RINonAnonService", portName ="RINonAnonPort",targetNamespace ="http://jax-ws//foo")
     private static class DefaultNonAnonymousEndpoint implements Provider<Message> {
-        private NonAnonymousResponseHandler<Message> handler;
+        private final DefaultNonAnonymousResponseReceiver receiver;
 
-        private DefaultNonAnonymousEndpoint(NonAnonymousResponseHandler<Message> handler) {
-            this.handler = handler;
+        private DefaultNonAnonymousEndpoint(DefaultNonAnonymousResponseReceiver receiver) {
+            this.receiver = receiver;
         }
 
         @Override
         public Message invoke(Message m) {
             LOGGER.log(Level.FINE, "Message receieved by{0}", this.getClass());
-            if (handler != null) {
-                handler.onReceive(m);
-            }
+            receiver.receive(m);
             return null;
         }
     }
@@ -0,0 +1,269 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.async_client_transport;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Timer for large numbers of timeouts that mostly get cancelled, such as the
+ * response timeouts of requests.
+ *
+ * <p>
+ * Timeouts are hashed by their deadline into the buckets of a wheel that one
+ * thread advances by one bucket per tick, expiring the timeouts of the bucket
+ * that are due. Scheduling and cancelling only enqueue the timeout, so they
+ * don't contend with each other; the worker thread moves the timeouts into
+ * and out of the wheel. Timeouts expire up to one tick late.
+ *
+ * @see ResponseCorrelator
+ */
+final class HashedTimerWheel {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    /**
+     * A scheduled task.
+     */
+    final class Timeout {
+        private final Runnable task;
+        /**
+         * Nanoseconds from the start of the wheel.
+         */
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        // only accessed by the worker thread
+        private long rounds;
+        private Bucket bucket;
+        private Timeout prev, next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Keeps the task from running.
+         *
+         * @return false if the task already ran or was cancelled.
+         */
+        boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            cancelled.add(this);
+            return true;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LOGGER.log(Level.WARNING, "Timeout task failed", t);
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of the timeouts hashed to one tick of the wheel.
+     */
+    private static final class Bucket {
+        private Timeout head, tail;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            if (head == null) {
+                head = tail = t;
+            } else {
+                tail.next = t;
+                t.prev = tail;
+                tail = t;
+            }
+        }
+
+        Timeout remove(Timeout t) {
+            Timeout next = t.next;
+            if (t.prev != null) {
+                t.prev.next = next;
+            } else {
+                head = next;
+            }
+            if (next != null) {
+                next.prev = t.prev;
+            } else {
+                tail = t.prev;
+            }
+            t.prev = t.next = null;
+            t.bucket = null;
+            return next;
+        }
+
+        void expire(long deadline) {
+            Timeout t = head;
+            while (t != null) {
+                if (t.rounds <= 0 && t.deadline <= deadline) {
+                    Timeout next = remove(t);
+                    t.expire();
+                    t = next;
+                } else {
+                    if (t.rounds > 0) {
+                        t.rounds--;
+                    }
+                    t = t.next;
+                }
+            }
+        }
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTime;
+
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<Timeout>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<Timeout>();
+
+    /**
+     * Ticks elapsed so far. Only accessed by the worker thread.
+     */
+    private long tick;
+
+    /**
+     * @param ticksPerWheel
+     *      number of buckets, rounded up to a power of two.
+     */
+    HashedTimerWheel(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0 || ticksPerWheel <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int n = 1;
+        while (n < ticksPerWheel) {
+            n <<= 1;
+        }
+        this.wheel = new Bucket[n];
+        for (int i = 0; i < n; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = n - 1;
+        this.startTime = System.nanoTime();
+
+        Thread worker = new Thread(new Runnable() {
+            public void run() {
+                work();
+            }
+        }, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Runs the task on the worker thread once the delay has elapsed,
+     * unless the returned {@link Timeout} is cancelled first.
+     * The task is expected to return quickly.
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout t = new Timeout(task, System.nanoTime() - startTime + unit.toNanos(delay));
+        added.add(t);
+        return t;
+    }
+
+    private void work() {
+        for (;;) {
+            long deadline = waitForNextTick();
+            removeCancelled();
+            transferAdded();
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        for (;;) {
+            long current = System.nanoTime() - startTime;
+            long sleep = TimeUnit.NANOSECONDS.toMillis(deadline - current + 999999);
+            if (sleep <= 0) {
+                return current;
+            }
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException e) {
+                // nobody is supposed to interrupt the worker, keep ticking
+            }
+        }
+    }
+
+    private void transferAdded() {
+        Timeout t;
+        while ((t = added.poll()) != null) {
+            if (t.state.get() != PENDING) {
+                continue;
+            }
+            long expiresAt = t.deadline / tickNanos;
+            t.rounds = (expiresAt - tick) / wheel.length;
+            // already due ones go to the current bucket
+            long at = Math.max(expiresAt, tick);
+            wheel[(int) (at & mask)].add(t);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout t;
+        while ((t = cancelled.poll()) != null) {
+            if (t.bucket != null) {
+                t.bucket.remove(t);
+            }
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(HashedTimerWheel.class.getName());
+}
@@ -0,0 +1,329 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.async_client_transport;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.message.AddressingUtils;
+import com.sun.xml.ws.api.message.Message;
+
+import javax.xml.ws.WebServiceException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Correlates the responses received on a non-anonymous address with the
+ * requests waiting for them, by the WS-Addressing {@code RelatesTo} of the
+ * response and the {@code MessageID} of the request.
+ *
+ * <p>
+ * Waiting requests are kept in a concurrent map, so that registering and
+ * correlating requests of different threads don't contend on one lock. A request
+ * that gets no response within the response timeout is removed and failed;
+ * the timeouts are kept by a timer wheel shared by all the correlators, which
+ * makes scheduling and cancelling them cheap. The number of waiting requests
+ * can be capped, in which case requests above the cap are rejected right away.
+ *
+ * <p>
+ * A response is handed to its request exactly once, whether it races with the
+ * timeout of the request or with a duplicate response.
+ *
+ * <p>
+ * The counters of a correlator can be read through
+ * {@link AsyncClientTransportFeature#getCorrelators()}.
+ *
+ * @see AsyncClientTransportFeature
+ * @since 2.3.0
+ */
+public final class ResponseCorrelator implements NonAnonymousResponseHandler<Message> {
+
+    private static final HashedTimerWheel TIMER =
+            new HashedTimerWheel("jaxws-async-client-transport-timer", 100, TimeUnit.MILLISECONDS, 512);
+
+    private final AddressingVersion addressingVersion;
+    private final SOAPVersion soapVersion;
+    private final long responseTimeout;
+    private final int maxPendingResponses;
+
+    private final ConcurrentHashMap<String, Pending> waiting = new ConcurrentHashMap<String, Pending>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    /**
+     * Message ids of the waiting requests of all the correlators that share
+     * a {@link DefaultNonAnonymousResponseReceiver}, so that the receiver finds
+     * the correlator of a response without asking each of them.
+     */
+    private volatile ConcurrentMap<String, ResponseCorrelator> index;
+
+    private final AtomicLong registeredCount = new AtomicLong();
+    private final AtomicLong correlatedCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong unexpectedCount = new AtomicLong();
+
+    /**
+     * A request waiting for its response.
+     */
+    private final class Pending implements Runnable {
+        private final String messageId;
+        private final NonAnonymousResponseHandler<Message> handler;
+        private volatile HashedTimerWheel.Timeout timeout;
+
+        Pending(String messageId, NonAnonymousResponseHandler<Message> handler) {
+            this.messageId = messageId;
+            this.handler = handler;
+        }
+
+        /**
+         * Response timeout.
+         */
+        public void run() {
+            if (claim(this)) {
+                timedOutCount.incrementAndGet();
+                LOGGER.log(Level.FINE, "No response received for message id {0}", messageId);
+                handler.onError(new WebServiceException(
+                        "No response received for message " + messageId + " within " + responseTimeout + " ms"));
+            }
+        }
+    }
+
+    /**
+     * @param responseTimeout
+     *      milliseconds a request waits for its response, 0 to wait until
+     *      the port is closed.
+     * @param maxPendingResponses
+     *      maximum number of requests waiting for their response at a time,
+     *      0 for no limit.
+     */
+    public ResponseCorrelator(@NotNull AddressingVersion addressingVersion, @NotNull SOAPVersion soapVersion,
+                              long responseTimeout, int maxPendingResponses) {
+        this.addressingVersion = addressingVersion;
+        this.soapVersion = soapVersion;
+        this.responseTimeout = responseTimeout;
+        this.maxPendingResponses = maxPendingResponses;
+    }
+
+    /**
+     * Registers a request that waits for its response.
+     *
+     * @throws WebServiceException
+     *      if too many requests are waiting already, or another request
+     *      with the same message id is.
+     */
+    public void register(@NotNull String messageId, @NotNull NonAnonymousResponseHandler<Message> handler) {
+        if (pendingCount.incrementAndGet() > maxPendingResponses && maxPendingResponses > 0) {
+            pendingCount.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            throw new WebServiceException(
+                    "Too many requests waiting for a non-anonymous response: " + maxPendingResponses);
+        }
+        Pending p = new Pending(messageId, handler);
+        if (waiting.putIfAbsent(messageId, p) != null) {
+            pendingCount.decrementAndGet();
+            throw new WebServiceException("A request with message id " + messageId + " is already waiting");
+        }
+        ConcurrentMap<String, ResponseCorrelator> i = index;
+        if (i != null) {
+            i.put(messageId, this);
+        }
+        registeredCount.incrementAndGet();
+        if (responseTimeout > 0) {
+            p.timeout = TIMER.schedule(p, responseTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops waiting for the response of a request, e.g. when it could not be sent.
+     *
+     * @return false if the request was not waiting anymore.
+     */
+    public boolean cancel(@NotNull String messageId) {
+        Pending p = waiting.get(messageId);
+        return p != null && claim(p);
+    }
+
+    /**
+     * Fails all the requests that are waiting, e.g. when the port is closed.
+     */
+    public void cancelAll(@NotNull Throwable cause) {
+        for (Pending p : waiting.values()) {
+            if (claim(p)) {
+                p.handler.onError(cause);
+            }
+        }
+    }
+
+    /**
+     * Removes the request, if nobody else did.
+     */
+    private boolean claim(Pending p) {
+        if (!waiting.remove(p.messageId, p)) {
+            return false;
+        }
+        pendingCount.decrementAndGet();
+        ConcurrentMap<String, ResponseCorrelator> i = index;
+        if (i != null) {
+            i.remove(p.messageId, this);
+        }
+        HashedTimerWheel.Timeout t = p.timeout;
+        if (t != null) {
+            t.cancel();
+        }
+        return true;
+    }
+
+    /**
+     * Hands a response to the request it relates to.
+     *
+     * @return false if no request waits for it.
+     */
+    public boolean deliver(@NotNull Message response) {
+        String relatesTo = AddressingUtils.getRelatesTo(response.getHeaders(), addressingVersion, soapVersion);
+        return relatesTo != null && deliver(relatesTo, response);
+    }
+
+    /**
+     * Hands a response to the request with the given message id.
+     *
+     * @return false if that request doesn't wait for it.
+     */
+    boolean deliver(@NotNull String relatesTo, @NotNull Message response) {
+        Pending p = waiting.get(relatesTo);
+        if (p == null || !claim(p)) {
+            return false;
+        }
+        correlatedCount.incrementAndGet();
+        p.handler.onReceive(response);
+        return true;
+    }
+
+    @Override
+    public void onReceive(@NotNull Message response) {
+        if (!deliver(response)) {
+            unexpected(response);
+        }
+    }
+
+    /**
+     * Records a response that no request waits for, e.g. one
+     * that arrived after the request timed out.
+     */
+    private void unexpected(@NotNull Message response) {
+        unexpectedCount.incrementAndGet();
+        if (LOGGER.isLoggable(Level.WARNING)) {
+            LOGGER.log(Level.WARNING, "Received unexpected message with relatesTo id = {0}",
+                    AddressingUtils.getRelatesTo(response.getHeaders(), addressingVersion, soapVersion));
+        }
+    }
+
+    @Override
+    public void onError(@NotNull Throwable t) {
+        // no op
+    }
+
+    /**
+     * Sets the index of the receiver this correlator registered with,
+     * or clears it when it unregisters.
+     */
+    void setIndex(@Nullable ConcurrentMap<String, ResponseCorrelator> index) {
+        ConcurrentMap<String, ResponseCorrelator> old = this.index;
+        this.index = index;
+        for (String messageId : waiting.keySet()) {
+            if (old != null) {
+                old.remove(messageId, this);
+            }
+            if (index != null) {
+                index.put(messageId, this);
+            }
+        }
+    }
+
+    /**
+     * Number of requests waiting for their response.
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Number of requests registered so far.
+     */
+    public long getRegistered() {
+        return registeredCount.get();
+    }
+
+    /**
+     * Number of responses handed to their request so far.
+     */
+    public long getCorrelated() {
+        return correlatedCount.get();
+    }
+
+    /**
+     * Number of requests failed so far because their response didn't come in time.
+     */
+    public long getTimedOut() {
+        return timedOutCount.get();
+    }
+
+    /**
+     * Number of requests rejected so far because too many were waiting.
+     */
+    public long getRejected() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Number of responses received so far that no request waited for.
+     */
+    public long getUnexpected() {
+        return unexpectedCount.get();
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ResponseCorrelator.class.getName());
+}
@@ -0,0 +1,123 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.async_client_transport;
+
+import com.sun.xml.ws.api.message.Message;
+
+import junit.framework.TestCase;
+
+import javax.xml.ws.soap.SOAPBinding;
+import java.util.concurrent.TimeUnit;
+
+public class DefaultNonAnonymousResponseReceiverTest extends TestCase {
+
+    private DefaultNonAnonymousResponseReceiver receiver;
+    private ResponseCorrelator c1;
+    private ResponseCorrelator c2;
+
+    @Override
+    protected void setUp() throws Exception {
+        receiver = new DefaultNonAnonymousResponseReceiver(null, SOAPBinding.SOAP11HTTP_BINDING);
+        c1 = ResponseCorrelatorTest.correlator(200, 0);
+        c2 = ResponseCorrelatorTest.correlator(0, 0);
+        receiver.register(c1);
+        receiver.register(c2);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        receiver.unregister(c1);
+        receiver.unregister(c2);
+    }
+
+    public void testResponsesGoToTheirCorrelator() {
+        ResponseCorrelatorTest.Handler h1 = new ResponseCorrelatorTest.Handler();
+        ResponseCorrelatorTest.Handler h2 = new ResponseCorrelatorTest.Handler();
+        c1.register("m1", h1);
+        c2.register("m2", h2);
+        assertEquals(2, receiver.correlators.size());
+
+        receiver.receive(ResponseCorrelatorTest.response("m2"));
+        receiver.receive(ResponseCorrelatorTest.response("m1"));
+        assertEquals(1, h1.received.size());
+        assertEquals(1, h2.received.size());
+        assertEquals(1, c1.getCorrelated());
+        assertEquals(1, c2.getCorrelated());
+        assertTrue(receiver.correlators.isEmpty());
+
+        // duplicate
+        receiver.receive(ResponseCorrelatorTest.response("m1"));
+        assertEquals(1, h1.received.size());
+    }
+
+    public void testOtherHandlersGetEveryResponse() {
+        ResponseCorrelatorTest.Handler other = new ResponseCorrelatorTest.Handler();
+        receiver.register(other);
+        try {
+            c1.register("m1", new ResponseCorrelatorTest.Handler());
+            receiver.receive(ResponseCorrelatorTest.response("m1"));
+            receiver.receive(ResponseCorrelatorTest.response("unknown"));
+            assertEquals(2, other.received.size());
+        } finally {
+            receiver.unregister(other);
+        }
+    }
+
+    public void testIndexIsCleanedUpAfterTimeout() throws Exception {
+        ResponseCorrelatorTest.Handler h = new ResponseCorrelatorTest.Handler();
+        c1.register("m1", h);
+        assertSame(c1, receiver.correlators.get("m1"));
+        assertTrue(h.failed.await(5, TimeUnit.SECONDS));
+        assertTrue(receiver.correlators.isEmpty());
+
+        Message late = ResponseCorrelatorTest.response("m1");
+        receiver.receive(late);
+        assertTrue(h.received.isEmpty());
+    }
+
+    public void testUnregisterRemovesTheWaitingRequests() {
+        c2.register("m2", new ResponseCorrelatorTest.Handler());
+        receiver.unregister(c2);
+        assertTrue(receiver.correlators.isEmpty());
+        receiver.register(c2);
+        assertSame(c2, receiver.correlators.get("m2"));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.async_client_transport;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HashedTimerWheelTest extends TestCase {
+
+    /**
+     * 8 buckets of 10 ms, so that a delay of more than 80 ms takes more than
+     * one round of the wheel.
+     */
+    private final HashedTimerWheel wheel = new HashedTimerWheel("test-timer", 10, TimeUnit.MILLISECONDS, 8);
+
+    private static final class Task implements Runnable {
+        final CountDownLatch ran = new CountDownLatch(1);
+        volatile long ranAt;
+
+        public void run() {
+            ranAt = System.nanoTime();
+            ran.countDown();
+        }
+    }
+
+    public void testExpiry() throws Exception {
+        Task task = new Task();
+        long start = System.nanoTime();
+        HashedTimerWheel.Timeout t = wheel.schedule(task, 50, TimeUnit.MILLISECONDS);
+        assertTrue(task.ran.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(task.ranAt - start) >= 50);
+        // it ran already
+        assertFalse(t.cancel());
+    }
+
+    public void testDelayOfSeveralRounds() throws Exception {
+        Task task = new Task();
+        long start = System.nanoTime();
+        wheel.schedule(task, 250, TimeUnit.MILLISECONDS);
+        assertTrue(task.ran.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(task.ranAt - start) >= 250);
+    }
+
+    public void testCancel() throws Exception {
+        Task task = new Task();
+        HashedTimerWheel.Timeout t = wheel.schedule(task, 50, TimeUnit.MILLISECONDS);
+        assertTrue(t.cancel());
+        assertFalse(t.cancel());
+        assertFalse(task.ran.await(300, TimeUnit.MILLISECONDS));
+    }
+
+    public void testCancelOnlyTheCancelledOnes() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(50);
+        Runnable task = new Runnable() {
+            public void run() {
+                count.incrementAndGet();
+                done.countDown();
+            }
+        };
+        HashedTimerWheel.Timeout[] timeouts = new HashedTimerWheel.Timeout[100];
+        for (int i = 0; i < timeouts.length; i++) {
+            timeouts[i] = wheel.schedule(task, 20 + i * 3, TimeUnit.MILLISECONDS);
+        }
+        for (int i = 0; i < timeouts.length; i += 2) {
+            assertTrue(timeouts[i].cancel());
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // none of the cancelled ones runs late
+        Thread.sleep(400);
+        assertEquals(50, count.get());
+    }
+
+    public void testDueTimeout() throws Exception {
+        Task task = new Task();
+        wheel.schedule(task, 0, TimeUnit.MILLISECONDS);
+        assertTrue(task.ran.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.async_client_transport;
+
+import com.sun.xml.ws.api.SOAPVersion;
+import com.sun.xml.ws.api.addressing.AddressingVersion;
+import com.sun.xml.ws.api.message.Headers;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Messages;
+
+import junit.framework.TestCase;
+
+import javax.xml.ws.WebServiceException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ResponseCorrelatorTest extends TestCase {
+
+    static final class Handler implements NonAnonymousResponseHandler<Message> {
+        final List<Message> received = new CopyOnWriteArrayList<Message>();
+        final List<Throwable> errors = new CopyOnWriteArrayList<Throwable>();
+        final CountDownLatch failed = new CountDownLatch(1);
+
+        public void onReceive(Message response) {
+            received.add(response);
+        }
+
+        public void onError(Throwable t) {
+            errors.add(t);
+            failed.countDown();
+        }
+    }
+
+    static Message response(String relatesTo) {
+        Message m = Messages.createEmpty(SOAPVersion.SOAP_11);
+        if (relatesTo != null) {
+            m.getHeaders().add(Headers.create(AddressingVersion.W3C.relatesToTag, relatesTo));
+        }
+        return m;
+    }
+
+    static ResponseCorrelator correlator(long responseTimeout, int maxPendingResponses) {
+        return new ResponseCorrelator(AddressingVersion.W3C, SOAPVersion.SOAP_11, responseTimeout, maxPendingResponses);
+    }
+
+    public void testResponseGoesToItsRequest() {
+        ResponseCorrelator c = correlator(0, 0);
+        Handler h1 = new Handler();
+        Handler h2 = new Handler();
+        c.register("m1", h1);
+        c.register("m2", h2);
+        assertEquals(2, c.getPendingCount());
+
+        Message response = response("m2");
+        assertTrue(c.deliver(response));
+        assertTrue(h1.received.isEmpty());
+        assertEquals(1, h2.received.size());
+        assertSame(response, h2.received.get(0));
+
+        assertEquals(1, c.getPendingCount());
+        assertEquals(2, c.getRegistered());
+        assertEquals(1, c.getCorrelated());
+    }
+
+    public void testDuplicateResponse() {
+        ResponseCorrelator c = correlator(0, 0);
+        Handler h = new Handler();
+        c.register("m1", h);
+        c.onReceive(response("m1"));
+        c.onReceive(response("m1"));
+        assertFalse(c.deliver(response("m1")));
+
+        assertEquals(1, h.received.size());
+        assertEquals(1, c.getCorrelated());
+        assertEquals(1, c.getUnexpected());
+    }
+
+    public void testResponseWithoutRelatesTo() {
+        ResponseCorrelator c = correlator(0, 0);
+        c.register("m1", new Handler());
+        assertFalse(c.deliver(response(null)));
+        assertEquals(1, c.getPendingCount());
+    }
+
+    public void testTimeout() throws Exception {
+        ResponseCorrelator c = correlator(200, 0);
+        Handler h = new Handler();
+        c.register("m1", h);
+        assertTrue(h.failed.await(5, TimeUnit.SECONDS));
+        assertTrue(h.errors.get(0) instanceof WebServiceException);
+        assertEquals(1, c.getTimedOut());
+        assertEquals(0, c.getPendingCount());
+
+        // the late response goes nowhere
+        c.onReceive(response("m1"));
+        assertTrue(h.received.isEmpty());
+        assertEquals(1, c.getUnexpected());
+        assertEquals(0, c.getCorrelated());
+
+        // the message id may be used again
+        c.register("m1", new Handler());
+        assertEquals(1, c.getPendingCount());
+    }
+
+    public void testResponseCancelsTheTimeout() throws Exception {
+        ResponseCorrelator c = correlator(200, 0);
+        Handler h = new Handler();
+        c.register("m1", h);
+        assertTrue(c.deliver(response("m1")));
+        assertFalse(h.failed.await(500, TimeUnit.MILLISECONDS));
+        assertEquals(0, c.getTimedOut());
+    }
+
+    public void testCancel() {
+        ResponseCorrelator c = correlator(0, 0);
+        Handler h = new Handler();
+        c.register("m1", h);
+        assertTrue(c.cancel("m1"));
+        assertFalse(c.cancel("m1"));
+        assertEquals(0, c.getPendingCount());
+
+        assertFalse(c.deliver(response("m1")));
+        assertTrue(h.received.isEmpty());
+        assertTrue(h.errors.isEmpty());
+    }
+
+    public void testCancelAll() {
+        ResponseCorrelator c = correlator(0, 0);
+        Handler h1 = new Handler();
+        Handler h2 = new Handler();
+        c.register("m1", h1);
+        c.register("m2", h2);
+        WebServiceException cause = new WebServiceException("closed");
+        c.cancelAll(cause);
+
+        assertSame(cause, h1.errors.get(0));
+        assertSame(cause, h2.errors.get(0));
+        assertEquals(0, c.getPendingCount());
+    }
+
+    public void testMaxPendingResponses() {
+        ResponseCorrelator c = correlator(0, 1);
+        c.register("m1", new Handler());
+        try {
+            c.register("m2", new Handler());
+            fail();
+        } catch (WebServiceException e) {
+            // expected
+        }
+        assertEquals(1, c.getRejected());
+        assertEquals(1, c.getPendingCount());
+
+        assertTrue(c.deliver(response("m1")));
+        c.register("m2", new Handler());
+        assertEquals(1, c.getPendingCount());
+    }
+
+    public void testSameMessageIdTwice() {
+        ResponseCorrelator c = correlator(0, 0);
+        Handler h = new Handler();
+        c.register("m1", h);
+        try {
+            c.register("m1", new Handler());
+            fail();
+        } catch (WebServiceException e) {
+            // expected
+        }
+        assertEquals(1, c.getPendingCount());
+        assertTrue(c.deliver(response("m1")));
+        assertEquals(1, h.received.size());
+    }
+}
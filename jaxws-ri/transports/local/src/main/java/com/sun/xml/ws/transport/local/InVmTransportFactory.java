@@ -52,11 +52,27 @@ import java.net.URI;
 /**
  * {@link TransportTubeFactory} that recognizes
  * "in-vm://<i>inVmServerId</i>[?<i>portLocalName</i>]".
+ *
+ * <p>
+ * With the "in-vm-direct" scheme, messages are handed over to the service
+ * without being encoded at all; see {@link InVmTransportTube}. The "in-vm"
+ * and "in-vm-async" schemes encode them as the HTTP transport would, so
+ * that as much of the server code as possible gets exercised.
  */
 public final class InVmTransportFactory extends TransportTubeFactory {
+    /**
+     * Request context property that, when set to {@link Boolean#TRUE} with the
+     * "in-vm-direct" scheme, lets the client and the service share the JAXB
+     * objects of the payloads instead of unmarshalling copies of them, where they
+     * bind a payload to the same class. Neither side may modify such objects
+     * once they have been sent.
+     */
+    public static final String JAXB_PASS_THROUGH = "com.sun.xml.ws.transport.local.jaxbPassThrough";
+
     public Tube doCreate(@NotNull ClientTubeAssemblerContext context) {
         URI adrs = context.getAddress().getURI();
-        if(!adrs.getScheme().equals("in-vm") && !adrs.getScheme().equals("in-vm-async"))
+        if(!adrs.getScheme().equals("in-vm") && !adrs.getScheme().equals("in-vm-async")
+                && !adrs.getScheme().equals("in-vm-direct"))
             return null;
 
         String serverId = adrs.getAuthority();
@@ -71,6 +87,9 @@ public final class InVmTransportFactory extends TransportTubeFactory {
         if(endpoint==null)
             throw new WebServiceException("No such port exists: "+adrs);
 
+        if(adrs.getScheme().equals("in-vm-direct"))
+            return new InVmTransportTube(adrs,endpoint);
+
         // maybe I should be passing in my custom adapter
         if(adrs.getScheme().equals("in-vm"))
             return new LocalTransportTube(adrs,endpoint,context.getCodec());
@@ -0,0 +1,169 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.local;
+
+import com.sun.istack.NotNull;
+import com.sun.istack.Nullable;
+import com.sun.xml.ws.api.message.Message;
+import com.sun.xml.ws.api.message.Packet;
+import com.sun.xml.ws.api.pipe.NextAction;
+import com.sun.xml.ws.api.pipe.Tube;
+import com.sun.xml.ws.api.pipe.TubeCloner;
+import com.sun.xml.ws.api.pipe.helper.AbstractTubeImpl;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.api.server.WebServiceContextDelegate;
+import com.sun.xml.ws.message.jaxb.JAXBMessage;
+
+import java.net.URI;
+import java.security.Principal;
+
+/**
+ * Transport {@link Tube} that hands a {@link Message} over to a service
+ * that runs in the same VM, without encoding it.
+ *
+ * <p>
+ * Unlike {@link LocalTransportTube}, which encodes the request into bytes and
+ * decodes it back through an {@link com.sun.xml.ws.transport.http.HttpAdapter},
+ * this tube gives the endpoint a new {@link Packet} with a copy of the request
+ * message, and runs it through the tubeline of the endpoint on the calling thread.
+ * The endpoint reads the payload straight from the object the client wrote it
+ * with, in memory. The response message comes back the same way; the endpoint is
+ * done with it, so it is not copied.
+ *
+ * <p>
+ * The copy keeps the endpoint from seeing the changes the client makes to its
+ * request afterwards and vice versa, except for the JAXB objects of the payload,
+ * which the copy shares and which are only read. With
+ * {@link InVmTransportFactory#JAXB_PASS_THROUGH}, the receiver of a message even
+ * gets those objects themselves instead of unmarshalling new ones, when it binds
+ * the payload to the same class.
+ *
+ * <p>
+ * There is no HTTP request, so HTTP headers and status codes set through the
+ * message context are not passed on.
+ */
+final class InVmTransportTube extends AbstractTubeImpl {
+
+    private final WSEndpoint endpoint;
+
+    /**
+     * Copy of the tubeline of the endpoint, used by this tube only.
+     */
+    private final WSEndpoint.PipeHead head;
+
+    /**
+     * The address of the endpoint.
+     */
+    private final URI baseURI;
+
+    public InVmTransportTube(URI baseURI, WSEndpoint endpoint) {
+        this.baseURI = baseURI;
+        this.endpoint = endpoint;
+        this.head = endpoint.createPipeHead();
+    }
+
+    /**
+     * Copy constructor for {@link Tube#copy(TubeCloner)}.
+     */
+    private InVmTransportTube(InVmTransportTube that, TubeCloner cloner) {
+        this(that.baseURI, that.endpoint);
+        cloner.add(that, this);
+    }
+
+    public @NotNull NextAction processException(@NotNull Throwable t) {
+        return doThrow(t);
+    }
+
+    public Packet process(Packet request) {
+        boolean passThrough = Boolean.TRUE.equals(request.invocationProperties.get(InVmTransportFactory.JAXB_PASS_THROUGH));
+
+        Message message = request.getInternalMessage();
+        Packet serverRequest = new Packet(message != null ? handOver(message.copy(), passThrough) : null);
+        serverRequest.soapAction = (request.soapAction != null) ? request.soapAction : "";
+        serverRequest.setState(Packet.State.ServerRequest);
+
+        Packet serverResponse = head.process(serverRequest, contextDelegate, null);
+
+        // not getMessage(), which would hide the JAXBMessage behind a wrapper
+        Message responseMessage = serverResponse.getInternalMessage();
+        return request.createClientResponse(responseMessage != null ? handOver(responseMessage, passThrough) : null);
+    }
+
+    private static Message handOver(Message message, boolean passThrough) {
+        return (passThrough && message instanceof JAXBMessage) ? new InVmMessage((JAXBMessage) message) : message;
+    }
+
+    @NotNull
+    public NextAction processRequest(@NotNull Packet request) {
+        return doReturnWith(process(request));
+    }
+
+    @NotNull
+    public NextAction processResponse(@NotNull Packet response) {
+        throw new IllegalStateException("InVmTransportTube's processResponse shouldn't be called.");
+    }
+
+    public void preDestroy() {
+        // Nothing to do here. Intentionally left empty
+    }
+
+    public InVmTransportTube copy(TubeCloner cloner) {
+        return new InVmTransportTube(this, cloner);
+    }
+
+    private final WebServiceContextDelegate contextDelegate = new WebServiceContextDelegate() {
+        public Principal getUserPrincipal(@NotNull Packet request) {
+            return null;
+        }
+
+        public boolean isUserInRole(@NotNull Packet request, String role) {
+            return false;
+        }
+
+        public @NotNull String getEPRAddress(@NotNull Packet request, @NotNull WSEndpoint endpoint) {
+            return baseURI.toString();
+        }
+
+        public @Nullable String getWSDLAddress(@NotNull Packet request, @NotNull WSEndpoint endpoint) {
+            return null;
+        }
+    };
+}
@@ -62,5 +62,10 @@
  * application by using {@link com.sun.xml.ws.transport.local.InVmServer},
  * {@link com.sun.xml.ws.transport.local.InVmServer#getAddress() obtain its address}, configure the JAX-WS RI
  * with that endpoint, then use that to talk to the running service.
+ *
+ * <p>
+ * The "in-vm" transport still encodes and decodes every message, as it is meant
+ * to test services. Use the "in-vm-direct" scheme instead for services of the same
+ * VM that talk to each other in production; messages are then handed over as objects.
  */
 package com.sun.xml.ws.transport.local;
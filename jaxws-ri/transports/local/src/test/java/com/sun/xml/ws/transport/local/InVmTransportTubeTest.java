@@ -0,0 +1,281 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package com.sun.xml.ws.transport.local;
+
+import com.sun.xml.ws.api.BindingID;
+import com.sun.xml.ws.api.WSBinding;
+import com.sun.xml.ws.api.server.DocumentAddressResolver;
+import com.sun.xml.ws.api.server.PortAddressResolver;
+import com.sun.xml.ws.api.server.SDDocument;
+import com.sun.xml.ws.api.server.ServiceDefinition;
+import com.sun.xml.ws.api.server.WSEndpoint;
+import com.sun.xml.ws.binding.BindingImpl;
+
+import junit.framework.TestCase;
+
+import javax.jws.Oneway;
+import javax.jws.WebService;
+import javax.jws.soap.SOAPBinding;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.namespace.QName;
+import javax.xml.ws.BindingProvider;
+import javax.xml.ws.Service;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.WebServiceFeature;
+import javax.xml.ws.soap.SOAPFaultException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.xml.sax.EntityResolver;
+
+/**
+ * Calls an endpoint over the "in-vm-direct" scheme, which hands messages
+ * over without encoding them.
+ */
+public class InVmTransportTubeTest extends TestCase {
+
+    private static final String NS = "urn:test:invm";
+    private static final QName SERVICE_NAME = new QName(NS, "EchoService");
+    private static final QName PORT_NAME = new QName(NS, "EchoPort");
+
+    /**
+     * Each test deploys its own {@link InVmServer}, and the IDs must not clash.
+     */
+    private static final AtomicInteger SERVER_IDS = new AtomicInteger();
+
+    @XmlRootElement(namespace = NS)
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class Item {
+        public List<String> entries = new ArrayList<String>();
+    }
+
+    @WebService(name = "Echo", targetNamespace = NS)
+    public interface Echo {
+
+        Item echoItem(Item item);
+
+        @SOAPBinding(parameterStyle = SOAPBinding.ParameterStyle.BARE)
+        Item echoBare(Item item);
+
+        String fail(String message);
+
+        @Oneway
+        void notify(String value);
+    }
+
+    @WebService(endpointInterface = "com.sun.xml.ws.transport.local.InVmTransportTubeTest$Echo",
+            serviceName = "EchoService", portName = "EchoPort", targetNamespace = NS)
+    public static class EchoImpl implements Echo {
+
+        /**
+         * The last item the endpoint received.
+         */
+        static volatile Item received;
+        static volatile String notified;
+
+        public Item echoItem(Item item) {
+            received = item;
+            item.entries.add("server");
+            return item;
+        }
+
+        public Item echoBare(Item item) {
+            received = item;
+            return item;
+        }
+
+        public String fail(String message) {
+            throw new WebServiceException(message);
+        }
+
+        public void notify(String value) {
+            notified = value;
+        }
+    }
+
+    private InVmServer server;
+    private Echo port;
+
+    @Override
+    protected void setUp() throws Exception {
+        EchoImpl.received = null;
+        EchoImpl.notified = null;
+
+        WSBinding binding = BindingImpl.create(BindingID.SOAP11_HTTP, new WebServiceFeature[0]);
+        WSEndpoint<EchoImpl> endpoint = WSEndpoint.create(EchoImpl.class, false, null, null, null, null, binding,
+                null, null, (EntityResolver) null, true);
+        String id = "invm-direct" + SERVER_IDS.incrementAndGet();
+        server = new InVmServer(id, Collections.<WSEndpoint>singletonList(endpoint));
+
+        String address = "in-vm-direct://" + id + "/";
+        Service service = Service.create(publishWsdl(endpoint, address), SERVICE_NAME);
+        port = service.getPort(PORT_NAME, Echo.class);
+    }
+
+    /**
+     * Writes the generated WSDL and schemas of the endpoint into a temporary
+     * directory, since the in-VM server doesn't serve metadata.
+     *
+     * @return
+     *      the location of the primary WSDL.
+     */
+    private static URL publishWsdl(WSEndpoint<?> endpoint, final String address) throws IOException {
+        ServiceDefinition sd = endpoint.getServiceDefinition();
+        File dir = File.createTempFile("jaxws-invm", "");
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException("Unable to create " + dir);
+        }
+        dir.deleteOnExit();
+
+        final Map<SDDocument, String> names = new HashMap<SDDocument, String>();
+        for (SDDocument doc : sd) {
+            names.put(doc, "doc" + names.size() + (doc.isWSDL() ? ".wsdl" : ".xsd"));
+        }
+        PortAddressResolver par = new PortAddressResolver() {
+            @Override
+            public String getAddressFor(QName serviceName, String portName) {
+                return address;
+            }
+        };
+        DocumentAddressResolver dar = new DocumentAddressResolver() {
+            public String getRelativeAddressFor(SDDocument current, SDDocument referenced) {
+                return names.get(referenced);
+            }
+        };
+        for (Map.Entry<SDDocument, String> e : names.entrySet()) {
+            File f = new File(dir, e.getValue());
+            f.deleteOnExit();
+            OutputStream os = new FileOutputStream(f);
+            try {
+                e.getKey().writeTo(par, dar, os);
+            } finally {
+                os.close();
+            }
+        }
+        return new File(dir, names.get(sd.getPrimary())).toURI().toURL();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        // also disposes the endpoint
+        server.undeploy();
+    }
+
+    private static Item item(String... entries) {
+        Item item = new Item();
+        item.entries.addAll(Arrays.asList(entries));
+        return item;
+    }
+
+    public void testEcho() {
+        Item response = port.echoItem(item("a", "b"));
+        assertEquals(Arrays.asList("a", "b", "server"), response.entries);
+    }
+
+    public void testChangesOfTheEndpointAreNotSeenByTheClient() {
+        Item request = item("client");
+        Item response = port.echoItem(request);
+
+        assertNotSame(request, EchoImpl.received);
+        assertNotSame(request, response);
+        assertEquals(Collections.singletonList("client"), request.entries);
+        assertEquals(Arrays.asList("client", "server"), response.entries);
+
+        // nor the other way around
+        request.entries.add("later");
+        assertEquals(Arrays.asList("client", "server"), EchoImpl.received.entries);
+    }
+
+    public void testBarePayloadsAreCopiedByDefault() {
+        Item request = item("client");
+        Item response = port.echoBare(request);
+
+        assertNotSame(request, EchoImpl.received);
+        assertNotSame(EchoImpl.received, response);
+        assertEquals(Collections.singletonList("client"), response.entries);
+    }
+
+    public void testPassThroughSharesBarePayloads() {
+        ((BindingProvider) port).getRequestContext().put(InVmTransportFactory.JAXB_PASS_THROUGH, Boolean.TRUE);
+        Item request = item("client");
+        Item response = port.echoBare(request);
+
+        assertSame(request, EchoImpl.received);
+        assertSame(request, response);
+    }
+
+    public void testPassThroughStillCopiesWrappedPayloads() {
+        ((BindingProvider) port).getRequestContext().put(InVmTransportFactory.JAXB_PASS_THROUGH, Boolean.TRUE);
+        Item request = item("client");
+        Item response = port.echoItem(request);
+
+        assertNotSame(request, EchoImpl.received);
+        assertEquals(Collections.singletonList("client"), request.entries);
+        assertEquals(Arrays.asList("client", "server"), response.entries);
+    }
+
+    public void testFault() {
+        try {
+            port.fail("boom");
+            fail();
+        } catch (SOAPFaultException e) {
+            assertEquals("boom", e.getFault().getFaultString());
+        }
+    }
+
+    public void testOneWay() {
+        port.notify("ping");
+        // the endpoint runs on the calling thread
+        assertEquals("ping", EchoImpl.notified);
+        assertEquals(Collections.singletonList("a"), port.echoBare(item("a")).entries);
+    }
+}